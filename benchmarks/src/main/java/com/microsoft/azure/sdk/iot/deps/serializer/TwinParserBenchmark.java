@@ -0,0 +1,86 @@
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+
+package com.microsoft.azure.sdk.iot.deps.serializer;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the twin serialization and patch parsing that devices run for each twin operation: serializing the twin,
+ * serializing a reported properties update, and applying a full twin document or a desired properties patch.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TwinParserBenchmark
+{
+    @Param({"4", "64"})
+    public int propertyCount;
+
+    private TwinParser twinParser;
+    private Map<String, Object> reportedProperties;
+    private String twinJson;
+    private String desiredPatchJson;
+    private int nextReportedValue;
+
+    @Setup
+    public void setup()
+    {
+        StringBuilder desired = new StringBuilder("{");
+        this.reportedProperties = new HashMap<>();
+        for (int i = 0; i < this.propertyCount; i++)
+        {
+            if (i > 0)
+            {
+                desired.append(',');
+            }
+            desired.append("\"desired").append(i).append("\":{\"value\":").append(i).append(",\"unit\":\"celsius\"}");
+            this.reportedProperties.put("reported" + i, i);
+        }
+        desired.append(",\"$version\":5}");
+
+        this.twinJson = "{\"properties\":{\"desired\":" + desired + ",\"reported\":{\"$version\":3}}}";
+        this.desiredPatchJson = desired.toString();
+
+        this.twinParser = new TwinParser();
+        this.twinParser.updateTwin(this.twinJson);
+        this.twinParser.updateReportedProperty(this.reportedProperties);
+    }
+
+    @Benchmark
+    public String toJson()
+    {
+        return this.twinParser.toJson();
+    }
+
+    @Benchmark
+    public String updateReportedProperty()
+    {
+        // A different value each time, since only the changed properties are serialized
+        this.reportedProperties.put("reported0", this.nextReportedValue++);
+        return this.twinParser.updateReportedProperty(this.reportedProperties);
+    }
+
+    @Benchmark
+    public void updateTwin(Blackhole blackhole)
+    {
+        TwinParser parser = new TwinParser();
+        parser.updateTwin(this.twinJson);
+        blackhole.consume(parser);
+    }
+
+    @Benchmark
+    public void updateDesiredProperty(Blackhole blackhole)
+    {
+        this.twinParser.updateDesiredProperty(this.desiredPatchJson);
+        blackhole.consume(this.twinParser);
+    }
+}
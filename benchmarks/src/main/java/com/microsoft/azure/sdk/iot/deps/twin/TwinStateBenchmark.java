@@ -0,0 +1,56 @@
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+
+package com.microsoft.azure.sdk.iot.deps.twin;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures serializing a {@link TwinState} and creating one from a twin document, as the service client does for
+ * each twin it reads or updates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TwinStateBenchmark
+{
+    @Param({"4", "64"})
+    public int propertyCount;
+
+    private TwinState twinState;
+    private String twinJson;
+
+    @Setup
+    public void setup()
+    {
+        TwinCollection tags = new TwinCollection();
+        TwinCollection desired = new TwinCollection();
+        TwinCollection reported = new TwinCollection();
+        for (int i = 0; i < this.propertyCount; i++)
+        {
+            tags.put("tag" + i, "value " + i);
+            desired.put("desired" + i, i);
+            reported.put("reported" + i, (double) i / 2);
+        }
+
+        this.twinState = new TwinState(tags, desired, reported);
+        this.twinJson = this.twinState.toString();
+    }
+
+    @Benchmark
+    public String serialize()
+    {
+        return this.twinState.toJsonElement().toString();
+    }
+
+    @Benchmark
+    public TwinState createFromTwinJson()
+    {
+        return TwinState.createFromTwinJson(this.twinJson);
+    }
+}
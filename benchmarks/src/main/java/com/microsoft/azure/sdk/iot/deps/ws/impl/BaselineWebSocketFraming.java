@@ -0,0 +1,73 @@
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+
+package com.microsoft.azure.sdk.iot.deps.ws.impl;
+
+import com.microsoft.azure.sdk.iot.deps.ws.WebSocketHeader;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.Random;
+
+/**
+ * The WebSocket framing as it was implemented before the masking was done a long at a time, kept as the baseline that
+ * {@link WebSocketFramingBenchmark} compares the current implementation against.
+ */
+final class BaselineWebSocketFraming
+{
+    private BaselineWebSocketFraming()
+    {
+    }
+
+    /**
+     * Frame and mask the source buffer with a new SecureRandom per frame, one byte at a time, through an intermediate
+     * array.
+     */
+    static void wrapBuffer(ByteBuffer srcBuffer, ByteBuffer dstBuffer)
+    {
+        final byte[] maskingKey = new byte[4];
+        Random random = new SecureRandom();
+        random.nextBytes(maskingKey);
+
+        final int dataLength = srcBuffer.remaining();
+        ByteArrayOutputStream webSocketFrame = new ByteArrayOutputStream(WebSocketHeader.MIN_HEADER_LENGTH_MASKED + dataLength);
+
+        webSocketFrame.write((byte) (WebSocketHeader.FINBIT_MASK | WebSocketHeader.OPCODE_BINARY));
+        if (dataLength <= WebSocketHeader.PAYLOAD_SHORT_MAX)
+        {
+            webSocketFrame.write((byte) (WebSocketHeader.MASKBIT_MASK | dataLength));
+        }
+        else
+        {
+            webSocketFrame.write((byte) (WebSocketHeader.MASKBIT_MASK | WebSocketHeader.PAYLOAD_EXTENDED_16));
+            webSocketFrame.write((byte) (dataLength >>> 8));
+            webSocketFrame.write((byte) (dataLength));
+        }
+
+        webSocketFrame.write(maskingKey[0]);
+        webSocketFrame.write(maskingKey[1]);
+        webSocketFrame.write(maskingKey[2]);
+        webSocketFrame.write(maskingKey[3]);
+
+        for (int i = 0; i < dataLength; i++)
+        {
+            byte nextByte = srcBuffer.get();
+            nextByte ^= maskingKey[i % 4];
+            webSocketFrame.write(nextByte);
+        }
+
+        dstBuffer.clear();
+        dstBuffer.put(webSocketFrame.toByteArray());
+    }
+
+    /**
+     * Move the payload of an inbound frame from one buffer to the other through a temporary array.
+     */
+    static void copyFramePayload(ByteBuffer srcBuffer, ByteBuffer dstBuffer, int length)
+    {
+        final byte[] data = new byte[length];
+        srcBuffer.get(data, 0, length);
+        dstBuffer.put(data);
+    }
+}
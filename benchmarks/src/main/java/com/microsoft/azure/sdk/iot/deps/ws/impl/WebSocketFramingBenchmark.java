@@ -0,0 +1,107 @@
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+
+package com.microsoft.azure.sdk.iot.deps.ws.impl;
+
+import com.microsoft.azure.sdk.iot.deps.ws.WebSocketHandler;
+import com.microsoft.azure.sdk.iot.deps.ws.WebSocketHeader;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the WebSocket framing that AMQPS_WS traffic goes through: masking and framing an outbound AMQP frame,
+ * reading the header of an inbound frame, and moving the payload of an inbound frame to the AMQP input buffer.
+ *
+ * The "baseline" benchmarks run the previous implementation from {@link BaselineWebSocketFraming}, which created a
+ * SecureRandom per frame, masked one byte at a time and copied through temporary arrays.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WebSocketFramingBenchmark
+{
+    @Param({"64", "1024", "16384"})
+    public int payloadSize;
+
+    private WebSocketHandlerImpl webSocketHandler;
+    private ByteBuffer payload;
+    private ByteBuffer frame;
+    private ByteBuffer inboundFrame;
+    private ByteBuffer inboundPayload;
+
+    @Setup
+    public void setup()
+    {
+        this.webSocketHandler = new WebSocketHandlerImpl();
+        this.payload = ByteBuffer.allocate(this.payloadSize);
+        this.frame = ByteBuffer.allocate(this.payloadSize + WebSocketHeader.MAX_HEADER_LENGTH_MASKED);
+
+        // An unmasked binary frame, as the service sends them
+        this.inboundFrame = ByteBuffer.allocate(this.payloadSize + WebSocketHeader.MAX_HEADER_LENGTH_MASKED);
+        this.inboundFrame.put((byte) (WebSocketHeader.FINBIT_MASK | WebSocketHeader.OPCODE_BINARY));
+        if (this.payloadSize <= WebSocketHeader.PAYLOAD_SHORT_MAX)
+        {
+            this.inboundFrame.put((byte) this.payloadSize);
+        }
+        else
+        {
+            this.inboundFrame.put(WebSocketHeader.PAYLOAD_EXTENDED_16);
+            this.inboundFrame.putShort((short) this.payloadSize);
+        }
+        this.inboundFrame.put(new byte[this.payloadSize]);
+        this.inboundFrame.flip();
+        this.inboundPayload = ByteBuffer.allocate(this.payloadSize);
+    }
+
+    @Benchmark
+    public ByteBuffer wrapBuffer()
+    {
+        this.payload.clear();
+        this.webSocketHandler.wrapBuffer(this.payload, this.frame);
+        return this.frame;
+    }
+
+    @Benchmark
+    public ByteBuffer wrapBufferBaseline()
+    {
+        this.payload.clear();
+        BaselineWebSocketFraming.wrapBuffer(this.payload, this.frame);
+        return this.frame;
+    }
+
+    @Benchmark
+    public ByteBuffer copyFramePayload()
+    {
+        // The same buffer to buffer copy as WebSocketImpl's CONTINUED_FRAME_READ state
+        this.inboundFrame.position(this.inboundFrame.limit() - this.payloadSize);
+        this.inboundPayload.clear();
+
+        final int frameLimit = this.inboundFrame.limit();
+        this.inboundFrame.limit(this.inboundFrame.position() + this.payloadSize);
+        this.inboundPayload.put(this.inboundFrame);
+        this.inboundFrame.limit(frameLimit);
+        return this.inboundPayload;
+    }
+
+    @Benchmark
+    public ByteBuffer copyFramePayloadBaseline()
+    {
+        this.inboundFrame.position(this.inboundFrame.limit() - this.payloadSize);
+        this.inboundPayload.clear();
+
+        BaselineWebSocketFraming.copyFramePayload(this.inboundFrame, this.inboundPayload, this.payloadSize);
+        return this.inboundPayload;
+    }
+
+    @Benchmark
+    public WebSocketHandler.WebsocketTuple unwrapBuffer()
+    {
+        this.inboundFrame.rewind();
+        return this.webSocketHandler.unwrapBuffer(this.inboundFrame);
+    }
+}
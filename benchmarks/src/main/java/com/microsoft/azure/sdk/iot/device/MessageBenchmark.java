@@ -0,0 +1,49 @@
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+
+package com.microsoft.azure.sdk.iot.device;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of creating a telemetry message, with and without the system and application properties that are
+ * typically set on it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MessageBenchmark
+{
+    @Param({"16", "1024"})
+    public int payloadSize;
+
+    private byte[] payload;
+
+    @Setup
+    public void setup()
+    {
+        this.payload = new byte[this.payloadSize];
+    }
+
+    @Benchmark
+    public Message construct()
+    {
+        return new Message(this.payload);
+    }
+
+    @Benchmark
+    public Message constructWithProperties()
+    {
+        Message message = new Message(this.payload);
+        message.setContentType("application/json");
+        message.setContentEncoding("utf-8");
+        message.setProperty("temperatureAlert", "false");
+        message.setProperty("sensor", "thermostat 1");
+        return message;
+    }
+}
@@ -0,0 +1,36 @@
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+
+package com.microsoft.azure.sdk.iot.device.auth;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures generating a device SAS token from a device key, which includes building the resource uri and computing
+ * the HMAC-SHA256 signature.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IotHubSasTokenBenchmark
+{
+    private static final String HOST_NAME = "benchmark-hub.azure-devices.net";
+    private static final String DEVICE_ID = "benchmarkDevice";
+    private static final String DEVICE_KEY = "AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA=";
+
+    @Param({"", "benchmarkModule"})
+    public String moduleId;
+
+    @Benchmark
+    public String generateDeviceSasToken()
+    {
+        long expiryTime = System.currentTimeMillis() / 1000 + 3600;
+        String moduleId = this.moduleId.isEmpty() ? null : this.moduleId;
+        return new IotHubSasToken(HOST_NAME, DEVICE_ID, DEVICE_KEY, null, moduleId, expiryTime).toString();
+    }
+}
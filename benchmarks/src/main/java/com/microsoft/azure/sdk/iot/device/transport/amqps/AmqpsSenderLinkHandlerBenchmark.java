@@ -0,0 +1,81 @@
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+
+package com.microsoft.azure.sdk.iot.device.transport.amqps;
+
+import com.microsoft.azure.sdk.iot.deps.transport.amqp.AmqpMessageEncoder;
+import com.microsoft.azure.sdk.iot.device.DeviceClientConfig;
+import com.microsoft.azure.sdk.iot.device.IotHubConnectionString;
+import com.microsoft.azure.sdk.iot.device.Message;
+import org.apache.qpid.proton.Proton;
+import org.apache.qpid.proton.engine.Sender;
+import org.apache.qpid.proton.message.impl.MessageImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.BufferOverflowException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures converting a telemetry message to a proton message and encoding it, which is the work that
+ * AmqpsSenderLinkHandler does for each message before handing the bytes to proton. The encoding through the link's
+ * reusable {@link AmqpMessageEncoder} is compared against encoding into a new buffer that is doubled until the message
+ * fits, which is what the sender links used to do. The sender link is created on an unopened in memory connection.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AmqpsSenderLinkHandlerBenchmark
+{
+    private static final String CONNECTION_STRING = "HostName=benchmark-hub.azure-devices.net;DeviceId=benchmarkDevice;SharedAccessKey=AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA=";
+
+    @Param({"16", "4096", "65536"})
+    public int payloadSize;
+
+    private AmqpsTelemetrySenderLinkHandler senderLinkHandler;
+    private AmqpMessageEncoder messageEncoder;
+    private Message message;
+
+    @Setup
+    public void setup() throws Exception
+    {
+        Sender sender = Proton.connection().session().sender("benchmark");
+        DeviceClientConfig config = new DeviceClientConfig(new IotHubConnectionString(CONNECTION_STRING));
+        this.senderLinkHandler = new AmqpsTelemetrySenderLinkHandler(sender, null, config, "benchmark");
+        this.messageEncoder = new AmqpMessageEncoder();
+
+        this.message = new Message(new byte[this.payloadSize]);
+        this.message.setMessageId("6b2e3c9a-41d0-4a3c-8d7e-3f6a2b1c0d9e");
+        this.message.setContentType("application/json");
+        this.message.setProperty("alert", "true");
+        this.message.setProperty("sensor", "thermostat 1");
+    }
+
+    @Benchmark
+    public int convertAndEncode()
+    {
+        MessageImpl protonMessage = this.senderLinkHandler.iotHubMessageToProtonMessage(this.message);
+        return this.messageEncoder.encode(protonMessage);
+    }
+
+    @Benchmark
+    public int convertAndEncodeLegacy()
+    {
+        MessageImpl protonMessage = this.senderLinkHandler.iotHubMessageToProtonMessage(this.message);
+
+        byte[] buffer = new byte[1024];
+        while (true)
+        {
+            try
+            {
+                return protonMessage.encode(buffer, 0, buffer.length);
+            }
+            catch (BufferOverflowException e)
+            {
+                buffer = new byte[buffer.length * 2];
+            }
+        }
+    }
+}
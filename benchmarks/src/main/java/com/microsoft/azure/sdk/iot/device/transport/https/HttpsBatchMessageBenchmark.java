@@ -0,0 +1,58 @@
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+
+package com.microsoft.azure.sdk.iot.device.transport.https;
+
+import com.microsoft.azure.sdk.iot.device.Message;
+import com.microsoft.azure.sdk.iot.device.exceptions.IotHubSizeExceededException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building an HTTPS batch body by adding messages to it, including the base64 encoding of the bodies and the
+ * serialization of their properties.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HttpsBatchMessageBenchmark
+{
+    // The largest batch has to stay under the size limit of a batch, once the bodies are base64 encoded
+    @Param({"1", "32", "128"})
+    public int messageCount;
+
+    @Param({"64", "1024"})
+    public int payloadSize;
+
+    private HttpsSingleMessage[] messages;
+
+    @Setup
+    public void setup()
+    {
+        this.messages = new HttpsSingleMessage[this.messageCount];
+        for (int i = 0; i < this.messageCount; i++)
+        {
+            Message message = new Message(new byte[this.payloadSize]);
+            message.setMessageId("message-" + i);
+            message.setProperty("alert", "true");
+            message.setProperty("sensor", "thermostat \"1\"");
+            this.messages[i] = HttpsSingleMessage.parseHttpsMessage(message);
+        }
+    }
+
+    @Benchmark
+    public byte[] addMessages() throws IotHubSizeExceededException
+    {
+        HttpsBatchMessage batchMessage = new HttpsBatchMessage();
+        for (HttpsSingleMessage message : this.messages)
+        {
+            batchMessage.addMessage(message);
+        }
+
+        return batchMessage.getBody();
+    }
+}
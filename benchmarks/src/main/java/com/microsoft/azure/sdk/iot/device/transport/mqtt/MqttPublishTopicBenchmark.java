@@ -0,0 +1,111 @@
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+
+package com.microsoft.azure.sdk.iot.device.transport.mqtt;
+
+import com.microsoft.azure.sdk.iot.device.Message;
+import com.microsoft.azure.sdk.iot.device.MessageProperty;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static com.microsoft.azure.sdk.iot.device.transport.mqtt.Mqtt.*;
+
+/**
+ * Compares building the telemetry publish topic with {@link MqttPublishTopicBuilder}, as MqttMessaging.send does,
+ * against the StringBuilder and URLEncoder based approach that it replaced.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MqttPublishTopicBenchmark
+{
+    private static final String PUBLISH_TOPIC = "devices/benchmarkDevice/messages/events/";
+
+    @Param({"0", "4", "16"})
+    public int applicationPropertyCount;
+
+    private Message message;
+    private MqttPublishTopicBuilder topicBuilder;
+
+    @Setup
+    public void setup()
+    {
+        this.message = new Message(new byte[16]);
+        this.message.setMessageId("6b2e3c9a-41d0-4a3c-8d7e-3f6a2b1c0d9e");
+        this.message.setContentType("application/json");
+        this.message.setContentEncoding("utf-8");
+        for (int i = 0; i < this.applicationPropertyCount; i++)
+        {
+            this.message.setProperty("property " + i, "value " + i);
+        }
+
+        this.topicBuilder = new MqttPublishTopicBuilder(PUBLISH_TOPIC, false);
+    }
+
+    @Benchmark
+    public String topicBuilder()
+    {
+        return this.topicBuilder.build(this.message);
+    }
+
+    @Benchmark
+    public String legacy() throws UnsupportedEncodingException
+    {
+        StringBuilder stringBuilder = new StringBuilder();
+        stringBuilder.append(PUBLISH_TOPIC);
+
+        boolean separatorNeeded = false;
+        separatorNeeded = legacyAppend(stringBuilder, separatorNeeded, MESSAGE_ID, this.message.getMessageId(), false);
+        separatorNeeded = legacyAppend(stringBuilder, separatorNeeded, CORRELATION_ID, this.message.getCorrelationId(), false);
+        separatorNeeded = legacyAppend(stringBuilder, separatorNeeded, USER_ID, this.message.getUserId(), false);
+        separatorNeeded = legacyAppend(stringBuilder, separatorNeeded, TO, this.message.getTo(), false);
+        separatorNeeded = legacyAppend(stringBuilder, separatorNeeded, OUTPUT_NAME, this.message.getOutputName(), false);
+        separatorNeeded = legacyAppend(stringBuilder, separatorNeeded, CONNECTION_DEVICE_ID, this.message.getConnectionDeviceId(), false);
+        separatorNeeded = legacyAppend(stringBuilder, separatorNeeded, CONNECTION_MODULE_ID, this.message.getConnectionModuleId(), false);
+        separatorNeeded = legacyAppend(stringBuilder, separatorNeeded, CONTENT_ENCODING, this.message.getContentEncoding(), false);
+        separatorNeeded = legacyAppend(stringBuilder, separatorNeeded, CONTENT_TYPE, this.message.getContentType(), false);
+        separatorNeeded = legacyAppend(stringBuilder, separatorNeeded, CREATION_TIME_UTC, this.message.getCreationTimeUTCString(), false);
+
+        for (MessageProperty property : this.message.getProperties())
+        {
+            separatorNeeded = legacyAppend(stringBuilder, separatorNeeded, property.getName(), property.getValue(), true);
+        }
+
+        return stringBuilder.toString();
+    }
+
+    // The property encoding that MqttMessaging used before MqttPublishTopicBuilder
+    private static boolean legacyAppend(StringBuilder stringBuilder, boolean separatorNeeded, String propertyKey, String propertyValue, boolean isApplicationProperty) throws UnsupportedEncodingException
+    {
+        if (propertyValue != null && !propertyValue.isEmpty())
+        {
+            if (separatorNeeded)
+            {
+                stringBuilder.append(MESSAGE_PROPERTY_SEPARATOR);
+            }
+
+            if (isApplicationProperty)
+            {
+                stringBuilder.append(URLEncoder.encode(propertyKey, StandardCharsets.UTF_8.name()).replaceAll("\\+", "%20"));
+            }
+            else
+            {
+                stringBuilder.append(propertyKey);
+            }
+
+            stringBuilder.append(MESSAGE_PROPERTY_KEY_VALUE_SEPARATOR);
+            stringBuilder.append(URLEncoder.encode(propertyValue, StandardCharsets.UTF_8.name()).replaceAll("\\+", "%20"));
+
+            return true;
+        }
+
+        return separatorNeeded;
+    }
+}
@@ -0,0 +1,54 @@
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+
+package com.microsoft.azure.sdk.iot.device.transport.mqtt;
+
+import com.microsoft.azure.sdk.iot.device.Message;
+import com.microsoft.azure.sdk.iot.device.exceptions.TransportException;
+import com.microsoft.azure.sdk.iot.device.transport.IotHubTransportMessage;
+import org.eclipse.paho.client.mqttv3.MqttMessage;
+import org.openjdk.jmh.annotations.*;
+
+import javax.net.ssl.SSLContext;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures turning a received cloud to device publish into a message, i.e. Mqtt.messageArrived followed by
+ * MqttMessaging.receive, which runs Mqtt.constructMessage. The MQTT connection is created but never opened, so nothing
+ * goes over the network.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MqttReceiveBenchmark
+{
+    private static final String DEVICE_ID = "benchmarkDevice";
+
+    @Param({
+        "devices/benchmarkDevice/messages/devicebound/%24.mid=6b2e3c9a-41d0-4a3c-8d7e-3f6a2b1c0d9e&%24.to=%2Fdevices%2FbenchmarkDevice%2Fmessages%2FdeviceBound",
+        "devices/benchmarkDevice/messages/devicebound/%24.mid=6b2e3c9a-41d0-4a3c-8d7e-3f6a2b1c0d9e&%24.to=%2Fdevices%2FbenchmarkDevice%2Fmessages%2FdeviceBound&%24.ct=application%2Fjson&%24.ce=utf-8&iothub-ack=full&alert=true&sensor=thermostat%201"
+    })
+    public String topic;
+
+    private MqttMessaging mqttMessaging;
+    private MqttMessage mqttMessage;
+
+    @Setup
+    public void setup() throws Exception
+    {
+        MqttConnection mqttConnection = new MqttConnection("ssl://localhost:8883", DEVICE_ID, "localhost/" + DEVICE_ID, null, SSLContext.getDefault(), null);
+        this.mqttMessaging = new MqttMessaging(mqttConnection, DEVICE_ID, null, null, "", null, false, new ConcurrentHashMap<Integer, Message>());
+        this.mqttMessage = new MqttMessage(new byte[256]);
+    }
+
+    @Benchmark
+    public IotHubTransportMessage messageArrivedAndReceive() throws TransportException
+    {
+        this.mqttMessaging.messageArrived(this.topic, this.mqttMessage);
+        return this.mqttMessaging.receive();
+    }
+}
@@ -0,0 +1,97 @@
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+
+package com.microsoft.azure.sdk.iot.device.transport.mqtt;
+
+import com.microsoft.azure.sdk.iot.device.exceptions.TransportException;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link MqttTopicParser} against the split based {@link TopicParser} and property parsing for the twin,
+ * method and cloud to device topics that the device receives.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MqttTopicParserBenchmark
+{
+    private static final String TWIN_RESPONSE_TOPIC = "$iothub/twin/res/200/?$rid=42&$version=17";
+    private static final String METHOD_TOPIC = "$iothub/methods/POST/reboot/?$rid=7";
+    private static final String C2D_PROPERTIES =
+        "%24.mid=6b2e3c9a-41d0-4a3c-8d7e-3f6a2b1c0d9e&%24.to=%2Fdevices%2FbenchmarkDevice%2Fmessages%2FdeviceBound"
+            + "&%24.ct=application%2Fjson&%24.ce=utf-8&iothub-ack=full&alert=true&sensor=thermostat%201";
+
+    @Benchmark
+    public void twinResponseTopicParser(Blackhole blackhole) throws TransportException
+    {
+        TopicParser topicParser = new TopicParser(TWIN_RESPONSE_TOPIC);
+        blackhole.consume(topicParser.getStatus(3));
+        blackhole.consume(topicParser.getRequestId(4));
+        blackhole.consume(topicParser.getVersion(4));
+    }
+
+    @Benchmark
+    public void twinResponseMqttTopicParser(Blackhole blackhole)
+    {
+        blackhole.consume(MqttTopicParser.getToken(TWIN_RESPONSE_TOPIC, 3));
+        blackhole.consume(MqttTopicParser.getQueryParameter(TWIN_RESPONSE_TOPIC, MqttTopicParser.REQUEST_ID_KEY));
+        blackhole.consume(MqttTopicParser.getQueryParameter(TWIN_RESPONSE_TOPIC, MqttTopicParser.VERSION_KEY));
+    }
+
+    @Benchmark
+    public void methodTopicParser(Blackhole blackhole) throws TransportException
+    {
+        TopicParser topicParser = new TopicParser(METHOD_TOPIC);
+        blackhole.consume(topicParser.getMethodName(3));
+        blackhole.consume(topicParser.getRequestId(4));
+    }
+
+    @Benchmark
+    public void methodMqttTopicParser(Blackhole blackhole)
+    {
+        blackhole.consume(MqttTopicParser.getToken(METHOD_TOPIC, 3));
+        blackhole.consume(MqttTopicParser.getQueryParameter(METHOD_TOPIC, MqttTopicParser.REQUEST_ID_KEY));
+    }
+
+    @Benchmark
+    public void c2dPropertiesSplit(Blackhole blackhole) throws UnsupportedEncodingException
+    {
+        // The property parsing that Mqtt.assignPropertiesToMessage did before MqttTopicParser
+        for (String propertyString : C2D_PROPERTIES.split(String.valueOf(Mqtt.MESSAGE_PROPERTY_SEPARATOR)))
+        {
+            String key = propertyString.split("=")[0];
+            String value = propertyString.split("=")[1];
+            blackhole.consume(URLDecoder.decode(key, StandardCharsets.UTF_8.name()));
+            blackhole.consume(URLDecoder.decode(value, StandardCharsets.UTF_8.name()));
+        }
+    }
+
+    @Benchmark
+    public void c2dPropertiesInPlace(Blackhole blackhole)
+    {
+        int propertyStart = 0;
+        int length = C2D_PROPERTIES.length();
+        while (propertyStart < length)
+        {
+            int propertyEnd = C2D_PROPERTIES.indexOf(Mqtt.MESSAGE_PROPERTY_SEPARATOR, propertyStart);
+            if (propertyEnd == -1)
+            {
+                propertyEnd = length;
+            }
+
+            int keyEnd = C2D_PROPERTIES.indexOf(Mqtt.MESSAGE_PROPERTY_KEY_VALUE_SEPARATOR, propertyStart);
+            blackhole.consume(MqttTopicParser.urlDecode(C2D_PROPERTIES, propertyStart, keyEnd));
+            blackhole.consume(MqttTopicParser.urlDecode(C2D_PROPERTIES, keyEnd + 1, propertyEnd));
+            propertyStart = propertyEnd + 1;
+        }
+    }
+}
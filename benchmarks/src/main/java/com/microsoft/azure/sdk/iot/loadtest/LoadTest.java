@@ -0,0 +1,199 @@
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+
+package com.microsoft.azure.sdk.iot.loadtest;
+
+import com.microsoft.azure.sdk.iot.device.IotHubClientProtocol;
+import com.microsoft.azure.sdk.iot.device.TransportClient;
+import org.HdrHistogram.Recorder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the telemetry throughput and latency of the device, module and transport clients against a local MQTT
+ * broker and a local AMQPS server that run in the same process, so that no IoT Hub is needed.
+ *
+ * Every combination of the requested protocols, client types, device counts and payload sizes is run in turn, and one
+ * line of results is printed per combination. Run with "--help" for the options.
+ */
+public final class LoadTest
+{
+    static final class Options
+    {
+        List<IotHubClientProtocol> protocols = parseList("mqtt,amqps", IotHubClientProtocol.class);
+        List<LoadTestScenario.ClientType> clientTypes = parseList("device,module,transport", LoadTestScenario.ClientType.class);
+        List<Integer> deviceCounts = parseIntegers("1,10,100");
+        List<Integer> payloadSizes = parseIntegers("256,4096");
+        int warmupSeconds = 5;
+        int durationSeconds = 20;
+        int maxInFlightMessagesPerClient = 100;
+        int transportConnectionCount = TransportClient.AUTOMATIC_CONNECTION_COUNT;
+        boolean printDistributions = false;
+    }
+
+    private static final String USAGE =
+        "Usage: java -cp benchmarks.jar " + LoadTest.class.getName() + " [options]\n"
+            + "  --protocols <list>      protocols to test, of mqtt and amqps (default mqtt,amqps)\n"
+            + "  --clients <list>        client types to test, of device, module and transport (default device,module,transport)\n"
+            + "                          transport clients are only tested over amqps\n"
+            + "  --devices <list>        numbers of devices to test with (default 1,10,100)\n"
+            + "  --payloads <list>       payload sizes in bytes to test with (default 256,4096)\n"
+            + "  --warmup <seconds>      warmup time of each run, not measured (default 5)\n"
+            + "  --duration <seconds>    measured time of each run (default 20)\n"
+            + "  --in-flight <count>     messages each client keeps in flight (default 100)\n"
+            + "  --connections <count>   connections per transport client, 0 for automatic (default 0)\n"
+            + "  --distributions         also print the full acknowledgement latency distribution of each run\n";
+
+    private LoadTest()
+    {
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        Options options = parseOptions(args);
+        if (options == null)
+        {
+            System.out.print(USAGE);
+            return;
+        }
+
+        LocalCertificate certificate = LocalCertificate.generate();
+        Recorder arrivalLatencies = new Recorder(3);
+
+        List<LoadTestResult> results = new ArrayList<>();
+        LoadTestResult.printHeader(System.out);
+
+        try (LocalMqttBroker mqttBroker = new LocalMqttBroker(arrivalLatencies);
+             LocalAmqpServer amqpServer = new LocalAmqpServer(arrivalLatencies))
+        {
+            if (options.protocols.contains(IotHubClientProtocol.MQTT))
+            {
+                mqttBroker.start(certificate);
+            }
+
+            if (options.protocols.contains(IotHubClientProtocol.AMQPS))
+            {
+                amqpServer.start(certificate);
+            }
+
+            for (IotHubClientProtocol protocol : options.protocols)
+            {
+                for (LoadTestScenario.ClientType clientType : options.clientTypes)
+                {
+                    if (clientType == LoadTestScenario.ClientType.TRANSPORT && protocol != IotHubClientProtocol.AMQPS)
+                    {
+                        // Multiplexing is only supported over AMQPS
+                        continue;
+                    }
+
+                    for (int deviceCount : options.deviceCounts)
+                    {
+                        for (int payloadSize : options.payloadSizes)
+                        {
+                            LoadTestScenario scenario = new LoadTestScenario(protocol, clientType, deviceCount, payloadSize, options);
+                            LoadTestResult result = scenario.run(certificate, arrivalLatencies);
+                            result.print(System.out);
+                            results.add(result);
+                        }
+                    }
+                }
+            }
+        }
+
+        if (options.printDistributions)
+        {
+            for (LoadTestResult result : results)
+            {
+                result.printAcknowledgementLatencyDistribution(System.out);
+            }
+        }
+
+        // The clients leave non daemon threads behind them
+        System.exit(0);
+    }
+
+    /**
+     * @return the parsed options, or null if the usage should be printed instead.
+     */
+    private static Options parseOptions(String[] args)
+    {
+        Options options = new Options();
+        for (int i = 0; i < args.length; i++)
+        {
+            String option = args[i];
+            if (option.equals("--distributions"))
+            {
+                options.printDistributions = true;
+                continue;
+            }
+
+            if (option.equals("--help") || i + 1 == args.length)
+            {
+                return null;
+            }
+
+            String value = args[++i];
+            switch (option)
+            {
+                case "--protocols":
+                    options.protocols = parseList(value, IotHubClientProtocol.class);
+                    for (IotHubClientProtocol protocol : options.protocols)
+                    {
+                        if (protocol != IotHubClientProtocol.MQTT && protocol != IotHubClientProtocol.AMQPS)
+                        {
+                            throw new IllegalArgumentException("Only mqtt and amqps can be tested against the local broker and server");
+                        }
+                    }
+                    break;
+                case "--clients":
+                    options.clientTypes = parseList(value, LoadTestScenario.ClientType.class);
+                    break;
+                case "--devices":
+                    options.deviceCounts = parseIntegers(value);
+                    break;
+                case "--payloads":
+                    options.payloadSizes = parseIntegers(value);
+                    break;
+                case "--warmup":
+                    options.warmupSeconds = Integer.parseInt(value);
+                    break;
+                case "--duration":
+                    options.durationSeconds = Integer.parseInt(value);
+                    break;
+                case "--in-flight":
+                    options.maxInFlightMessagesPerClient = Integer.parseInt(value);
+                    break;
+                case "--connections":
+                    options.transportConnectionCount = Integer.parseInt(value);
+                    break;
+                default:
+                    return null;
+            }
+        }
+
+        return options;
+    }
+
+    private static <T extends Enum<T>> List<T> parseList(String value, Class<T> enumType)
+    {
+        List<T> values = new ArrayList<>();
+        for (String item : value.split(","))
+        {
+            values.add(Enum.valueOf(enumType, item.trim().toUpperCase()));
+        }
+
+        return values;
+    }
+
+    private static List<Integer> parseIntegers(String value)
+    {
+        List<Integer> values = new ArrayList<>();
+        for (String item : value.split(","))
+        {
+            values.add(Integer.parseInt(item.trim()));
+        }
+
+        return values;
+    }
+}
@@ -0,0 +1,99 @@
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+
+package com.microsoft.azure.sdk.iot.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.Locale;
+
+/**
+ * The measurements of one run of a {@link LoadTestScenario}. Latencies are in microseconds.
+ */
+final class LoadTestResult
+{
+    private static final String ROW_FORMAT = "%-6s %-9s %7s %8s %10s %8s %9s %9s %9s %9s %9s %9s %9s %7s %7s %10s %14s%n";
+
+    private final String protocol;
+    private final String clientType;
+    private final int deviceCount;
+    private final int payloadSize;
+
+    private final long acknowledgedMessages;
+    private final long failedMessages;
+    private final double measurementSeconds;
+    private final Histogram acknowledgementLatencies;
+    private final Histogram arrivalLatencies;
+    private final double allocatedBytesPerSecond;
+    private final int threadCount;
+    private final int peakThreadCount;
+    private final long openMilliseconds;
+    private final long reopenMilliseconds;
+
+    LoadTestResult(String protocol, String clientType, int deviceCount, int payloadSize,
+                   long acknowledgedMessages, long failedMessages, double measurementSeconds,
+                   Histogram acknowledgementLatencies, Histogram arrivalLatencies, double allocatedBytesPerSecond,
+                   int threadCount, int peakThreadCount, long openMilliseconds, long reopenMilliseconds)
+    {
+        this.protocol = protocol;
+        this.clientType = clientType;
+        this.deviceCount = deviceCount;
+        this.payloadSize = payloadSize;
+        this.acknowledgedMessages = acknowledgedMessages;
+        this.failedMessages = failedMessages;
+        this.measurementSeconds = measurementSeconds;
+        this.acknowledgementLatencies = acknowledgementLatencies;
+        this.arrivalLatencies = arrivalLatencies;
+        this.allocatedBytesPerSecond = allocatedBytesPerSecond;
+        this.threadCount = threadCount;
+        this.peakThreadCount = peakThreadCount;
+        this.openMilliseconds = openMilliseconds;
+        this.reopenMilliseconds = reopenMilliseconds;
+    }
+
+    static void printHeader(PrintStream out)
+    {
+        out.printf(ROW_FORMAT,
+            "proto", "client", "devices", "payload", "msgs/s", "failed",
+            "ack p50", "ack p90", "ack p99", "ack p99.9", "ack max", "arr p50", "arr p99", "threads", "peak", "alloc MB/s", "open/reopen ms");
+    }
+
+    void print(PrintStream out)
+    {
+        out.printf(ROW_FORMAT,
+            this.protocol,
+            this.clientType,
+            this.deviceCount,
+            this.payloadSize,
+            String.format(Locale.ROOT, "%.0f", getMessagesPerSecond()),
+            this.failedMessages,
+            this.acknowledgementLatencies.getValueAtPercentile(50),
+            this.acknowledgementLatencies.getValueAtPercentile(90),
+            this.acknowledgementLatencies.getValueAtPercentile(99),
+            this.acknowledgementLatencies.getValueAtPercentile(99.9),
+            this.acknowledgementLatencies.getMaxValue(),
+            this.arrivalLatencies.getValueAtPercentile(50),
+            this.arrivalLatencies.getValueAtPercentile(99),
+            this.threadCount,
+            this.peakThreadCount,
+            String.format(Locale.ROOT, "%.1f", this.allocatedBytesPerSecond / (1024 * 1024)),
+            this.openMilliseconds + "/" + this.reopenMilliseconds);
+    }
+
+    /**
+     * Print the full distribution of the acknowledgement latencies, in milliseconds, in HdrHistogram's percentile
+     * format, which can be plotted with the HdrHistogram plotter.
+     */
+    void printAcknowledgementLatencyDistribution(PrintStream out)
+    {
+        out.printf("%n%s %s, %d devices, %d byte payloads, acknowledgement latency (ms):%n",
+            this.protocol, this.clientType, this.deviceCount, this.payloadSize);
+        this.acknowledgementLatencies.outputPercentileDistribution(out, 1000.0);
+    }
+
+    double getMessagesPerSecond()
+    {
+        return this.measurementSeconds > 0 ? this.acknowledgedMessages / this.measurementSeconds : 0;
+    }
+}
@@ -0,0 +1,365 @@
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+
+package com.microsoft.azure.sdk.iot.loadtest;
+
+import com.microsoft.azure.sdk.iot.device.ClientOptions;
+import com.microsoft.azure.sdk.iot.device.DeviceClient;
+import com.microsoft.azure.sdk.iot.device.InternalClient;
+import com.microsoft.azure.sdk.iot.device.IotHubClientProtocol;
+import com.microsoft.azure.sdk.iot.device.IotHubEventCallback;
+import com.microsoft.azure.sdk.iot.device.IotHubStatusCode;
+import com.microsoft.azure.sdk.iot.device.Message;
+import com.microsoft.azure.sdk.iot.device.ModuleClient;
+import com.microsoft.azure.sdk.iot.device.TransportClient;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.lang.management.ManagementFactory;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * One run of the load test: a number of clients of one type, all sending telemetry of one payload size over one
+ * protocol to the local broker or server, for a warmup period followed by a measured period.
+ *
+ * Each client keeps up to a fixed number of messages in flight. A small pool of driver threads sends a new message
+ * for a client whenever one of its messages is acknowledged, so the measured throughput is what the client and the
+ * transport can sustain rather than a rate chosen by the test.
+ */
+final class LoadTestScenario
+{
+    enum ClientType
+    {
+        DEVICE,
+        MODULE,
+        TRANSPORT
+    }
+
+    // The device client takes the hub name from the host name up to its first dot, so it needs a host name that has
+    // one, which the loopback address does. The local certificate has the address in its subject alternative names.
+    private static final String HOST_NAME = "127.0.0.1";
+    private static final String DEVICE_ID_PREFIX = "load-device-";
+    private static final String MODULE_ID = "load-module";
+    private static final String SET_CERTIFICATE_AUTHORITY = "SetCertificateAuthority";
+
+    private static final long IDLE_DRIVER_PARK_NANOSECONDS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long DRAIN_TIMEOUT_SECONDS = 30;
+
+    private final IotHubClientProtocol protocol;
+    private final ClientType clientType;
+    private final int deviceCount;
+    private final int payloadSize;
+    private final LoadTest.Options options;
+
+    private final Recorder acknowledgementLatencies = new Recorder(3);
+    private final LongAdder acknowledgedMessages = new LongAdder();
+    private final LongAdder failedMessages = new LongAdder();
+    private final IotHubEventCallback acknowledgementCallback = new AcknowledgementCallback();
+
+    private volatile boolean sending;
+
+    LoadTestScenario(IotHubClientProtocol protocol, ClientType clientType, int deviceCount, int payloadSize, LoadTest.Options options)
+    {
+        this.protocol = protocol;
+        this.clientType = clientType;
+        this.deviceCount = deviceCount;
+        this.payloadSize = payloadSize;
+        this.options = options;
+    }
+
+    /**
+     * Run the scenario against the broker or server that is already listening for the scenario's protocol.
+     * @param certificate the certificate that the broker or server presents.
+     * @param arrivalLatencies the recorder that the broker or server records message arrival latencies into.
+     * @return the measurements of the run.
+     * @throws Exception if the clients cannot be created, opened or closed.
+     */
+    LoadTestResult run(LocalCertificate certificate, Recorder arrivalLatencies) throws Exception
+    {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        TransportClient transportClient = null;
+        List<ClientState> clients = new ArrayList<>(this.deviceCount);
+        if (this.clientType == ClientType.TRANSPORT)
+        {
+            transportClient = new TransportClient(this.protocol, this.options.transportConnectionCount);
+            String certificateAuthority = certificate.toPem();
+            for (int i = 0; i < this.deviceCount; i++)
+            {
+                DeviceClient deviceClient = new DeviceClient(getConnectionString(i), transportClient);
+                deviceClient.setOption(SET_CERTIFICATE_AUTHORITY, certificateAuthority);
+                clients.add(new ClientState(deviceClient, this.options.maxInFlightMessagesPerClient));
+            }
+        }
+        else
+        {
+            ClientOptions clientOptions = new ClientOptions();
+            clientOptions.setSslContext(certificate.createClientSslContext());
+            for (int i = 0; i < this.deviceCount; i++)
+            {
+                InternalClient client = this.clientType == ClientType.MODULE
+                    ? new ModuleClient(getConnectionString(i) + ";ModuleId=" + MODULE_ID, this.protocol, clientOptions)
+                    : new DeviceClient(getConnectionString(i), this.protocol, clientOptions);
+                clients.add(new ClientState(client, this.options.maxInFlightMessagesPerClient));
+            }
+        }
+
+        long openStart = System.nanoTime();
+        open(clients, transportClient);
+        long openMilliseconds = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - openStart);
+
+        List<Thread> drivers = startDrivers(clients);
+
+        Thread.sleep(TimeUnit.SECONDS.toMillis(this.options.warmupSeconds));
+
+        // Everything before this point was warmup
+        this.acknowledgementLatencies.getIntervalHistogram();
+        arrivalLatencies.getIntervalHistogram();
+        this.acknowledgedMessages.reset();
+        this.failedMessages.reset();
+        threadMXBean.resetPeakThreadCount();
+        Map<Long, Long> allocatedBytesAtStart = getAllocatedBytesPerThread(threadMXBean);
+        long measurementStart = System.nanoTime();
+
+        Thread.sleep(TimeUnit.SECONDS.toMillis(this.options.durationSeconds));
+
+        long acknowledged = this.acknowledgedMessages.sum();
+        long failed = this.failedMessages.sum();
+        double measurementSeconds = (System.nanoTime() - measurementStart) / (double) TimeUnit.SECONDS.toNanos(1);
+        Histogram acknowledgementLatencyHistogram = this.acknowledgementLatencies.getIntervalHistogram();
+        Histogram arrivalLatencyHistogram = arrivalLatencies.getIntervalHistogram();
+        long allocatedBytes = getAllocatedBytesSince(threadMXBean, allocatedBytesAtStart);
+        int threadCount = threadMXBean.getThreadCount();
+        int peakThreadCount = threadMXBean.getPeakThreadCount();
+
+        stopDrivers(drivers);
+        drain(clients);
+
+        // Closing and opening the clients again, rather than a reconnection after a dropped connection, which would
+        // also include the retry policy delays of the clients
+        long reopenStart = System.nanoTime();
+        close(clients, transportClient);
+        open(clients, transportClient);
+        long reopenMilliseconds = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - reopenStart);
+
+        close(clients, transportClient);
+
+        return new LoadTestResult(
+            this.protocol.name(),
+            this.clientType.name().toLowerCase(),
+            this.deviceCount,
+            this.payloadSize,
+            acknowledged,
+            failed,
+            measurementSeconds,
+            acknowledgementLatencyHistogram,
+            arrivalLatencyHistogram,
+            allocatedBytes / measurementSeconds,
+            threadCount,
+            peakThreadCount,
+            openMilliseconds,
+            reopenMilliseconds);
+    }
+
+    private static String getConnectionString(int deviceIndex)
+    {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return "HostName=" + HOST_NAME + ";DeviceId=" + DEVICE_ID_PREFIX + deviceIndex + ";SharedAccessKey=" + Base64.getEncoder().encodeToString(key);
+    }
+
+    private static void open(List<ClientState> clients, TransportClient transportClient) throws Exception
+    {
+        if (transportClient != null)
+        {
+            transportClient.open();
+            return;
+        }
+
+        for (ClientState client : clients)
+        {
+            client.client.open();
+        }
+    }
+
+    private static void close(List<ClientState> clients, TransportClient transportClient) throws Exception
+    {
+        if (transportClient != null)
+        {
+            transportClient.closeNow();
+            return;
+        }
+
+        for (ClientState client : clients)
+        {
+            client.client.closeNow();
+        }
+    }
+
+    private List<Thread> startDrivers(List<ClientState> clients)
+    {
+        int driverCount = Math.min(clients.size(), Runtime.getRuntime().availableProcessors());
+        List<Thread> drivers = new ArrayList<>(driverCount);
+
+        this.sending = true;
+        for (int i = 0; i < driverCount; i++)
+        {
+            final List<ClientState> driverClients = clients.subList(i * clients.size() / driverCount, (i + 1) * clients.size() / driverCount);
+            Thread driver = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    drive(driverClients);
+                }
+            }, "load-test-driver-" + i);
+            driver.setDaemon(true);
+            driver.start();
+            drivers.add(driver);
+        }
+
+        return drivers;
+    }
+
+    private void stopDrivers(List<Thread> drivers) throws InterruptedException
+    {
+        this.sending = false;
+        for (Thread driver : drivers)
+        {
+            driver.join();
+        }
+    }
+
+    private void drive(List<ClientState> clients)
+    {
+        while (this.sending)
+        {
+            boolean sentAny = false;
+            for (ClientState client : clients)
+            {
+                if (client.inFlightMessages.tryAcquire())
+                {
+                    send(client);
+                    sentAny = true;
+                }
+            }
+
+            if (!sentAny)
+            {
+                LockSupport.parkNanos(IDLE_DRIVER_PARK_NANOSECONDS);
+            }
+        }
+    }
+
+    private void send(ClientState client)
+    {
+        Message message = new Message(Payloads.create(this.payloadSize));
+        try
+        {
+            client.client.sendEventAsync(message, this.acknowledgementCallback, new PendingMessage(client, System.nanoTime()));
+        }
+        catch (RuntimeException e)
+        {
+            // The client refused the message, for example because its outbound queue is full
+            this.failedMessages.increment();
+            client.inFlightMessages.release();
+        }
+    }
+
+    private void drain(List<ClientState> clients) throws InterruptedException
+    {
+        for (ClientState client : clients)
+        {
+            if (client.inFlightMessages.tryAcquire(this.options.maxInFlightMessagesPerClient, DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS))
+            {
+                client.inFlightMessages.release(this.options.maxInFlightMessagesPerClient);
+            }
+        }
+    }
+
+    private static Map<Long, Long> getAllocatedBytesPerThread(com.sun.management.ThreadMXBean threadMXBean)
+    {
+        long[] threadIds = threadMXBean.getAllThreadIds();
+        long[] allocatedBytes = threadMXBean.getThreadAllocatedBytes(threadIds);
+
+        Map<Long, Long> allocatedBytesPerThread = new HashMap<>();
+        for (int i = 0; i < threadIds.length; i++)
+        {
+            if (allocatedBytes[i] >= 0)
+            {
+                allocatedBytesPerThread.put(threadIds[i], allocatedBytes[i]);
+            }
+        }
+
+        return allocatedBytesPerThread;
+    }
+
+    /**
+     * @return the bytes allocated by the threads that are alive now since the provided per thread snapshot. Bytes that
+     * were allocated by threads that ended in between are not counted, so this is a lower bound.
+     */
+    private static long getAllocatedBytesSince(com.sun.management.ThreadMXBean threadMXBean, Map<Long, Long> allocatedBytesAtStart)
+    {
+        long allocatedBytes = 0;
+        for (Map.Entry<Long, Long> thread : getAllocatedBytesPerThread(threadMXBean).entrySet())
+        {
+            Long threadAllocatedBytesAtStart = allocatedBytesAtStart.get(thread.getKey());
+            allocatedBytes += thread.getValue() - (threadAllocatedBytesAtStart == null ? 0 : threadAllocatedBytesAtStart);
+        }
+
+        return allocatedBytes;
+    }
+
+    private static final class ClientState
+    {
+        private final InternalClient client;
+        private final Semaphore inFlightMessages;
+
+        ClientState(InternalClient client, int maxInFlightMessages)
+        {
+            this.client = client;
+            this.inFlightMessages = new Semaphore(maxInFlightMessages);
+        }
+    }
+
+    private static final class PendingMessage
+    {
+        private final ClientState client;
+        private final long sendTime;
+
+        PendingMessage(ClientState client, long sendTime)
+        {
+            this.client = client;
+            this.sendTime = sendTime;
+        }
+    }
+
+    private final class AcknowledgementCallback implements IotHubEventCallback
+    {
+        @Override
+        public void execute(IotHubStatusCode responseStatus, Object callbackContext)
+        {
+            PendingMessage pendingMessage = (PendingMessage) callbackContext;
+            if (responseStatus == IotHubStatusCode.OK || responseStatus == IotHubStatusCode.OK_EMPTY)
+            {
+                acknowledgementLatencies.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - pendingMessage.sendTime));
+                acknowledgedMessages.increment();
+            }
+            else
+            {
+                failedMessages.increment();
+            }
+
+            pendingMessage.client.inFlightMessages.release();
+        }
+    }
+}
@@ -0,0 +1,335 @@
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+
+package com.microsoft.azure.sdk.iot.loadtest;
+
+import org.HdrHistogram.Recorder;
+import org.apache.qpid.proton.Proton;
+import org.apache.qpid.proton.amqp.Binary;
+import org.apache.qpid.proton.amqp.messaging.Accepted;
+import org.apache.qpid.proton.amqp.messaging.ApplicationProperties;
+import org.apache.qpid.proton.amqp.messaging.Data;
+import org.apache.qpid.proton.amqp.messaging.Properties;
+import org.apache.qpid.proton.amqp.messaging.Source;
+import org.apache.qpid.proton.amqp.messaging.Target;
+import org.apache.qpid.proton.engine.BaseHandler;
+import org.apache.qpid.proton.engine.Delivery;
+import org.apache.qpid.proton.engine.Event;
+import org.apache.qpid.proton.engine.Link;
+import org.apache.qpid.proton.engine.Receiver;
+import org.apache.qpid.proton.engine.Sender;
+import org.apache.qpid.proton.engine.SslDomain;
+import org.apache.qpid.proton.message.Message;
+import org.apache.qpid.proton.reactor.Acceptor;
+import org.apache.qpid.proton.reactor.Reactor;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A proton-j server that stands in for IoT Hub's AMQPS endpoint. It listens for TLS connections on the port that the
+ * device client always connects to and speaks just enough of the hub's conventions for telemetry:
+ * <ul>
+ *     <li>every session and link that a client opens is opened in return, mirroring the client's addresses,</li>
+ *     <li>put-token requests on the "$cbs" node are answered with status code 200 on the client's "$cbs" receiver
+ *     link, whatever the token, and</li>
+ *     <li>every message sent on any other link is accepted as soon as it arrives, and the time it took to arrive is
+ *     recorded.</li>
+ * </ul>
+ *
+ * All connection handling runs on a single reactor thread.
+ */
+final class LocalAmqpServer extends BaseHandler implements Closeable
+{
+    private static final String HOST = "127.0.0.1";
+    private static final int AMQPS_PORT = 5671;
+    private static final String CONTAINER_ID = "local-iothub";
+
+    private static final String CBS_ADDRESS = "$cbs";
+    private static final String STATUS_CODE_KEY = "status-code";
+    private static final String STATUS_DESCRIPTION_KEY = "status-description";
+    private static final int STATUS_CODE_OK = 200;
+
+    private static final int LINK_CREDIT = 1000;
+    private static final int REACTOR_TIMEOUT_MILLISECONDS = 100;
+    private static final int THREAD_JOIN_TIMEOUT_MILLISECONDS = 10 * 1000;
+
+    private final Recorder arrivalLatencies;
+    private SslDomain sslDomain;
+
+    // Put-token responses waiting for credit on the cbs sender link they are to be sent on
+    private final Map<Sender, Queue<Message>> pendingCbsResponses = new HashMap<>();
+    private int nextDeliveryTag;
+
+    private Reactor reactor;
+    private Acceptor acceptor;
+    private Thread reactorThread;
+    private volatile boolean running;
+
+    LocalAmqpServer(Recorder arrivalLatencies)
+    {
+        this.arrivalLatencies = arrivalLatencies;
+    }
+
+    void start(LocalCertificate certificate) throws IOException, GeneralSecurityException
+    {
+        this.sslDomain = Proton.sslDomain();
+        this.sslDomain.init(SslDomain.Mode.SERVER);
+        this.sslDomain.setSslContext(certificate.createServerSslContext());
+        this.sslDomain.setPeerAuthentication(SslDomain.VerifyMode.ANONYMOUS_PEER);
+
+        this.reactor = Proton.reactor(this);
+        this.reactor.setTimeout(REACTOR_TIMEOUT_MILLISECONDS);
+        this.acceptor = this.reactor.acceptor(HOST, AMQPS_PORT, this);
+        this.running = true;
+
+        this.reactorThread = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                reactor.start();
+                while (running && reactor.process())
+                {
+                    // each call to process handles the events of one pass of the reactor
+                }
+
+                acceptor.close();
+                reactor.stop();
+                reactor.free();
+            }
+        }, "local-amqp-server");
+        this.reactorThread.setDaemon(true);
+        this.reactorThread.start();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        this.running = false;
+        if (this.reactor != null)
+        {
+            this.reactor.wakeup();
+            try
+            {
+                this.reactorThread.join(THREAD_JOIN_TIMEOUT_MILLISECONDS);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void onConnectionBound(Event event)
+    {
+        // The acceptor has already set up an anonymous SASL server layer that accepts every client
+        event.getTransport().ssl(this.sslDomain);
+    }
+
+    @Override
+    public void onConnectionRemoteOpen(Event event)
+    {
+        event.getConnection().setContainer(CONTAINER_ID);
+        event.getConnection().open();
+    }
+
+    @Override
+    public void onConnectionRemoteClose(Event event)
+    {
+        event.getConnection().close();
+    }
+
+    @Override
+    public void onSessionRemoteOpen(Event event)
+    {
+        event.getSession().open();
+    }
+
+    @Override
+    public void onSessionRemoteClose(Event event)
+    {
+        event.getSession().close();
+    }
+
+    @Override
+    public void onLinkRemoteOpen(Event event)
+    {
+        Link link = event.getLink();
+        link.setSource(link.getRemoteSource());
+        link.setTarget(link.getRemoteTarget());
+        link.open();
+
+        if (link instanceof Receiver)
+        {
+            ((Receiver) link).flow(LINK_CREDIT);
+        }
+    }
+
+    @Override
+    public void onLinkRemoteClose(Event event)
+    {
+        Link link = event.getLink();
+        this.pendingCbsResponses.remove(link);
+        link.close();
+    }
+
+    @Override
+    public void onLinkFlow(Event event)
+    {
+        Link link = event.getLink();
+        if (link instanceof Sender)
+        {
+            sendPendingCbsResponses((Sender) link);
+        }
+    }
+
+    @Override
+    public void onDelivery(Event event)
+    {
+        Delivery delivery = event.getDelivery();
+        Link link = delivery.getLink();
+
+        if (link instanceof Sender)
+        {
+            // A client acknowledged one of the put-token responses
+            if (delivery.remotelySettled())
+            {
+                delivery.settle();
+            }
+
+            return;
+        }
+
+        if (!delivery.isReadable() || delivery.isPartial())
+        {
+            return;
+        }
+
+        Receiver receiver = (Receiver) link;
+        byte[] encodedMessage = new byte[delivery.pending()];
+        int length = receiver.recv(encodedMessage, 0, encodedMessage.length);
+        receiver.advance();
+
+        Message message = Proton.message();
+        message.decode(encodedMessage, 0, length);
+
+        Target target = (Target) receiver.getRemoteTarget();
+        if (target != null && CBS_ADDRESS.equals(target.getAddress()))
+        {
+            respondToPutToken(receiver, message);
+        }
+        else
+        {
+            recordArrival(message);
+        }
+
+        delivery.disposition(Accepted.getInstance());
+        delivery.settle();
+        receiver.flow(1);
+    }
+
+    private void recordArrival(Message message)
+    {
+        if (message.getBody() instanceof Data)
+        {
+            Binary body = ((Data) message.getBody()).getValue();
+            ByteBuffer payload = body.asByteBuffer();
+            if (Payloads.hasSendTime(payload))
+            {
+                this.arrivalLatencies.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - Payloads.getSendTime(payload)));
+            }
+        }
+    }
+
+    private void respondToPutToken(Receiver cbsReceiver, Message request)
+    {
+        Sender cbsSender = findCbsSender(cbsReceiver);
+        if (cbsSender == null || request.getProperties() == null)
+        {
+            return;
+        }
+
+        Message response = Proton.message();
+        Properties properties = new Properties();
+        properties.setCorrelationId(request.getProperties().getMessageId());
+        response.setProperties(properties);
+
+        Map<String, Object> applicationProperties = new HashMap<>();
+        applicationProperties.put(STATUS_CODE_KEY, STATUS_CODE_OK);
+        applicationProperties.put(STATUS_DESCRIPTION_KEY, "OK");
+        response.setApplicationProperties(new ApplicationProperties(applicationProperties));
+
+        Queue<Message> pendingResponses = this.pendingCbsResponses.get(cbsSender);
+        if (pendingResponses == null)
+        {
+            pendingResponses = new ArrayDeque<>();
+            this.pendingCbsResponses.put(cbsSender, pendingResponses);
+        }
+
+        pendingResponses.add(response);
+        sendPendingCbsResponses(cbsSender);
+    }
+
+    private void sendPendingCbsResponses(Sender cbsSender)
+    {
+        Queue<Message> pendingResponses = this.pendingCbsResponses.get(cbsSender);
+        while (pendingResponses != null && !pendingResponses.isEmpty() && cbsSender.getCredit() > 0)
+        {
+            Message response = pendingResponses.poll();
+
+            byte[] buffer = new byte[1024];
+            int length;
+            while (true)
+            {
+                try
+                {
+                    length = response.encode(buffer, 0, buffer.length);
+                    break;
+                }
+                catch (BufferOverflowException e)
+                {
+                    buffer = new byte[buffer.length * 2];
+                }
+            }
+
+            int tag = this.nextDeliveryTag++;
+            cbsSender.delivery(new byte[] { (byte) (tag >>> 24), (byte) (tag >>> 16), (byte) (tag >>> 8), (byte) tag });
+            cbsSender.send(buffer, 0, length);
+            cbsSender.advance();
+        }
+    }
+
+    /**
+     * @return the sender link, in the same session as the provided cbs receiver link, that the client receives
+     * put-token responses on.
+     */
+    private static Sender findCbsSender(Receiver cbsReceiver)
+    {
+        Link link = cbsReceiver.getSession().getConnection().linkHead(null, null);
+        while (link != null)
+        {
+            if (link instanceof Sender && link.getSession() == cbsReceiver.getSession())
+            {
+                Source source = (Source) link.getRemoteSource();
+                if (source != null && CBS_ADDRESS.equals(source.getAddress()))
+                {
+                    return (Sender) link;
+                }
+            }
+
+            link = link.next(null, null);
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,160 @@
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+
+package com.microsoft.azure.sdk.iot.loadtest;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.BasicConstraints;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.KeyStore;
+import java.security.SecureRandom;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A self signed certificate for "localhost" that the local broker and server present, along with the SSL contexts
+ * and trusted certificate that the clients under test need to accept it. It is generated when the load test starts
+ * and is never written anywhere other than a temporary key store for the MQTT broker.
+ */
+final class LocalCertificate
+{
+    private static final String HOST_NAME = "localhost";
+    private static final String KEY_ALIAS = "local-iothub";
+    private static final String TLS_VERSION = "TLSv1.2";
+
+    private final X509Certificate certificate;
+    private final KeyStore keyStore;
+    private final char[] password;
+
+    private LocalCertificate(X509Certificate certificate, KeyStore keyStore, char[] password)
+    {
+        this.certificate = certificate;
+        this.keyStore = keyStore;
+        this.password = password;
+    }
+
+    static LocalCertificate generate() throws GeneralSecurityException, IOException
+    {
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        KeyPair keyPair = keyPairGenerator.generateKeyPair();
+
+        long now = System.currentTimeMillis();
+        X500Name name = new X500Name("CN=" + HOST_NAME);
+        JcaX509v3CertificateBuilder certificateBuilder = new JcaX509v3CertificateBuilder(
+            name,
+            BigInteger.valueOf(now),
+            new Date(now - TimeUnit.DAYS.toMillis(1)),
+            new Date(now + TimeUnit.DAYS.toMillis(7)),
+            name,
+            keyPair.getPublic());
+
+        try
+        {
+            // The certificate is its own issuer, so it is trusted the same way as a root certificate authority
+            certificateBuilder.addExtension(Extension.basicConstraints, true, new BasicConstraints(true));
+            certificateBuilder.addExtension(Extension.subjectAlternativeName, false, new GeneralNames(new GeneralName[]
+                {
+                    new GeneralName(GeneralName.dNSName, HOST_NAME),
+                    new GeneralName(GeneralName.iPAddress, "127.0.0.1")
+                }));
+
+            ContentSigner signer = new JcaContentSignerBuilder("SHA256withRSA").build(keyPair.getPrivate());
+            X509Certificate certificate = new JcaX509CertificateConverter().getCertificate(certificateBuilder.build(signer));
+
+            char[] password = Long.toHexString(new SecureRandom().nextLong()).toCharArray();
+            KeyStore keyStore = KeyStore.getInstance("JKS");
+            keyStore.load(null, null);
+            keyStore.setKeyEntry(KEY_ALIAS, keyPair.getPrivate(), password, new Certificate[] { certificate });
+
+            return new LocalCertificate(certificate, keyStore, password);
+        }
+        catch (OperatorCreationException e)
+        {
+            throw new GeneralSecurityException("Could not sign the local certificate", e);
+        }
+    }
+
+    /**
+     * @return an SSL context that presents this certificate, for the local servers.
+     */
+    SSLContext createServerSslContext() throws GeneralSecurityException
+    {
+        KeyManagerFactory keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagerFactory.init(this.keyStore, this.password);
+
+        SSLContext sslContext = SSLContext.getInstance(TLS_VERSION);
+        sslContext.init(keyManagerFactory.getKeyManagers(), null, null);
+        return sslContext;
+    }
+
+    /**
+     * @return an SSL context that trusts only this certificate, for the clients under test.
+     */
+    SSLContext createClientSslContext() throws GeneralSecurityException, IOException
+    {
+        KeyStore trustStore = KeyStore.getInstance("JKS");
+        trustStore.load(null, null);
+        trustStore.setCertificateEntry(KEY_ALIAS, this.certificate);
+
+        TrustManagerFactory trustManagerFactory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trustManagerFactory.init(trustStore);
+
+        SSLContext sslContext = SSLContext.getInstance(TLS_VERSION);
+        sslContext.init(null, trustManagerFactory.getTrustManagers(), null);
+        return sslContext;
+    }
+
+    /**
+     * @return this certificate in PEM format, as the "SetCertificateAuthority" client option expects it.
+     */
+    String toPem() throws GeneralSecurityException
+    {
+        Base64.Encoder encoder = Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.US_ASCII));
+        return "-----BEGIN CERTIFICATE-----\n" + encoder.encodeToString(this.certificate.getEncoded()) + "\n-----END CERTIFICATE-----\n";
+    }
+
+    /**
+     * Write the key store holding this certificate and its private key to a temporary file that is deleted on exit.
+     * @return the key store file.
+     */
+    File writeKeyStore() throws GeneralSecurityException, IOException
+    {
+        File keyStoreFile = File.createTempFile("local-iothub", ".jks");
+        keyStoreFile.deleteOnExit();
+        try (OutputStream outputStream = new FileOutputStream(keyStoreFile))
+        {
+            this.keyStore.store(outputStream, this.password);
+        }
+
+        return keyStoreFile;
+    }
+
+    String getPassword()
+    {
+        return new String(this.password);
+    }
+}
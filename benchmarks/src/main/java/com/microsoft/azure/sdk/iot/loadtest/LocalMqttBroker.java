@@ -0,0 +1,102 @@
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+
+package com.microsoft.azure.sdk.iot.loadtest;
+
+import io.moquette.broker.Server;
+import io.moquette.broker.config.MemoryConfig;
+import io.moquette.interception.AbstractInterceptHandler;
+import io.moquette.interception.InterceptHandler;
+import io.moquette.interception.messages.InterceptPublishMessage;
+import org.HdrHistogram.Recorder;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An embedded MQTT broker that stands in for IoT Hub's MQTT endpoint. It listens for TLS connections on the port that
+ * the device client always connects to, accepts any credentials, and acknowledges every publish. The time each
+ * telemetry message took to reach the broker is recorded.
+ */
+final class LocalMqttBroker implements Closeable
+{
+    private static final String MQTT_TLS_PORT = "8883";
+    private static final String TELEMETRY_TOPIC_PREFIX = "devices/";
+
+    // Larger than the largest message that IoT Hub accepts, so that the broker never rejects a payload the hub takes
+    private static final String MAXIMUM_MESSAGE_SIZE = String.valueOf(300 * 1024);
+
+    private final Server server = new Server();
+    private final Recorder arrivalLatencies;
+    private boolean started;
+
+    LocalMqttBroker(Recorder arrivalLatencies)
+    {
+        this.arrivalLatencies = arrivalLatencies;
+    }
+
+    void start(LocalCertificate certificate) throws IOException, GeneralSecurityException
+    {
+        File keyStore = certificate.writeKeyStore();
+
+        Properties properties = new Properties();
+        properties.setProperty("host", "127.0.0.1");
+        properties.setProperty("port", "disabled");
+        properties.setProperty("ssl_port", MQTT_TLS_PORT);
+        properties.setProperty("jks_path", keyStore.getAbsolutePath());
+        properties.setProperty("key_store_password", certificate.getPassword());
+        properties.setProperty("key_manager_password", certificate.getPassword());
+        properties.setProperty("allow_anonymous", "true");
+        properties.setProperty("persistent_store", "");
+        properties.setProperty("immediate_buffer_flush", "true");
+        properties.setProperty("netty.mqtt.message_size", MAXIMUM_MESSAGE_SIZE);
+
+        List<InterceptHandler> handlers = Collections.<InterceptHandler>singletonList(new ArrivalLatencyHandler());
+        this.server.startServer(new MemoryConfig(properties), handlers);
+        this.started = true;
+    }
+
+    @Override
+    public void close()
+    {
+        if (this.started)
+        {
+            this.server.stopServer();
+            this.started = false;
+        }
+    }
+
+    private final class ArrivalLatencyHandler extends AbstractInterceptHandler
+    {
+        @Override
+        public String getID()
+        {
+            return "arrival-latency";
+        }
+
+        @Override
+        public void onPublish(InterceptPublishMessage message)
+        {
+            if (message.getTopicName().startsWith(TELEMETRY_TOPIC_PREFIX))
+            {
+                ByteBuffer payload = message.getPayload().nioBuffer();
+                if (Payloads.hasSendTime(payload))
+                {
+                    arrivalLatencies.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - Payloads.getSendTime(payload)));
+                }
+            }
+        }
+
+        public void onSessionLoopError(Throwable error)
+        {
+            // Session errors surface to the clients under test as failed sends, which are already counted
+        }
+    }
+}
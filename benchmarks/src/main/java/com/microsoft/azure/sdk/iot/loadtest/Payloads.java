@@ -0,0 +1,40 @@
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+
+package com.microsoft.azure.sdk.iot.loadtest;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Telemetry payloads carry the {@link System#nanoTime()} at which they were sent in their first 8 bytes, so that the
+ * local broker and server, which run in the same process as the clients, can measure how long each message took to
+ * reach them.
+ */
+final class Payloads
+{
+    static final int MINIMUM_PAYLOAD_SIZE = 8;
+
+    private Payloads()
+    {
+    }
+
+    static byte[] create(int payloadSize)
+    {
+        byte[] payload = new byte[Math.max(payloadSize, MINIMUM_PAYLOAD_SIZE)];
+        ByteBuffer.wrap(payload).putLong(System.nanoTime());
+        return payload;
+    }
+
+    static boolean hasSendTime(ByteBuffer payload)
+    {
+        return payload.remaining() >= MINIMUM_PAYLOAD_SIZE;
+    }
+
+    /**
+     * @return the time the payload was sent at. The payload must be at least {@link #MINIMUM_PAYLOAD_SIZE} bytes long.
+     */
+    static long getSendTime(ByteBuffer payload)
+    {
+        return payload.getLong(payload.position());
+    }
+}
@@ -35,7 +35,7 @@ public class ErrorMessageParser
             return "";
         }
 
-        Gson gson = new GsonBuilder().create();
+        Gson gson = GsonProvider.getGson();
 
         String rootMessage = fullErrorMessage;
         String rootException = null;
@@ -96,7 +96,7 @@ public class ErrorMessageParser
 
         try
         {
-            JsonObject errorMessageJson = new GsonBuilder().create().fromJson(fullErrorMessage, JsonObject.class);
+            JsonObject errorMessageJson = GsonProvider.getGson().fromJson(fullErrorMessage, JsonObject.class);
 
             if (errorMessageJson.has(errorCodeJsonKey) && errorMessageJson.get(errorCodeJsonKey).isJsonPrimitive())
             {
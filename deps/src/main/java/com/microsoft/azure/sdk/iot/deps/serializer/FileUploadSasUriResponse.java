@@ -4,7 +4,6 @@
 package com.microsoft.azure.sdk.iot.deps.serializer;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.JsonSyntaxException;
 import com.google.gson.annotations.Expose;
 import com.google.gson.annotations.SerializedName;
@@ -56,7 +55,7 @@ public class FileUploadSasUriResponse
      */
     public FileUploadSasUriResponse(String json) throws IllegalArgumentException
     {
-        Gson gson = new GsonBuilder().disableHtmlEscaping().serializeNulls().create();
+        Gson gson = GsonProvider.getGsonSerializingNullsWithoutHtmlEscaping();
         FileUploadSasUriResponse newFileUploadSasUriResponse;
 
         ParserUtility.validateStringUTF8(json);
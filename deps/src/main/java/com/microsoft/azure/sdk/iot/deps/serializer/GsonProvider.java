@@ -0,0 +1,158 @@
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+
+package com.microsoft.azure.sdk.iot.deps.serializer;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.microsoft.azure.sdk.iot.deps.twin.TwinCollection;
+import com.microsoft.azure.sdk.iot.deps.twin.TwinCollectionTypeAdapter;
+import com.microsoft.azure.sdk.iot.deps.twin.TwinProperties;
+import com.microsoft.azure.sdk.iot.deps.twin.TwinPropertiesSerializer;
+
+/**
+ * Shared, pre-configured {@link Gson} instances for the serializers of the SDK.
+ *
+ * <p> Gson instances are thread safe, and each one caches the type adapters that it builds by reflection the first
+ *     time that it meets a type. Creating a new instance for every call repeats that reflection every time, so the
+ *     serializers should use one of these instances instead of building their own.
+ */
+public final class GsonProvider
+{
+    private static final Gson GSON = new Gson();
+
+    private static final Gson GSON_WITHOUT_HTML_ESCAPING = new GsonBuilder()
+            .disableHtmlEscaping()
+            .create();
+
+    private static final Gson GSON_SERIALIZING_NULLS = new GsonBuilder()
+            .serializeNulls()
+            .create();
+
+    private static final Gson GSON_SERIALIZING_NULLS_WITHOUT_HTML_ESCAPING = new GsonBuilder()
+            .disableHtmlEscaping()
+            .serializeNulls()
+            .create();
+
+    private static final Gson EXPOSED_FIELDS_GSON = new GsonBuilder()
+            .excludeFieldsWithoutExposeAnnotation()
+            .disableHtmlEscaping()
+            .create();
+
+    private static final Gson EXPOSED_FIELDS_GSON_WITH_HTML_ESCAPING = new GsonBuilder()
+            .excludeFieldsWithoutExposeAnnotation()
+            .create();
+
+    private static final Gson PRETTY_PRINTING_GSON = new GsonBuilder()
+            .setPrettyPrinting()
+            .disableHtmlEscaping()
+            .create();
+
+    private static final Gson GSON_WITHOUT_INNER_CLASSES = new GsonBuilder()
+            .disableInnerClassSerialization()
+            .disableHtmlEscaping()
+            .create();
+
+    // The TwinCollectionTypeAdapter reads through the GSON above, so these are created after it
+    private static final Gson TWIN_READING_GSON = new GsonBuilder()
+            .excludeFieldsWithoutExposeAnnotation()
+            .disableHtmlEscaping()
+            .registerTypeAdapter(TwinCollection.class, new TwinCollectionTypeAdapter())
+            .create();
+
+    private static final Gson TWIN_WRITING_GSON = new GsonBuilder()
+            .disableHtmlEscaping()
+            .serializeNulls()
+            .registerTypeAdapter(TwinCollection.class, new TwinCollectionTypeAdapter())
+            .registerTypeAdapter(TwinProperties.class, new TwinPropertiesSerializer())
+            .create();
+
+    private GsonProvider()
+    {
+    }
+
+    /**
+     * @return a Gson with the default configuration.
+     */
+    public static Gson getGson()
+    {
+        return GSON;
+    }
+
+    /**
+     * @return a Gson that does not escape html characters.
+     */
+    public static Gson getGsonWithoutHtmlEscaping()
+    {
+        return GSON_WITHOUT_HTML_ESCAPING;
+    }
+
+    /**
+     * @return a Gson that includes fields with null values in the json that it creates.
+     */
+    public static Gson getGsonSerializingNulls()
+    {
+        return GSON_SERIALIZING_NULLS;
+    }
+
+    /**
+     * @return a Gson that includes fields with null values in the json that it creates, and does not escape html
+     * characters.
+     */
+    public static Gson getGsonSerializingNullsWithoutHtmlEscaping()
+    {
+        return GSON_SERIALIZING_NULLS_WITHOUT_HTML_ESCAPING;
+    }
+
+    /**
+     * @return a Gson that only serializes and deserializes the fields with the {@code @Expose} annotation, and does
+     * not escape html characters.
+     */
+    public static Gson getExposedFieldsGson()
+    {
+        return EXPOSED_FIELDS_GSON;
+    }
+
+    /**
+     * @return a Gson that only serializes and deserializes the fields with the {@code @Expose} annotation, and escapes
+     * html characters.
+     */
+    public static Gson getExposedFieldsGsonWithHtmlEscaping()
+    {
+        return EXPOSED_FIELDS_GSON_WITH_HTML_ESCAPING;
+    }
+
+    /**
+     * @return a Gson that creates pretty printed json, and does not escape html characters.
+     */
+    public static Gson getPrettyPrintingGson()
+    {
+        return PRETTY_PRINTING_GSON;
+    }
+
+    /**
+     * @return a Gson that ignores inner classes, and does not escape html characters.
+     */
+    public static Gson getGsonWithoutInnerClasses()
+    {
+        return GSON_WITHOUT_INNER_CLASSES;
+    }
+
+    /**
+     * @return a Gson that reads a twin, streaming the {@link TwinCollection} entries in, and only deserializes the
+     * fields with the {@code @Expose} annotation.
+     */
+    public static Gson getTwinReadingGson()
+    {
+        return TWIN_READING_GSON;
+    }
+
+    /**
+     * @return a Gson that writes a twin, including the desired and reported properties with null values, which the
+     * service uses to delete them, and does not escape html characters.
+     */
+    public static Gson getTwinWritingGson()
+    {
+        return TWIN_WRITING_GSON;
+    }
+}
@@ -4,13 +4,14 @@
 package com.microsoft.azure.sdk.iot.deps.serializer;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonWriter;
 import com.microsoft.azure.sdk.iot.deps.twin.TwinMetadata;
 
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
@@ -421,7 +422,7 @@ public class ParserUtility
     {
         /* Codes_SRS_PARSER_UTILITY_21_035: [The mapToJsonElement shall serialize the provided map into a JsonElement.] */
         /* Codes_SRS_PARSER_UTILITY_21_036: [The mapToJsonElement shall include keys with null values in the JsonElement.] */
-        Gson gson = new GsonBuilder().serializeNulls().create();
+        Gson gson = GsonProvider.getGsonSerializingNulls();
 
         /* Codes_SRS_PARSER_UTILITY_21_038: [If the map is empty, the mapToJsonElement shall return a empty JsonElement.] */
         JsonObject json = new JsonObject();
@@ -452,6 +453,50 @@ public class ParserUtility
         return json;
     }
 
+    /**
+     * Write the provided map as a JSON object directly into the provided {@code JsonWriter}.
+     *
+     * <p> This is the streaming version of {@link #mapToJsonElement(Map)}, it produces the same JSON
+     *     without building an intermediate {@code JsonElement} tree. The keys with null values are only
+     *     included if the writer serializes nulls, which is the {@code JsonWriter} default.
+     *
+     * @param writer the {@code JsonWriter} to write the JSON object to.
+     * @param map the {@code Map} with the content to write.
+     * @throws IllegalArgumentException if the map is {@code null}.
+     * @throws IOException if the writer fails to write the JSON.
+     */
+    @SuppressWarnings("unchecked")
+    public static void writeMap(JsonWriter writer, Map<String, Object> map) throws IllegalArgumentException, IOException
+    {
+        if(map == null)
+        {
+            throw new IllegalArgumentException("null map to parse");
+        }
+
+        Gson gson = GsonProvider.getGsonSerializingNulls();
+
+        writer.beginObject();
+        for (Map.Entry<String, Object> entry : map.entrySet())
+        {
+            writer.name(entry.getKey());
+
+            Object value = entry.getValue();
+            if (value == null)
+            {
+                writer.nullValue();
+            }
+            else if(value instanceof Map)
+            {
+                writeMap(writer, (Map<String, Object>) value);
+            }
+            else
+            {
+                gson.getAdapter((Class<Object>) value.getClass()).write(writer, value);
+            }
+        }
+        writer.endObject();
+    }
+
     public static Object resolveJsonElement(JsonElement jsonElement)
     {
         if (jsonElement == null || jsonElement.isJsonNull()) {
@@ -152,7 +152,7 @@ public class TwinParser
     public JsonElement toJsonElement()
     {
         /* Codes_SRS_TWINPARSER_21_017: [The toJsonElement shall return a JsonElement with information in the TwinParser using json format.] */
-        Gson gson = new GsonBuilder().disableHtmlEscaping().create();
+        Gson gson = GsonProvider.getGsonWithoutHtmlEscaping();
         JsonObject twinJson = gson.toJsonTree(manager).getAsJsonObject();
 
         /* Codes_SRS_TWINPARSER_21_018: [The toJsonElement shall not include null fields.] */
@@ -219,7 +219,7 @@ public class TwinParser
         validateMap(reportedPropertyMap);
         validateMap(tagsMap);
 
-        Gson gson = new GsonBuilder().disableHtmlEscaping().create();
+        Gson gson = GsonProvider.getGsonWithoutHtmlEscaping();
         jsonTwin = gson.toJsonTree(manager).getAsJsonObject();
 
         /* Codes_SRS_TWINPARSER_21_075: [If Tags is not enable and `tagsMap` is not null, the updateTwin shall throw IOException.] */
@@ -615,19 +615,17 @@ public class TwinParser
         }
 
         /* Codes_SRS_TWINPARSER_21_043: [If the provided json is not valid, the updateTwin shall throws IllegalArgumentException.] */
-        validateJson(json);
+        /* Codes_SRS_TWINPARSER_21_097: [If the provided json have any duplicated `properties` or `tags`, the updateTwin shall throw IllegalArgumentException.] */
+        /* Codes_SRS_TWINPARSER_21_098: [If the provided json is properties only and contains duplicated `desired` or `reported`, the updateTwin shall throws IllegalArgumentException.] */
+        Map<String, Object> jsonTree = validateJson(json);
 
         /* Codes_SRS_TWINPARSER_21_071: [If the provided json is empty, the updateTwin shall not change the collection and not call the OnDesiredCallback or the OnReportedCallback.] */
         if(!json.isEmpty())
         {
-            Gson gson = new GsonBuilder().disableInnerClassSerialization().disableHtmlEscaping().create();
-            Map<String, Object> jsonTree;
+            Gson gson = GsonProvider.getGsonWithoutInnerClasses();
             try
             {
-                /* Codes_SRS_TWINPARSER_21_097: [If the provided json have any duplicated `properties` or `tags`, the updateTwin shall throw IllegalArgumentException.] */
-                /* Codes_SRS_TWINPARSER_21_098: [If the provided json is properties only and contains duplicated `desired` or `reported`, the updateTwin shall throws IllegalArgumentException.] */
                 /* Codes_SRS_TWINPARSER_21_094: [If the provided json have any duplicated `key`, the updateTwin shall use the content of the last one in the String.] */
-                jsonTree = (Map<String, Object>) gson.fromJson(json, HashMap.class);
                 manager = gson.fromJson(json, RegisterManagerParser.class);
             }
             catch (JsonSyntaxException e)
@@ -1002,12 +1000,17 @@ public class TwinParser
         return this.manager.lastActivityTime;
     }
 
-    private void validateJson(String json) throws IllegalArgumentException
+    /**
+     * Parse and validate the provided twin json.
+     *
+     * @return the parsed json, so it is not parsed again by the caller. It is {@code null} if the json is empty.
+     */
+    private Map<String, Object> validateJson(String json) throws IllegalArgumentException
     {
         Map<String, Object> map;
         try
         {
-            Gson gson = new GsonBuilder().disableInnerClassSerialization().disableHtmlEscaping().create();
+            Gson gson = GsonProvider.getGsonWithoutInnerClasses();
             map = (Map<String, Object>) gson.fromJson(json, HashMap.class);
         }
         catch (Exception e)
@@ -1055,6 +1058,8 @@ public class TwinParser
                 throw new IllegalArgumentException("Json do not contains twin information");
             }
         }
+
+        return map;
     }
 
     private void validateMap(Map<String, Object> map) throws IllegalArgumentException
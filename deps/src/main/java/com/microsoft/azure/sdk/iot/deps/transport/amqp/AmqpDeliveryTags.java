@@ -0,0 +1,58 @@
+/*
+ *  Copyright (c) Microsoft. All rights reserved.
+ *  Licensed under the MIT license. See LICENSE file in the project root for full license information.
+ */
+
+package com.microsoft.azure.sdk.iot.deps.transport.amqp;
+
+/**
+ * Converts between the int delivery tags that senders use to track their in flight messages and the binary delivery
+ * tags that go on the wire. Each tag is the four byte, big endian encoding of the int, which avoids formatting the int
+ * as a decimal string for every message sent and parsing it back for every acknowledgement received.
+ */
+public final class AmqpDeliveryTags
+{
+    /**
+     * The value returned by {@link #toInt(byte[])} for tags that were not created by {@link #toBytes(int)}.
+     */
+    public static final int INVALID_DELIVERY_TAG = -1;
+
+    private static final int DELIVERY_TAG_LENGTH = 4;
+
+    private AmqpDeliveryTags()
+    {
+    }
+
+    /**
+     * @param deliveryTag the delivery tag to encode.
+     * @return the four byte, big endian encoding of the provided delivery tag.
+     */
+    public static byte[] toBytes(int deliveryTag)
+    {
+        return new byte[]
+            {
+                (byte) (deliveryTag >>> 24),
+                (byte) (deliveryTag >>> 16),
+                (byte) (deliveryTag >>> 8),
+                (byte) deliveryTag
+            };
+    }
+
+    /**
+     * @param deliveryTag a delivery tag that was created by {@link #toBytes(int)}.
+     * @return the int that the provided delivery tag encodes, or {@link #INVALID_DELIVERY_TAG} if it is null or is not
+     * four bytes long.
+     */
+    public static int toInt(byte[] deliveryTag)
+    {
+        if (deliveryTag == null || deliveryTag.length != DELIVERY_TAG_LENGTH)
+        {
+            return INVALID_DELIVERY_TAG;
+        }
+
+        return ((deliveryTag[0] & 0xFF) << 24)
+            | ((deliveryTag[1] & 0xFF) << 16)
+            | ((deliveryTag[2] & 0xFF) << 8)
+            | (deliveryTag[3] & 0xFF);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ *  Copyright (c) Microsoft. All rights reserved.
+ *  Licensed under the MIT license. See LICENSE file in the project root for full license information.
+ */
+
+package com.microsoft.azure.sdk.iot.deps.transport.amqp;
+
+import org.apache.qpid.proton.amqp.Binary;
+import org.apache.qpid.proton.amqp.messaging.ApplicationProperties;
+import org.apache.qpid.proton.amqp.messaging.Data;
+import org.apache.qpid.proton.amqp.messaging.Section;
+import org.apache.qpid.proton.message.Message;
+
+import java.nio.BufferOverflowException;
+import java.util.Map;
+
+/**
+ * Encodes proton-j messages into a buffer that is kept between messages, so that a sender link does not allocate a new
+ * buffer for every message it sends. The buffer is sized up front from an estimate of the encoded size of the message,
+ * so a message normally encodes on the first attempt instead of being retried into a buffer of twice the size until it
+ * fits.
+ *
+ * An instance is meant to be owned by a single link and is not thread safe. The encoded bytes are only valid until the
+ * next call to {@link #encode(Message)}, which is fine for proton-j senders since they copy the bytes they are given.
+ */
+public final class AmqpMessageEncoder
+{
+    static final int MINIMUM_BUFFER_SIZE = 1024;
+
+    // Buffers larger than this are not kept after the message that needed them has been encoded
+    static final int MAXIMUM_RETAINED_BUFFER_SIZE = 512 * 1024;
+
+    // Rough allowance for the header, properties and section descriptors of a message
+    private static final int ENCODING_OVERHEAD = 512;
+
+    // Rough allowance for each application property's key, value and type constructors
+    private static final int APPLICATION_PROPERTY_OVERHEAD = 64;
+
+    private byte[] buffer;
+
+    /**
+     * Encode the provided message into this encoder's buffer.
+     *
+     * @param message the message to encode.
+     * @return the number of bytes at the start of {@link #getBuffer()} that hold the encoded message.
+     * @throws IllegalArgumentException if the message is null.
+     */
+    public int encode(Message message) throws IllegalArgumentException
+    {
+        if (message == null)
+        {
+            throw new IllegalArgumentException("message cannot be null");
+        }
+
+        int estimatedSize = estimateEncodedSize(message);
+        if (this.buffer == null || this.buffer.length < estimatedSize || this.buffer.length > MAXIMUM_RETAINED_BUFFER_SIZE)
+        {
+            this.buffer = new byte[estimatedSize];
+        }
+
+        while (true)
+        {
+            try
+            {
+                return message.encode(this.buffer, 0, this.buffer.length);
+            }
+            catch (BufferOverflowException e)
+            {
+                this.buffer = new byte[this.buffer.length * 2];
+            }
+        }
+    }
+
+    /**
+     * @return the buffer that the last message was encoded into, or null if no message has been encoded yet.
+     */
+    public byte[] getBuffer()
+    {
+        return this.buffer;
+    }
+
+    static int estimateEncodedSize(Message message)
+    {
+        long estimate = ENCODING_OVERHEAD;
+
+        Section body = message.getBody();
+        if (body instanceof Data)
+        {
+            Binary binary = ((Data) body).getValue();
+            if (binary != null)
+            {
+                estimate += binary.getLength();
+            }
+        }
+
+        ApplicationProperties applicationProperties = message.getApplicationProperties();
+        if (applicationProperties != null)
+        {
+            Map<?, ?> properties = applicationProperties.getValue();
+            if (properties != null)
+            {
+                for (Map.Entry<?, ?> property : properties.entrySet())
+                {
+                    estimate += APPLICATION_PROPERTY_OVERHEAD;
+                    if (property.getKey() instanceof String)
+                    {
+                        estimate += ((String) property.getKey()).length();
+                    }
+                    if (property.getValue() instanceof String)
+                    {
+                        estimate += ((String) property.getValue()).length();
+                    }
+                }
+            }
+        }
+
+        // Round up to a multiple of the minimum size so that messages of similar sizes can share a buffer
+        long rounded = ((estimate + MINIMUM_BUFFER_SIZE - 1) / MINIMUM_BUFFER_SIZE) * MINIMUM_BUFFER_SIZE;
+        return (int) Math.min(rounded, Integer.MAX_VALUE - MINIMUM_BUFFER_SIZE);
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ *  Copyright (c) Microsoft. All rights reserved.
+ *  Licensed under the MIT license. See LICENSE file in the project root for full license information.
+ */
+
+package com.microsoft.azure.sdk.iot.deps.transport.amqp;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.qpid.proton.reactor.Reactor;
+import org.apache.qpid.proton.reactor.Selectable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.Pipe;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs work on a proton-j reactor thread on behalf of other threads. Proton-j's reactor is not thread safe, so anything
+ * that touches a connection, session or link has to happen on the reactor thread. Work handed to {@link #invoke(Runnable)}
+ * is queued, and the reactor is woken up through a pipe that is registered as one of its selectables, so the work runs as
+ * soon as the reactor gets to it rather than on the next timer task.
+ *
+ * An instance must be created on the reactor thread, typically from onReactorInit, and must be closed on the reactor thread
+ * once the connection is done so that the reactor is free to stop.
+ */
+@Slf4j
+public class ReactorDispatcher
+{
+    private static final int DRAIN_BUFFER_SIZE = 64;
+
+    private final Reactor reactor;
+    private final Pipe ioSignal;
+    private final Selectable selectable;
+    private final Queue<Runnable> workQueue = new ConcurrentLinkedQueue<>();
+
+    // Set while a wakeup byte is sitting in the pipe, so that a burst of invocations only wakes the reactor once
+    private final AtomicBoolean signalled = new AtomicBoolean(false);
+    private final ByteBuffer drainBuffer = ByteBuffer.allocate(DRAIN_BUFFER_SIZE);
+    private volatile boolean closed;
+
+    /**
+     * Create a dispatcher for the provided reactor. Must be called from the reactor thread.
+     * @param reactor the reactor that queued work will be run on
+     * @throws IOException if the wakeup pipe could not be opened
+     */
+    public ReactorDispatcher(Reactor reactor) throws IOException
+    {
+        if (reactor == null)
+        {
+            throw new IllegalArgumentException("reactor cannot be null");
+        }
+
+        this.reactor = reactor;
+        this.ioSignal = Pipe.open();
+        this.ioSignal.sink().configureBlocking(false);
+        this.ioSignal.source().configureBlocking(false);
+
+        this.selectable = reactor.selectable();
+        this.selectable.setChannel(this.ioSignal.source());
+        this.selectable.onReadable(new WorkHandler());
+        this.selectable.onFree(new FreeHandler());
+        this.selectable.setReading(true);
+        reactor.update(this.selectable);
+    }
+
+    /**
+     * Queue work to be run on the reactor thread and wake the reactor up. May be called from any thread.
+     * @param work the work to run on the reactor thread
+     * @throws RejectedExecutionException if this dispatcher has already been closed
+     */
+    public void invoke(Runnable work)
+    {
+        if (work == null)
+        {
+            throw new IllegalArgumentException("work cannot be null");
+        }
+
+        if (this.closed)
+        {
+            throw new RejectedExecutionException("Reactor dispatcher has been closed");
+        }
+
+        this.workQueue.add(work);
+
+        if (this.signalled.compareAndSet(false, true))
+        {
+            signal();
+        }
+    }
+
+    /**
+     * @return true if this dispatcher has been closed and will not accept any more work
+     */
+    public boolean isClosed()
+    {
+        return this.closed;
+    }
+
+    /**
+     * Stop accepting work and release the wakeup pipe so that the reactor no longer counts it as a child. Any work that
+     * was still queued is run first. Must be called from the reactor thread.
+     */
+    public void close()
+    {
+        if (this.closed)
+        {
+            return;
+        }
+
+        this.closed = true;
+        runQueuedWork();
+
+        this.selectable.terminate();
+        this.reactor.update(this.selectable);
+    }
+
+    private void signal()
+    {
+        try
+        {
+            ByteBuffer oneByte = ByteBuffer.allocate(1);
+            while (this.ioSignal.sink().write(oneByte) == 0)
+            {
+                // Pipe buffer is full; the reactor is already awake and will drain it
+                Thread.yield();
+            }
+        }
+        catch (ClosedChannelException e)
+        {
+            throw new RejectedExecutionException("Reactor dispatcher has been closed", e);
+        }
+        catch (IOException e)
+        {
+            // No wakeup byte made it into the pipe, so the next invocation has to try again rather than count on this one
+            this.signalled.set(false);
+            throw new RejectedExecutionException("Failed to wake up the reactor", e);
+        }
+    }
+
+    private void runQueuedWork()
+    {
+        Runnable work;
+        while ((work = this.workQueue.poll()) != null)
+        {
+            try
+            {
+                work.run();
+            }
+            catch (RuntimeException e)
+            {
+                log.warn("Work dispatched to the reactor thread threw an exception", e);
+            }
+        }
+    }
+
+    private class WorkHandler implements Selectable.Callback
+    {
+        @Override
+        public void run(Selectable selectable)
+        {
+            // Clear the flag before draining so that any work queued from here on signals again
+            signalled.set(false);
+
+            try
+            {
+                drainBuffer.clear();
+                while (ioSignal.source().read(drainBuffer) > 0)
+                {
+                    drainBuffer.clear();
+                }
+            }
+            catch (IOException e)
+            {
+                log.debug("Failed to drain the reactor dispatcher wakeup pipe", e);
+            }
+
+            runQueuedWork();
+        }
+    }
+
+    private class FreeHandler implements Selectable.Callback
+    {
+        @Override
+        public void run(Selectable selectable)
+        {
+            closed = true;
+
+            try
+            {
+                ioSignal.sink().close();
+                ioSignal.source().close();
+            }
+            catch (IOException e)
+            {
+                log.debug("Failed to close the reactor dispatcher wakeup pipe", e);
+            }
+        }
+    }
+}
@@ -5,13 +5,14 @@
 
 package com.microsoft.azure.sdk.iot.deps.transport.http;
 
+import com.microsoft.azure.sdk.iot.deps.util.Tools;
+
 import javax.net.ssl.HttpsURLConnection;
 import javax.net.ssl.SSLContext;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.ProtocolException;
 import java.net.URL;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -213,7 +214,7 @@ public class HttpConnection
         try (InputStream inputStream = this.connection.getInputStream())
         {
             // Codes_SRS_HTTPCONNECTION_25_016: [The function shall close the input stream after it has been completely read.]
-            input = readInputStream(inputStream);
+            input = Tools.readInputStream(inputStream, this.connection.getContentLengthLong());
         }
 
         return input;
@@ -240,7 +241,7 @@ public class HttpConnection
             // if there is no error reason, getErrorStream() returns null.
             if (errorStream != null)
             {
-                error = readInputStream(errorStream);
+                error = Tools.readInputStream(errorStream, this.connection.getContentLengthLong());
             }
         }
 
@@ -289,23 +290,7 @@ public class HttpConnection
     protected static byte[] readInputStream(InputStream stream)
             throws IOException
     {
-        ArrayList<Byte> byteBuffer = new ArrayList<>();
-        int nextByte = -1;
-        // read(byte[]) reads the byte into the buffer and returns the number
-        // of bytes read, or -1 if the end of the stream has been reached.
-        while ((nextByte = stream.read()) > -1)
-        {
-            byteBuffer.add((byte) nextByte);
-        }
-
-        int bufferSize = byteBuffer.size();
-        byte[] byteArray = new byte[bufferSize];
-        for (int i = 0; i < bufferSize; ++i)
-        {
-            byteArray[i] = byteBuffer.get(i);
-        }
-
-        return byteArray;
+        return Tools.readInputStream(stream, -1);
     }
 
     void setSSLContext(SSLContext sslContext) throws IllegalArgumentException
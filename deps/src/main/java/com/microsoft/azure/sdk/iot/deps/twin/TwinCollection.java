@@ -5,9 +5,12 @@ package com.microsoft.azure.sdk.iot.deps.twin;
 
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
 import com.microsoft.azure.sdk.iot.deps.serializer.ParserUtility;
 import com.microsoft.azure.sdk.iot.deps.util.Tools;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -391,11 +394,13 @@ public class TwinCollection extends HashMap<String, Object>
             }
             else
             {
-                /* SRS_TWIN_COLLECTION_21_015: [The constructor shall throw IllegalArgumentException if the Twin collection contain more than 5 levels.] */
-                twinCollection.putFinal(entry.getKey(), entry.getValue());
+                twinCollection.putWithoutValidation(entry.getKey(), entry.getValue());
             }
         }
 
+        /* SRS_TWIN_COLLECTION_21_015: [The constructor shall throw IllegalArgumentException if the Twin collection contain more than 5 levels.] */
+        ParserUtility.validateMap(twinCollection);
+
         if(metadata != null)
         {
             TwinCollection.addMetadata(twinCollection, metadata);
@@ -404,6 +409,46 @@ public class TwinCollection extends HashMap<String, Object>
         return twinCollection;
     }
 
+    /**
+     * Internal copy of a raw map, typically just deserialized, into a new TwinCollection.
+     *
+     * <p> It converts the inner maps in inner TwinCollections in the same way as {@link #putAllFinal(Map)},
+     *     but it does not validate the collection after each entry, which would make the copy of a
+     *     collection with n entries cost n validations of the whole collection. The caller shall
+     *     validate the final collection once, if needed.
+     *
+     * @param rawMap the {@code Map} to copy. It cannot be {@code null}.
+     * @return The new instance of the {@link TwinCollection}.
+     * @throws IllegalArgumentException If the provided map contains a {@code null} or empty key.
+     */
+    static TwinCollection copyWithoutValidation(Map<? extends String, ?> rawMap)
+    {
+        TwinCollection twinCollection = new TwinCollection();
+        for (Map.Entry<? extends String, ?> entry: rawMap.entrySet())
+        {
+            twinCollection.putWithoutValidation(entry.getKey(), entry.getValue());
+        }
+
+        return twinCollection;
+    }
+
+    private void putWithoutValidation(String key, Object value)
+    {
+        if (key == null || key.isEmpty())
+        {
+            throw new IllegalArgumentException("Key cannot be null or empty");
+        }
+
+        if(value instanceof Map)
+        {
+            super.put(key, copyWithoutValidation((Map<? extends String, ?>)value));
+        }
+        else
+        {
+            super.put(key, value);
+        }
+    }
+
 
     private static void addMetadata(TwinCollection twinCollection, Map<? extends String, Object> metadata)
     {
@@ -463,6 +508,33 @@ public class TwinCollection extends HashMap<String, Object>
         return ParserUtility.mapToJsonElement(this);
     }
 
+    /**
+     * Serializer
+     *
+     * <p> Creates a JSON {@code String} with the same content as {@link #toJsonElement()}, but writes
+     *     it directly, without building the intermediate {@code JsonElement} tree.
+     *
+     * @return The {@code String} with the JSON content of this class, without metadata.
+     */
+    public String toJson()
+    {
+        StringWriter stringWriter = new StringWriter();
+        JsonWriter jsonWriter = new JsonWriter(stringWriter);
+        jsonWriter.setLenient(true);
+        try
+        {
+            ParserUtility.writeMap(jsonWriter, this);
+            jsonWriter.flush();
+        }
+        catch (IOException e)
+        {
+            // A StringWriter never throws IOException
+            throw new IllegalStateException(e);
+        }
+
+        return stringWriter.toString();
+    }
+
     /**
      * Serializer with metadata.
      *
@@ -0,0 +1,59 @@
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+
+package com.microsoft.azure.sdk.iot.deps.twin;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.microsoft.azure.sdk.iot.deps.serializer.GsonProvider;
+import com.microsoft.azure.sdk.iot.deps.serializer.ParserUtility;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Gson type adapter that streams a {@link TwinCollection} in and out of JSON.
+ *
+ * <p> Without it, Gson fills a TwinCollection by calling {@link TwinCollection#put(String, Object)} for each entry,
+ *     which validates the whole collection on every call. This adapter reads the entries as a plain map and
+ *     copies them into the TwinCollection, validating the result only once.
+ *
+ * <p> As in the Gson default deserialization, the {@code $version} and {@code $metadata} are kept as regular
+ *     entries of the collection, so the result shall still be reorganized by
+ *     {@link TwinCollection#createFromRawCollection(Map)}.
+ */
+public final class TwinCollectionTypeAdapter extends TypeAdapter<TwinCollection>
+{
+    private static final TypeAdapter<Map<String, Object>> MAP_ADAPTER =
+            GsonProvider.getGson().getAdapter(new TypeToken<Map<String, Object>>() {});
+
+    @Override
+    public void write(JsonWriter writer, TwinCollection twinCollection) throws IOException
+    {
+        if (twinCollection == null)
+        {
+            writer.nullValue();
+        }
+        else
+        {
+            ParserUtility.writeMap(writer, twinCollection);
+        }
+    }
+
+    @Override
+    public TwinCollection read(JsonReader reader) throws IOException
+    {
+        if (reader.peek() == JsonToken.NULL)
+        {
+            reader.nextNull();
+            return null;
+        }
+
+        TwinCollection twinCollection = TwinCollection.copyWithoutValidation(MAP_ADAPTER.read(reader));
+        ParserUtility.validateMap(twinCollection);
+        return twinCollection;
+    }
+}
@@ -0,0 +1,25 @@
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+
+package com.microsoft.azure.sdk.iot.deps.twin;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonSerializationContext;
+import com.google.gson.JsonSerializer;
+
+import java.lang.reflect.Type;
+
+/**
+ * Gson serializer that writes the {@link TwinProperties} with {@link TwinProperties#toJsonElement()}, which keeps the
+ * desired and reported properties with null values, since the service uses them to delete the properties.
+ *
+ * <p> It only serializes, so a Gson that registers it still deserializes the TwinProperties by reflection.
+ */
+public final class TwinPropertiesSerializer implements JsonSerializer<TwinProperties>
+{
+    @Override
+    public JsonElement serialize(TwinProperties twinProperties, Type typeOfSrc, JsonSerializationContext context)
+    {
+        return twinProperties.toJsonElement();
+    }
+}
@@ -283,13 +283,74 @@ public final class Base64
         return new String(encodeBase64Internal(dataValues));
     }
 
+    /**
+     * Returns the number of Base64 values needed to encode the provided number of bytes.
+     *
+     * @param dataLength is the number of bytes to encode
+     * @return the length of the encoded result, including padding
+     * @throws IllegalArgumentException if the provided length is negative
+     */
+    public static int encodedLengthBase64(int dataLength) throws IllegalArgumentException
+    {
+        if(dataLength < 0)
+        {
+            throw new IllegalArgumentException("dataLength cannot be negative");
+        }
+
+        if(dataLength == 0)
+        {
+            return 0;
+        }
+
+        return (((dataLength - 1) / BYTE_GROUP_SIZE) + 1) * BASE64_GROUP_SIZE;
+    }
+
+    /**
+     * Convert a array of bytes in MIME Base64 values, writing them into an existing array rather than allocating
+     * a new one. <a href="http://www.ietf.org/rfc/rfc2045.txt">RFC 2045</a>.
+     *
+     * @param dataValues is an array of bytes with the original values
+     * @param destination is the array the base64 values are written to
+     * @param destinationOffset is the position in the destination of the first base64 value
+     * @return the number of base64 values written, see {@link #encodedLengthBase64(int)}
+     * @throws IllegalArgumentException if the provided arrays are null, or the destination is too small
+     */
+    public static int encodeBase64Local(byte[] dataValues, byte[] destination, int destinationOffset) throws IllegalArgumentException
+    {
+        if(dataValues == null)
+        {
+            throw new IllegalArgumentException("null dataValues");
+        }
+
+        if(destination == null)
+        {
+            throw new IllegalArgumentException("null destination");
+        }
+
+        int encodedLength = encodedLengthBase64(dataValues.length);
+        if(destinationOffset < 0 || destination.length - destinationOffset < encodedLength)
+        {
+            throw new IllegalArgumentException("destination is too small for the encoded values");
+        }
+
+        if(encodedLength > 0)
+        {
+            encodeBase64Internal(dataValues, destination, destinationOffset);
+        }
+
+        return encodedLength;
+    }
+
     private static byte[] encodeBase64Internal(byte[] dataValues) throws IllegalArgumentException
     {
-        int encodedLength = (((dataValues.length - 1) / BYTE_GROUP_SIZE) + 1) * BASE64_GROUP_SIZE;
-        int destinationPosition = 0;
-        int currentPosition = 0;
+        byte[] encodedResult = new byte[encodedLengthBase64(dataValues.length)];
+        encodeBase64Internal(dataValues, encodedResult, 0);
+        return encodedResult;
+    }
 
-        byte[] encodedResult = new byte[encodedLength];
+    private static void encodeBase64Internal(byte[] dataValues, byte[] encodedResult, int destinationPosition) throws IllegalArgumentException
+    {
+        int currentPosition = 0;
 
         while((dataValues.length - currentPosition) >= BYTE_GROUP_SIZE)
         {
@@ -318,7 +379,5 @@ public final class Base64
             encodedResult[destinationPosition++] = BASE64_PAD;
             encodedResult[destinationPosition] = BASE64_PAD;
         }
-
-        return encodedResult;
     }
 }
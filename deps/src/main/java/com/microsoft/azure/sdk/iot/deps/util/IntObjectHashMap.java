@@ -0,0 +1,233 @@
+/*
+ *  Copyright (c) Microsoft. All rights reserved.
+ *  Licensed under the MIT license. See LICENSE file in the project root for full license information.
+ */
+
+package com.microsoft.azure.sdk.iot.deps.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A hash map from int keys to non-null values that stores its keys in a plain int array, so that looking up, adding and
+ * removing entries neither boxes the key nor allocates an entry object. Collisions are resolved by linear probing, and
+ * removals shift the following entries back so that no tombstones are left behind.
+ *
+ * This map is not thread safe.
+ *
+ * @param <V> the type of the values in this map.
+ */
+public final class IntObjectHashMap<V>
+{
+    private static final int DEFAULT_CAPACITY = 16;
+
+    // The table is grown once it is more than half full, which keeps probe sequences short
+    private static final int MAXIMUM_LOAD_DIVISOR = 2;
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    private int mask;
+
+    public IntObjectHashMap()
+    {
+        this.allocate(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param key the key to look up.
+     * @return the value mapped to the provided key, or null if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key)
+    {
+        int index = this.indexOf(key);
+        return index < 0 ? null : (V) this.values[index];
+    }
+
+    /**
+     * @param key the key to look up.
+     * @return true if a value is mapped to the provided key.
+     */
+    public boolean containsKey(int key)
+    {
+        return this.indexOf(key) >= 0;
+    }
+
+    /**
+     * Map the provided value to the provided key.
+     *
+     * @param key the key to map the value to.
+     * @param value the value. May not be null.
+     * @return the value that was previously mapped to the key, or null if there was none.
+     * @throws IllegalArgumentException if the value is null.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) throws IllegalArgumentException
+    {
+        if (value == null)
+        {
+            throw new IllegalArgumentException("value cannot be null");
+        }
+
+        int index = hash(key) & this.mask;
+        while (this.values[index] != null)
+        {
+            if (this.keys[index] == key)
+            {
+                V previousValue = (V) this.values[index];
+                this.values[index] = value;
+                return previousValue;
+            }
+
+            index = (index + 1) & this.mask;
+        }
+
+        this.keys[index] = key;
+        this.values[index] = value;
+        this.size++;
+
+        if (this.size > this.values.length / MAXIMUM_LOAD_DIVISOR)
+        {
+            this.rehash(this.values.length * 2);
+        }
+
+        return null;
+    }
+
+    /**
+     * Remove the value mapped to the provided key, if there is one.
+     *
+     * @param key the key to remove.
+     * @return the value that was mapped to the key, or null if there was none.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key)
+    {
+        int index = this.indexOf(key);
+        if (index < 0)
+        {
+            return null;
+        }
+
+        V removedValue = (V) this.values[index];
+        this.values[index] = null;
+        this.size--;
+
+        // Move back any following entries of the probe sequence that can no longer be reached past the emptied slot
+        int emptyIndex = index;
+        int nextIndex = (index + 1) & this.mask;
+        while (this.values[nextIndex] != null)
+        {
+            int homeIndex = hash(this.keys[nextIndex]) & this.mask;
+            if (((nextIndex - homeIndex) & this.mask) >= ((nextIndex - emptyIndex) & this.mask))
+            {
+                this.keys[emptyIndex] = this.keys[nextIndex];
+                this.values[emptyIndex] = this.values[nextIndex];
+                this.values[nextIndex] = null;
+                emptyIndex = nextIndex;
+            }
+
+            nextIndex = (nextIndex + 1) & this.mask;
+        }
+
+        return removedValue;
+    }
+
+    /**
+     * @return the number of entries in this map.
+     */
+    public int size()
+    {
+        return this.size;
+    }
+
+    /**
+     * @return true if this map has no entries.
+     */
+    public boolean isEmpty()
+    {
+        return this.size == 0;
+    }
+
+    /**
+     * Remove every entry from this map.
+     */
+    public void clear()
+    {
+        Arrays.fill(this.values, null);
+        this.size = 0;
+    }
+
+    /**
+     * @return a copy of the values in this map, in no particular order. Changes to this map are not reflected in the
+     * returned list.
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> values()
+    {
+        List<V> copy = new ArrayList<>(this.size);
+        for (Object value : this.values)
+        {
+            if (value != null)
+            {
+                copy.add((V) value);
+            }
+        }
+
+        return copy;
+    }
+
+    private int indexOf(int key)
+    {
+        int index = hash(key) & this.mask;
+        while (this.values[index] != null)
+        {
+            if (this.keys[index] == key)
+            {
+                return index;
+            }
+
+            index = (index + 1) & this.mask;
+        }
+
+        return -1;
+    }
+
+    private void rehash(int capacity)
+    {
+        int[] oldKeys = this.keys;
+        Object[] oldValues = this.values;
+        this.allocate(capacity);
+
+        for (int i = 0; i < oldValues.length; i++)
+        {
+            if (oldValues[i] != null)
+            {
+                int index = hash(oldKeys[i]) & this.mask;
+                while (this.values[index] != null)
+                {
+                    index = (index + 1) & this.mask;
+                }
+
+                this.keys[index] = oldKeys[i];
+                this.values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity)
+    {
+        this.keys = new int[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+    }
+
+    private static int hash(int key)
+    {
+        // Spread sequential keys, like delivery tags, across the table
+        int hash = key * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -9,6 +9,9 @@ import javax.json.JsonNumber;
 import javax.json.JsonObject;
 import javax.json.JsonString;
 import javax.json.JsonValue;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
 import java.util.Map;
 
 /**
@@ -16,6 +19,12 @@ import java.util.Map;
  */
 public class Tools
 {
+    /** Size of the read buffer used when the length of a stream is not known up front. */
+    private static final int DEFAULT_READ_BUFFER_SIZE = 4096;
+
+    /** Upper bound on how much is allocated up front based on the expected length of a stream. */
+    private static final int MAX_PRESIZED_READ_BUFFER_SIZE = 4 * 1024 * 1024;
+
     /**
      * Helper function to check if the input string is null or empty
      *
@@ -268,4 +277,68 @@ public class Tools
         //neither is null, so this comparison won't throw
         return a.equals(b);
     }
+
+    /**
+     * Helper function to read the input stream until the stream is empty, reading in bulk rather than one byte at a
+     * time. The stream is not closed.
+     *
+     * @param stream The input stream to read
+     * @param expectedLength The expected number of bytes in the stream, usually taken from the Content-Length header
+     *                       of a response, or a negative value if unknown. Used only to size the read buffer, so a
+     *                       wrong value costs a copy and nothing else.
+     * @return The content of the input stream
+     * @throws IOException if the input stream could not be read from
+     */
+    public static byte[] readInputStream(InputStream stream, long expectedLength) throws IOException
+    {
+        int initialSize = DEFAULT_READ_BUFFER_SIZE;
+        if (expectedLength >= 0)
+        {
+            initialSize = (int) Math.min(expectedLength, MAX_PRESIZED_READ_BUFFER_SIZE);
+        }
+
+        byte[] buffer = new byte[initialSize];
+        int count = 0;
+        while (true)
+        {
+            if (count == buffer.length)
+            {
+                // The buffer is exactly full, which is the normal case when the expected length was accurate.
+                // Check for the end of the stream before growing so that an exact fit never gets copied.
+                int nextByte = stream.read();
+                if (nextByte < 0)
+                {
+                    break;
+                }
+
+                buffer = Arrays.copyOf(buffer, Math.max(DEFAULT_READ_BUFFER_SIZE, buffer.length * 2));
+                buffer[count++] = (byte) nextByte;
+            }
+
+            int bytesRead = stream.read(buffer, count, buffer.length - count);
+            if (bytesRead < 0)
+            {
+                break;
+            }
+
+            if (bytesRead == 0)
+            {
+                // read(byte[], int, int) should block rather than return 0, but not every stream honours
+                // that. Fall back to a single byte read so that the loop always makes progress.
+                int nextByte = stream.read();
+                if (nextByte < 0)
+                {
+                    break;
+                }
+
+                buffer[count++] = (byte) nextByte;
+            }
+            else
+            {
+                count += bytesRead;
+            }
+        }
+
+        return count == buffer.length ? buffer : Arrays.copyOf(buffer, count);
+    }
 }
@@ -7,17 +7,23 @@ package com.microsoft.azure.sdk.iot.deps.ws.impl;
 import com.microsoft.azure.sdk.iot.deps.ws.WebSocketHandler;
 import com.microsoft.azure.sdk.iot.deps.ws.WebSocketHeader;
 
-import java.io.ByteArrayOutputStream;
 import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.security.SecureRandom;
 import java.util.Map;
 import java.util.Random;
 
 public class WebSocketHandlerImpl implements WebSocketHandler
 {
+    private static final int MASKING_KEY_LENGTH = 4;
+    private static final int LONG_BYTES = 8;
+
     private WebSocketUpgrade _webSocketUpgrade = null;
 
+    // Seeded once per connection. Creating a SecureRandom for every frame costs more than masking the frame.
+    private final Random _maskingKeyRandom = new SecureRandom();
+
     @Override
     public String createUpgradeRequest(String hostName, String webSocketPath, int webSocketPort, String webSocketProtocol, Map<String, String> additionalHeaders)
     {
@@ -83,6 +89,8 @@ public class WebSocketHandlerImpl implements WebSocketHandler
             throw new IllegalArgumentException("input parameter is null");
         }
 
+        dstBuffer.clear();
+
         if (srcBuffer.remaining() > 0)
         {
             // We always send masked data
@@ -92,14 +100,17 @@ public class WebSocketHandlerImpl implements WebSocketHandler
             // Get data length
             final int DATA_LENGTH = srcBuffer.remaining();
 
-            // Auto growing buffer for the WS frame, initialized to minimum size
-            ByteArrayOutputStream webSocketFrame = new ByteArrayOutputStream(WebSocketHeader.MIN_HEADER_LENGTH_MASKED + DATA_LENGTH);
+            // The frame is written straight into the destination buffer, so it must fit before anything is written
+            if (dstBuffer.capacity() < calculateHeaderSize(DATA_LENGTH) + DATA_LENGTH)
+            {
+                throw new OutOfMemoryError("insufficient output buffer size");
+            }
 
             // Create the first byte
             // We always send final WebSocket frame
             // We always send binary message (AMQP)
             byte firstByte = (byte) (WebSocketHeader.FINBIT_MASK | WebSocketHeader.OPCODE_BINARY);
-            webSocketFrame.write(firstByte);
+            dstBuffer.put(firstByte);
 
             // Create the second byte
             // RFC: "client MUST mask all frames that it sends to the server"
@@ -109,67 +120,84 @@ public class WebSocketHandlerImpl implements WebSocketHandler
             if (DATA_LENGTH <= WebSocketHeader.PAYLOAD_SHORT_MAX)
             {
                 secondByte = (byte) (secondByte | DATA_LENGTH);
-                webSocketFrame.write(secondByte);
+                dstBuffer.put(secondByte);
             }
             // RFC: If 126, the following 2 bytes interpreted as a 16-bit unsigned integer are the payload length
             else if (DATA_LENGTH <= WebSocketHeader.PAYLOAD_MEDIUM_MAX)
             {
                 // Create payload byte
                 secondByte = (byte) (secondByte | WebSocketHeader.PAYLOAD_EXTENDED_16);
-                webSocketFrame.write(secondByte);
+                dstBuffer.put(secondByte);
 
                 // Create extended length bytes
-                webSocketFrame.write((byte) (DATA_LENGTH >>> 8));
-                webSocketFrame.write((byte) (DATA_LENGTH));
+                dstBuffer.put((byte) (DATA_LENGTH >>> 8));
+                dstBuffer.put((byte) (DATA_LENGTH));
             }
             // RFC: If 127, the following 8 bytes interpreted as a 64-bit unsigned integer (the most significant bit MUST be 0) are the payload length.
             // No need for "else if" because if it is longer than what 8 byte length can hold... all bets are off anyway
             else
             {
                 secondByte = (byte) (secondByte | WebSocketHeader.PAYLOAD_EXTENDED_64);
-                webSocketFrame.write(secondByte);
-
-                webSocketFrame.write((byte) (DATA_LENGTH >>> 56));
-                webSocketFrame.write((byte) (DATA_LENGTH >>> 48));
-                webSocketFrame.write((byte) (DATA_LENGTH >>> 40));
-                webSocketFrame.write((byte) (DATA_LENGTH >>> 32));
-                webSocketFrame.write((byte) (DATA_LENGTH >>> 24));
-                webSocketFrame.write((byte) (DATA_LENGTH >>> 16));
-                webSocketFrame.write((byte) (DATA_LENGTH >>> 8));
-                webSocketFrame.write((byte) (DATA_LENGTH));
+                dstBuffer.put(secondByte);
+
+                dstBuffer.put((byte) (DATA_LENGTH >>> 56));
+                dstBuffer.put((byte) (DATA_LENGTH >>> 48));
+                dstBuffer.put((byte) (DATA_LENGTH >>> 40));
+                dstBuffer.put((byte) (DATA_LENGTH >>> 32));
+                dstBuffer.put((byte) (DATA_LENGTH >>> 24));
+                dstBuffer.put((byte) (DATA_LENGTH >>> 16));
+                dstBuffer.put((byte) (DATA_LENGTH >>> 8));
+                dstBuffer.put((byte) (DATA_LENGTH));
             }
 
             // Write mask
-            webSocketFrame.write(MASKING_KEY[0]);
-            webSocketFrame.write(MASKING_KEY[1]);
-            webSocketFrame.write(MASKING_KEY[2]);
-            webSocketFrame.write(MASKING_KEY[3]);
+            dstBuffer.put(MASKING_KEY, 0, MASKING_KEY_LENGTH);
 
             // Write masked data
-            for (int i = 0; i < DATA_LENGTH; i++)
-            {
-                byte nextByte = srcBuffer.get();
-                nextByte ^= MASKING_KEY[i % 4];
-                webSocketFrame.write(nextByte);
-            }
+            mask(srcBuffer, dstBuffer, MASKING_KEY, DATA_LENGTH);
+        }
+    }
 
-            // Copy frame to destination buffer
-            dstBuffer.clear();
-            if (dstBuffer.capacity() >= webSocketFrame.size())
-            {
-                dstBuffer.put(webSocketFrame.toByteArray());
-            }
-            else
+    /**
+     * Copy {@code length} bytes from the source to the destination buffer, masking them with the provided key.
+     *
+     * <p> When both buffers have the same byte order, the bytes are masked 8 at a time, as longs. Since 8 is a
+     *     multiple of the key length, the key keeps lining up with the bytes, and only the last bytes of the
+     *     payload are masked one by one.
+     */
+    private static void mask(ByteBuffer srcBuffer, ByteBuffer dstBuffer, byte[] maskingKey, int length)
+    {
+        int i = 0;
+        if (srcBuffer.order() == dstBuffer.order())
+        {
+            final long WIDE_MASKING_KEY = createWideMaskingKey(maskingKey, srcBuffer.order());
+            for (; i + LONG_BYTES <= length; i += LONG_BYTES)
             {
-                throw new OutOfMemoryError("insufficient output buffer size");
+                dstBuffer.putLong(srcBuffer.getLong() ^ WIDE_MASKING_KEY);
             }
         }
-        else
+
+        for (; i < length; i++)
         {
-            dstBuffer.clear();
+            dstBuffer.put((byte) (srcBuffer.get() ^ maskingKey[i % MASKING_KEY_LENGTH]));
         }
     }
 
+    /**
+     * @return the masking key repeated twice in a long, laid out so that reading 8 bytes from a buffer with the
+     * provided byte order and XORing them with it masks each byte with the right byte of the key.
+     */
+    private static long createWideMaskingKey(byte[] maskingKey, ByteOrder byteOrder)
+    {
+        long key = ((maskingKey[0] & 0xFFL) << 24)
+                | ((maskingKey[1] & 0xFFL) << 16)
+                | ((maskingKey[2] & 0xFFL) << 8)
+                | (maskingKey[3] & 0xFFL);
+        long wideKey = (key << 32) | key;
+
+        return byteOrder == ByteOrder.BIG_ENDIAN ? wideKey : Long.reverseBytes(wideKey);
+    }
+
     @Override
     public WebsocketTuple unwrapBuffer(ByteBuffer srcBuffer)
     {
@@ -265,9 +293,8 @@ public class WebSocketHandlerImpl implements WebSocketHandler
 
     protected byte[] createRandomMaskingKey()
     {
-        final byte[] maskingKey = new byte[4];
-        Random random = new SecureRandom();
-        random.nextBytes(maskingKey);
+        final byte[] maskingKey = new byte[MASKING_KEY_LENGTH];
+        _maskingKeyRandom.nextBytes(maskingKey);
 
         return maskingKey;
     }
@@ -355,22 +355,14 @@ public class WebSocketImpl implements WebSocket, TransportLayer
                                     readInputBuffer();
                                     _temp.flip();
 
-                                    final byte[] data;
-                                    if(_temp.remaining() >= _lastLength-_bytesRead)
-                                    {
-                                        data = new byte[(int)(_lastLength-_bytesRead)];
-                                        _temp.get(data, 0, (int)(_lastLength-_bytesRead));
-                                        _wsInputBuffer.put(data);
-                                        _bytesRead += _lastLength-_bytesRead;
-                                    }
-                                    //Otherwise the remaining bytes is < the rest that we need
-                                    else
-                                    {
-                                        data = new byte[_temp.remaining()];
-                                        _temp.get(data);
-                                        _wsInputBuffer.put(data);
-                                        _bytesRead += data.length;
-                                    }
+                                    //Copy the rest of the frame, or all that was read if the frame is not complete yet,
+                                    //straight from one buffer to the other
+                                    final int bytesToCopy = (int) Math.min(_temp.remaining(), _lastLength - _bytesRead);
+                                    final int tempLimit = _temp.limit();
+                                    _temp.limit(_temp.position() + bytesToCopy);
+                                    _wsInputBuffer.put(_temp);
+                                    _temp.limit(tempLimit);
+                                    _bytesRead += bytesToCopy;
 
                                     //Send whatever we have
                                     sendToUnderlyingInput();
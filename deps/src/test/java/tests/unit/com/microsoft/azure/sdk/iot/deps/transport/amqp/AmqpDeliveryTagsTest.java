@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) Microsoft. All rights reserved.
+ * Licensed under the MIT license. See LICENSE file in the project root for full license information.
+ */
+
+package tests.unit.com.microsoft.azure.sdk.iot.deps.transport.amqp;
+
+import com.microsoft.azure.sdk.iot.deps.transport.amqp.AmqpDeliveryTags;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for AmqpDeliveryTags
+ */
+public class AmqpDeliveryTagsTest
+{
+    @Test
+    public void toBytesIsBigEndian()
+    {
+        assertArrayEquals(new byte[] {0, 0, 1, 2}, AmqpDeliveryTags.toBytes(258));
+    }
+
+    @Test
+    public void toIntReversesToBytes()
+    {
+        int[] deliveryTags = {0, 1, 255, 256, 65536, Integer.MAX_VALUE, -1, Integer.MIN_VALUE};
+        for (int deliveryTag : deliveryTags)
+        {
+            assertEquals(deliveryTag, AmqpDeliveryTags.toInt(AmqpDeliveryTags.toBytes(deliveryTag)));
+        }
+    }
+
+    @Test
+    public void toIntReturnsInvalidTagForTagsOfTheWrongLength()
+    {
+        assertEquals(AmqpDeliveryTags.INVALID_DELIVERY_TAG, AmqpDeliveryTags.toInt(null));
+        assertEquals(AmqpDeliveryTags.INVALID_DELIVERY_TAG, AmqpDeliveryTags.toInt("12".getBytes()));
+        assertEquals(AmqpDeliveryTags.INVALID_DELIVERY_TAG, AmqpDeliveryTags.toInt(new byte[5]));
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) Microsoft. All rights reserved.
+ * Licensed under the MIT license. See LICENSE file in the project root for full license information.
+ */
+
+package tests.unit.com.microsoft.azure.sdk.iot.deps.transport.amqp;
+
+import com.microsoft.azure.sdk.iot.deps.transport.amqp.AmqpMessageEncoder;
+import org.apache.qpid.proton.Proton;
+import org.apache.qpid.proton.amqp.Binary;
+import org.apache.qpid.proton.amqp.messaging.ApplicationProperties;
+import org.apache.qpid.proton.amqp.messaging.Data;
+import org.apache.qpid.proton.message.Message;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for AmqpMessageEncoder. These use real proton-j messages so that the encoded bytes can be decoded again.
+ */
+public class AmqpMessageEncoderTest
+{
+    private static Message createMessage(int bodySize, int propertyCount)
+    {
+        Message message = Proton.message();
+        message.setBody(new Data(new Binary(new byte[bodySize])));
+
+        Map<String, Object> properties = new HashMap<>();
+        for (int i = 0; i < propertyCount; i++)
+        {
+            properties.put("key" + i, "value" + i);
+        }
+        message.setApplicationProperties(new ApplicationProperties(properties));
+        return message;
+    }
+
+    private static Message decode(AmqpMessageEncoder encoder, int length)
+    {
+        Message decoded = Proton.message();
+        decoded.decode(encoder.getBuffer(), 0, length);
+        return decoded;
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void encodeThrowsForNullMessage()
+    {
+        new AmqpMessageEncoder().encode(null);
+    }
+
+    @Test
+    public void encodedMessageDecodesToTheSameMessage()
+    {
+        // arrange
+        AmqpMessageEncoder encoder = new AmqpMessageEncoder();
+        Message message = createMessage(100, 3);
+
+        // act
+        int length = encoder.encode(message);
+
+        // assert
+        Message decoded = decode(encoder, length);
+        assertEquals(100, ((Data) decoded.getBody()).getValue().getLength());
+        assertEquals("value2", decoded.getApplicationProperties().getValue().get("key2"));
+    }
+
+    @Test
+    public void bufferIsReusedForMessagesThatFit()
+    {
+        // arrange
+        AmqpMessageEncoder encoder = new AmqpMessageEncoder();
+        encoder.encode(createMessage(100, 1));
+        byte[] firstBuffer = encoder.getBuffer();
+
+        // act
+        encoder.encode(createMessage(200, 1));
+
+        // assert
+        assertSame(firstBuffer, encoder.getBuffer());
+    }
+
+    @Test
+    public void bufferIsSizedFromTheMessageBody()
+    {
+        // arrange
+        AmqpMessageEncoder encoder = new AmqpMessageEncoder();
+        Message message = createMessage(64 * 1024, 0);
+
+        // act
+        int length = encoder.encode(message);
+
+        // assert
+        assertTrue(encoder.getBuffer().length >= length);
+        assertTrue(encoder.getBuffer().length < 2 * 64 * 1024);
+        assertEquals(64 * 1024, ((Data) decode(encoder, length).getBody()).getValue().getLength());
+    }
+
+    @Test
+    public void bufferGrowsWhenTheEstimateIsTooSmall()
+    {
+        // arrange
+        AmqpMessageEncoder encoder = new AmqpMessageEncoder();
+        Message message = createMessage(10, 0);
+        StringBuilder longValue = new StringBuilder();
+        for (int i = 0; i < 4096; i++)
+        {
+            longValue.append('\u00e9');
+        }
+        // Two bytes per character once encoded as UTF-8, so the estimate based on the string length is too small
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("key", longValue.toString());
+        message.setApplicationProperties(new ApplicationProperties(properties));
+
+        // act
+        int length = encoder.encode(message);
+
+        // assert
+        assertEquals(longValue.toString(), decode(encoder, length).getApplicationProperties().getValue().get("key"));
+    }
+
+    @Test
+    public void largeBufferIsNotKeptForSmallMessages()
+    {
+        // arrange
+        AmqpMessageEncoder encoder = new AmqpMessageEncoder();
+        encoder.encode(createMessage(1024 * 1024, 0));
+        byte[] largeBuffer = encoder.getBuffer();
+
+        // act
+        encoder.encode(createMessage(10, 0));
+
+        // assert
+        assertNotSame(largeBuffer, encoder.getBuffer());
+        assertTrue(encoder.getBuffer().length < largeBuffer.length);
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ *  Copyright (c) Microsoft. All rights reserved.
+ *  Licensed under the MIT license. See LICENSE file in the project root for full license information.
+ */
+
+package tests.unit.com.microsoft.azure.sdk.iot.deps.transport.amqp;
+
+import com.microsoft.azure.sdk.iot.deps.transport.amqp.ReactorDispatcher;
+import mockit.Deencapsulation;
+import mockit.Invocation;
+import mockit.Mock;
+import mockit.MockUp;
+import mockit.integration.junit4.JMockit;
+import org.apache.qpid.proton.Proton;
+import org.apache.qpid.proton.engine.BaseHandler;
+import org.apache.qpid.proton.engine.Event;
+import org.apache.qpid.proton.reactor.Reactor;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for ReactorDispatcher. These run a real proton-j reactor, since the dispatcher's only job is to get work
+ * onto that reactor's thread.
+ */
+@RunWith(JMockit.class)
+public class ReactorDispatcherTest
+{
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private static class DispatcherHandler extends BaseHandler
+    {
+        private final CountDownLatch initialized = new CountDownLatch(1);
+        private volatile ReactorDispatcher dispatcher;
+
+        @Override
+        public void onReactorInit(Event event)
+        {
+            try
+            {
+                this.dispatcher = new ReactorDispatcher(event.getReactor());
+            }
+            catch (IOException e)
+            {
+                throw new RuntimeException(e);
+            }
+            this.initialized.countDown();
+        }
+    }
+
+    private static Thread startReactor(final Reactor reactor)
+    {
+        Thread reactorThread = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                reactor.run();
+            }
+        });
+        reactorThread.start();
+        return reactorThread;
+    }
+
+    private static void closeFromReactorThread(final DispatcherHandler handler)
+    {
+        handler.dispatcher.invoke(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                handler.dispatcher.close();
+            }
+        });
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void constructorThrowsForNullReactor() throws IOException
+    {
+        new ReactorDispatcher(null);
+    }
+
+    @Test
+    public void invokeRunsWorkOnReactorThread() throws Exception
+    {
+        // arrange
+        final DispatcherHandler handler = new DispatcherHandler();
+        Reactor reactor = Proton.reactor(handler);
+        Thread reactorThread = startReactor(reactor);
+        assertTrue(handler.initialized.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        final AtomicReference<Thread> workThread = new AtomicReference<>();
+        final CountDownLatch workDone = new CountDownLatch(1);
+
+        // act
+        handler.dispatcher.invoke(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                workThread.set(Thread.currentThread());
+                workDone.countDown();
+            }
+        });
+
+        // assert
+        assertTrue(workDone.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(reactorThread, workThread.get());
+
+        closeFromReactorThread(handler);
+        reactorThread.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+        assertFalse(reactorThread.isAlive());
+    }
+
+    @Test
+    public void invokeRunsEveryQueuedWorkItemInOrder() throws Exception
+    {
+        // arrange
+        final int workCount = 1000;
+        final DispatcherHandler handler = new DispatcherHandler();
+        Reactor reactor = Proton.reactor(handler);
+        Thread reactorThread = startReactor(reactor);
+        assertTrue(handler.initialized.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        final AtomicInteger nextExpected = new AtomicInteger(0);
+        final AtomicInteger outOfOrder = new AtomicInteger(0);
+        final CountDownLatch allDone = new CountDownLatch(workCount);
+
+        // act
+        for (int i = 0; i < workCount; i++)
+        {
+            final int index = i;
+            handler.dispatcher.invoke(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    if (nextExpected.getAndIncrement() != index)
+                    {
+                        outOfOrder.incrementAndGet();
+                    }
+                    allDone.countDown();
+                }
+            });
+        }
+
+        // assert
+        assertTrue(allDone.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(0, outOfOrder.get());
+
+        closeFromReactorThread(handler);
+        reactorThread.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+        assertFalse(reactorThread.isAlive());
+    }
+
+    @Test
+    public void closeLetsReactorStopAndRejectsFurtherWork() throws Exception
+    {
+        // arrange
+        final DispatcherHandler handler = new DispatcherHandler();
+        Reactor reactor = Proton.reactor(handler);
+        Thread reactorThread = startReactor(reactor);
+        assertTrue(handler.initialized.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        // act
+        closeFromReactorThread(handler);
+        reactorThread.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+
+        // assert
+        assertFalse(reactorThread.isAlive());
+        assertTrue(handler.dispatcher.isClosed());
+        try
+        {
+            handler.dispatcher.invoke(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                }
+            });
+            fail("Expected closed dispatcher to reject work");
+        }
+        catch (RejectedExecutionException expected)
+        {
+            // expected
+        }
+    }
+
+    @Test
+    public void invokeWakesReactorAgainAfterFailedWakeup() throws Exception
+    {
+        // arrange
+        final DispatcherHandler handler = new DispatcherHandler();
+        Reactor reactor = Proton.reactor(handler);
+        Thread reactorThread = startReactor(reactor);
+        assertTrue(handler.initialized.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        // The sink is a platform specific subclass, which is the one that implements write
+        Pipe ioSignal = Deencapsulation.getField(handler.dispatcher, "ioSignal");
+        final AtomicBoolean failNextWrite = new AtomicBoolean(true);
+        new MockUp<Pipe.SinkChannel>(ioSignal.sink().getClass())
+        {
+            @Mock
+            int write(Invocation invocation, ByteBuffer source) throws IOException
+            {
+                if (failNextWrite.getAndSet(false))
+                {
+                    throw new IOException("pipe write failed");
+                }
+
+                return invocation.proceed();
+            }
+        };
+
+        final CountDownLatch workDone = new CountDownLatch(2);
+        Runnable work = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                workDone.countDown();
+            }
+        };
+
+        try
+        {
+            handler.dispatcher.invoke(work);
+            fail("Expected the failed wakeup to be reported");
+        }
+        catch (RejectedExecutionException expected)
+        {
+            // expected
+        }
+
+        // act
+        handler.dispatcher.invoke(work);
+
+        // assert
+        assertTrue(workDone.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        closeFromReactorThread(handler);
+        reactorThread.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+        assertFalse(reactorThread.isAlive());
+    }
+}
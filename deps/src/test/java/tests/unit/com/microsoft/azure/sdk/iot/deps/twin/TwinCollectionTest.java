@@ -854,6 +854,52 @@ public class TwinCollectionTest
         Helpers.assertJson(jsonElement.toString(), json);
     }
 
+    @Test
+    public void toJsonSerializeNullPropertySucceed()
+    {
+        // arrange
+        final TwinCollection twinCollection = new TwinCollection()
+        {
+            {
+                putFinal(VALID_KEY_NAME, VALID_VALUE_NAME);
+                putFinal("MaxSpeed", new TwinCollection()
+                {
+                    {
+                        putFinal("Value", null);
+                        putFinal("NewValue", 300.0);
+                        putFinal("Inner1", new TwinCollection()
+                        {
+                            {
+                                putFinal("Inner2", "FinalInnerValue");
+                            }
+                        });
+                    }
+                });
+            }
+        };
+
+        // act
+        String json = twinCollection.toJson();
+
+        // assert
+        assertEquals(twinCollection.toJsonElement().toString(), json);
+    }
+
+    @Test
+    public void toJsonNotIncludeMetadataOrVersion()
+    {
+        // arrange
+        Gson gson = new GsonBuilder().excludeFieldsWithoutExposeAnnotation().disableHtmlEscaping().create();
+        TwinCollection rawMap = gson.fromJson(JSON_FULL_SAMPLE, TwinCollection.class);
+        TwinCollection twinCollection = Deencapsulation.invoke(TwinCollection.class, "createFromRawCollection", rawMap);
+
+        // act
+        String json = twinCollection.toJson();
+
+        // assert
+        Helpers.assertJson(json, JSON_SAMPLE);
+    }
+
     /* SRS_TWIN_COLLECTION_21_017: [The toJsonElement shall not include any metadata in the returned JsonElement.] */
     @Test
     public void toJsonElementNotIncludeMetadataOrVersion()
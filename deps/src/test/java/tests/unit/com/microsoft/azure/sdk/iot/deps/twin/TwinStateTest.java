@@ -5,6 +5,7 @@ package tests.unit.com.microsoft.azure.sdk.iot.deps.twin;
 
 import com.google.gson.JsonElement;
 import com.google.gson.JsonSyntaxException;
+import com.microsoft.azure.sdk.iot.deps.serializer.GsonProvider;
 import com.microsoft.azure.sdk.iot.deps.twin.TwinCollection;
 import com.microsoft.azure.sdk.iot.deps.twin.TwinConnectionState;
 import com.microsoft.azure.sdk.iot.deps.twin.TwinProperties;
@@ -254,6 +255,48 @@ public class TwinStateTest
         assertTrue(jsonElement.toString().contains(PROPERTIES_WITH_NULL_VALUES.toString()));
     }
 
+    @Test
+    public void toJsonReturnsSameJsonAsToJsonElement()
+    {
+        // arrange
+        TwinState twinState = new TwinState(TAGS, PROPERTIES, PROPERTIES_WITH_NULL_VALUES);
+        JsonElement jsonElement = Deencapsulation.invoke(twinState, "toJsonElement");
+
+        // act
+        String json = twinState.toJson();
+
+        // assert
+        assertEquals(jsonElement.toString(), json);
+    }
+
+    @Test
+    public void toJsonReturnsSameJsonAsToJsonElementWithoutProperties()
+    {
+        // arrange
+        TwinState twinState = new TwinState(TAGS, null, null);
+        JsonElement jsonElement = Deencapsulation.invoke(twinState, "toJsonElement");
+
+        // act
+        String json = twinState.toJson();
+
+        // assert
+        assertEquals(jsonElement.toString(), json);
+    }
+
+    @Test
+    public void twinWritingGsonDeserializesTwinProperties()
+    {
+        // arrange
+        String json = "{" + DESIRED_PROPERTY_SAMPLE + "," + REPORTED_PROPERTY_SAMPLE + "}";
+
+        // act
+        TwinProperties twinProperties = GsonProvider.getTwinWritingGson().fromJson(json, TwinProperties.class);
+
+        // assert
+        assertEquals("val1", twinProperties.getDesired().get("prop1"));
+        assertEquals("val1", twinProperties.getReported().get("prop1"));
+    }
+
     /* SRS_TWIN_STATE_21_005: [The getTags shall return a TwinCollection with the stored tags.] */
     /* SRS_TWIN_STATE_21_006: [The getDesiredProperty shall return a TwinCollection with the stored desired property.] */
     /* SRS_TWIN_STATE_21_007: [The getReportedProperty shall return a TwinCollection with the stored reported property.] */
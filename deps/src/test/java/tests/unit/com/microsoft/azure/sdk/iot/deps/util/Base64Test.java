@@ -274,4 +274,46 @@ public class Base64Test
         // assert
         assertEquals(expectedBase64Result, result);
     }
+
+    @Test
+    public void encodeBase64IntoDestinationAtOffsetSuccess() throws IllegalArgumentException
+    {
+        // arrange
+        String textToEncode = "This is a valid test (aBcDeFgHiJKLmnoPqRstuVWXyz)-01234567";
+        String expectedBase64Result = "VGhpcyBpcyBhIHZhbGlkIHRlc3QgKGFCY0RlRmdIaUpLTG1ub1BxUnN0dVZXWHl6KS0wMTIzNDU2Nw==";
+        byte[] destination = new byte[expectedBase64Result.length() + 2];
+        destination[0] = '[';
+        destination[destination.length - 1] = ']';
+
+        // act
+        int written = Base64.encodeBase64Local(textToEncode.getBytes(), destination, 1);
+
+        // assert
+        assertEquals(expectedBase64Result.length(), written);
+        assertEquals("[" + expectedBase64Result + "]", new String(destination));
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void encodeBase64IntoDestinationThrowsIfDestinationTooSmall() throws IllegalArgumentException
+    {
+        // arrange
+        byte[] textToEncode = "abcd".getBytes();
+        byte[] destination = new byte[Base64.encodedLengthBase64(textToEncode.length)];
+
+        // act
+        Base64.encodeBase64Local(textToEncode, destination, 1);
+    }
+
+    @Test
+    public void encodedLengthBase64MatchesEncodedResult() throws IllegalArgumentException
+    {
+        for (int length = 0; length < 10; length++)
+        {
+            // act
+            int encodedLength = Base64.encodedLengthBase64(length);
+
+            // assert
+            assertEquals(Base64.encodeBase64Local(new byte[length]).length, encodedLength);
+        }
+    }
 }
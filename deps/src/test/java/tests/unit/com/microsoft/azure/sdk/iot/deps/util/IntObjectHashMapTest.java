@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) Microsoft. All rights reserved.
+ * Licensed under the MIT license. See LICENSE file in the project root for full license information.
+ */
+
+package tests.unit.com.microsoft.azure.sdk.iot.deps.util;
+
+import com.microsoft.azure.sdk.iot.deps.util.IntObjectHashMap;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for IntObjectHashMap
+ */
+public class IntObjectHashMapTest
+{
+    @Test
+    public void putAndGetReturnTheMappedValue()
+    {
+        // arrange
+        IntObjectHashMap<String> map = new IntObjectHashMap<>();
+
+        // act
+        assertNull(map.put(1, "one"));
+        assertNull(map.put(-1, "minus one"));
+        assertEquals("one", map.put(1, "uno"));
+
+        // assert
+        assertEquals("uno", map.get(1));
+        assertEquals("minus one", map.get(-1));
+        assertNull(map.get(2));
+        assertTrue(map.containsKey(-1));
+        assertFalse(map.containsKey(2));
+        assertEquals(2, map.size());
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void putThrowsForNullValue()
+    {
+        new IntObjectHashMap<String>().put(1, null);
+    }
+
+    @Test
+    public void removeReturnsTheRemovedValue()
+    {
+        // arrange
+        IntObjectHashMap<String> map = new IntObjectHashMap<>();
+        map.put(7, "seven");
+
+        // act
+        String removed = map.remove(7);
+
+        // assert
+        assertEquals("seven", removed);
+        assertNull(map.remove(7));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void clearRemovesEveryEntry()
+    {
+        // arrange
+        IntObjectHashMap<String> map = new IntObjectHashMap<>();
+        for (int i = 0; i < 100; i++)
+        {
+            map.put(i, String.valueOf(i));
+        }
+
+        // act
+        map.clear();
+
+        // assert
+        assertTrue(map.isEmpty());
+        assertTrue(map.values().isEmpty());
+        assertNull(map.get(50));
+    }
+
+    @Test
+    public void valuesReturnsEveryValue()
+    {
+        // arrange
+        IntObjectHashMap<String> map = new IntObjectHashMap<>();
+        map.put(1, "one");
+        map.put(2, "two");
+
+        // act
+        List<String> values = map.values();
+
+        // assert
+        assertEquals(2, values.size());
+        assertTrue(values.contains("one"));
+        assertTrue(values.contains("two"));
+    }
+
+    // Mixes puts and removes of colliding and sequential keys, and checks every lookup against a HashMap
+    @Test
+    public void matchesHashMapAcrossGrowthAndRemovals()
+    {
+        // arrange
+        IntObjectHashMap<Integer> map = new IntObjectHashMap<>();
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        // act
+        for (int i = 0; i < 20000; i++)
+        {
+            int key = random.nextInt(512) * 1024;
+            if (random.nextBoolean())
+            {
+                assertEquals(expected.put(key, i), map.put(key, i));
+            }
+            else
+            {
+                assertEquals(expected.remove(key), map.remove(key));
+            }
+        }
+
+        // assert
+        assertEquals(expected.size(), map.size());
+        for (int i = 0; i < 512; i++)
+        {
+            assertEquals(expected.get(i * 1024), map.get(i * 1024));
+        }
+    }
+}
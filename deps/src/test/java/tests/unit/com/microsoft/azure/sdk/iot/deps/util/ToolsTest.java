@@ -14,10 +14,14 @@ import javax.json.Json;
 import javax.json.JsonObject;
 import javax.json.JsonReader;
 import javax.json.JsonString;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.StringReader;
 import java.util.HashMap;
 import java.util.Map;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 /**
@@ -523,4 +527,96 @@ public class ToolsTest
         // Assert
         assertEquals(expResult, stringBuilder.toString());
     }
+
+    private static byte[] createStreamContent(int length)
+    {
+        byte[] content = new byte[length];
+        for (int i = 0; i < length; i++)
+        {
+            content[i] = (byte) i;
+        }
+
+        return content;
+    }
+
+    @Test
+    public void readInputStreamReadsContentMatchingExpectedLength() throws IOException
+    {
+        // Arrange
+        byte[] expected = createStreamContent(10000);
+
+        // Act
+        byte[] result = Tools.readInputStream(new ByteArrayInputStream(expected), expected.length);
+
+        // Assert
+        assertArrayEquals(expected, result);
+    }
+
+    @Test
+    public void readInputStreamReadsContentLongerThanExpectedLength() throws IOException
+    {
+        // Arrange
+        byte[] expected = createStreamContent(10000);
+
+        // Act
+        byte[] result = Tools.readInputStream(new ByteArrayInputStream(expected), 10);
+
+        // Assert
+        assertArrayEquals(expected, result);
+    }
+
+    @Test
+    public void readInputStreamReadsContentShorterThanExpectedLength() throws IOException
+    {
+        // Arrange
+        byte[] expected = createStreamContent(10);
+
+        // Act
+        byte[] result = Tools.readInputStream(new ByteArrayInputStream(expected), 10000);
+
+        // Assert
+        assertArrayEquals(expected, result);
+    }
+
+    @Test
+    public void readInputStreamReadsContentOfUnknownLength() throws IOException
+    {
+        // Arrange
+        byte[] expected = createStreamContent(10000);
+
+        // Act
+        byte[] result = Tools.readInputStream(new ByteArrayInputStream(expected), -1);
+
+        // Assert
+        assertArrayEquals(expected, result);
+    }
+
+    @Test
+    public void readInputStreamReadsStreamThatReturnsNoBytes() throws IOException
+    {
+        // Arrange
+        byte[] expected = createStreamContent(100);
+        final InputStream content = new ByteArrayInputStream(expected);
+        InputStream stream = new InputStream()
+        {
+            @Override
+            public int read() throws IOException
+            {
+                return content.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len)
+            {
+                // Only ever makes progress through the single byte read
+                return 0;
+            }
+        };
+
+        // Act
+        byte[] result = Tools.readInputStream(stream, -1);
+
+        // Assert
+        assertArrayEquals(expected, result);
+    }
 }
@@ -27,6 +27,7 @@ import org.junit.Test;
 
 import com.microsoft.azure.sdk.iot.deps.util.Base64;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.security.SecureRandom;
 import java.util.*;
 
@@ -960,6 +961,101 @@ public class WebSocketHandlerImplTest
         spyWebSocketHandler.wrapBuffer(srcBuffer, dstBuffer);
     }
 
+    @Test
+    public void testWrapBuffer_little_endian_buffers()
+    {
+        assertWrapBufferMasksPayload(ByteOrder.LITTLE_ENDIAN, ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Test
+    public void testWrapBuffer_mixed_byte_order_buffers()
+    {
+        assertWrapBufferMasksPayload(ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Test
+    public void testWrapBuffer_src_buffer_with_offset()
+    {
+        WebSocketHandlerImpl webSocketHandler = new WebSocketHandlerImpl();
+        WebSocketHandlerImpl spyWebSocketHandler = spy(webSocketHandler);
+
+        int offset = 3;
+        int payloadLength = 101;
+        int messageLength = payloadLength + WebSocketHeader.MIN_HEADER_LENGTH_MASKED;
+
+        byte[] maskingKey = new byte[]{(byte) 0xF1, (byte) 0x82, 0x73, (byte) 0xE4};
+
+        byte[] data = new byte[offset + payloadLength];
+        Random random = new SecureRandom();
+        random.nextBytes(data);
+
+        ByteBuffer srcBuffer = ByteBuffer.wrap(data);
+        srcBuffer.position(offset);
+        ByteBuffer dstBuffer = ByteBuffer.allocate(messageLength);
+
+        doReturn(maskingKey).when(spyWebSocketHandler).createRandomMaskingKey();
+
+        spyWebSocketHandler.wrapBuffer(srcBuffer, dstBuffer);
+        dstBuffer.flip();
+
+        byte[] actual = dstBuffer.array();
+
+        assertEquals("invalid content length", messageLength, dstBuffer.limit());
+        assertEquals("source buffer not consumed", 0, srcBuffer.remaining());
+        for (int i = 0; i < payloadLength; i++)
+        {
+            assertEquals("masked byte mismatch " + i, (byte) (data[offset + i] ^ maskingKey[i % 4]), actual[i + WebSocketHeader.MIN_HEADER_LENGTH_MASKED]);
+        }
+    }
+
+    @Test
+    public void testCreateRandomMaskingKey_returns_new_key_each_call()
+    {
+        WebSocketHandlerImpl webSocketHandler = new WebSocketHandlerImpl();
+
+        byte[] maskingKey1 = webSocketHandler.createRandomMaskingKey();
+        byte[] maskingKey2 = webSocketHandler.createRandomMaskingKey();
+
+        assertEquals(4, maskingKey1.length);
+        assertEquals(4, maskingKey2.length);
+        assertNotSame(maskingKey1, maskingKey2);
+    }
+
+    private static void assertWrapBufferMasksPayload(ByteOrder srcByteOrder, ByteOrder dstByteOrder)
+    {
+        WebSocketHandlerImpl webSocketHandler = new WebSocketHandlerImpl();
+        WebSocketHandlerImpl spyWebSocketHandler = spy(webSocketHandler);
+
+        int payloadLength = 1000 + 5;
+        int messageLength = payloadLength + WebSocketHeader.MED_HEADER_LENGTH_MASKED;
+
+        byte[] maskingKey = new byte[]{(byte) 0x81, 0x12, (byte) 0xA3, 0x34};
+
+        byte[] data = new byte[payloadLength];
+        Random random = new SecureRandom();
+        random.nextBytes(data);
+
+        ByteBuffer srcBuffer = ByteBuffer.allocate(payloadLength).order(srcByteOrder);
+        ByteBuffer dstBuffer = ByteBuffer.allocate(messageLength).order(dstByteOrder);
+        srcBuffer.put(data);
+        srcBuffer.flip();
+
+        doReturn(maskingKey).when(spyWebSocketHandler).createRandomMaskingKey();
+
+        spyWebSocketHandler.wrapBuffer(srcBuffer, dstBuffer);
+        dstBuffer.flip();
+
+        byte[] actual = dstBuffer.array();
+
+        assertEquals("invalid content length", messageLength, dstBuffer.limit());
+        assertEquals("extended length mismatch 1", (byte) (payloadLength >>> 8), actual[2]);
+        assertEquals("extended length mismatch 2", (byte) payloadLength, actual[3]);
+        for (int i = 0; i < payloadLength; i++)
+        {
+            assertEquals("masked byte mismatch " + i, (byte) (data[i] ^ maskingKey[i % 4]), actual[i + WebSocketHeader.MED_HEADER_LENGTH_MASKED]);
+        }
+    }
+
     @Test
     public void testUnwrapBuffer_opcode_ping()
     {
@@ -7,6 +7,9 @@ import lombok.Getter;
 import lombok.Setter;
 
 import javax.net.ssl.SSLContext;
+import java.io.File;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
 
 /**
  * Options that allow configuration of the device client instance during initialization.
@@ -31,4 +34,109 @@ public final class ClientOptions
     @Setter
     @Getter
     public SSLContext sslContext;
+
+    /**
+     * The maximum number of messages that may be published over MQTT and still be awaiting acknowledgement from the
+     *  service at the same time. Once this many messages are in flight, further sends wait for an acknowledgement before
+     *  they are published. Raising this value can improve throughput on high latency connections. Values less than 1
+     *  leave the default of 10 in place. This option only applies to MQTT and MQTT_WS.
+     */
+    @Setter
+    @Getter
+    public int mqttMaxInFlightCount;
+
+    /**
+     * The maximum number of messages that may be queued for sending at once. Once this many messages are waiting to be
+     *  sent, for instance while the client is disconnected, further sends are handled according to
+     *  {@link #queueFullPolicy}. Values less than 1 leave the number of queued messages unbounded, which is the default.
+     */
+    @Setter
+    @Getter
+    public int maxQueuedMessages;
+
+    /**
+     * The maximum total payload size, in bytes, of the messages that may be queued for sending at once. Once queued
+     *  messages add up to this size, further sends are handled according to {@link #queueFullPolicy}. A single message
+     *  larger than this limit is still accepted when nothing else is queued. Values less than 1 leave the queued payload
+     *  size unbounded, which is the default.
+     */
+    @Setter
+    @Getter
+    public long maxQueuedBytes;
+
+    /**
+     * How a send is handled when the outbound queue is at the capacity set by {@link #maxQueuedMessages} or
+     *  {@link #maxQueuedBytes}. Defaults to {@link OutboundQueueFullPolicy#BLOCK} if not set.
+     */
+    @Setter
+    @Getter
+    public OutboundQueueFullPolicy queueFullPolicy;
+
+    /**
+     * When {@link #queueFullPolicy} is {@link OutboundQueueFullPolicy#BLOCK}, the maximum number of milliseconds a send
+     *  waits for room in the outbound queue. Values less than 1 leave the default of 60 seconds in place.
+     */
+    @Setter
+    @Getter
+    public long queueFullBlockTimeoutMillis;
+
+    /**
+     * The executor that cloud to device message and module input message callbacks are run on. When set, each pass of
+     *  the receive thread hands every message waiting in the receive queue to this executor instead of handling a single
+     *  message, so a slow callback no longer holds up the rest of the queue. Messages that share an input name, and all
+     *  cloud to device messages, are still delivered one at a time and in the order they were received. Each message is
+     *  acknowledged as soon as its callback returns. The client never shuts this executor down. If not set, callbacks run
+     *  on the receive thread one message at a time, which is the default.
+     */
+    @Setter
+    @Getter
+    public Executor messageCallbackExecutor;
+
+    /**
+     * A scheduler that the background work of this client runs on, and that may be shared by many clients. By default,
+     *  each client starts dedicated threads for sending messages, handling received messages and scheduling message
+     *  retries, and most of those threads are idle waiting for work. When this scheduler is set, that work is instead
+     *  submitted to it as short tasks whenever there is something to do, so the number of threads used by a process that
+     *  runs many clients is set by the size of this scheduler rather than by the number of clients. A pool sized to the
+     *  number of available processors is a reasonable starting point. Callbacks that block hold up the work of the other
+     *  clients that share the scheduler, so long running callbacks should be handed off, for instance using
+     *  {@link #messageCallbackExecutor}. The client never shuts this scheduler down. The network threads of each
+     *  connection are not affected by this option.
+     */
+    @Setter
+    @Getter
+    public ScheduledExecutorService sharedScheduler;
+
+    /**
+     * The size in bytes of the blocks that {@link DeviceClient#uploadToBlobAsync} splits a file into. When set, the file
+     *  is uploaded as a list of blocks that are sent in parallel and retried one at a time, so a failure only costs the
+     *  blocks that were in flight instead of the whole file. The block blob service accepts blocks of up to 100MB, and
+     *  a few MB per block is a reasonable starting point over a slow or unreliable network. Up to
+     *  {@link #fileUploadParallelBlockCount} blocks are held in memory at any time. If not set, the file is uploaded as
+     *  a single stream, which is the default.
+     */
+    @Setter
+    @Getter
+    public int fileUploadBlockSize;
+
+    /**
+     * The number of blocks that {@link DeviceClient#uploadToBlobAsync} uploads in parallel for each file when
+     *  {@link #fileUploadBlockSize} is set. This is also the number of block buffers that each upload allocates. If not
+     *  set, 4 blocks are uploaded in parallel.
+     */
+    @Setter
+    @Getter
+    public int fileUploadParallelBlockCount;
+
+    /**
+     * The directory where {@link DeviceClient#uploadToBlobAsync} records which blocks of a file were uploaded when
+     *  {@link #fileUploadBlockSize} is set. If an upload fails, or the process stops, before all of its blocks were
+     *  uploaded, uploading the same blob name again with the same stream length skips the blocks that the storage
+     *  service still holds, and only sends the remaining ones. The new stream is still read from its start, and a
+     *  block whose content differs from the one that was uploaded before is sent again. The record is deleted once
+     *  the upload completes. If not set, failed block uploads always start over from the first block.
+     */
+    @Setter
+    @Getter
+    public File fileUploadCheckpointDirectory;
 }
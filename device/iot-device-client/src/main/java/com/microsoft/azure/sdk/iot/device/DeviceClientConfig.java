@@ -17,9 +17,12 @@ import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.net.ssl.SSLContext;
+import java.io.File;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
 
 /**
  * Configuration settings for an IoT Hub client. Validates all user-defined
@@ -39,6 +42,12 @@ public final class DeviceClientConfig
 
     private static final long DEFAULT_OPERATION_TIMEOUT = 4 * 60 * 1000; //4 minutes
 
+    private static final int DEFAULT_MQTT_MAX_IN_FLIGHT_COUNT = 10;
+
+    private static final long DEFAULT_QUEUE_FULL_BLOCK_TIMEOUT_MILLIS = 60 * 1000;
+
+    private static final int DEFAULT_FILE_UPLOAD_PARALLEL_BLOCK_COUNT = 4;
+
     private boolean useWebsocket;
     private ProxySettings proxySettings;
 
@@ -63,6 +72,50 @@ public final class DeviceClientConfig
     @Setter
     private int amqpOpenDeviceSessionsTimeout = DEFAULT_AMQP_OPEN_DEVICE_SESSIONS_TIMEOUT_IN_SECONDS;
 
+    @Getter
+    @Setter
+    private int mqttMaxInFlightCount = DEFAULT_MQTT_MAX_IN_FLIGHT_COUNT;
+
+    // The outbound queue is unbounded unless a max message count or max byte count is set
+    @Getter
+    @Setter
+    private int maxQueuedMessages = 0;
+
+    @Getter
+    @Setter
+    private long maxQueuedBytes = 0;
+
+    @Getter
+    @Setter
+    private OutboundQueueFullPolicy queueFullPolicy = OutboundQueueFullPolicy.BLOCK;
+
+    @Getter
+    @Setter
+    private long queueFullBlockTimeoutMillis = DEFAULT_QUEUE_FULL_BLOCK_TIMEOUT_MILLIS;
+
+    // Received message callbacks run on the receive thread unless an executor is provided
+    @Getter
+    @Setter
+    private Executor messageCallbackExecutor;
+
+    // Each client starts its own worker threads unless a scheduler to share with other clients is provided
+    @Getter
+    @Setter
+    private ScheduledExecutorService sharedScheduler;
+
+    // Files are uploaded as a single stream unless a block size is provided
+    @Getter
+    @Setter
+    private int fileUploadBlockSize = 0;
+
+    @Getter
+    @Setter
+    private int fileUploadParallelBlockCount = DEFAULT_FILE_UPLOAD_PARALLEL_BLOCK_COUNT;
+
+    @Getter
+    @Setter
+    private File fileUploadCheckpointDirectory;
+
     private IotHubAuthenticationProvider authenticationProvider;
 
     /**
@@ -84,6 +84,10 @@ public final class DeviceIO implements IotHubConnectionStatusChangeCallback
     private ScheduledExecutorService sendTaskScheduler;
     private IotHubConnectionStatus state;
 
+    // Used instead of the send and receive task schedulers when the config provides a scheduler shared by many clients
+    private SharedSchedulerWorker sendWorker;
+    private SharedSchedulerWorker receiveWorker;
+
     private List<DeviceClientConfig> deviceClientConfigs = new LinkedList<>();
 
     // This lock is used to keep calls to open/close/connection status changes synchronous.
@@ -182,6 +186,13 @@ public final class DeviceIO implements IotHubConnectionStatusChangeCallback
      */
     private void startWorkerThreads()
     {
+        if (this.config.getSharedScheduler() != null)
+        {
+            this.startSharedSchedulerWorkers(this.config.getSharedScheduler());
+            this.state = IotHubConnectionStatus.CONNECTED;
+            return;
+        }
+
         this.sendTask = new IotHubSendTask(this.transport);
         this.receiveTask = new IotHubReceiveTask(this.transport);
 
@@ -206,6 +217,83 @@ public final class DeviceIO implements IotHubConnectionStatusChangeCallback
         this.state = IotHubConnectionStatus.CONNECTED;
     }
 
+    /**
+     * Starts the send and receive work of this client on a scheduler shared with other clients. Rather than
+     * occupying a thread that waits for work, each worker is submitted to the scheduler when the transport signals that
+     * it has work for it. Over HTTPS, received messages are still polled for once per receive period.
+     * @param sharedScheduler the scheduler to run the work on
+     */
+    private void startSharedSchedulerWorkers(ScheduledExecutorService sharedScheduler)
+    {
+        this.stopSharedSchedulerWorkers();
+
+        final IotHubTransport transport = this.transport;
+        final boolean pollForReceivedMessages = this.protocol == IotHubClientProtocol.HTTPS;
+
+        final SharedSchedulerWorker sendWorker = new SharedSchedulerWorker(sharedScheduler, "Send task", this.sendPeriodInMilliseconds)
+        {
+            @Override
+            boolean doWork()
+            {
+                transport.sendMessages();
+                transport.invokeCallbacks();
+                return transport.hasMessagesToSend() || transport.hasCallbacksToExecute();
+            }
+        };
+
+        final SharedSchedulerWorker receiveWorker = new SharedSchedulerWorker(sharedScheduler, "Receive task", this.receivePeriodInMilliseconds)
+        {
+            @Override
+            boolean doWork() throws DeviceClientException
+            {
+                transport.handleMessage();
+                return pollForReceivedMessages || transport.hasReceivedMessagesToHandle();
+            }
+        };
+
+        this.transport.setWorkListeners(
+            new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    sendWorker.signal();
+                }
+            },
+            new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    receiveWorker.signal();
+                }
+            });
+
+        this.sendWorker = sendWorker;
+        this.receiveWorker = receiveWorker;
+
+        // Run each worker once right away, as the dedicated task schedulers do, to pick up any work queued while closed
+        sendWorker.signal();
+        receiveWorker.signal();
+    }
+
+    private void stopSharedSchedulerWorkers()
+    {
+        this.transport.setWorkListeners(null, null);
+
+        if (this.sendWorker != null)
+        {
+            this.sendWorker.stop();
+            this.sendWorker = null;
+        }
+
+        if (this.receiveWorker != null)
+        {
+            this.receiveWorker.stop();
+            this.receiveWorker = null;
+        }
+    }
+
     /**
      * Completes all current outstanding requests and closes the IoT Hub client.
      * Must be called to terminate the background thread that is sending data to
@@ -228,6 +316,8 @@ public final class DeviceIO implements IotHubConnectionStatusChangeCallback
                 this.receiveTaskScheduler.shutdown();
             }
 
+            this.stopSharedSchedulerWorkers();
+
             /* Codes_SRS_DEVICE_IO_21_019: [The close shall close the transport.] */
             try
             {
@@ -329,6 +419,11 @@ public final class DeviceIO implements IotHubConnectionStatusChangeCallback
         /* Codes_SRS_DEVICE_IO_21_027: [The setReceivePeriodInMilliseconds shall store the new receive period in milliseconds.] */
         this.receivePeriodInMilliseconds = newIntervalInMilliseconds;
 
+        if (this.receiveWorker != null)
+        {
+            this.receiveWorker.setPeriodInMilliseconds(newIntervalInMilliseconds);
+        }
+
         /* Codes_SRS_DEVICE_IO_21_028: [If the task scheduler already exists, the setReceivePeriodInMilliseconds shall change the `scheduleAtFixedRate` for the receiveTask to the new value.] */
         if (this.receiveTaskScheduler != null)
         {
@@ -372,6 +467,11 @@ public final class DeviceIO implements IotHubConnectionStatusChangeCallback
         /* Codes_SRS_DEVICE_IO_21_033: [The setSendPeriodInMilliseconds shall store the new send period in milliseconds.] */
         this.sendPeriodInMilliseconds = newIntervalInMilliseconds;
 
+        if (this.sendWorker != null)
+        {
+            this.sendWorker.setPeriodInMilliseconds(newIntervalInMilliseconds);
+        }
+
         /* Codes_SRS_DEVICE_IO_21_034: [If the task scheduler already exists, the setSendPeriodInMilliseconds shall change the `scheduleAtFixedRate` for the sendTask to the new value.] */
         if (this.sendTaskScheduler != null)
         {
@@ -459,6 +559,8 @@ public final class DeviceIO implements IotHubConnectionStatusChangeCallback
                 {
                     this.receiveTaskScheduler.shutdown();
                 }
+
+                this.stopSharedSchedulerWorkers();
             }
             else if (status == IotHubConnectionStatus.CONNECTED)
             {
@@ -349,7 +349,7 @@ public class DeviceTwin
 
             reportedPropertiesMap.putFinal(p.getKey(), p.getValue());
         }
-        String serializedReportedProperties = reportedPropertiesMap.toJsonElement().toString();
+        String serializedReportedProperties = reportedPropertiesMap.toJson();
 
         if (serializedReportedProperties == null)
         {
@@ -53,7 +53,7 @@ public class InternalClient
         this.config = new DeviceClientConfig(iotHubConnectionString, clientOptions);
         this.config.setProtocol(protocol);
         if (clientOptions != null) {
-            this.config.modelId = clientOptions.getModelId();
+            this.setClientOptionValues(clientOptions);
         }
 
         this.deviceIO = new DeviceIO(this.config, sendPeriodMillis, receivePeriodMillis);
@@ -121,7 +121,7 @@ public class InternalClient
         this.config = new DeviceClientConfig(connectionString, securityProvider);
         this.config.setProtocol(protocol);
         if (clientOptions != null) {
-            this.config.modelId = clientOptions.getModelId();
+            this.setClientOptionValues(clientOptions);
         }
 
         //Codes_SRS_INTERNALCLIENT_34_067: [The constructor shall initialize the IoT Hub transport for the protocol specified, creating a instance of the deviceIO.]
@@ -176,7 +176,8 @@ public class InternalClient
      *
      * @throws IllegalArgumentException if the message provided is {@code null}.
      * @throws IllegalStateException if the client has not been opened yet or is
-     * already closed.
+     * already closed, or if the outbound queue is bounded through {@link ClientOptions} and the message could not be
+     * queued under the configured {@link OutboundQueueFullPolicy}.
      */
     public void sendEventAsync(Message message, IotHubEventCallback callback, Object callbackContext)
     {
@@ -980,4 +981,39 @@ public class InternalClient
             throw new UnsupportedOperationException("Communication with edgehub only supported by MQTT/MQTT_WS and AMQPS/AMQPS_WS");
         }
     }
+
+    private void setClientOptionValues(ClientOptions clientOptions)
+    {
+        this.config.modelId = clientOptions.getModelId();
+
+        if (clientOptions.getMqttMaxInFlightCount() > 0)
+        {
+            this.config.setMqttMaxInFlightCount(clientOptions.getMqttMaxInFlightCount());
+        }
+
+        this.config.setMaxQueuedMessages(Math.max(clientOptions.getMaxQueuedMessages(), 0));
+        this.config.setMaxQueuedBytes(Math.max(clientOptions.getMaxQueuedBytes(), 0));
+
+        if (clientOptions.getQueueFullPolicy() != null)
+        {
+            this.config.setQueueFullPolicy(clientOptions.getQueueFullPolicy());
+        }
+
+        if (clientOptions.getQueueFullBlockTimeoutMillis() > 0)
+        {
+            this.config.setQueueFullBlockTimeoutMillis(clientOptions.getQueueFullBlockTimeoutMillis());
+        }
+
+        this.config.setMessageCallbackExecutor(clientOptions.getMessageCallbackExecutor());
+        this.config.setSharedScheduler(clientOptions.getSharedScheduler());
+
+        this.config.setFileUploadBlockSize(Math.max(clientOptions.getFileUploadBlockSize(), 0));
+
+        if (clientOptions.getFileUploadParallelBlockCount() > 0)
+        {
+            this.config.setFileUploadParallelBlockCount(clientOptions.getFileUploadParallelBlockCount());
+        }
+
+        this.config.setFileUploadCheckpointDirectory(clientOptions.getFileUploadCheckpointDirectory());
+    }
 }
@@ -23,7 +23,8 @@ public enum IotHubStatusCode
     SERVER_BUSY,
     ERROR,
     MESSAGE_EXPIRED,
-    MESSAGE_CANCELLED_ONCLOSE;
+    MESSAGE_CANCELLED_ONCLOSE,
+    MESSAGE_DROPPED_QUEUE_FULL;
 
     public static IotHubServiceException getConnectionStatusException(IotHubStatusCode statusCode, String statusDescription)
     {
@@ -34,6 +35,7 @@ public enum IotHubStatusCode
             case OK_EMPTY:
             case MESSAGE_CANCELLED_ONCLOSE:
             case MESSAGE_EXPIRED:
+            case MESSAGE_DROPPED_QUEUE_FULL:
                 transportException = null;
                 break;
             case BAD_FORMAT:
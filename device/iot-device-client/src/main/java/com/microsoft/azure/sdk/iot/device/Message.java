@@ -413,6 +413,15 @@ public class Message
         this.correlationId = correlationId;
     }
 
+    /**
+     * Getter for the expiryTime property
+     * @return the number of milliseconds since epoch at which this message expires, or 0 if it never expires
+     */
+    public long getExpiryTime()
+    {
+        return this.expiryTime;
+    }
+
     /**
      * Setter for the expiryTime property. This setter uses relative time, not absolute time.
      * @param timeOut The time out for the message, in milliseconds, from the current time.
@@ -0,0 +1,28 @@
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+
+package com.microsoft.azure.sdk.iot.device;
+
+/**
+ * What the client does when a message is sent while its outbound queue is already at the capacity configured through
+ * {@link ClientOptions#maxQueuedMessages} or {@link ClientOptions#maxQueuedBytes}.
+ */
+public enum OutboundQueueFullPolicy
+{
+    /**
+     * The send call blocks until the queue has room for the message. If the queue is still full once
+     * {@link ClientOptions#queueFullBlockTimeoutMillis} has passed, the send call throws an {@link IllegalStateException}.
+     */
+    BLOCK,
+
+    /**
+     * The oldest queued messages are dropped until the queue has room for the new message. The callbacks of dropped
+     * messages are executed with {@link IotHubStatusCode#MESSAGE_DROPPED_QUEUE_FULL}.
+     */
+    DROP_OLDEST,
+
+    /**
+     * The send call throws an {@link IllegalStateException} right away and the message is not queued.
+     */
+    REJECT_NEW
+}
@@ -0,0 +1,123 @@
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+
+package com.microsoft.azure.sdk.iot.device;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs a unit of client work on a scheduler that is shared with other clients. Unlike the dedicated send and receive
+ * threads, which wait on a lock between runs, the work is only submitted to the scheduler when it is signalled that
+ * there is something to do, or after the configured period when the previous run left work behind. At most one run of
+ * a worker is queued or running at a time, and signals that arrive while it runs are coalesced into one more run.
+ */
+@Slf4j
+abstract class SharedSchedulerWorker implements Runnable
+{
+    private final ScheduledExecutorService scheduler;
+    private final String name;
+    private volatile long periodInMilliseconds;
+
+    private final AtomicBoolean submitted = new AtomicBoolean(false);
+    private volatile boolean signalled;
+    private volatile boolean stopped;
+
+    SharedSchedulerWorker(ScheduledExecutorService scheduler, String name, long periodInMilliseconds)
+    {
+        this.scheduler = scheduler;
+        this.name = name;
+        this.periodInMilliseconds = periodInMilliseconds;
+    }
+
+    /**
+     * Do one pass of this worker's work. Must not wait for work to arrive.
+     * @return true if there may be work left to do, in which case this worker runs again after its period even if it
+     * isn't signalled.
+     * @throws Exception if the work failed. The failure is logged and the worker carries on.
+     */
+    abstract boolean doWork() throws Exception;
+
+    /**
+     * Notify this worker that there is work to do, submitting it to the scheduler if it isn't already submitted.
+     */
+    void signal()
+    {
+        this.signalled = true;
+        this.submit(0);
+    }
+
+    /**
+     * Stop this worker. A run that is already in progress finishes, but no further runs are submitted.
+     */
+    void stop()
+    {
+        this.stopped = true;
+    }
+
+    void setPeriodInMilliseconds(long periodInMilliseconds)
+    {
+        this.periodInMilliseconds = periodInMilliseconds;
+    }
+
+    @Override
+    public void run()
+    {
+        boolean hasRemainingWork = false;
+        this.signalled = false;
+
+        try
+        {
+            if (!this.stopped)
+            {
+                hasRemainingWork = this.doWork();
+            }
+        }
+        catch (Throwable e)
+        {
+            log.warn("{} encountered exception while processing its work", this.name, e);
+        }
+        finally
+        {
+            this.submitted.set(false);
+        }
+
+        if (this.signalled)
+        {
+            this.submit(0);
+        }
+        else if (hasRemainingWork)
+        {
+            this.submit(this.periodInMilliseconds);
+        }
+    }
+
+    private void submit(long delayInMilliseconds)
+    {
+        if (this.stopped || !this.submitted.compareAndSet(false, true))
+        {
+            return;
+        }
+
+        try
+        {
+            if (delayInMilliseconds > 0)
+            {
+                this.scheduler.schedule(this, delayInMilliseconds, TimeUnit.MILLISECONDS);
+            }
+            else
+            {
+                this.scheduler.execute(this);
+            }
+        }
+        catch (RejectedExecutionException e)
+        {
+            this.submitted.set(false);
+            log.warn("Shared scheduler rejected {}, it will not run until it is signalled again", this.name, e);
+        }
+    }
+}
@@ -5,6 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * <p>
@@ -15,6 +16,13 @@ import java.util.ArrayList;
  * the connection. 
  * </p>
  * The multiplexed connection is supported with AMQPS / AMQPS_WS protocols.
+ * <p>
+ * All devices of a transport client share a single connection by default. Since each connection sends from a single
+ * thread and reconnects as a whole, a transport client with many devices can instead be created with more than one
+ * connection, see {@link #TransportClient(IotHubClientProtocol, int)}. The registered devices are then split evenly
+ * across the connections, and each connection reconnects on its own, so a throttled or dropped connection only
+ * affects the devices on it.
+ * </p>
  */
 @Slf4j
 public class TransportClient
@@ -28,8 +36,24 @@ public class TransportClient
     public static long SEND_PERIOD_MILLIS = 10L;
     public static long RECEIVE_PERIOD_MILLIS_AMQPS = 10L;
 
+    /**
+     * The connection count that picks the number of connections when the transport client is opened, based on the
+     * number of registered devices and the number of available processors.
+     */
+    public static final int AUTOMATIC_CONNECTION_COUNT = 0;
+
+    // When the connection count is automatic, a new connection is added for every this many devices, up to the number
+    // of available processors
+    private static final int DEVICES_PER_AUTOMATIC_CONNECTION = 200;
+
     private IotHubClientProtocol iotHubClientProtocol;
+    private int connectionCount;
+
+    // The connection of the first shard of devices
     private DeviceIO deviceIO;
+
+    // The connections of the second and later shards of devices. Empty unless opened with more than one connection
+    private final List<DeviceIO> additionalDeviceIOs = new ArrayList<>();
     private TransportClientState transportClientState;
 
     private ArrayList<DeviceClient> deviceClientList;
@@ -43,6 +67,29 @@ public class TransportClient
      */
     public TransportClient(IotHubClientProtocol protocol)
     {
+        this(protocol, 1);
+    }
+
+    /**
+     * Constructor that takes a protocol and the number of connections to split the registered devices across.
+     *
+     * @param protocol the communication protocol used (i.e. AMQPS or AMQPS_WS).
+     * @param connectionCount the number of connections to open. If more connections are requested than there are
+     * registered devices, one connection is opened per device. Use {@link #AUTOMATIC_CONNECTION_COUNT} to choose the
+     * number of connections from the number of registered devices and available processors when the transport client
+     * is opened.
+     *
+     * @throws IllegalArgumentException if other protocol given, or if the connection count is negative.
+     */
+    public TransportClient(IotHubClientProtocol protocol, int connectionCount)
+    {
+        if (connectionCount < 0)
+        {
+            throw new IllegalArgumentException("connectionCount cannot be negative");
+        }
+
+        this.connectionCount = connectionCount;
+
         // Codes_SRS_TRANSPORTCLIENT_12_001: [If the `protocol` is not valid, the constructor shall throw an IllegalArgumentException.]
         switch (protocol)
         {
@@ -89,22 +136,36 @@ public class TransportClient
         // Codes_SRS_TRANSPORTCLIENT_12_009: [The function shall do nothing if the the registration list is empty.]
         if (this.deviceClientList.size() > 0)
         {
+            int shardCount = this.getShardCount();
+            int deviceCount = this.deviceClientList.size();
+
             // Codes_SRS_TRANSPORTCLIENT_12_011: [The function shall create a new DeviceIO using the first registered device client's configuration.]
-            this.deviceIO = new DeviceIO(deviceClientList.get(0).getConfig(), SEND_PERIOD_MILLIS, RECEIVE_PERIOD_MILLIS_AMQPS);
-            deviceClientList.get(0).setDeviceIO(this.deviceIO);
+            this.deviceIO = this.openShard(this.deviceClientList.subList(0, deviceCount / shardCount));
 
-            // Codes_SRS_TRANSPORTCLIENT_12_012: [The function shall set the created DeviceIO to all registered device client.]
-            for (int i = 1; i < this.deviceClientList.size(); i++)
+            for (int shard = 1; shard < shardCount; shard++)
             {
-                deviceClientList.get(i).setDeviceIO(this.deviceIO);
-                //propagate this client config to amqp connection
-                this.deviceIO.addClient(deviceClientList.get(i).getConfig());
+                List<DeviceClient> shardDeviceClients = this.deviceClientList.subList(shard * deviceCount / shardCount, (shard + 1) * deviceCount / shardCount);
+                try
+                {
+                    this.additionalDeviceIOs.add(this.openShard(shardDeviceClients));
+                }
+                catch (IOException e)
+                {
+                    // Don't leave the shards that did open connected
+                    try
+                    {
+                        this.closeDeviceIOs();
+                    }
+                    catch (IOException closeException)
+                    {
+                        log.warn("Failed to close the connections that opened before a connection failed to open", closeException);
+                    }
+
+                    throw e;
+                }
             }
 
-            // Codes_SRS_TRANSPORTCLIENT_12_013: [The function shall open the transport in multiplexing mode.]
-            //this.deviceIO.multiplexOpen(deviceClientList);
-            // if client is added just open to get rid of multiplex open.
-            this.deviceIO.open();
+            log.debug("Transport client opened {} devices over {} connections", deviceCount, shardCount);
         }
 
         this.transportClientState = TransportClientState.OPENED;
@@ -128,14 +189,95 @@ public class TransportClient
             deviceClientList.get(i).closeFileUpload();
         }
 
+        this.closeDeviceIOs();
+
+        log.info("Transport client closed successfully");
+    }
+
+    /**
+     * Returns the number of connections to split the registered devices across, never more than the number of devices.
+     */
+    private int getShardCount()
+    {
+        int deviceCount = this.deviceClientList.size();
+        int shardCount = this.connectionCount;
+        if (shardCount == AUTOMATIC_CONNECTION_COUNT)
+        {
+            int shardsForDevices = (deviceCount + DEVICES_PER_AUTOMATIC_CONNECTION - 1) / DEVICES_PER_AUTOMATIC_CONNECTION;
+            shardCount = Math.min(shardsForDevices, Runtime.getRuntime().availableProcessors());
+        }
+
+        return Math.max(1, Math.min(shardCount, deviceCount));
+    }
+
+    /**
+     * Creates and opens a DeviceIO that multiplexes the provided device clients over one connection.
+     *
+     * @param shardDeviceClients the device clients of the shard. Must not be empty.
+     * @return the opened DeviceIO.
+     * @throws IOException if the connection could not be opened.
+     */
+    private DeviceIO openShard(List<DeviceClient> shardDeviceClients) throws IOException
+    {
+        DeviceIO shardDeviceIO = new DeviceIO(shardDeviceClients.get(0).getConfig(), SEND_PERIOD_MILLIS, RECEIVE_PERIOD_MILLIS_AMQPS);
+        shardDeviceClients.get(0).setDeviceIO(shardDeviceIO);
+
+        // Codes_SRS_TRANSPORTCLIENT_12_012: [The function shall set the created DeviceIO to all registered device client.]
+        for (int i = 1; i < shardDeviceClients.size(); i++)
+        {
+            shardDeviceClients.get(i).setDeviceIO(shardDeviceIO);
+            //propagate this client config to amqp connection
+            shardDeviceIO.addClient(shardDeviceClients.get(i).getConfig());
+        }
+
+        // Codes_SRS_TRANSPORTCLIENT_12_013: [The function shall open the transport in multiplexing mode.]
+        // if client is added just open to get rid of multiplex open.
+        shardDeviceIO.open();
+
+        return shardDeviceIO;
+    }
+
+    private void closeDeviceIOs() throws IOException
+    {
+        IOException closeException = null;
+
         // Codes_SRS_TRANSPORTCLIENT_12_014: [If the deviceIO not null the function shall call multiplexClose on the deviceIO and set the deviceIO to null.]
         if (this.deviceIO != null)
         {
-            this.deviceIO.multiplexClose();
+            try
+            {
+                this.deviceIO.multiplexClose();
+            }
+            catch (IOException e)
+            {
+                closeException = e;
+            }
+
             this.deviceIO = null;
         }
 
-        log.info("Transport client closed successfully");
+        // Close every shard even if one of them fails to close, and report the first failure
+        for (DeviceIO additionalDeviceIO : this.additionalDeviceIOs)
+        {
+            try
+            {
+                additionalDeviceIO.multiplexClose();
+            }
+            catch (IOException e)
+            {
+                if (closeException == null)
+                {
+                    closeException = e;
+                }
+            }
+        }
+
+        this.additionalDeviceIOs.clear();
+
+        if (closeException != null)
+        {
+            throw closeException;
+        }
     }
 
     /***
@@ -160,6 +302,10 @@ public class TransportClient
 
         // Codes_SRS_TRANSPORTCLIENT_12_018: [The function shall set the new interval on the underlying device IO it the transport client is not open.]
         this.deviceIO.setSendPeriodInMilliseconds(newIntervalInMilliseconds);
+        for (DeviceIO additionalDeviceIO : this.additionalDeviceIOs)
+        {
+            additionalDeviceIO.setSendPeriodInMilliseconds(newIntervalInMilliseconds);
+        }
 
         log.debug("Send interval updated successfully in the transport client");
     }
@@ -5,9 +5,9 @@
 
 package com.microsoft.azure.sdk.iot.device.edge;
 
-import com.google.gson.GsonBuilder;
 import com.google.gson.annotations.Expose;
 import com.google.gson.annotations.SerializedName;
+import com.microsoft.azure.sdk.iot.deps.serializer.GsonProvider;
 
 /**
  * Json parser for a method request. Used to invoke methods on other devices/modules
@@ -75,7 +75,7 @@ public class MethodRequest
      */
     public String toJson()
     {
-        return new GsonBuilder().create().toJson(this);
+        return GsonProvider.getGson().toJson(this);
     }
 
     //empty constructor for gson
@@ -0,0 +1,393 @@
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+
+package com.microsoft.azure.sdk.iot.device.fileupload;
+
+import com.microsoft.azure.sdk.iot.deps.util.Base64;
+import com.microsoft.azure.storage.RetryNoRetry;
+import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.blob.BlobRequestOptions;
+import com.microsoft.azure.storage.blob.BlockEntry;
+import com.microsoft.azure.storage.blob.BlockListingFilter;
+import com.microsoft.azure.storage.blob.CloudBlockBlob;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Upload a stream to a block blob as a list of blocks that are sent in parallel.
+ *
+ * <p> The stream is read in order, one block at a time, into one of a fixed number of buffers, and each block is
+ *     handed to one of as many upload threads, so no more than {@code parallelBlockCount} blocks are held in memory at
+ *     any time. A block that fails to upload is retried on its own, with an exponential backoff, and the blocks are
+ *     committed in order once all of them were uploaded.
+ *
+ * <p> When a {@link FileUploadCheckpoint} is provided, each uploaded block is recorded in it with the hash of its
+ *     content. The blocks that it records from a previous attempt, that the storage still holds as uncommitted blocks,
+ *     and whose content in the stream still has the recorded hash, are not uploaded again.
+ */
+@Slf4j
+final class BlockBlobUploader
+{
+    // The block blob service does not accept more blocks than that in a single blob
+    private static final int MAX_BLOCK_COUNT = 50000;
+
+    private static final int MAX_BLOCK_UPLOAD_ATTEMPTS = 5;
+    private static final long INITIAL_RETRY_DELAY_MILLIS = 1000;
+    private static final long MAX_RETRY_DELAY_MILLIS = 30 * 1000;
+
+    private static final int HTTP_STATUS_REQUEST_TIMEOUT = 408;
+    private static final int HTTP_STATUS_TOO_MANY_REQUESTS = 429;
+    private static final int HTTP_STATUS_BAD_REQUEST = 400;
+    private static final int HTTP_STATUS_INTERNAL_SERVER_ERROR = 500;
+
+    private static final String BLOCK_ID_FORMAT = "%08d";
+    private static final String BLOCK_HASH_ALGORITHM = "MD5";
+    private static final String THREAD_NAME = "azure-iot-sdk-FileUploadBlockTask";
+
+    private final CloudBlockBlob blob;
+    private final InputStream inputStream;
+    private final long streamLength;
+    private final int blockSize;
+    private final int blockCount;
+    private final int parallelBlockCount;
+    private final FileUploadCheckpoint checkpoint;
+
+    // Each block is retried by this class, so the storage client shall not retry it on its own as well
+    private final BlobRequestOptions blockRequestOptions = new BlobRequestOptions();
+
+    /**
+     * Constructor
+     *
+     * @param blob is the destination blob in the storage.
+     * @param inputStream is the byte stream with the information to store in the blob.
+     * @param streamLength is the number of bytes to upload.
+     * @param blockSize is the size in bytes of each block. Must be positive.
+     * @param parallelBlockCount is the number of blocks to upload in parallel. Must be positive.
+     * @param checkpoint is the record of the uploaded blocks. Can be {@code null}.
+     * @throws IllegalArgumentException if the stream needs more blocks than a block blob accepts.
+     */
+    BlockBlobUploader(CloudBlockBlob blob, InputStream inputStream, long streamLength, int blockSize, int parallelBlockCount,
+                      FileUploadCheckpoint checkpoint) throws IllegalArgumentException
+    {
+        long blockCount = (streamLength + blockSize - 1) / blockSize;
+        if (blockCount > MAX_BLOCK_COUNT)
+        {
+            throw new IllegalArgumentException("A stream of " + streamLength + " bytes needs more than " + MAX_BLOCK_COUNT
+                    + " blocks of " + blockSize + " bytes, use a larger file upload block size");
+        }
+
+        this.blob = blob;
+        this.inputStream = inputStream;
+        this.streamLength = streamLength;
+        this.blockSize = blockSize;
+        this.blockCount = (int) blockCount;
+        this.parallelBlockCount = Math.min(parallelBlockCount, Math.max(this.blockCount, 1));
+        this.checkpoint = checkpoint;
+        this.blockRequestOptions.setRetryPolicyFactory(new RetryNoRetry());
+    }
+
+    /**
+     * Upload all the blocks that are not in the storage yet, and commit the complete list of blocks.
+     *
+     * @throws IOException if the stream cannot be read, or ends before {@code streamLength} bytes.
+     * @throws StorageException if a block still fails to upload after all its attempts, or the commit fails.
+     */
+    void upload() throws IOException, StorageException
+    {
+        if (checkpoint != null && checkpoint.hasUploadedBlocks())
+        {
+            discardBlocksMissingFromStorage();
+        }
+
+        BlockingQueue<byte[]> freeBuffers = new ArrayBlockingQueue<>(parallelBlockCount);
+        int allocatedBufferCount = 0;
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        List<Future<Void>> blockUploads = new ArrayList<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelBlockCount);
+        try
+        {
+            for (int blockIndex = 0; blockIndex < blockCount && failure.get() == null; blockIndex++)
+            {
+                int length = getBlockLength(blockIndex);
+
+                // Buffers are only allocated when all the existing ones are in use, up to one per upload thread
+                byte[] buffer = freeBuffers.poll();
+                if (buffer == null && allocatedBufferCount < parallelBlockCount)
+                {
+                    buffer = new byte[blockSize];
+                    allocatedBufferCount++;
+                }
+                else if (buffer == null)
+                {
+                    buffer = freeBuffers.take();
+                    if (failure.get() != null)
+                    {
+                        break;
+                    }
+                }
+
+                readFully(inputStream, buffer, length);
+
+                String blockHash = null;
+                if (checkpoint != null)
+                {
+                    // The block is only skipped if the stream still has the content that was uploaded for it
+                    blockHash = getBlockHash(buffer, length);
+                    if (blockHash.equals(checkpoint.getBlockHash(blockIndex)))
+                    {
+                        freeBuffers.add(buffer);
+                        continue;
+                    }
+                    else if (checkpoint.isUploaded(blockIndex))
+                    {
+                        log.debug("Block {} of the stream changed since it was uploaded, so it will be uploaded again", blockIndex);
+                        checkpoint.discard(blockIndex);
+                    }
+                }
+
+                blockUploads.add(executor.submit(new BlockUpload(blockIndex, buffer, length, blockHash, freeBuffers, failure)));
+            }
+
+            for (Future<Void> blockUpload : blockUploads)
+            {
+                blockUpload.get();
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("File upload was interrupted");
+        }
+        catch (ExecutionException e)
+        {
+            Throwable cause = e.getCause();
+            if (cause instanceof StorageException)
+            {
+                throw (StorageException) cause;
+            }
+            else if (cause instanceof IOException)
+            {
+                throw (IOException) cause;
+            }
+
+            throw new IOException("Failed to upload a block to the storage", cause);
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        List<BlockEntry> blockList = new ArrayList<>(blockCount);
+        for (int blockIndex = 0; blockIndex < blockCount; blockIndex++)
+        {
+            blockList.add(new BlockEntry(getBlockId(blockIndex)));
+        }
+
+        blob.commitBlockList(blockList);
+
+        if (checkpoint != null)
+        {
+            checkpoint.delete();
+        }
+    }
+
+    private void discardBlocksMissingFromStorage()
+    {
+        Map<String, Long> uncommittedBlockSizes = new HashMap<>();
+        try
+        {
+            for (BlockEntry blockEntry : blob.downloadBlockList(BlockListingFilter.UNCOMMITTED, null, null, null))
+            {
+                uncommittedBlockSizes.put(blockEntry.getId(), blockEntry.getSize());
+            }
+        }
+        catch (StorageException e)
+        {
+            log.debug("Failed to list the uncommitted blocks of the blob, so all its blocks will be uploaded again", e);
+        }
+
+        int resumedBlockCount = 0;
+        for (int blockIndex = 0; blockIndex < blockCount; blockIndex++)
+        {
+            if (checkpoint.isUploaded(blockIndex))
+            {
+                Long size = uncommittedBlockSizes.get(getBlockId(blockIndex));
+                if (size != null && size == getBlockLength(blockIndex))
+                {
+                    resumedBlockCount++;
+                }
+                else
+                {
+                    checkpoint.discard(blockIndex);
+                }
+            }
+        }
+
+        log.debug("Resuming the file upload with {} of its {} blocks already in the storage", resumedBlockCount, blockCount);
+    }
+
+    private int getBlockLength(int blockIndex)
+    {
+        return (int) Math.min(blockSize, streamLength - (long) blockIndex * blockSize);
+    }
+
+    /**
+     * @return the id of the block, the same for a given index across attempts, so that a resumed upload can find the
+     * blocks of the previous attempt.
+     */
+    static String getBlockId(int blockIndex)
+    {
+        // All the block ids of a blob must have the same length
+        return Base64.encodeBase64StringLocal(String.format(Locale.ROOT, BLOCK_ID_FORMAT, blockIndex).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String getBlockHash(byte[] buffer, int length)
+    {
+        try
+        {
+            MessageDigest messageDigest = MessageDigest.getInstance(BLOCK_HASH_ALGORITHM);
+            messageDigest.update(buffer, 0, length);
+            return Base64.encodeBase64StringLocal(messageDigest.digest());
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            // Every Java platform is required to support MD5
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean isRetryable(Exception e)
+    {
+        if (e instanceof StorageException)
+        {
+            // Client errors, like an expired SAS token, would fail the same way on every attempt
+            int statusCode = ((StorageException) e).getHttpStatusCode();
+            return statusCode < HTTP_STATUS_BAD_REQUEST
+                    || statusCode == HTTP_STATUS_REQUEST_TIMEOUT
+                    || statusCode == HTTP_STATUS_TOO_MANY_REQUESTS
+                    || statusCode >= HTTP_STATUS_INTERNAL_SERVER_ERROR;
+        }
+
+        return e instanceof IOException;
+    }
+
+    private static void readFully(InputStream inputStream, byte[] buffer, int length) throws IOException
+    {
+        int offset = 0;
+        while (offset < length)
+        {
+            int read = inputStream.read(buffer, offset, length - offset);
+            if (read < 0)
+            {
+                throw new EOFException("The stream ended before all of its declared length was read");
+            }
+
+            offset += read;
+        }
+    }
+
+    private final class BlockUpload implements Callable<Void>
+    {
+        private final int blockIndex;
+        private final byte[] buffer;
+        private final int length;
+        private final String blockHash;
+        private final BlockingQueue<byte[]> freeBuffers;
+        private final AtomicReference<Exception> failure;
+
+        BlockUpload(int blockIndex, byte[] buffer, int length, String blockHash, BlockingQueue<byte[]> freeBuffers,
+                    AtomicReference<Exception> failure)
+        {
+            this.blockIndex = blockIndex;
+            this.buffer = buffer;
+            this.length = length;
+            this.blockHash = blockHash;
+            this.freeBuffers = freeBuffers;
+            this.failure = failure;
+        }
+
+        @Override
+        public Void call() throws Exception
+        {
+            Thread.currentThread().setName(THREAD_NAME);
+
+            try
+            {
+                uploadBlock();
+            }
+            catch (Exception e)
+            {
+                failure.compareAndSet(null, e);
+                throw e;
+            }
+            finally
+            {
+                freeBuffers.add(buffer);
+            }
+
+            if (checkpoint != null)
+            {
+                try
+                {
+                    checkpoint.markUploaded(blockIndex, blockHash);
+                }
+                catch (IOException e)
+                {
+                    // The upload itself can go on, it just cannot be resumed from this block
+                    log.warn("Failed to record block {} in the file upload checkpoint", blockIndex, e);
+                }
+            }
+
+            return null;
+        }
+
+        private void uploadBlock() throws IOException, StorageException, InterruptedException
+        {
+            String blockId = getBlockId(blockIndex);
+            long retryDelayMillis = INITIAL_RETRY_DELAY_MILLIS;
+            for (int attempt = 1; ; attempt++)
+            {
+                try
+                {
+                    blob.uploadBlock(blockId, new ByteArrayInputStream(buffer, 0, length), length, null, blockRequestOptions, null);
+                    return;
+                }
+                catch (IOException | StorageException e)
+                {
+                    if (attempt >= MAX_BLOCK_UPLOAD_ATTEMPTS || !isRetryable(e))
+                    {
+                        log.error("Failed to upload block {} after {} attempts", blockIndex, attempt, e);
+                        throw e;
+                    }
+
+                    log.debug("Failed to upload block {}, retrying in {} milliseconds", blockIndex, retryDelayMillis, e);
+                }
+
+                Thread.sleep(retryDelayMillis);
+                retryDelayMillis = Math.min(retryDelayMillis * 2, MAX_RETRY_DELAY_MILLIS);
+            }
+        }
+    }
+}
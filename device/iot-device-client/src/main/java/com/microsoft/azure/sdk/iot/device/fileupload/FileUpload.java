@@ -9,6 +9,7 @@ import com.microsoft.azure.sdk.iot.device.IotHubStatusCode;
 import com.microsoft.azure.sdk.iot.device.transport.https.HttpsTransportManager;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Queue;
@@ -29,6 +30,10 @@ public final class FileUpload
     private FileUploadStatusCallBack fileUploadStatusCallBack;
     private static Queue<FileUploadInProgress> fileUploadInProgressesSet;
 
+    private int blockSize;
+    private int parallelBlockCount;
+    private File checkpointDirectory;
+
     /**
      * CONSTRUCTOR
      *
@@ -51,6 +56,10 @@ public final class FileUpload
         /* Codes_SRS_FILEUPLOAD_21_003: [If the constructor fail to create the new instance of the `HttpsTransportManager`, it shall throw IllegalArgumentException, threw by the HttpsTransportManager constructor.] */
         this.httpsTransportManager = new HttpsTransportManager(config);
 
+        this.blockSize = config.getFileUploadBlockSize();
+        this.parallelBlockCount = config.getFileUploadParallelBlockCount();
+        this.checkpointDirectory = config.getFileUploadCheckpointDirectory();
+
         try
         {
             /* Codes_SRS_FILEUPLOAD_21_012: [The constructor shall create an pool of 10 threads to execute the uploads in parallel.] */
@@ -76,6 +85,9 @@ public final class FileUpload
      * When it is completed, the background thread will trigger the
      * callback with the upload status.
      *
+     * <p> If the client was configured with a file upload block size, the stream is uploaded as a list of blocks,
+     *     several at a time. See {@link com.microsoft.azure.sdk.iot.device.ClientOptions#fileUploadBlockSize}.
+     *
      * @param blobName is the name of the file in the container.
      * @param inputStream is the input stream.
      * @param streamLength is the stream length.
@@ -88,7 +100,7 @@ public final class FileUpload
      *              statusCallback is {@code null}
      * @throws IOException if an I/O error occurs in the inputStream.
      */
-    public synchronized void uploadToBlobAsync(
+    public void uploadToBlobAsync(
             String blobName, InputStream inputStream, long streamLength,
             IotHubEventCallback statusCallback, Object statusCallbackContext)
             throws IllegalArgumentException, IOException
@@ -124,7 +136,16 @@ public final class FileUpload
 
         /* Codes_SRS_FILEUPLOAD_21_004: [The uploadToBlobAsync shall asynchronously upload the InputStream `inputStream` to the blob in `blobName`.] */
         /* Codes_SRS_FILEUPLOAD_21_009: [The uploadToBlobAsync shall create a `FileUploadTask` to control this file upload.] */
-        FileUploadTask fileUploadTask = new FileUploadTask(blobName, inputStream, streamLength, httpsTransportManager, fileUploadStatusCallBack, newUpload);
+        FileUploadTask fileUploadTask;
+        if (blockSize > 0)
+        {
+            fileUploadTask = new FileUploadTask(blobName, inputStream, streamLength, httpsTransportManager, fileUploadStatusCallBack, newUpload,
+                    blockSize, parallelBlockCount, checkpointDirectory);
+        }
+        else
+        {
+            fileUploadTask = new FileUploadTask(blobName, inputStream, streamLength, httpsTransportManager, fileUploadStatusCallBack, newUpload);
+        }
 
         /* Codes_SRS_FILEUPLOAD_21_010: [The uploadToBlobAsync shall schedule the task `FileUploadTask` to immediately start.] */
         newUpload.setTask(taskScheduler.submit(fileUploadTask));
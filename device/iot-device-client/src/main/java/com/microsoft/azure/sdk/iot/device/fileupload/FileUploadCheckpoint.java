@@ -0,0 +1,206 @@
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+
+package com.microsoft.azure.sdk.iot.device.fileupload;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Persisted record of the blocks of a chunked file upload that were already uploaded to the storage, along with the
+ * hash of the content of each of them.
+ *
+ * <p> The record is a small text file, named after the blob URI, in the checkpoint directory. Its first line identifies
+ *     the upload by its blob URI, stream length and block size, and each following line records one uploaded block
+ *     as its index and content hash. A line is appended each time a block is uploaded, so a process that stops in the
+ *     middle of an upload leaves behind at most one partial line, which is ignored. A record that does not match the
+ *     stream length and block size of the new upload is ignored, and replaced by the first block of the new upload.
+ *
+ * <p> The hashes let a resumed upload tell whether the stream still has the same content as the one of the previous
+ *     attempt, since a different file can have the same name and length.
+ */
+@Slf4j
+final class FileUploadCheckpoint
+{
+    private static final String CHECKPOINT_FILE_EXTENSION = ".checkpoint";
+    private static final String FIELD_SEPARATOR = " ";
+    private static final String LINE_SEPARATOR = "\n";
+
+    private final File file;
+    private final String header;
+    private final Map<Integer, String> uploadedBlockHashes = new HashMap<>();
+
+    // The file is only replaced once the new upload has something to record in it
+    private boolean isHeaderWritten;
+
+    /**
+     * Open the checkpoint of the provided blob, loading the blocks that it records if it matches this upload.
+     *
+     * @param directory is the directory that holds the checkpoints. Cannot be {@code null}.
+     * @param blobUri is the URI of the destination blob in the storage, without the SAS token query. It includes the
+     * storage account, container and device, so checkpoints of different devices' blobs of the same name are kept apart.
+     * @param streamLength is the number of bytes to upload.
+     * @param blockSize is the size in bytes of each block.
+     * @throws IOException if the checkpoint directory cannot be created.
+     */
+    FileUploadCheckpoint(File directory, String blobUri, long streamLength, int blockSize) throws IOException
+    {
+        if (!directory.isDirectory() && !directory.mkdirs())
+        {
+            throw new IOException("Cannot create the file upload checkpoint directory " + directory);
+        }
+
+        // The encoded blob URI has no field separator in it
+        String fileName = encodeFileName(blobUri);
+        this.file = new File(directory, fileName + CHECKPOINT_FILE_EXTENSION);
+        this.header = fileName + FIELD_SEPARATOR + streamLength + FIELD_SEPARATOR + blockSize;
+
+        load();
+    }
+
+    /**
+     * @param blockIndex is the index of the block in the blob.
+     * @return {@code true} if the checkpoint records the block as uploaded.
+     */
+    synchronized boolean isUploaded(int blockIndex)
+    {
+        return uploadedBlockHashes.containsKey(blockIndex);
+    }
+
+    /**
+     * @param blockIndex is the index of the block in the blob.
+     * @return the hash of the content of the block when it was uploaded, or {@code null} if the checkpoint does not
+     * record the block as uploaded.
+     */
+    synchronized String getBlockHash(int blockIndex)
+    {
+        return uploadedBlockHashes.get(blockIndex);
+    }
+
+    /**
+     * @return {@code true} if the checkpoint records at least one uploaded block.
+     */
+    synchronized boolean hasUploadedBlocks()
+    {
+        return !uploadedBlockHashes.isEmpty();
+    }
+
+    /**
+     * Forget a block that the checkpoint records as uploaded, but that the storage no longer holds, or whose content
+     * changed since.
+     *
+     * @param blockIndex is the index of the block in the blob.
+     */
+    synchronized void discard(int blockIndex)
+    {
+        // The block is uploaded again next, and its new record then supersedes the one in the file
+        uploadedBlockHashes.remove(blockIndex);
+    }
+
+    /**
+     * Record the block as uploaded, and append it to the checkpoint file.
+     *
+     * @param blockIndex is the index of the block in the blob.
+     * @param blockHash is the hash of the content of the block.
+     * @throws IOException if the checkpoint cannot be written.
+     */
+    synchronized void markUploaded(int blockIndex, String blockHash) throws IOException
+    {
+        uploadedBlockHashes.put(blockIndex, blockHash);
+
+        StringBuilder record = new StringBuilder();
+        if (!isHeaderWritten)
+        {
+            record.append(header).append(LINE_SEPARATOR);
+        }
+
+        record.append(blockIndex).append(FIELD_SEPARATOR).append(blockHash).append(LINE_SEPARATOR);
+
+        // The first record of an upload replaces any record of a different upload left in the file
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file, isHeaderWritten), StandardCharsets.UTF_8))
+        {
+            writer.write(record.toString());
+        }
+
+        isHeaderWritten = true;
+    }
+
+    /**
+     * Delete the checkpoint, once the upload is complete.
+     */
+    synchronized void delete()
+    {
+        uploadedBlockHashes.clear();
+        isHeaderWritten = false;
+
+        if (file.exists() && !file.delete())
+        {
+            log.warn("Failed to delete the file upload checkpoint {}", file);
+        }
+    }
+
+    private void load()
+    {
+        if (!file.isFile())
+        {
+            return;
+        }
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)))
+        {
+            if (!header.equals(reader.readLine()))
+            {
+                log.debug("Ignoring the file upload checkpoint {} since it belongs to a different upload", file);
+                return;
+            }
+
+            isHeaderWritten = true;
+
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                String[] fields = line.split(FIELD_SEPARATOR);
+                if (fields.length != 2 || fields[1].isEmpty())
+                {
+                    // Left behind by a process that stopped while appending it
+                    log.debug("Ignoring the partial record '{}' of the file upload checkpoint {}", line, file);
+                    continue;
+                }
+
+                // A block uploaded again after it was discarded has a later record that supersedes the earlier one
+                uploadedBlockHashes.put(Integer.parseInt(fields[0]), fields[1]);
+            }
+        }
+        catch (IOException | RuntimeException e)
+        {
+            log.warn("Ignoring the unreadable file upload checkpoint {}", file, e);
+            uploadedBlockHashes.clear();
+        }
+    }
+
+    private static String encodeFileName(String blobUri)
+    {
+        try
+        {
+            return URLEncoder.encode(blobUri, StandardCharsets.UTF_8.name());
+        }
+        catch (UnsupportedEncodingException e)
+        {
+            // UTF-8 is always supported
+            throw new IllegalStateException(e);
+        }
+    }
+}
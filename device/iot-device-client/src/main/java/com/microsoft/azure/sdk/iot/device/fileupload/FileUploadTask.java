@@ -16,11 +16,16 @@ import com.microsoft.azure.storage.StorageException;
 import com.microsoft.azure.storage.blob.CloudBlockBlob;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Provide means to  asynchronous upload file in the Azure Storage using the IoTHub.
@@ -59,8 +64,18 @@ public final class FileUploadTask implements Runnable
     private IotHubEventCallback userCallback;
     private Object userCallbackContext;
 
+    // The stream is uploaded in a single request unless a block size is provided
+    private int blockSize;
+    private int parallelBlockCount = 1;
+    private File checkpointDirectory;
+
     private static final String THREAD_NAME = "azure-iot-sdk-FileUploadTask";
 
+    // Uploads to the same blob in blocks would overwrite each other's blocks and checkpoint, so they run one at a time.
+    // Keyed by the blob URI without its SAS query, since clients of different devices or hubs can upload to blobs of
+    // the same name
+    private static final Map<String, BlobUploadLock> BLOB_UPLOAD_LOCKS = new HashMap<>();
+
     /**
      * Constructor
      *
@@ -111,6 +126,42 @@ public final class FileUploadTask implements Runnable
         log.trace("HttpsFileUpload object is created successfully");
     }
 
+    /**
+     * Constructor for a chunked upload, that uploads the stream as a list of blocks.
+     *
+     * @param blobName is the destination blob name in the storage. Cannot be {@code null}, or empty.
+     * @param inputStream is the byte stream with the information to store in the blob. Cannot be {@code null}.
+     * @param streamLength is the number of bytes to upload. Cannot be negative.
+     * @param httpsTransportManager is the https transport to connect to the IoT Hub. Cannot be {@code null}.
+     * @param userCallback is the callback to call when the upload is completed. Cannot be {@code null}.
+     * @param userCallbackContext is the context for the callback. Can be any value.
+     * @param blockSize is the size in bytes of each block. Must be positive.
+     * @param parallelBlockCount is the number of blocks to upload in parallel. Must be positive.
+     * @param checkpointDirectory is the directory to record the uploaded blocks in, so that a failed upload can be
+     *                            resumed. Can be {@code null}.
+     * @throws IllegalArgumentException if one of the parameters is not valid.
+     */
+    FileUploadTask(String blobName, InputStream inputStream, long streamLength, HttpsTransportManager httpsTransportManager,
+                   IotHubEventCallback userCallback, Object userCallbackContext,
+                   int blockSize, int parallelBlockCount, File checkpointDirectory) throws IllegalArgumentException
+    {
+        this(blobName, inputStream, streamLength, httpsTransportManager, userCallback, userCallbackContext);
+
+        if (blockSize <= 0)
+        {
+            throw new IllegalArgumentException("blockSize is not positive");
+        }
+
+        if (parallelBlockCount <= 0)
+        {
+            throw new IllegalArgumentException("parallelBlockCount is not positive");
+        }
+
+        this.blockSize = blockSize;
+        this.parallelBlockCount = parallelBlockCount;
+        this.checkpointDirectory = checkpointDirectory;
+    }
+
     public FileUploadTask(HttpsTransportManager httpsTransportManager)
     {
         this.httpsTransportManager = httpsTransportManager;
@@ -138,7 +189,15 @@ public final class FileUploadTask implements Runnable
         try
         {
             CloudBlockBlob blob = new CloudBlockBlob(sasUriResponse.getBlobUri());
-            blob.upload(inputStream, streamLength);
+            if (blockSize > 0)
+            {
+                uploadInBlocks(blob);
+            }
+            else
+            {
+                blob.upload(inputStream, streamLength);
+            }
+
             fileUploadCompletionNotification = new FileUploadCompletionNotification(sasUriResponse.getCorrelationId(), true, 0, "Succeed to upload to storage.");
         }
         catch (StorageException | IOException | IllegalArgumentException | URISyntaxException e)
@@ -168,15 +227,68 @@ public final class FileUploadTask implements Runnable
         }
     }
 
+    private void uploadInBlocks(CloudBlockBlob blob) throws IOException, StorageException
+    {
+        String blobUri = getBlobUriWithoutQuery(blob);
+
+        BlobUploadLock blobUploadLock;
+        synchronized (BLOB_UPLOAD_LOCKS)
+        {
+            blobUploadLock = BLOB_UPLOAD_LOCKS.get(blobUri);
+            if (blobUploadLock == null)
+            {
+                blobUploadLock = new BlobUploadLock();
+                BLOB_UPLOAD_LOCKS.put(blobUri, blobUploadLock);
+            }
+
+            blobUploadLock.userCount++;
+        }
+
+        blobUploadLock.lock();
+        try
+        {
+            FileUploadCheckpoint checkpoint = null;
+            if (checkpointDirectory != null)
+            {
+                checkpoint = new FileUploadCheckpoint(checkpointDirectory, blobUri, streamLength, blockSize);
+            }
+
+            new BlockBlobUploader(blob, inputStream, streamLength, blockSize, parallelBlockCount, checkpoint).upload();
+        }
+        finally
+        {
+            blobUploadLock.unlock();
+            synchronized (BLOB_UPLOAD_LOCKS)
+            {
+                // The lock of a blob is only kept while an upload to it is running or waiting
+                if (--blobUploadLock.userCount == 0)
+                {
+                    BLOB_UPLOAD_LOCKS.remove(blobUri);
+                }
+            }
+        }
+    }
+
+    private static String getBlobUriWithoutQuery(CloudBlockBlob blob)
+    {
+        // The SAS token in the query changes with every upload, while the rest of the URI identifies the blob
+        URI blobUri = blob.getUri();
+        return blobUri.getScheme() + "://" + blobUri.getRawAuthority() + blobUri.getRawPath();
+    }
+
     public FileUploadSasUriResponse getFileUploadSasUri(FileUploadSasUriRequest request) throws IOException
     {
         IotHubTransportMessage message = new IotHubTransportMessage(request.toJson());
         message.setIotHubMethod(IotHubMethod.POST);
 
+        // The transport manager is shared by all the uploads of a client, and holds a single connection between open and close
         ResponseMessage responseMessage;
-        httpsTransportManager.open();
-        responseMessage = httpsTransportManager.getFileUploadSasUri(message);
-        httpsTransportManager.close();
+        synchronized (httpsTransportManager)
+        {
+            httpsTransportManager.open();
+            responseMessage = httpsTransportManager.getFileUploadSasUri(message);
+            httpsTransportManager.close();
+        }
 
         if (responseMessage.getBytes() == null || responseMessage.getBytes().length == 0)
         {
@@ -191,9 +303,13 @@ public final class FileUploadTask implements Runnable
         IotHubTransportMessage message = new IotHubTransportMessage(fileUploadStatusParser.toJson());
         message.setIotHubMethod(IotHubMethod.POST);
 
-        httpsTransportManager.open();
-        ResponseMessage responseMessage = httpsTransportManager.sendFileUploadNotification(message);
-        httpsTransportManager.close();
+        ResponseMessage responseMessage;
+        synchronized (httpsTransportManager)
+        {
+            httpsTransportManager.open();
+            responseMessage = httpsTransportManager.sendFileUploadNotification(message);
+            httpsTransportManager.close();
+        }
 
         return responseMessage.getStatus();
     }
@@ -202,4 +318,10 @@ public final class FileUploadTask implements Runnable
     {
         this.httpsTransportManager.close();
     }
+
+    private static final class BlobUploadLock extends ReentrantLock
+    {
+        // Guarded by BLOB_UPLOAD_LOCKS
+        private int userCount;
+    }
 }
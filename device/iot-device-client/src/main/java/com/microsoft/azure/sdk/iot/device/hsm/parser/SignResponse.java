@@ -5,10 +5,10 @@
 
 package com.microsoft.azure.sdk.iot.device.hsm.parser;
 
-import com.google.gson.GsonBuilder;
 import com.google.gson.annotations.Expose;
 import com.google.gson.annotations.SerializedName;
 import com.google.gson.stream.JsonToken;
+import com.microsoft.azure.sdk.iot.deps.serializer.GsonProvider;
 
 import javax.json.Json;
 
@@ -30,6 +30,6 @@ public class SignResponse
 
     public static SignResponse fromJson(String json)
     {
-        return new GsonBuilder().create().fromJson(json, SignResponse.class);
+        return GsonProvider.getGson().fromJson(json, SignResponse.class);
     }
 }
@@ -39,9 +39,32 @@ public class IotHubTransport implements IotHubListener
     /* Messages which are sent to the IoT Hub but did not receive ack yet. */
     private final Map<String, IotHubTransportPacket> inProgressPackets = new ConcurrentHashMap<>();
 
+    /* Waiting and in progress messages that have an expiry time, ordered by that expiry time. */
+    private final PacketExpiryIndex packetExpiryIndex = new PacketExpiryIndex();
+
+    /* Number of packets in the waiting queue and the total size of their payloads, used to bound the waiting queue when
+     * the client is configured with a max queue size. Guarded by waitingQueueCapacityLock, which senders blocked on a
+     * full queue wait on. No other lock may be acquired while holding it. Neither is tracked when the waiting queue is
+     * unbounded. */
+    private final Object waitingQueueCapacityLock = new Object();
+    private int waitingPacketsCount;
+    private long waitingPacketsBytes;
+
+    /* Number of senders blocked on a full waiting queue, so that room is only signalled when someone waits for it.
+     * Guarded by waitingQueueCapacityLock. */
+    private int waitingQueueCapacityWaiters;
+
     /* Messages received from the IoT Hub */
     private final Queue<IotHubTransportMessage> receivedMessagesQueue = new ConcurrentLinkedQueue<>();
 
+    /* Runs the callbacks of received messages on the executor from the client options, if one was provided. Only
+     * accessed from the receive thread. */
+    private ReceivedMessageDispatcher receivedMessageDispatcher;
+
+    /* Results of the message callbacks that ran on that executor, in the order the callbacks returned. The connection
+     * is not thread safe, so the receive thread sends them as acknowledgements rather than the executor threads. */
+    private final Deque<PendingAcknowledgement> pendingAcknowledgements = new ConcurrentLinkedDeque<>();
+
     /* Messages whose callbacks that are waiting to be invoked. */
     private final Queue<IotHubTransportPacket> callbackPacketsQueue = new ConcurrentLinkedQueue<>();
 
@@ -67,6 +90,10 @@ public class IotHubTransport implements IotHubListener
     private long reconnectionAttemptStartTimeMillis;
     private ScheduledExecutorService taskScheduler;
 
+    // Whether taskScheduler was created by this transport, rather than shared with other clients, and so needs to be
+    // shut down when this transport closes
+    private boolean ownsTaskScheduler;
+
     final private Object reconnectionLock = new Object();
 
     private static final int POOL_SIZE = 1;
@@ -79,6 +106,11 @@ public class IotHubTransport implements IotHubListener
     // layer's responsibility to notify that task each time a message is received.
     private final Object receiveThreadLock = new Object();
 
+    // Notified alongside the send and receive thread locks when the worker tasks run on a shared scheduler, since those
+    // tasks can't wait on the locks without holding up the other clients that share the scheduler.
+    private volatile Runnable sendWorkListener;
+    private volatile Runnable receiveWorkListener;
+
     /**
      * Constructor for an IotHubTransport object with default values
      * @param defaultConfig the config used for opening connections, retrieving retry policy, and checking protocol
@@ -114,6 +146,19 @@ public class IotHubTransport implements IotHubListener
         return this.receiveThreadLock;
     }
 
+    /**
+     * Sets the listeners that are notified each time there is new work for the send task or the receive task, in
+     * addition to the send and receive thread locks being notified.
+     * @param sendWorkListener notified when a message is queued to be sent or a callback is queued to be invoked. May
+     * be null.
+     * @param receiveWorkListener notified when a received message is queued to be handled. May be null.
+     */
+    public void setWorkListeners(Runnable sendWorkListener, Runnable receiveWorkListener)
+    {
+        this.sendWorkListener = sendWorkListener;
+        this.receiveWorkListener = receiveWorkListener;
+    }
+
     public boolean hasMessagesToSend()
     {
         synchronized (sendThreadLock)
@@ -126,7 +171,7 @@ public class IotHubTransport implements IotHubListener
     {
         synchronized (receiveThreadLock)
         {
-            return this.receivedMessagesQueue.size() > 0;
+            return this.receivedMessagesQueue.size() > 0 || !this.pendingAcknowledgements.isEmpty();
         }
     }
 
@@ -319,7 +364,16 @@ public class IotHubTransport implements IotHubListener
 
         this.deviceClientConfigs = new LinkedBlockingQueue<>(deviceClientConfigs);
         this.defaultConfig = this.deviceClientConfigs.peek();
-        this.taskScheduler = Executors.newScheduledThreadPool(1);
+        if (this.defaultConfig.getSharedScheduler() != null)
+        {
+            this.taskScheduler = this.defaultConfig.getSharedScheduler();
+            this.ownsTaskScheduler = false;
+        }
+        else
+        {
+            this.taskScheduler = Executors.newScheduledThreadPool(1);
+            this.ownsTaskScheduler = true;
+        }
 
         //Codes_SRS_IOTHUBTRANSPORT_34_019: [This function shall open the invoke the method openConnection.]
         openConnection();
@@ -351,7 +405,7 @@ public class IotHubTransport implements IotHubListener
         //Codes_SRS_IOTHUBTRANSPORT_34_023: [This function shall invoke all callbacks.]
         this.invokeCallbacks();
 
-        if (this.taskScheduler != null)
+        if (this.taskScheduler != null && this.ownsTaskScheduler)
         {
             this.taskScheduler.shutdown();
         }
@@ -371,12 +425,20 @@ public class IotHubTransport implements IotHubListener
         {
             this.sendThreadLock.notifyAll();
         }
+        this.notifySendWorkListener();
+
+        // Notify any senders waiting for room in the waiting queue so that they fail rather than wait out their timeout
+        synchronized (this.waitingQueueCapacityLock)
+        {
+            this.waitingQueueCapacityLock.notifyAll();
+        }
 
         // Notify receive thread to finish up so it doesn't survive this close
         synchronized (this.receiveThreadLock)
         {
             this.receiveThreadLock.notifyAll();
         }
+        this.notifyReceiveWorkListener();
 
         log.info("Client connection closed successfully");
     }
@@ -408,7 +470,9 @@ public class IotHubTransport implements IotHubListener
         {
             for (Message singleMessage : ((BatchMessage)message).getNestedMessages())
             {
-                this.addToWaitingQueue(new IotHubTransportPacket(singleMessage, callback, callbackContext,null, System.currentTimeMillis()));
+                IotHubTransportPacket packet = new IotHubTransportPacket(singleMessage, callback, callbackContext,null, System.currentTimeMillis());
+                this.acquireWaitingQueueCapacity(packet);
+                this.enqueueWaitingPacket(packet);
                 log.info("Messages were queued to be sent later ({})", singleMessage);
             }
 
@@ -416,7 +480,8 @@ public class IotHubTransport implements IotHubListener
         }
 
         IotHubTransportPacket packet = new IotHubTransportPacket(message, callback, callbackContext, null, System.currentTimeMillis());
-        this.addToWaitingQueue(packet);
+        this.acquireWaitingQueueCapacity(packet);
+        this.enqueueWaitingPacket(packet);
 
         log.info("Message was queued to be sent later ({})", message);
     }
@@ -444,9 +509,19 @@ public class IotHubTransport implements IotHubListener
 
         int timeSlice = MAX_MESSAGES_TO_SEND_PER_THREAD;
 
+        // A send task on a scheduler shared with other clients must not hold up one of its threads while the connection
+        // waits for room, so it stops instead, and runs again once onSendCapacityAvailable signals it
+        boolean waitForSendCapacity = this.defaultConfig.getSharedScheduler() == null;
+
         while (this.connectionStatus == IotHubConnectionStatus.CONNECTED && timeSlice-- > 0)
         {
-            IotHubTransportPacket packet = waitingPacketsQueue.poll();
+            if (!waitForSendCapacity && !this.hasSendCapacity())
+            {
+                log.trace("Connection has no room for another message, the remaining messages will be sent once it has");
+                break;
+            }
+
+            IotHubTransportPacket packet = this.pollWaitingPacket();
 
             if (packet != null)
             {
@@ -465,49 +540,220 @@ public class IotHubTransport implements IotHubListener
 
     private void checkForExpiredMessages()
     {
-        //Check waiting packets, remove any that have expired.
-        IotHubTransportPacket packet = this.waitingPacketsQueue.poll();
-        Queue<IotHubTransportPacket> packetsToAddBackIntoWaitingPacketsQueue = new LinkedBlockingQueue<>();
-        while (packet != null)
+        // Only the packets that have expired are visited; the waiting queue is left as is, and a waiting packet that
+        // expires is marked so that it is discarded instead of sent once it reaches the front of the queue.
+        for (IotHubTransportPacket packet : this.packetExpiryIndex.pollExpired(System.currentTimeMillis()))
         {
-            if (packet.getMessage().isExpired())
+            if (!packet.getMessage().isExpired())
             {
-                packet.setStatus(IotHubStatusCode.MESSAGE_EXPIRED);
-                this.addToCallbackQueue(packet);
+                // the message's expiry time was pushed back after the packet was queued
+                this.packetExpiryIndex.add(packet);
+                continue;
             }
-            else
+
+            boolean expiredInProgress = false;
+            synchronized (this.inProgressMessagesLock)
+            {
+                String messageId = packet.getMessage().getMessageId();
+                if (messageId != null && this.inProgressPackets.get(messageId) == packet)
+                {
+                    this.inProgressPackets.remove(messageId);
+                    expiredInProgress = true;
+                }
+            }
+
+            // A packet that is neither in progress nor waiting is either scheduled for a retry, and will be tracked
+            // again once the retry puts it back in the waiting queue, or about to be sent, and will be tracked again
+            // once it is added to the in progress packets
+            boolean expiredWhileWaiting = !expiredInProgress && packet.expireIfWaiting();
+            if (expiredWhileWaiting)
             {
-                //message not expired, requeue it
-                packetsToAddBackIntoWaitingPacketsQueue.add(packet);
+                // the packet stays in the waiting queue until it is discarded, but it no longer takes up room there
+                this.releaseWaitingQueueCapacity(packet);
             }
 
+            if (expiredInProgress || expiredWhileWaiting)
+            {
+                packet.setStatus(IotHubStatusCode.MESSAGE_EXPIRED);
+                this.addToCallbackQueue(packet);
+            }
+        }
+    }
+
+    /**
+     * Takes the next packet off of the waiting queue, discarding any packets that expired while they were waiting since
+     * their callbacks have already been queued.
+     * @return the next packet to send, or {@code null} if there are no more waiting packets
+     */
+    private IotHubTransportPacket pollWaitingPacket()
+    {
+        IotHubTransportPacket packet = this.waitingPacketsQueue.poll();
+        while (packet != null && packet.removeFromWaiting())
+        {
             packet = this.waitingPacketsQueue.poll();
         }
 
-        //Requeue all the non-expired messages.
-        this.waitingPacketsQueue.addAll(packetsToAddBackIntoWaitingPacketsQueue);
+        if (packet != null)
+        {
+            this.releaseWaitingQueueCapacity(packet);
+        }
+
+        return packet;
+    }
 
-        //Check in progress messages
-        synchronized (this.inProgressMessagesLock)
+    /**
+     * Claims room in the waiting queue for the provided packet. If the client is configured with a max queue size and
+     * the waiting queue is full, the configured {@link OutboundQueueFullPolicy} decides whether this blocks, drops the
+     * oldest waiting packets, or rejects the packet.
+     * @param packet the packet that is about to be added to the waiting queue
+     * @throws IllegalStateException if the packet was rejected, if no room was made in time, or if the transport was
+     * closed while waiting for room
+     */
+    private void acquireWaitingQueueCapacity(IotHubTransportPacket packet)
+    {
+        int maxQueuedMessages = this.defaultConfig.getMaxQueuedMessages();
+        long maxQueuedBytes = this.defaultConfig.getMaxQueuedBytes();
+        if (maxQueuedMessages <= 0 && maxQueuedBytes <= 0)
         {
-            List<String> expiredPacketMessageIds = new ArrayList<>();
-            for (String messageId : this.inProgressPackets.keySet())
+            // the waiting queue is unbounded, so there is nothing to account for
+            return;
+        }
+
+        long packetBytes = getPayloadSize(packet);
+        List<IotHubTransportPacket> droppedPackets = new ArrayList<>();
+
+        synchronized (this.waitingQueueCapacityLock)
+        {
+            long blockDeadlineMillis = 0;
+            while (this.isWaitingQueueFull(maxQueuedMessages, maxQueuedBytes, packetBytes))
             {
-                if (this.inProgressPackets.get(messageId).getMessage().isExpired())
+                OutboundQueueFullPolicy queueFullPolicy = this.defaultConfig.getQueueFullPolicy();
+                if (queueFullPolicy == OutboundQueueFullPolicy.REJECT_NEW)
+                {
+                    throw new IllegalStateException("Cannot add a message because the outbound queue is full.");
+                }
+                else if (queueFullPolicy == OutboundQueueFullPolicy.DROP_OLDEST)
                 {
-                    expiredPacketMessageIds.add(messageId);
+                    IotHubTransportPacket oldestPacket = this.pollWaitingPacket();
+                    if (oldestPacket == null)
+                    {
+                        // everything still counted as waiting is on its way back from a retry; nothing can be dropped
+                        break;
+                    }
+
+                    droppedPackets.add(oldestPacket);
+                }
+                else
+                {
+                    long currentTimeMillis = System.currentTimeMillis();
+                    if (blockDeadlineMillis == 0)
+                    {
+                        blockDeadlineMillis = currentTimeMillis + this.defaultConfig.getQueueFullBlockTimeoutMillis();
+                    }
+
+                    if (currentTimeMillis >= blockDeadlineMillis)
+                    {
+                        throw new IllegalStateException("Timed out waiting for room in the outbound queue.");
+                    }
+
+                    this.waitingQueueCapacityWaiters++;
+                    try
+                    {
+                        this.waitingQueueCapacityLock.wait(blockDeadlineMillis - currentTimeMillis);
+                    }
+                    catch (InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Interrupted while waiting for room in the outbound queue.", e);
+                    }
+                    finally
+                    {
+                        this.waitingQueueCapacityWaiters--;
+                    }
+
+                    if (this.connectionStatus == IotHubConnectionStatus.DISCONNECTED)
+                    {
+                        throw new IllegalStateException("Cannot add a message when the transport is closed.");
+                    }
                 }
             }
 
-            for (String messageId : expiredPacketMessageIds)
+            this.waitingPacketsCount++;
+            this.waitingPacketsBytes += packetBytes;
+        }
+
+        // Completed outside of the capacity lock since queueing callbacks takes the send thread lock
+        for (IotHubTransportPacket droppedPacket : droppedPackets)
+        {
+            this.log.warn("Outbound queue is full, dropping the oldest queued message ({})", droppedPacket.getMessage());
+            droppedPacket.setStatus(IotHubStatusCode.MESSAGE_DROPPED_QUEUE_FULL);
+            this.addToCallbackQueue(droppedPacket);
+        }
+    }
+
+    private void forceAcquireWaitingQueueCapacity(IotHubTransportPacket packet)
+    {
+        if (!this.isWaitingQueueBounded())
+        {
+            return;
+        }
+
+        long packetBytes = getPayloadSize(packet);
+        synchronized (this.waitingQueueCapacityLock)
+        {
+            this.waitingPacketsCount++;
+            this.waitingPacketsBytes += packetBytes;
+        }
+    }
+
+    private boolean isWaitingQueueBounded()
+    {
+        return this.defaultConfig.getMaxQueuedMessages() > 0 || this.defaultConfig.getMaxQueuedBytes() > 0;
+    }
+
+    private boolean isWaitingQueueFull(int maxQueuedMessages, long maxQueuedBytes, long packetBytes)
+    {
+        if (this.waitingPacketsCount == 0)
+        {
+            // always let one message through so that a message larger than the byte limit can still be sent
+            return false;
+        }
+
+        return (maxQueuedMessages > 0 && this.waitingPacketsCount >= maxQueuedMessages)
+                || (maxQueuedBytes > 0 && this.waitingPacketsBytes + packetBytes > maxQueuedBytes);
+    }
+
+    /**
+     * Gives back the room in the waiting queue that was held by the provided packet, and wakes up any senders waiting
+     * for room. Does nothing if the waiting queue is unbounded, since no room was held.
+     * @param packet the packet that left the waiting queue
+     */
+    private void releaseWaitingQueueCapacity(IotHubTransportPacket packet)
+    {
+        if (!this.isWaitingQueueBounded())
+        {
+            return;
+        }
+
+        long packetBytes = getPayloadSize(packet);
+        synchronized (this.waitingQueueCapacityLock)
+        {
+            this.waitingPacketsCount = Math.max(this.waitingPacketsCount - 1, 0);
+            this.waitingPacketsBytes = Math.max(this.waitingPacketsBytes - packetBytes, 0);
+            if (this.waitingQueueCapacityWaiters > 0)
             {
-                IotHubTransportPacket expiredPacket = this.inProgressPackets.remove(messageId);
-                expiredPacket.setStatus(IotHubStatusCode.MESSAGE_EXPIRED);
-                this.addToCallbackQueue(expiredPacket);
+                this.waitingQueueCapacityLock.notifyAll();
             }
         }
     }
 
+    private static long getPayloadSize(IotHubTransportPacket packet)
+    {
+        Message message = packet.getMessage();
+        byte[] payload = message == null ? null : message.getBytes();
+        return payload == null ? 0 : payload.length;
+    }
+
     /**
      * Invokes the callbacks for all completed requests.
      */
@@ -537,6 +783,10 @@ public class IotHubTransport implements IotHubListener
      * handled by the IoT Hub.
      * </p>
      * If no message callback is set, the function will do nothing.
+     * <p>
+     * If a message callback executor was provided in the client options, every queued message is handed to that
+     * executor instead, and the acknowledgements of the callbacks that returned since the last call are sent.
+     * </p>
      *
      * @throws DeviceClientException if the server could not be reached.
      */
@@ -553,6 +803,14 @@ public class IotHubTransport implements IotHubListener
                 addReceivedMessagesOverHttpToReceivedQueue();
             }
 
+            Executor messageCallbackExecutor = this.defaultConfig.getMessageCallbackExecutor();
+            if (messageCallbackExecutor != null)
+            {
+                this.dispatchReceivedMessages(messageCallbackExecutor);
+                this.sendPendingAcknowledgements();
+                return;
+            }
+
             IotHubTransportMessage receivedMessage = this.receivedMessagesQueue.poll();
             if (receivedMessage != null)
             {
@@ -563,6 +821,105 @@ public class IotHubTransport implements IotHubListener
         }
     }
 
+    /**
+     * Hands every message in the received messages queue to the provided executor. The callbacks of messages that
+     * share an input name still run in the order the messages were received, and so are their acknowledgements.
+     * @param messageCallbackExecutor the executor to run the message callbacks on
+     */
+    private void dispatchReceivedMessages(Executor messageCallbackExecutor)
+    {
+        if (this.receivedMessageDispatcher == null || this.receivedMessageDispatcher.getExecutor() != messageCallbackExecutor)
+        {
+            this.receivedMessageDispatcher = new ReceivedMessageDispatcher(messageCallbackExecutor, new ReceivedMessageDispatcher.Handler()
+            {
+                @Override
+                public void handle(IotHubTransportMessage message)
+                {
+                    executeDispatchedMessageCallback(message);
+                }
+            });
+        }
+
+        try
+        {
+            // Lanes that the executor rejected are retried on every pass
+            this.receivedMessageDispatcher.scheduleIdleLanes();
+
+            IotHubTransportMessage receivedMessage;
+            while ((receivedMessage = this.receivedMessagesQueue.poll()) != null)
+            {
+                this.receivedMessageDispatcher.dispatch(receivedMessage);
+            }
+        }
+        catch (RejectedExecutionException e)
+        {
+            // The messages stay queued on their lanes, in order, so they will be handled once the executor accepts
+            // their lanes again
+            this.log.warn("Message callback executor rejected a received message, it will be retried on the next receive pass", e);
+        }
+    }
+
+    /**
+     * Runs the callback of a message handed to the message callback executor, and queues its result to be sent as the
+     * acknowledgement by the receive thread. Failures are logged rather than thrown, since there is no caller on the
+     * executor thread to handle them.
+     * @param receivedMessage the message to run the callback of
+     */
+    private void executeDispatchedMessageCallback(IotHubTransportMessage receivedMessage)
+    {
+        MessageCallback messageCallback = receivedMessage.getMessageCallback();
+        if (messageCallback == null)
+        {
+            return;
+        }
+
+        IotHubMessageResult result;
+        try
+        {
+            this.log.debug("Executing callback for received message ({})", receivedMessage);
+            result = messageCallback.execute(receivedMessage, receivedMessage.getMessageCallbackContext());
+        }
+        catch (RuntimeException e)
+        {
+            this.log.warn("Message callback threw an exception for received message ({}), it will not be acknowledged", receivedMessage, e);
+            return;
+        }
+
+        synchronized (this.receiveThreadLock)
+        {
+            this.pendingAcknowledgements.add(new PendingAcknowledgement(receivedMessage, result));
+
+            // Wake up IotHubReceiveTask so it can send this acknowledgement
+            this.receiveThreadLock.notifyAll();
+        }
+        this.notifyReceiveWorkListener();
+    }
+
+    /**
+     * Sends the acknowledgements of the message callbacks that ran on the message callback executor, in the order the
+     * callbacks returned.
+     * @throws TransportException if an acknowledgement could not be sent. That acknowledgement and the ones after it
+     * are sent again on the next call.
+     */
+    private void sendPendingAcknowledgements() throws TransportException
+    {
+        PendingAcknowledgement pendingAcknowledgement;
+        while ((pendingAcknowledgement = this.pendingAcknowledgements.poll()) != null)
+        {
+            try
+            {
+                this.log.debug("Sending acknowledgement for received cloud to device message ({})", pendingAcknowledgement.message);
+                this.iotHubTransportConnection.sendMessageResult(pendingAcknowledgement.message, pendingAcknowledgement.result);
+            }
+            catch (TransportException e)
+            {
+                this.log.warn("Sending acknowledgement for received cloud to device message failed, it will be sent again ({})", pendingAcknowledgement.message, e);
+                this.pendingAcknowledgements.addFirst(pendingAcknowledgement);
+                throw e;
+            }
+        }
+    }
+
     /**
      * Returns {@code true} if the transport has no more messages to handle,
      * and {@code false} otherwise.
@@ -626,13 +983,13 @@ public class IotHubTransport implements IotHubListener
     {
         //Codes_SRS_IOTHUBTRANSPORT_34_021: [This function shall move all waiting messages to the callback queue with
         // status MESSAGE_CANCELLED_ONCLOSE.]
-        IotHubTransportPacket packet = this.waitingPacketsQueue.poll();
+        IotHubTransportPacket packet = this.pollWaitingPacket();
         while (packet != null)
         {
             packet.setStatus(IotHubStatusCode.MESSAGE_CANCELLED_ONCLOSE);
             this.addToCallbackQueue(packet);
 
-            packet = this.waitingPacketsQueue.poll();
+            packet = this.pollWaitingPacket();
         }
 
         synchronized (this.inProgressMessagesLock)
@@ -657,6 +1014,28 @@ public class IotHubTransport implements IotHubListener
      * @throws TransportException if any exception is encountered while sending the acknowledgement
      */
     private void acknowledgeReceivedMessage(IotHubTransportMessage receivedMessage) throws TransportException
+    {
+        try
+        {
+            this.executeCallbackAndAcknowledge(receivedMessage);
+        }
+        catch (TransportException e)
+        {
+            //Codes_SRS_IOTHUBTRANSPORT_34_055: [If an exception is thrown while acknowledging the received message,
+            // this function shall add the received message back into the receivedMessagesQueue and then rethrow the exception.]
+            this.log.warn("Sending acknowledgement for received cloud to device message failed, adding it back to the queue ({})", receivedMessage, e);
+            this.addToReceivedMessagesQueue(receivedMessage);
+            throw e;
+        }
+    }
+
+    /**
+     * If the provided received message has a saved callback, this function shall execute that callback and send the ack
+     * to the service
+     * @param receivedMessage the message to acknowledge
+     * @throws TransportException if any exception is encountered while sending the acknowledgement
+     */
+    private void executeCallbackAndAcknowledge(IotHubTransportMessage receivedMessage) throws TransportException
     {
         MessageCallback messageCallback = receivedMessage.getMessageCallback();
         Object messageCallbackContext = receivedMessage.getMessageCallbackContext();
@@ -668,21 +1047,10 @@ public class IotHubTransport implements IotHubListener
             // transport message with the provided message and its saved callback context.]
             IotHubMessageResult result = messageCallback.execute(receivedMessage, messageCallbackContext);
 
-            try
-            {
-                //Codes_SRS_IOTHUBTRANSPORT_34_054: [This function shall send the message callback result along the
-                // connection as the ack to the service.]
-                this.log.debug("Sending acknowledgement for received cloud to device message ({})", receivedMessage);
-                this.iotHubTransportConnection.sendMessageResult(receivedMessage, result);
-            }
-            catch (TransportException e)
-            {
-                //Codes_SRS_IOTHUBTRANSPORT_34_055: [If an exception is thrown while acknowledging the received message,
-                // this function shall add the received message back into the receivedMessagesQueue and then rethrow the exception.]
-                this.log.warn("Sending acknowledgement for received cloud to device message failed, adding it back to the queue ({})", receivedMessage, e);
-                this.addToReceivedMessagesQueue(receivedMessage);
-                throw e;
-            }
+            //Codes_SRS_IOTHUBTRANSPORT_34_054: [This function shall send the message callback result along the
+            // connection as the ack to the service.]
+            this.log.debug("Sending acknowledgement for received cloud to device message ({})", receivedMessage);
+            this.iotHubTransportConnection.sendMessageResult(receivedMessage, result);
         }
     }
 
@@ -765,7 +1133,16 @@ public class IotHubTransport implements IotHubListener
                 case MQTT_WS:
                     //Codes_SRS_IOTHUBTRANSPORT_34_036: [If the default config's protocol is MQTT or MQTT_WS, this function
                     // shall set this object's iotHubTransportConnection to a new MqttIotHubConnection object.]
-                    this.iotHubTransportConnection = new MqttIotHubConnection(defaultConfig);
+                    MqttIotHubConnection mqttIotHubConnection = new MqttIotHubConnection(defaultConfig);
+                    mqttIotHubConnection.setSendCapacityListener(new Runnable()
+                    {
+                        @Override
+                        public void run()
+                        {
+                            onSendCapacityAvailable();
+                        }
+                    });
+                    this.iotHubTransportConnection = mqttIotHubConnection;
                     break;
                 case AMQPS:
                 case AMQPS_WS:
@@ -947,6 +1324,10 @@ public class IotHubTransport implements IotHubListener
         @Override
         public void run()
         {
+            // retried packets are always requeued, even if that puts the waiting queue over its max size
+            forceAcquireWaitingQueueCapacity(this.transportPacket);
+            this.transportPacket.markWaiting();
+            packetExpiryIndex.add(this.transportPacket);
             this.waitingPacketsQueue.add(this.transportPacket);
 
             // Wake up send messages thread so that it can send this message
@@ -954,6 +1335,7 @@ public class IotHubTransport implements IotHubListener
             {
                 this.sendThreadLock.notifyAll();
             }
+            notifySendWorkListener();
         }
     }
 
@@ -1032,6 +1414,10 @@ public class IotHubTransport implements IotHubListener
                 {
                     this.log.trace("Adding transport message to the inProgressPackets to wait for acknowledgement ({})", message);
                     this.inProgressPackets.put(message.getMessageId(), packet);
+
+                    // checkForExpiredMessages drops the packet from the expiry index if it expires after it left the
+                    // waiting queue but before it got here, so it is tracked again now that it can be found in progress
+                    this.packetExpiryIndex.addIfAbsent(packet);
                 }
             }
 
@@ -1226,6 +1612,9 @@ public class IotHubTransport implements IotHubListener
      */
     private void addToCallbackQueue(IotHubTransportPacket packet)
     {
+        // the packet is done, so its expiry no longer needs to be tracked
+        this.packetExpiryIndex.remove(packet);
+
         //Codes_SRS_IOTHUBTRANSPORT_28_002: [This function shall add the packet to the callback queue if it has a callback.]
         if (packet.getCallback() != null)
         {
@@ -1236,18 +1625,37 @@ public class IotHubTransport implements IotHubListener
                 //Wake up send messages thread so that it can process this new callback if it was asleep
                 this.sendThreadLock.notifyAll();
             }
+            this.notifySendWorkListener();
         }
     }
 
+    /**
+     * Adds a packet to the waiting queue without applying the queue's max size. Used for packets that were already
+     * admitted once and are being requeued, such as in progress packets after a disconnection.
+     * @param packet the packet to add
+     */
     private void addToWaitingQueue(IotHubTransportPacket packet)
+    {
+        this.forceAcquireWaitingQueueCapacity(packet);
+        this.enqueueWaitingPacket(packet);
+    }
+
+    /**
+     * Adds a packet, whose room in the waiting queue has already been accounted for, to the waiting queue.
+     * @param packet the packet to add
+     */
+    private void enqueueWaitingPacket(IotHubTransportPacket packet)
     {
         synchronized (this.sendThreadLock)
         {
+            packet.markWaiting();
+            this.packetExpiryIndex.add(packet);
             this.waitingPacketsQueue.add(packet);
 
             // Wake up IotHubSendTask so it can send this message
             this.sendThreadLock.notifyAll();
         }
+        this.notifySendWorkListener();
     }
 
     private void addToReceivedMessagesQueue(IotHubTransportMessage message)
@@ -1259,6 +1667,45 @@ public class IotHubTransport implements IotHubListener
             // Wake up IotHubReceiveTask so it can handle receiving this message
             this.receiveThreadLock.notifyAll();
         }
+        this.notifyReceiveWorkListener();
+    }
+
+    /**
+     * @return false if the connection has as many sent messages awaiting acknowledgement as it allows, in which case
+     * sending another one waits until one of them is acknowledged. Only MQTT connections limit this.
+     */
+    private boolean hasSendCapacity()
+    {
+        return !(this.iotHubTransportConnection instanceof MqttIotHubConnection)
+                || ((MqttIotHubConnection) this.iotHubTransportConnection).hasSendCapacity();
+    }
+
+    private void onSendCapacityAvailable()
+    {
+        // A send task on a shared scheduler stops instead of waiting for room in the connection, so it has to be
+        // told when there may be room again. A dedicated send thread waits in the connection and needs no signal.
+        if (this.hasMessagesToSend())
+        {
+            this.notifySendWorkListener();
+        }
+    }
+
+    private void notifySendWorkListener()
+    {
+        Runnable listener = this.sendWorkListener;
+        if (listener != null)
+        {
+            listener.run();
+        }
+    }
+
+    private void notifyReceiveWorkListener()
+    {
+        Runnable listener = this.receiveWorkListener;
+        if (listener != null)
+        {
+            listener.run();
+        }
     }
 
     /**
@@ -1313,4 +1760,16 @@ public class IotHubTransport implements IotHubListener
             transportException.setRetryable(true);
         }
     }
+
+    private static final class PendingAcknowledgement
+    {
+        private final IotHubTransportMessage message;
+        private final IotHubMessageResult result;
+
+        private PendingAcknowledgement(IotHubTransportMessage message, IotHubMessageResult result)
+        {
+            this.message = message;
+            this.result = result;
+        }
+    }
 }
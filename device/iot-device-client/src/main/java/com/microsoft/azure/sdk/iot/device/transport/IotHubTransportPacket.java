@@ -8,6 +8,8 @@ import com.microsoft.azure.sdk.iot.device.IotHubResponseCallback;
 import com.microsoft.azure.sdk.iot.device.IotHubStatusCode;
 import com.microsoft.azure.sdk.iot.device.Message;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * A packet containing the data needed for an IoT Hub transport to send a
  * message.
@@ -21,6 +23,13 @@ public final class IotHubTransportPacket
     private final long startTimeMillis;
     private int currentRetryAttempt;
 
+    // Whether this packet is sitting in the transport's waiting queue. Lets the transport expire a waiting packet in
+    // place, without removing it from the queue, while making sure the send thread never sends it afterwards.
+    private static final int NOT_WAITING = 0;
+    private static final int WAITING = 1;
+    private static final int EXPIRED_WHILE_WAITING = 2;
+    private final AtomicInteger waitingState = new AtomicInteger(NOT_WAITING);
+
     /**
      * Constructor.
      *
@@ -139,4 +148,31 @@ public final class IotHubTransportPacket
         // Codes_SRS_IOTHUBTRANSPORTPACKET_34_009: [This function shall increment the saved retry attempt count by 1.]
         this.currentRetryAttempt++;
     }
+
+    /**
+     * Records that this packet has been added to the transport's waiting queue
+     */
+    void markWaiting()
+    {
+        this.waitingState.set(WAITING);
+    }
+
+    /**
+     * Marks this packet as expired if it is currently in the transport's waiting queue. Once this returns true, the
+     * packet will be discarded rather than sent when it is eventually taken off of the waiting queue.
+     * @return true if this packet was waiting and is now marked as expired
+     */
+    boolean expireIfWaiting()
+    {
+        return this.waitingState.compareAndSet(WAITING, EXPIRED_WHILE_WAITING);
+    }
+
+    /**
+     * Records that this packet has been taken off of the transport's waiting queue
+     * @return true if this packet was expired while it was waiting, in which case it must not be sent
+     */
+    boolean removeFromWaiting()
+    {
+        return this.waitingState.getAndSet(NOT_WAITING) == EXPIRED_WHILE_WAITING;
+    }
 }
@@ -0,0 +1,164 @@
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+
+package com.microsoft.azure.sdk.iot.device.transport;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Orders pending transport packets by the expiry time of their message, so that the packets that have expired can be
+ * found without walking every packet the transport is holding. Packets whose message never expires are not tracked.
+ *
+ * Removing a packet only detaches it from its entry, which keeps both adding and removing cheap no matter how many
+ * packets are pending. The detached entries are discarded once their expiry time comes up, or all at once when they
+ * outnumber the entries of the tracked packets, so that packets completing long before they expire do not pile up.
+ */
+final class PacketExpiryIndex
+{
+    // Below this many detached entries, they are left for pollExpired to discard rather than compacted
+    private static final int MIN_DETACHED_ENTRIES_TO_COMPACT = 64;
+
+    private PriorityQueue<Entry> entries = new PriorityQueue<>();
+    private final Map<IotHubTransportPacket, Entry> entriesByPacket = new IdentityHashMap<>();
+    private long nextSequenceNumber;
+    private int detachedEntryCount;
+
+    /**
+     * Start tracking the expiry of the provided packet. If the packet is already tracked, it is tracked again using the
+     * message's current expiry time.
+     * @param packet the pending packet to track
+     */
+    synchronized void add(IotHubTransportPacket packet)
+    {
+        long expiryTime = packet.getMessage().getExpiryTime();
+        if (expiryTime == 0)
+        {
+            return;
+        }
+
+        Entry entry = new Entry(expiryTime, this.nextSequenceNumber++, packet);
+        Entry previousEntry = this.entriesByPacket.put(packet, entry);
+        this.entries.add(entry);
+        if (previousEntry != null)
+        {
+            this.detach(previousEntry);
+        }
+    }
+
+    /**
+     * Start tracking the expiry of the provided packet if it is not tracked already, for instance because its entry
+     * was polled by {@link #pollExpired(long)} while the packet was moving from one queue of the transport to another.
+     * @param packet the pending packet to track
+     */
+    synchronized void addIfAbsent(IotHubTransportPacket packet)
+    {
+        if (!this.entriesByPacket.containsKey(packet))
+        {
+            this.add(packet);
+        }
+    }
+
+    /**
+     * Stop tracking the expiry of the provided packet, typically because it has been completed.
+     * @param packet the packet to stop tracking
+     */
+    synchronized void remove(IotHubTransportPacket packet)
+    {
+        Entry entry = this.entriesByPacket.remove(packet);
+        if (entry != null)
+        {
+            this.detach(entry);
+        }
+    }
+
+    /**
+     * Stop tracking, and return, every packet whose message expired before the provided time. Packets are returned in
+     * the order that they expired.
+     * @param currentTimeMillis the current time in milliseconds since epoch
+     * @return the expired packets. Never {@code null}
+     */
+    synchronized List<IotHubTransportPacket> pollExpired(long currentTimeMillis)
+    {
+        List<IotHubTransportPacket> expiredPackets = null;
+        Entry entry = this.entries.peek();
+        while (entry != null && currentTimeMillis > entry.expiryTime)
+        {
+            this.entries.poll();
+            if (entry.packet == null)
+            {
+                this.detachedEntryCount--;
+            }
+            else
+            {
+                this.entriesByPacket.remove(entry.packet);
+                if (expiredPackets == null)
+                {
+                    expiredPackets = new ArrayList<>();
+                }
+
+                expiredPackets.add(entry.packet);
+            }
+
+            entry = this.entries.peek();
+        }
+
+        if (expiredPackets == null)
+        {
+            return Collections.emptyList();
+        }
+
+        return expiredPackets;
+    }
+
+    /**
+     * @return the number of packets whose expiry is currently being tracked
+     */
+    synchronized int size()
+    {
+        return this.entriesByPacket.size();
+    }
+
+    private void detach(Entry entry)
+    {
+        entry.packet = null;
+        this.detachedEntryCount++;
+
+        if (this.detachedEntryCount >= MIN_DETACHED_ENTRIES_TO_COMPACT && this.detachedEntryCount > this.entriesByPacket.size())
+        {
+            // Building the queue from a collection takes linear time, which the detached entries removed pay for
+            this.entries = new PriorityQueue<>(this.entriesByPacket.values());
+            this.detachedEntryCount = 0;
+        }
+    }
+
+    private static final class Entry implements Comparable<Entry>
+    {
+        private final long expiryTime;
+        private final long sequenceNumber;
+        private IotHubTransportPacket packet;
+
+        private Entry(long expiryTime, long sequenceNumber, IotHubTransportPacket packet)
+        {
+            this.expiryTime = expiryTime;
+            this.sequenceNumber = sequenceNumber;
+            this.packet = packet;
+        }
+
+        @Override
+        public int compareTo(Entry other)
+        {
+            if (this.expiryTime != other.expiryTime)
+            {
+                return this.expiryTime < other.expiryTime ? -1 : 1;
+            }
+
+            // Packets that expire at the same time are reported in the order that they were added
+            return this.sequenceNumber < other.sequenceNumber ? -1 : (this.sequenceNumber == other.sequenceNumber ? 0 : 1);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+
+package com.microsoft.azure.sdk.iot.device.transport;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Hands received messages to an executor while keeping messages that share an input name in the order they were
+ * received. Each input name, with cloud to device messages sharing a single one, has its own lane of messages, and at
+ * most one task per lane is submitted to the executor at a time. Lanes run in parallel with each other.
+ *
+ * A lane task hands back its executor thread after a fixed number of messages so that a busy lane cannot keep the
+ * other lanes waiting on a small executor. A lane is dropped once it has no messages left and no task running, so that
+ * input names that are no longer used do not keep their lanes.
+ */
+@Slf4j
+final class ReceivedMessageDispatcher
+{
+    interface Handler
+    {
+        /**
+         * Handle a single received message. Called from an executor thread, never concurrently for the same lane.
+         * @param message the message to handle
+         */
+        void handle(IotHubTransportMessage message);
+    }
+
+    // Lane key of the messages that have no input name, i.e. cloud to device messages
+    private static final String CLOUD_TO_DEVICE_LANE = "";
+
+    private static final int MAX_MESSAGES_PER_LANE_TASK = 32;
+
+    private final Executor executor;
+    private final Handler handler;
+    private final ConcurrentMap<String, Lane> lanes = new ConcurrentHashMap<>();
+
+    // Guards creating a lane and queuing a message on it against dropping that lane once it is idle, so that no
+    // message is queued on a lane that was dropped and no two lanes are running for the same input name
+    private final Object lanesLock = new Object();
+
+    ReceivedMessageDispatcher(Executor executor, Handler handler)
+    {
+        this.executor = executor;
+        this.handler = handler;
+    }
+
+    Executor getExecutor()
+    {
+        return this.executor;
+    }
+
+    /**
+     * Queue the provided message on the lane of its input name, and submit that lane to the executor if it isn't
+     * already running.
+     * @param message the message to dispatch
+     * @throws RejectedExecutionException if the lane was idle and the executor did not accept it. The message stays
+     * queued on its lane and is handled the next time that lane is scheduled.
+     */
+    void dispatch(IotHubTransportMessage message) throws RejectedExecutionException
+    {
+        String laneKey = message.getInputName() == null ? CLOUD_TO_DEVICE_LANE : message.getInputName();
+
+        Lane lane;
+        synchronized (this.lanesLock)
+        {
+            lane = this.lanes.get(laneKey);
+            if (lane == null)
+            {
+                lane = new Lane(laneKey);
+                this.lanes.put(laneKey, lane);
+            }
+
+            lane.messages.add(message);
+        }
+
+        lane.schedule();
+    }
+
+    /**
+     * Submit to the executor every lane that has messages queued but isn't running because the executor rejected it.
+     * @throws RejectedExecutionException if the executor did not accept one of the lanes. That lane and the ones not
+     * submitted yet are submitted again the next time this is called.
+     */
+    void scheduleIdleLanes() throws RejectedExecutionException
+    {
+        for (Lane lane : this.lanes.values())
+        {
+            lane.schedule();
+        }
+    }
+
+    private final class Lane implements Runnable
+    {
+        private final String key;
+        private final Queue<IotHubTransportMessage> messages = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+        private Lane(String key)
+        {
+            this.key = key;
+        }
+
+        private void schedule()
+        {
+            if (!this.messages.isEmpty() && this.scheduled.compareAndSet(false, true))
+            {
+                try
+                {
+                    executor.execute(this);
+                }
+                catch (RejectedExecutionException e)
+                {
+                    this.scheduled.set(false);
+                    throw e;
+                }
+            }
+        }
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                for (int i = 0; i < MAX_MESSAGES_PER_LANE_TASK; i++)
+                {
+                    IotHubTransportMessage message = this.messages.poll();
+                    if (message == null)
+                    {
+                        break;
+                    }
+
+                    handler.handle(message);
+                }
+            }
+            finally
+            {
+                this.scheduled.set(false);
+            }
+
+            synchronized (lanesLock)
+            {
+                // Another task of this lane may have been scheduled since this one was marked as idle, in which case
+                // that task drops the lane once it is done
+                if (this.messages.isEmpty() && !this.scheduled.get())
+                {
+                    lanes.remove(this.key, this);
+                    return;
+                }
+            }
+
+            // Messages may have been queued after the last poll but before this lane was marked as idle
+            try
+            {
+                this.schedule();
+            }
+            catch (RejectedExecutionException e)
+            {
+                log.warn("Executor rejected the message callback task, remaining messages will be handled once another message is received", e);
+            }
+        }
+    }
+}
@@ -10,6 +10,7 @@ import com.microsoft.azure.proton.transport.proxy.ProxyHandler;
 import com.microsoft.azure.proton.transport.proxy.impl.ProxyHandlerImpl;
 import com.microsoft.azure.proton.transport.proxy.impl.ProxyImpl;
 import com.microsoft.azure.proton.transport.ws.impl.WebSocketImpl;
+import com.microsoft.azure.sdk.iot.deps.transport.amqp.ReactorDispatcher;
 import com.microsoft.azure.sdk.iot.device.*;
 import com.microsoft.azure.sdk.iot.device.auth.IotHubSasTokenAuthenticationProvider;
 import com.microsoft.azure.sdk.iot.device.exceptions.ProtocolException;
@@ -35,6 +36,7 @@ import java.util.ArrayList;
 import java.util.Queue;
 import java.util.UUID;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * An AMQPS IotHub connection between a device and an IoTHub or Edgehub. This class is responsible for reacting to connection level and
@@ -60,11 +62,25 @@ public final class AmqpsIotHubConnection extends BaseHandler implements IotHubTr
     private static final int CBS_SESSION_COUNT = 1; //even for multiplex scenarios
 
     // Message send constants
-    private static final int SEND_MESSAGES_PERIOD_MILLIS = 50; //every 50 milliseconds, the method onTimerTask will fire to send, at most, MAX_MESSAGES_TO_SEND_PER_CALLBACK queued messages
+    private static final int SEND_MESSAGES_PERIOD_MILLIS = 50; //every 50 milliseconds, the method onTimerTask will fire to send, at most, MAX_MESSAGES_TO_SEND_PER_CALLBACK queued messages, to pick up any messages that weren't sent as they were queued
     private static final int MAX_MESSAGES_TO_SEND_PER_CALLBACK = 1000; //Max number of queued messages to send per periodic sending task
 
     // States of outgoing messages, incoming messages, and outgoing subscriptions
     private final Queue<Message> messagesToSend = new ConcurrentLinkedQueue<>();
+
+    // Wakes the reactor up as soon as a message is queued so that it is sent right away rather than on the next timer task.
+    // Set while a send is queued on the dispatcher, so that a burst of messages only queues one send.
+    private volatile ReactorDispatcher reactorDispatcher;
+    private final AtomicBoolean sendDispatched = new AtomicBoolean(false);
+    private final Runnable dispatchedSend = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            sendDispatched.set(false);
+            sendQueuedMessages();
+        }
+    };
     private String connectionId;
     private IotHubConnectionStatus state;
     private String hostName;
@@ -211,6 +227,17 @@ public final class AmqpsIotHubConnection extends BaseHandler implements IotHubTr
             }
         }
 
+        this.sendDispatched.set(false);
+        try
+        {
+            this.reactorDispatcher = new ReactorDispatcher(this.reactor);
+        }
+        catch (IOException e)
+        {
+            // Queued messages will still be sent by the periodic timer task, just not right away
+            log.warn("Failed to create the reactor dispatcher, queued messages will only be sent periodically", e);
+        }
+
         this.reactor.connectionToHost(hostName, port, this);
         this.reactor.schedule(SEND_MESSAGES_PERIOD_MILLIS, this);
     }
@@ -219,6 +246,7 @@ public final class AmqpsIotHubConnection extends BaseHandler implements IotHubTr
     public void onReactorFinal(Event event)
     {
         log.trace("Amqps reactor finalized");
+        this.closeReactorDispatcher();
         releaseLatch(authenticationSessionOpenedLatch);
         releaseLatch(deviceSessionsOpenedLatch);
         releaseLatch(closeReactorLatch);
@@ -330,6 +358,7 @@ public final class AmqpsIotHubConnection extends BaseHandler implements IotHubTr
         }
 
         log.trace("Closing reactor since connection has closed");
+        this.closeReactorDispatcher();
         event.getReactor().stop();
     }
 
@@ -347,6 +376,7 @@ public final class AmqpsIotHubConnection extends BaseHandler implements IotHubTr
         else
         {
             log.trace("Closing reactor since connection has closed");
+            this.closeReactorDispatcher();
             event.getReactor().stop();
         }
     }
@@ -389,12 +419,54 @@ public final class AmqpsIotHubConnection extends BaseHandler implements IotHubTr
     {
         // Note that you cannot just send this message from this thread. Proton-j's reactor is not thread safe. As such,
         // all message sending must be done from the proton-j thread that is exposed to this SDK through callbacks
-        // such as onLinkFlow(), or onTimerTask()
+        // such as onLinkFlow(), or onTimerTask(), or through the reactor dispatcher
         log.trace("Adding message to amqp message queue to be sent later ({})", message);
         messagesToSend.add(message);
+        this.dispatchSend();
         return IotHubStatusCode.OK;
     }
 
+    @Override
+    public void onLinkCreditAvailable()
+    {
+        // Runs on the reactor thread, so messages that were waiting for credit can be sent right away
+        sendQueuedMessages();
+    }
+
+    /**
+     * Wake the reactor up to send the queued messages, unless a send is already queued on it. If there is no reactor
+     * dispatcher, the messages are sent by the next timer task instead.
+     */
+    private void dispatchSend()
+    {
+        ReactorDispatcher dispatcher = this.reactorDispatcher;
+        if (dispatcher != null && !dispatcher.isClosed() && this.sendDispatched.compareAndSet(false, true))
+        {
+            try
+            {
+                dispatcher.invoke(this.dispatchedSend);
+            }
+            catch (RejectedExecutionException e)
+            {
+                // The reactor is shutting down; the message stays queued for whenever the connection is reopened
+                this.sendDispatched.set(false);
+                log.trace("Reactor dispatcher rejected the send, the amqp connection is closing");
+            }
+        }
+    }
+
+    /**
+     * Release the reactor dispatcher so that it no longer holds the reactor open. Must be called from the reactor thread.
+     */
+    private void closeReactorDispatcher()
+    {
+        ReactorDispatcher dispatcher = this.reactorDispatcher;
+        if (dispatcher != null)
+        {
+            dispatcher.close();
+        }
+    }
+
     @Override
     public boolean sendMessageResult(IotHubTransportMessage message, IotHubMessageResult result)
     {
@@ -572,6 +644,9 @@ public final class AmqpsIotHubConnection extends BaseHandler implements IotHubTr
         {
             //message was polled out of list, but loop exited from processing too many messages before it could process this message, so re-queue it for later
             messagesToSend.add(message);
+
+            // Let other reactor work run before sending the rest of the queued messages
+            this.dispatchSend();
         }
     }
 
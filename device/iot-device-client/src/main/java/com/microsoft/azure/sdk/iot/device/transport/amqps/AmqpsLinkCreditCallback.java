@@ -0,0 +1,15 @@
+package com.microsoft.azure.sdk.iot.device.transport.amqps;
+
+/**
+ * Callback to be executed to notify the session level when one of its sender links was given link credit. Only
+ * implemented by session handlers that queue messages while their links have no credit, so the public
+ * {@link AmqpsLinkStateCallback} does not require it of every session handler.
+ */
+interface AmqpsLinkCreditCallback
+{
+    /**
+     * Executed when a sender link in this session was given link credit by the service, so messages that were waiting
+     * for credit can be sent now.
+     */
+    void onLinkCreditAvailable();
+}
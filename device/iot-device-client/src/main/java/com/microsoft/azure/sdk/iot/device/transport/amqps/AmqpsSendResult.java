@@ -22,9 +22,9 @@ public class AmqpsSendResult
         this.deliveryTag = failedDeliveryTag;
     }
 
-    AmqpsSendResult(boolean deliverySuccessful, byte[] deliveryTag)
+    AmqpsSendResult(boolean deliverySuccessful, int deliveryTag)
     {
         this.deliverySuccessful = deliverySuccessful;
-        this.deliveryTag = Integer.parseInt(new String(deliveryTag));
+        this.deliveryTag = deliveryTag;
     }
 }
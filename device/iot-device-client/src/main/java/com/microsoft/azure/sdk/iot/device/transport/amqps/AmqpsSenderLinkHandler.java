@@ -3,6 +3,9 @@
 
 package com.microsoft.azure.sdk.iot.device.transport.amqps;
 
+import com.microsoft.azure.sdk.iot.deps.transport.amqp.AmqpDeliveryTags;
+import com.microsoft.azure.sdk.iot.deps.transport.amqp.AmqpMessageEncoder;
+import com.microsoft.azure.sdk.iot.deps.util.IntObjectHashMap;
 import com.microsoft.azure.sdk.iot.device.Message;
 import com.microsoft.azure.sdk.iot.device.MessageProperty;
 import com.microsoft.azure.sdk.iot.device.exceptions.ProtocolException;
@@ -17,23 +20,23 @@ import org.apache.qpid.proton.engine.*;
 import org.apache.qpid.proton.message.impl.MessageImpl;
 import org.apache.qpid.proton.reactor.FlowController;
 
-import java.nio.BufferOverflowException;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 public abstract class AmqpsSenderLinkHandler extends BaseHandler
 {
     static final String VERSION_IDENTIFIER_KEY = "com.microsoft:client-version";
     private static final String API_VERSION_KEY = "com.microsoft:api-version";
-    final Map<Integer, Message> inProgressMessages = new ConcurrentHashMap<>();
+    // Only touched from the reactor thread
+    final IntObjectHashMap<Message> inProgressMessages = new IntObjectHashMap<>();
     Map<Symbol, Object> amqpProperties;
     String senderLinkTag;
     String linkCorrelationId;
     String senderLinkAddress;
     Sender senderLink;
-    private long nextTag = 0;
+    private int nextTag = 0;
+    private final AmqpMessageEncoder messageEncoder = new AmqpMessageEncoder();
     private AmqpsLinkStateCallback amqpsLinkStateCallback;
 
     AmqpsSenderLinkHandler(Sender sender, AmqpsLinkStateCallback amqpsLinkStateCallback, String linkCorrelationId)
@@ -66,13 +69,26 @@ public abstract class AmqpsSenderLinkHandler extends BaseHandler
         log.trace("{} sender link with link correlation id {} opened locally", getLinkInstanceType(), this.linkCorrelationId);
     }
 
+    @Override
+    public void onLinkFlow(Event event)
+    {
+        if (event.getLink().getCredit() > 0)
+        {
+            log.trace("{} sender link with link correlation id {} has {} link credit available", getLinkInstanceType(), this.linkCorrelationId, event.getLink().getCredit());
+            if (this.amqpsLinkStateCallback instanceof AmqpsLinkCreditCallback)
+            {
+                ((AmqpsLinkCreditCallback) this.amqpsLinkStateCallback).onLinkCreditAvailable();
+            }
+        }
+    }
+
     @Override
     public void onDelivery(Event event)
     {
         //Safe to cast here because this callback will only ever fire for acknowledgements received on this sender link
         Delivery delivery = event.getDelivery();
 
-        int deliveryTag = Integer.valueOf(new String(event.getDelivery().getTag()));
+        int deliveryTag = AmqpDeliveryTags.toInt(delivery.getTag());
 
         Message acknowledgedIotHubMessage = this.inProgressMessages.remove(deliveryTag);
         if (acknowledgedIotHubMessage == null)
@@ -169,25 +185,11 @@ public abstract class AmqpsSenderLinkHandler extends BaseHandler
             this.nextTag++;
         }
 
-        byte[] msgData = new byte[1024];
-        int length;
-
-        while (true)
-        {
-            try
-            {
-                length = protonMessage.encode(msgData, 0, msgData.length);
-                break;
-            }
-            catch (BufferOverflowException e)
-            {
-                msgData = new byte[msgData.length * 2];
-            }
-        }
-
-        byte[] deliveryTag = String.valueOf(this.nextTag).getBytes();
+        int length = this.messageEncoder.encode(protonMessage);
+        byte[] msgData = this.messageEncoder.getBuffer();
 
-        Delivery delivery = this.senderLink.delivery(deliveryTag);
+        int deliveryTag = this.nextTag;
+        Delivery delivery = this.senderLink.delivery(AmqpDeliveryTags.toBytes(deliveryTag));
         try
         {
             log.trace("Sending {} bytes over the amqp {} sender link with link correlation id {}", length, getLinkInstanceType(), this.linkCorrelationId);
@@ -206,7 +208,7 @@ public abstract class AmqpsSenderLinkHandler extends BaseHandler
                 throw new ProtocolException(String.format("Failed to advance the senderLink after sending a message on %s sender link with link correlation id %s, retrying to send the message", getLinkInstanceType(), this.linkCorrelationId));
             }
 
-            log.trace("Message was sent over {} sender link with delivery tag {} and hash {}", getLinkInstanceType(), new String(deliveryTag), delivery.hashCode());
+            log.trace("Message was sent over {} sender link with delivery tag {} and hash {}", getLinkInstanceType(), deliveryTag, delivery.hashCode());
             return new AmqpsSendResult(true, deliveryTag);
         }
         catch (Exception e)
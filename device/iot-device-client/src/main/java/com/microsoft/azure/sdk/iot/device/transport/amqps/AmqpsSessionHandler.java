@@ -19,7 +19,7 @@ import static com.microsoft.azure.sdk.iot.device.DeviceTwin.DeviceOperations.*;
 import static com.microsoft.azure.sdk.iot.device.MessageType.*;
 
 @Slf4j
-public class AmqpsSessionHandler extends BaseHandler implements AmqpsLinkStateCallback
+public class AmqpsSessionHandler extends BaseHandler implements AmqpsLinkStateCallback, AmqpsLinkCreditCallback
 {
     @Getter
     private final DeviceClientConfig deviceClientConfig;
@@ -250,6 +250,12 @@ public class AmqpsSessionHandler extends BaseHandler implements AmqpsLinkStateCa
         this.amqpsSessionStateCallback.onSessionClosedUnexpectedly(errorCondition);
     }
 
+    @Override
+    public void onLinkCreditAvailable()
+    {
+        this.amqpsSessionStateCallback.onLinkCreditAvailable();
+    }
+
     public boolean acknowledgeReceivedMessage(IotHubTransportMessage message, DeliveryState ackType)
     {
         for (AmqpsReceiverLinkHandler linksHandler : receiverLinkHandlers)
@@ -55,4 +55,10 @@ interface AmqpsSessionStateCallback
      *                       of the link that closed unexpectedly
      */
     void onSessionClosedUnexpectedly(ErrorCondition errorCondition);
+
+    /**
+     * Executed when a sender link of a session that this connection owns was given link credit by the service, so
+     * messages that were waiting for credit can be sent now.
+     */
+    void onLinkCreditAvailable();
 }
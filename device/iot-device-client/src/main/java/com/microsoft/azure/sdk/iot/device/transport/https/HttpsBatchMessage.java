@@ -9,6 +9,7 @@ import com.microsoft.azure.sdk.iot.device.exceptions.IotHubSizeExceededException
 
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -34,8 +35,26 @@ public final class HttpsBatchMessage implements HttpsMessage
      */
     private static final Charset BATCH_CHARSET = StandardCharsets.UTF_8;
 
-    /** The current batched message body. */
-    private String batchBody;
+    /** The initial capacity of the batch body buffer. It grows by doubling as messages are added. */
+    private static final int INITIAL_BATCH_BODY_CAPACITY = 1024;
+
+    private static final byte JSON_ARRAY_START = '[';
+    private static final byte JSON_ARRAY_END = ']';
+    private static final byte JSON_ARRAY_SEPARATOR = ',';
+    private static final byte[] JSON_MESSAGE_START = "{\"body\":\"".getBytes(BATCH_CHARSET);
+    private static final byte[] JSON_MESSAGE_BASE64_ENCODED = "\",\"base64Encoded\":true".getBytes(BATCH_CHARSET);
+    private static final byte[] JSON_MESSAGE_END = "}".getBytes(BATCH_CHARSET);
+
+    /**
+     * The current batched message body, encoded using UTF-8. Holds the opening
+     * bracket of the JSON array and every message added so far, but not the
+     * closing bracket, so that a message can be appended without rewriting
+     * what is already there.
+     */
+    private byte[] batchBody;
+
+    /** The number of bytes of {@link #batchBody} that are in use. */
+    private int batchBodyLength;
 
     /** The current number of messages in the batch. */
     private int numMsgs;
@@ -44,7 +63,9 @@ public final class HttpsBatchMessage implements HttpsMessage
     public HttpsBatchMessage()
     {
         // Codes_SRS_HTTPSBATCHMESSAGE_11_001: [The constructor shall initialize the batch message with the body as an empty JSON array.]
-        this.batchBody = "[]";
+        this.batchBody = new byte[INITIAL_BATCH_BODY_CAPACITY];
+        this.batchBody[0] = JSON_ARRAY_START;
+        this.batchBodyLength = 1;
         this.numMsgs = 0;
     }
 
@@ -59,22 +80,40 @@ public final class HttpsBatchMessage implements HttpsMessage
      */
     public void addMessage(HttpsSingleMessage msg) throws IotHubSizeExceededException
     {
-        String jsonMsg = msgToJson(msg);
-        // Codes_SRS_HTTPSBATCHMESSAGE_11_002: [The function shall add the message as a JSON object appended to the current JSON array.]
-        String newBatchBody = addJsonObjToArray(jsonMsg, this.batchBody);
+        byte[] msgBody = msg.getBody();
+        byte[] jsonProperties = propertiesToJson(msg);
+        int encodedBodyLength = Base64.encodedLengthBase64(msgBody.length);
+        int separatorLength = this.numMsgs > 0 ? 1 : 0;
+
+        // The closing bracket of the array is counted too, so that the limit applies to the body as it will be sent
+        long newBatchBodySize = (long) this.batchBodyLength + separatorLength + JSON_MESSAGE_START.length + encodedBodyLength
+                + JSON_MESSAGE_BASE64_ENCODED.length + jsonProperties.length + JSON_MESSAGE_END.length + 1;
 
         // Codes_SRS_HTTPSBATCHMESSAGE_11_008: [If adding the message causes the batched message to exceed 256 kb in size, the function shall throw a IotHubSizeExceededException.]
         // Codes_SRS_HTTPSBATCHMESSAGE_11_009: [If the function throws a IotHubSizeExceededException, the batched message shall remain as if the message was never added.]
-        byte[] newBatchBodyBytes = newBatchBody.getBytes(BATCH_CHARSET);
-
-        if (newBatchBodyBytes.length > SERVICEBOUND_MESSAGE_MAX_SIZE_BYTES)
+        if (newBatchBodySize > SERVICEBOUND_MESSAGE_MAX_SIZE_BYTES)
         {
             String errMsg = String.format("Service-bound message size (%d bytes) cannot exceed %d bytes.",
-                    newBatchBodyBytes.length, SERVICEBOUND_MESSAGE_MAX_SIZE_BYTES);
+                    newBatchBodySize, SERVICEBOUND_MESSAGE_MAX_SIZE_BYTES);
             throw new IotHubSizeExceededException(errMsg);
         }
 
-        this.batchBody = newBatchBody;
+        ensureCapacity((int) newBatchBodySize);
+
+        // Codes_SRS_HTTPSBATCHMESSAGE_11_002: [The function shall add the message as a JSON object appended to the current JSON array.]
+        if (separatorLength > 0)
+        {
+            this.batchBody[this.batchBodyLength++] = JSON_ARRAY_SEPARATOR;
+        }
+
+        // Codes_SRS_HTTPSBATCHMESSAGE_11_003: [The JSON object shall have the field "body" set to the raw message encoded in Base64.]
+        append(JSON_MESSAGE_START);
+        this.batchBodyLength += Base64.encodeBase64Local(msgBody, this.batchBody, this.batchBodyLength);
+        // Codes_SRS_HTTPSBATCHMESSAGE_11_004: [The JSON object shall have the field "base64Encoded" set to true and always encode the body for a batch message.]
+        append(JSON_MESSAGE_BASE64_ENCODED);
+        append(jsonProperties);
+        append(JSON_MESSAGE_END);
+
         this.numMsgs++;
     }
 
@@ -87,7 +126,9 @@ public final class HttpsBatchMessage implements HttpsMessage
     {
         // Codes_SRS_HTTPSBATCHMESSAGE_11_006: [The function shall return the current batch message body.]
         // Codes_SRS_HTTPSBATCHMESSAGE_11_007: [The batch message body shall be encoded using UTF-8.]
-        return this.batchBody.getBytes(BATCH_CHARSET);
+        byte[] body = Arrays.copyOf(this.batchBody, this.batchBodyLength + 1);
+        body[this.batchBodyLength] = JSON_ARRAY_END;
+        return body;
     }
 
     /**
@@ -136,22 +177,16 @@ public final class HttpsBatchMessage implements HttpsMessage
     }
 
     /**
-     * Converts a service-bound message to a JSON object with the correct
-     * format.
+     * Converts the properties of a service-bound message to the "properties"
+     * field of its JSON object.
      *
-     * @param msg the message to be converted to a corresponding JSON object.
+     * @param msg the message whose properties are to be converted.
      *
-     * @return the JSON string representation of the message.
+     * @return the UTF-8 encoded "properties" field, including its leading comma,
+     * or an empty array if the message has no properties.
      */
-    private static String msgToJson(HttpsSingleMessage msg)
+    private static byte[] propertiesToJson(HttpsSingleMessage msg)
     {
-        StringBuilder jsonMsg = new StringBuilder("{");
-        // Codes_SRS_HTTPSBATCHMESSAGE_11_003: [The JSON object shall have the field "body" set to the raw message encoded in Base64.]
-        jsonMsg.append("\"body\":");
-        jsonMsg.append("\"").append(Base64.encodeBase64StringLocal(msg.getBody())).append("\",");
-        // Codes_SRS_HTTPSBATCHMESSAGE_11_004: [The JSON object shall have the field "base64Encoded" set to true and always encode the body for a batch message.]
-        jsonMsg.append("\"base64Encoded\":");
-        jsonMsg.append(true);
         // Codes_SRS_HTTPSBATCHMESSAGE_11_005: [The JSON object shall have the field "properties" set to a JSON object which has the field "content-type" set to the content type of the raw message.]
         MessageProperty[] properties = msg.getProperties();
         Map<String, String> allProperties = new HashMap<>(msg.getSystemProperties());
@@ -160,48 +195,111 @@ public final class HttpsBatchMessage implements HttpsMessage
             allProperties.put(p.getName(), p.getValue());
         }
 
-        int numProperties = allProperties.size();
-        if (numProperties > 0)
+        if (allProperties.isEmpty())
+        {
+            return new byte[0];
+        }
+
+        StringBuilder jsonProperties = new StringBuilder(",\"properties\":{");
+        boolean first = true;
+        for (Map.Entry<String, String> property : allProperties.entrySet())
         {
-            jsonMsg.append(",");
-            jsonMsg.append("\"properties\":");
-            jsonMsg.append("{");
-            for (String key : allProperties.keySet())
+            if (!first)
             {
-                jsonMsg.append("\"").append(key).append("\":");
-                jsonMsg.append("\"").append(allProperties.get(key)).append("\",");
+                jsonProperties.append(',');
             }
 
-            //remove last trailing comma
-            jsonMsg.deleteCharAt(jsonMsg.length()-1);
-
-            jsonMsg.append("}");
+            appendJsonString(jsonProperties, property.getKey());
+            jsonProperties.append(':');
+            appendJsonString(jsonProperties, property.getValue());
+            first = false;
         }
 
-        jsonMsg.append("}");
+        jsonProperties.append('}');
 
-        return jsonMsg.toString();
+        return jsonProperties.toString().getBytes(BATCH_CHARSET);
     }
 
     /**
-     * Adds a JSON object to a JSON array.
-     *
-     * @param jsonObj the object to be added to the JSON array.
-     * @param jsonArray the JSON array.
+     * Appends a string to a JSON document as a quoted and escaped JSON string,
+     * as described in RFC 8259 section 7.
      *
-     * @return the JSON string representation of the JSON array with the object
-     * added.
+     * @param json the JSON document to append to.
+     * @param value the string to append. A null value is appended as a JSON null.
      */
-    private static String addJsonObjToArray(String jsonObj, String jsonArray)
+    private static void appendJsonString(StringBuilder json, String value)
     {
-        if (jsonArray.equals("[]"))
+        if (value == null)
+        {
+            json.append("null");
+            return;
+        }
+
+        json.append('"');
+        for (int i = 0; i < value.length(); i++)
         {
-            return "[" + jsonObj + "]";
+            char c = value.charAt(i);
+            switch (c)
+            {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\b':
+                    json.append("\\b");
+                    break;
+                case '\f':
+                    json.append("\\f");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20)
+                    {
+                        json.append(String.format("\\u%04x", (int) c));
+                    }
+                    else
+                    {
+                        json.append(c);
+                    }
+            }
         }
 
-        // removes the closing brace of the JSON array.
-        String openJsonArray = jsonArray.substring(0, jsonArray.length() - 1);
+        json.append('"');
+    }
+
+    /**
+     * Grows the batch body buffer, if needed, so that it can hold at least the
+     * provided number of bytes.
+     *
+     * @param capacity the number of bytes the buffer must be able to hold.
+     */
+    private void ensureCapacity(int capacity)
+    {
+        if (capacity > this.batchBody.length)
+        {
+            this.batchBody = Arrays.copyOf(this.batchBody, Math.max(capacity, this.batchBody.length * 2));
+        }
+    }
 
-        return openJsonArray + "," + jsonObj + "]";
+    /**
+     * Appends bytes to the batch body. The caller must have already ensured
+     * there is room for them.
+     *
+     * @param bytes the bytes to append.
+     */
+    private void append(byte[] bytes)
+    {
+        System.arraycopy(bytes, 0, this.batchBody, this.batchBodyLength, bytes.length);
+        this.batchBodyLength += bytes.length;
     }
 }
@@ -16,9 +16,6 @@ import org.apache.commons.lang3.tuple.MutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.eclipse.paho.client.mqttv3.*;
 
-import java.io.UnsupportedEncodingException;
-import java.net.URLDecoder;
-import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
@@ -45,8 +42,6 @@ abstract public class Mqtt implements MqttCallback
     private final static String MESSAGE_SYSTEM_PROPERTY_IDENTIFIER_ENCODED = "%24";
     private final static char MESSAGE_SYSTEM_PROPERTY_IDENTIFIER_DECODED = '$';
     final static char MESSAGE_PROPERTY_KEY_VALUE_SEPARATOR = '=';
-    private final static int PROPERTY_KEY_INDEX = 0;
-    private final static int PROPERTY_VALUE_INDEX = 1;
 
     /* The system property keys expected in a message */
     //This may be common with amqp as well
@@ -208,38 +203,32 @@ abstract public class Mqtt implements MqttCallback
 
             byte[] payload = message.getBytes();
 
-            while (this.mqttConnection.getMqttAsyncClient().getPendingDeliveryTokens().length >= MqttConnection.MAX_IN_FLIGHT_COUNT)
-            {
-                //Codes_SRS_Mqtt_25_048: [publish shall check for pending publish tokens by calling getPendingDeliveryTokens. And if there are pending tokens publish shall sleep until the number of pending tokens are less than 10 as per paho limitations]
-                Thread.sleep(10);
+            MqttMessage mqttMessage = (payload.length == 0) ? new MqttMessage() : new MqttMessage(payload);
 
-                if (this.mqttConnection.getMqttAsyncClient() == null)
-                {
-                    TransportException transportException = new TransportException("Connection was lost while waiting for mqtt deliveries to finish");
-                    transportException.setRetryable(true);
-                    throw transportException;
-                }
+            mqttMessage.setQos(MqttConnection.QOS);
 
-                if (!this.mqttConnection.getMqttAsyncClient().isConnected())
+            //Codes_SRS_Mqtt_25_048: [publish shall wait until fewer than the connection's maximum number of in flight messages are awaiting acknowledgement before publishing.]
+            this.mqttConnection.acquireInFlightSlot();
+            boolean published = false;
+            try
+            {
+                synchronized (this.publishLock)
                 {
-                    //Codes_SRS_Mqtt_25_012: [If the MQTT connection is closed, the function shall throw a ProtocolException.]
-                    TransportException transportException = new TransportException("Cannot publish when mqtt client is holding 10 tokens and is disconnected");
-                    transportException.setRetryable(true);
-                    throw transportException;
+                    this.log.trace("Publishing message ({}) to MQTT topic {}", message, publishTopic);
+                    //Codes_SRS_Mqtt_25_014: [The function shall publish message payload on the publishTopic specified to the IoT Hub given in the configuration.]
+                    IMqttDeliveryToken publishToken = this.mqttConnection.getMqttAsyncClient().publish(publishTopic, mqttMessage);
+                    unacknowledgedSentMessages.put(publishToken.getMessageId(), message);
+                    published = true;
+                    this.log.trace("Message published to MQTT topic {}. Mqtt message id {} added to list of messages to wait for acknowledgement ({})", publishTopic, publishToken.getMessageId(), message);
                 }
             }
-
-            MqttMessage mqttMessage = (payload.length == 0) ? new MqttMessage() : new MqttMessage(payload);
-
-            mqttMessage.setQos(MqttConnection.QOS);
-
-            synchronized (this.publishLock)
+            finally
             {
-                this.log.trace("Publishing message ({}) to MQTT topic {}", message, publishTopic);
-                //Codes_SRS_Mqtt_25_014: [The function shall publish message payload on the publishTopic specified to the IoT Hub given in the configuration.]
-                IMqttDeliveryToken publishToken = this.mqttConnection.getMqttAsyncClient().publish(publishTopic, mqttMessage);
-                unacknowledgedSentMessages.put(publishToken.getMessageId(), message);
-                this.log.trace("Message published to MQTT topic {}. Mqtt message id {} added to list of messages to wait for acknowledgement ({})", publishTopic, publishToken.getMessageId(), message);
+                if (!published)
+                {
+                    // the service will never acknowledge a publish that paho did not accept, so give its slot back now
+                    this.mqttConnection.releaseInFlightSlot();
+                }
             }
         }
         catch (MqttException e)
@@ -432,6 +421,10 @@ abstract public class Mqtt implements MqttCallback
     {
         Message deliveredMessage = null;
         this.log.trace("Mqtt message with message id {} was acknowledge by service", iMqttDeliveryToken.getMessageId());
+
+        //Codes_SRS_Mqtt_25_049: [This method shall free the in flight slot held by the acknowledged message.]
+        this.mqttConnection.releaseInFlightSlot();
+
         synchronized (this.publishLock)
         {
             if (this.listener != null && unacknowledgedSentMessages.containsKey(iMqttDeliveryToken.getMessageId()))
@@ -498,24 +491,19 @@ abstract public class Mqtt implements MqttCallback
         int propertiesStringStartingIndex = topic.indexOf(MESSAGE_SYSTEM_PROPERTY_IDENTIFIER_ENCODED);
         if (propertiesStringStartingIndex != -1)
         {
-            String propertiesString = topic.substring(propertiesStringStartingIndex);
-
             //Codes_SRS_Mqtt_34_041: [This method shall call assignPropertiesToMessage so that all properties from the topic string can be assigned to the message]
-            assignPropertiesToMessage(message, propertiesString);
-
-            String routeString = topic.substring(0, propertiesStringStartingIndex);
-            String[] routeComponents = routeString.split("/");
+            assignPropertiesToMessage(message, topic, propertiesStringStartingIndex);
 
-            if (routeComponents.length > 2 && routeComponents[2].equals(MODULES_PATH_STRING))
+            if (MODULES_PATH_STRING.equals(MqttTopicParser.getToken(topic, 2, propertiesStringStartingIndex)))
             {
                 //Codes_SRS_Mqtt_34_051: [This function shall extract the moduleId from the topic if the topic string fits the following convention: 'devices/<deviceId>/modules/<moduleId>']
-                message.setConnectionModuleId(routeComponents[3]);
+                message.setConnectionModuleId(MqttTopicParser.getToken(topic, 3, propertiesStringStartingIndex));
             }
 
-            if (routeComponents.length > 4 && routeComponents[4].equals(INPUTS_PATH_STRING))
+            if (INPUTS_PATH_STRING.equals(MqttTopicParser.getToken(topic, 4, propertiesStringStartingIndex)))
             {
                 //Codes_SRS_Mqtt_34_050: [This function shall extract the inputName from the topic if the topic string fits the following convention: 'devices/<deviceId>/modules/<moduleId>/inputs/<inputName>']
-                message.setInputName(routeComponents[5]);
+                message.setInputName(MqttTopicParser.getToken(topic, 5, propertiesStringStartingIndex));
             }
         }
 
@@ -523,35 +511,48 @@ abstract public class Mqtt implements MqttCallback
     }
 
     /**
-     * Takes propertiesString and parses it for all the properties it holds and then assigns them to the provided message
-     * @param propertiesString the string to parse containing all the properties
+     * Parses the properties section at the end of the provided topic and assigns them to the provided message. The
+     * section is scanned in place rather than split into intermediate arrays.
      * @param message the message to add the parsed properties to
+     * @param topic the topic string containing the properties
+     * @param propertiesStartIndex the index in the topic where the properties section begins
      * @throws IllegalArgumentException if a property's key and value are not separated by the '=' symbol
      * @throws IllegalStateException if the property for expiry time is present, but the value cannot be parsed as a Long
      * */
-    private void assignPropertiesToMessage(Message message, String propertiesString) throws IllegalStateException, IllegalArgumentException
+    private void assignPropertiesToMessage(Message message, String topic, int propertiesStartIndex) throws IllegalStateException, IllegalArgumentException
     {
         //Codes_SRS_Mqtt_34_054: [A message may have 0 to many custom properties]
         //expected format is <key>=<value><MESSAGE_PROPERTY_SEPARATOR><key>=<value><MESSAGE_PROPERTY_SEPARATOR>...
-        for (String propertyString : propertiesString.split(String.valueOf(MESSAGE_PROPERTY_SEPARATOR)))
+        int propertiesEndIndex = topic.length();
+        while (propertiesEndIndex > propertiesStartIndex && topic.charAt(propertiesEndIndex - 1) == MESSAGE_PROPERTY_SEPARATOR)
+        {
+            // trailing separators do not delimit any property
+            propertiesEndIndex--;
+        }
+
+        int propertyStartIndex = propertiesStartIndex;
+        while (propertyStartIndex < propertiesEndIndex)
         {
-            if (propertyString.contains("="))
+            int propertyEndIndex = topic.indexOf(MESSAGE_PROPERTY_SEPARATOR, propertyStartIndex);
+            if (propertyEndIndex == -1 || propertyEndIndex > propertiesEndIndex)
+            {
+                propertyEndIndex = propertiesEndIndex;
+            }
+
+            int keyEndIndex = topic.indexOf(MESSAGE_PROPERTY_KEY_VALUE_SEPARATOR, propertyStartIndex);
+            if (keyEndIndex != -1 && keyEndIndex < propertyEndIndex)
             {
                 //Expected format is <key>=<value> where both key and value may be encoded
-                String key = propertyString.split("=")[PROPERTY_KEY_INDEX];
-                String value = propertyString.split("=")[PROPERTY_VALUE_INDEX];
-                try
+                int valueEndIndex = topic.indexOf(MESSAGE_PROPERTY_KEY_VALUE_SEPARATOR, keyEndIndex + 1);
+                if (valueEndIndex == -1 || valueEndIndex > propertyEndIndex)
                 {
-                    //Codes_SRS_Mqtt_34_053: [A property's key and value may include unusual characters such as &, %, $]
-                    key = URLDecoder.decode(key, StandardCharsets.UTF_8.name());
-                    value = URLDecoder.decode(value, StandardCharsets.UTF_8.name());
-                }
-                catch (UnsupportedEncodingException e)
-                {
-                    // should never happen, since the encoding is hard-coded.
-                    throw new IllegalStateException(e);
+                    valueEndIndex = propertyEndIndex;
                 }
 
+                //Codes_SRS_Mqtt_34_053: [A property's key and value may include unusual characters such as &, %, $]
+                String key = MqttTopicParser.urlDecode(topic, propertyStartIndex, keyEndIndex);
+                String value = MqttTopicParser.urlDecode(topic, keyEndIndex + 1, valueEndIndex);
+
                 //Some properties are reserved system properties and must be saved in the message differently
                 //Codes_SRS_Mqtt_34_057: [This function shall parse the messageId, correlationId, outputname, content encoding and content type from the provided property string]
                 switch (key)
@@ -590,8 +591,10 @@ abstract public class Mqtt implements MqttCallback
             else
             {
                 //Codes_SRS_Mqtt_34_051: [If a topic string's property's key and value are not separated by the '=' symbol, an IllegalArgumentException shall be thrown]
-                throw new IllegalArgumentException("Unexpected property string provided. Expected '=' symbol between key and value of the property in string: " + propertyString);
+                throw new IllegalArgumentException("Unexpected property string provided. Expected '=' symbol between key and value of the property in string: " + topic.substring(propertyStartIndex, propertyEndIndex));
             }
+
+            propertyStartIndex = propertyEndIndex + 1;
         }
     }
 }
@@ -25,6 +25,15 @@ public class MqttConnection
     private ConcurrentLinkedQueue<Pair<String, byte[]>> allReceivedMessages;
     private Object mqttLock;
 
+    // Number of publishes handed to paho that the service has not acknowledged yet. Guarded by inFlightLock, which
+    // publishers wait on while the window is full and which is notified each time an acknowledgement frees a slot.
+    private final Object inFlightLock = new Object();
+    private final int maxInFlightCount;
+    private int inFlightCount = 0;
+
+    // Run each time a slot is freed, so that a publisher that does not wait on inFlightLock can try again
+    private volatile Runnable inFlightSlotReleasedListener;
+
     //mqtt connection options
     private static final int KEEP_ALIVE_INTERVAL = 230;
     private static final int MQTT_VERSION = 4;
@@ -32,9 +41,12 @@ public class MqttConnection
     static final int QOS = 1;
     static final int MAX_SUBSCRIBE_ACK_WAIT_TIME = 15 * 1000;
 
-    // paho mqtt only supports 10 messages in flight at the same time
+    // default number of messages allowed in flight at the same time, matching paho's own default
     static final int MAX_IN_FLIGHT_COUNT = 10;
 
+    // upper bound on how long a publisher waits for a free in flight slot before checking the connection state again
+    private static final int IN_FLIGHT_SLOT_WAIT_MILLISECONDS = 1000;
+
     /**
      * Constructor to create MqttAsync Client with Paho
      * @param serverURI Uri to connect to
@@ -42,11 +54,36 @@ public class MqttConnection
      * @param userName Username
      * @param password password
      * @param sslContext SSLContext for the connection
+     * @param proxySettings the proxy to connect through. May be {@code null}
      * @throws IllegalArgumentException is thrown if any of the parameters are null or empty
      * @throws TransportException when Mqtt async client cannot be instantiated
      */
     MqttConnection(String serverURI, String clientId, String userName, String password, SSLContext sslContext, ProxySettings proxySettings) throws TransportException, IllegalArgumentException, UnknownHostException
     {
+        this(serverURI, clientId, userName, password, sslContext, proxySettings, MAX_IN_FLIGHT_COUNT);
+    }
+
+    /**
+     * Constructor to create MqttAsync Client with Paho
+     * @param serverURI Uri to connect to
+     * @param clientId Client Id to connect to
+     * @param userName Username
+     * @param password password
+     * @param sslContext SSLContext for the connection
+     * @param proxySettings the proxy to connect through. May be {@code null}
+     * @param maxInFlightCount the maximum number of published messages that may be awaiting acknowledgement at once
+     * @throws IllegalArgumentException is thrown if any of the parameters are null or empty, or if maxInFlightCount is less than 1
+     * @throws TransportException when Mqtt async client cannot be instantiated
+     */
+    MqttConnection(String serverURI, String clientId, String userName, String password, SSLContext sslContext, ProxySettings proxySettings, int maxInFlightCount) throws TransportException, IllegalArgumentException, UnknownHostException
+    {
+        if (maxInFlightCount < 1)
+        {
+            throw new IllegalArgumentException("maxInFlightCount must be greater than 0");
+        }
+
+        this.maxInFlightCount = maxInFlightCount;
+
         if (serverURI == null || clientId == null || userName == null || sslContext == null)
         {
             //Codes_SRS_MQTTCONNECTION_25_001: [The constructor shall throw IllegalArgumentException if any of the input parameters are null other than password.]
@@ -92,6 +129,9 @@ public class MqttConnection
         this.connectionOptions.setCleanSession(SET_CLEAN_SESSION);
         this.connectionOptions.setMqttVersion(MQTT_VERSION);
         this.connectionOptions.setUserName(userName);
+
+        // paho rejects publishes beyond its own in flight limit, so keep it in line with the window enforced here
+        this.connectionOptions.setMaxInflight(this.maxInFlightCount);
         if (proxySettings != null)
         {
             if (proxySettings.getProxy().type() == Proxy.Type.SOCKS)
@@ -179,6 +219,94 @@ public class MqttConnection
             // close on that object.]
             this.mqttAsyncClient.close();
         }
+
+        // wake up any publisher waiting on the in flight window so it can observe that the connection is gone
+        synchronized (this.inFlightLock)
+        {
+            this.inFlightLock.notifyAll();
+        }
+    }
+
+    /**
+     * Blocks until fewer than the maximum number of published messages are awaiting acknowledgement, then claims one of
+     * the free in flight slots. Each successful call must be balanced by a call to {@link #releaseInFlightSlot()} once
+     * the service acknowledges the publish, or once the publish fails.
+     * @throws TransportException if the connection is lost while waiting for a slot
+     * @throws InterruptedException if the calling thread is interrupted while waiting for a slot
+     */
+    void acquireInFlightSlot() throws TransportException, InterruptedException
+    {
+        synchronized (this.inFlightLock)
+        {
+            while (this.inFlightCount >= this.maxInFlightCount)
+            {
+                if (!this.isConnected())
+                {
+                    TransportException transportException = new TransportException("Connection was lost while waiting for mqtt deliveries to finish");
+                    transportException.setRetryable(true);
+                    throw transportException;
+                }
+
+                this.inFlightLock.wait(IN_FLIGHT_SLOT_WAIT_MILLISECONDS);
+            }
+
+            this.inFlightCount++;
+        }
+    }
+
+    /**
+     * @return true if fewer than the maximum number of published messages are awaiting acknowledgement, so that
+     * {@link #acquireInFlightSlot()} would not have to wait.
+     */
+    boolean hasFreeInFlightSlot()
+    {
+        synchronized (this.inFlightLock)
+        {
+            return this.inFlightCount < this.maxInFlightCount;
+        }
+    }
+
+    /**
+     * Frees an in flight slot claimed by {@link #acquireInFlightSlot()}, wakes up a publisher waiting for one, and
+     * notifies the in flight slot released listener, if any.
+     */
+    void releaseInFlightSlot()
+    {
+        synchronized (this.inFlightLock)
+        {
+            if (this.inFlightCount > 0)
+            {
+                this.inFlightCount--;
+            }
+
+            this.inFlightLock.notify();
+        }
+
+        Runnable listener = this.inFlightSlotReleasedListener;
+        if (listener != null)
+        {
+            listener.run();
+        }
+    }
+
+    /**
+     * Sets the listener to run each time an in flight slot is freed.
+     * @param inFlightSlotReleasedListener the listener to run. May be null.
+     */
+    void setInFlightSlotReleasedListener(Runnable inFlightSlotReleasedListener)
+    {
+        this.inFlightSlotReleasedListener = inFlightSlotReleasedListener;
+    }
+
+    /**
+     * @return the number of published messages currently awaiting acknowledgement from the service
+     */
+    int getInFlightCount()
+    {
+        synchronized (this.inFlightLock)
+        {
+            return this.inFlightCount;
+        }
     }
 
     /**
@@ -168,8 +168,6 @@ public class MqttDeviceMethod extends Mqtt
                             allReceivedMessages.poll();
 
                             // Case for $iothub/methods/POST/{method name}/?$rid={request id}
-                            TopicParser topicParser = new TopicParser(topic);
-
                             if (data != null && data.length > 0)
                             {
                                 message = new IotHubTransportMessage(data, MessageType.DEVICE_METHODS);
@@ -182,10 +180,15 @@ public class MqttDeviceMethod extends Mqtt
                             message.setDeviceOperationType(DeviceOperations.DEVICE_OPERATION_UNKNOWN);
 
                             //Codes_SRS_MqttDeviceMethod_25_028: [If the topic is of type post topic then this method shall parse further for method name and set it for the message by calling setMethodName for the message]
-                            String methodName = topicParser.getMethodName(METHOD_TOKEN);
+                            String methodName = MqttTopicParser.getToken(topic, METHOD_TOKEN);
+                            if (methodName == null)
+                            {
+                                throwMethodsTransportException("Method name could not be parsed");
+                            }
+
                             message.setMethodName(methodName);
 
-                            String reqId = topicParser.getRequestId(REQID_TOKEN);
+                            String reqId = MqttTopicParser.getToken(topic, REQID_TOKEN) != null ? MqttTopicParser.getQueryParameter(topic, MqttTopicParser.REQUEST_ID_KEY) : null;
                             if (reqId != null)
                             {
                                 //Codes_SRS_MqttDeviceMethod_25_030: [If the topic is of type post topic then this method shall parse further to look for request id which if found is set by calling setRequestId]
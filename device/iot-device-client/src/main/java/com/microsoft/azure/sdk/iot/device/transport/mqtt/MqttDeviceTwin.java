@@ -14,7 +14,6 @@ import org.apache.commons.lang3.tuple.Pair;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.regex.Pattern;
 
 @Slf4j
 public class MqttDeviceTwin extends Mqtt
@@ -224,7 +223,8 @@ public class MqttDeviceTwin extends Mqtt
     {
         String status = null;
 
-        if (token != null && token.matches("\\d{3}")) // 3 digit number
+        if (token != null && token.length() == 3
+            && Character.isDigit(token.charAt(0)) && Character.isDigit(token.charAt(1)) && Character.isDigit(token.charAt(2))) // 3 digit number
         {
             status = token;
         }
@@ -237,41 +237,6 @@ public class MqttDeviceTwin extends Mqtt
         return status;
     }
 
-    private String getRequestId(String token)
-    {
-        String reqId = null;
-
-        if (token.contains(REQ_ID)) // restriction for request id
-        {
-            int startIndex = token.indexOf(REQ_ID) + REQ_ID.length();
-            int endIndex = token.length();
-
-            if (token.contains(VERSION))
-            {
-                endIndex = token.indexOf(VERSION) - 1;
-            }
-
-            reqId = token.substring(startIndex, endIndex);
-        }
-
-        return reqId;
-    }
-
-    private String getVersion(String token)
-    {
-        String version = null;
-
-        if (token.contains(VERSION)) //restriction for version
-        {
-            int startIndex = token.indexOf(VERSION) + VERSION.length();
-            int endIndex = token.length();
-
-            version = token.substring(startIndex, endIndex);
-        }
-
-        return version;
-    }
-
     @Override
     public IotHubTransportMessage receive() throws TransportException
     {
@@ -297,8 +262,6 @@ public class MqttDeviceTwin extends Mqtt
 
                         if (topic.length() > RES.length() && topic.startsWith(RES))
                         {
-                            // Tokenize on backslash
-                            String[] topicTokens = topic.split(Pattern.quote("/"));
                             if (data != null && data.length > 0)
                             {
                                 //Codes_SRS_MQTTDEVICETWIN_25_044: [If the topic is of type response then this method shall set data and operation type as DEVICE_OPERATION_TWIN_GET_RESPONSE if data is not null]
@@ -315,20 +278,21 @@ public class MqttDeviceTwin extends Mqtt
                             }
 
                             // Case for $iothub/twin/res/{status}/?$rid={request id}&$version={new version}
-                            if (topicTokens.length > STATUS_TOKEN)
+                            String statusToken = MqttTopicParser.getToken(topic, STATUS_TOKEN);
+                            if (statusToken != null)
                             {
                                 //Codes_SRS_MQTTDEVICETWIN_25_038: [If the topic is of type response topic then this method shall parse further for status and set it for the message by calling setStatus for the message]
-                                message.setStatus(getStatus(topicTokens[STATUS_TOKEN]));
+                                message.setStatus(getStatus(statusToken));
                             }
                             else
                             {
                                 this.throwDeviceTwinTransportException(new IotHubServiceException("Message received without status"));
                             }
 
-                            if (topicTokens.length > REQID_TOKEN)
+                            if (MqttTopicParser.getToken(topic, REQID_TOKEN) != null)
                             {
                                 //Codes_SRS_MQTTDEVICETWIN_25_040: [If the topic is of type response topic then this method shall parse further to look for request id which if found is set by calling setRequestId]
-                                String requestId = getRequestId(topicTokens[REQID_TOKEN]);
+                                String requestId = MqttTopicParser.getQueryParameter(topic, MqttTopicParser.REQUEST_ID_KEY);
                                 message.setRequestId(requestId);
                                 if (requestMap.containsKey(requestId))
                                 {
@@ -350,10 +314,10 @@ public class MqttDeviceTwin extends Mqtt
                                 }
                             }
 
-                            if (topicTokens.length > VERSION_TOKEN)
+                            if (MqttTopicParser.getToken(topic, VERSION_TOKEN) != null)
                             {
                                 //Codes_SRS_MQTTDEVICETWIN_25_041: [If the topic is of type response topic then this method shall parse further to look for version which if found is set by calling setVersion]
-                                message.setVersion(getVersion(topicTokens[VERSION_TOKEN]));
+                                message.setVersion(MqttTopicParser.getQueryParameter(topic, MqttTopicParser.VERSION_KEY));
                             }
                         }
                         else if (topic.length() > PATCH.length() && topic.startsWith(PATCH))
@@ -374,14 +338,12 @@ public class MqttDeviceTwin extends Mqtt
                                 }
 
                                 // Case for $iothub/twin/PATCH/properties/desired/?$version={new version}
-                                // Tokenize on backslash
-                                String[] topicTokens = topic.split(Pattern.quote("/"));
-                                if (topicTokens.length > PATCH_VERSION_TOKEN)
+                                if (MqttTopicParser.getToken(topic, PATCH_VERSION_TOKEN) != null)
                                 {
                                     if (message != null)
                                     {
                                         //Codes_SRS_MQTTDEVICETWIN_25_042: [If the topic is of type patch for desired properties then this method shall parse further to look for version which if found is set by calling setVersion]
-                                        message.setVersion(getVersion(topicTokens[PATCH_VERSION_TOKEN]));
+                                        message.setVersion(MqttTopicParser.getQueryParameter(topic, MqttTopicParser.VERSION_KEY));
                                     }
                                 }
                             }
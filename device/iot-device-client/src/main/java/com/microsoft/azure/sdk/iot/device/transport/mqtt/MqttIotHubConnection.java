@@ -49,6 +49,9 @@ public class MqttIotHubConnection implements IotHubTransportConnection, MqttMess
 
     private IotHubListener listener;
 
+    // Run when a published message is acknowledged, so that a sender that stopped on a full in flight window resumes
+    private Runnable sendCapacityListener;
+
     //Messaging clients
     private MqttMessaging deviceMessaging;
     private MqttDeviceTwin deviceTwin;
@@ -183,14 +186,14 @@ public class MqttIotHubConnection implements IotHubTransportConnection, MqttMess
                     }
 
                     mqttConnection = new MqttConnection(wsServerUri,
-                            clientId, this.iotHubUserName, this.iotHubUserPassword, sslContext, this.config.getProxySettings());
+                            clientId, this.iotHubUserName, this.iotHubUserPassword, sslContext, this.config.getProxySettings(), this.config.getMqttMaxInFlightCount());
                 }
                 else
                 {
                     //Codes_SRS_MQTTIOTHUBCONNECTION_25_019: [The function shall establish an MQTT connection with a server uri as ssl://<hostName>:8883 if websocket was not enabled.]
                     final String serverUri = SSL_PREFIX + host + SSL_PORT_SUFFIX;
                     mqttConnection = new MqttConnection(serverUri,
-                            clientId, this.iotHubUserName, this.iotHubUserPassword, sslContext, null);
+                            clientId, this.iotHubUserName, this.iotHubUserPassword, sslContext, null, this.config.getMqttMaxInFlightCount());
                 }
 
                 //Codes_SRS_MQTTIOTHUBCONNECTION_34_030: [This function shall instantiate this object's MqttMessaging object with this object as the listener.]
@@ -198,6 +201,7 @@ public class MqttIotHubConnection implements IotHubTransportConnection, MqttMess
                 this.mqttConnection.setMqttCallback(this.deviceMessaging);
                 this.deviceMethod = new MqttDeviceMethod(mqttConnection, this.connectionId, unacknowledgedSentMessages);
                 this.deviceTwin = new MqttDeviceTwin(mqttConnection, this.connectionId, unacknowledgedSentMessages);
+                this.mqttConnection.setInFlightSlotReleasedListener(this.sendCapacityListener);
 
                 this.deviceMessaging.start();
                 this.state = IotHubConnectionStatus.CONNECTED;
@@ -385,6 +389,26 @@ public class MqttIotHubConnection implements IotHubTransportConnection, MqttMess
         }
     }
 
+    /**
+     * @return false if as many published messages as the connection allows are awaiting acknowledgement, in which case
+     * sending another one waits until the service acknowledges one of them.
+     */
+    public boolean hasSendCapacity()
+    {
+        MqttConnection mqttConnection = this.mqttConnection;
+        return mqttConnection == null || mqttConnection.hasFreeInFlightSlot();
+    }
+
+    /**
+     * Set the listener to run when the service acknowledges a published message while {@link #hasSendCapacity()} may
+     * have returned false. Must be set before the connection is opened.
+     * @param sendCapacityListener the listener to run, or null for none
+     */
+    public void setSendCapacityListener(Runnable sendCapacityListener)
+    {
+        this.sendCapacityListener = sendCapacityListener;
+    }
+
     /**
      * Sends an ACK to the service for the provided message
      * @param message the message to acknowledge to the service
@@ -0,0 +1,297 @@
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+
+package com.microsoft.azure.sdk.iot.device.transport.mqtt;
+
+import com.microsoft.azure.sdk.iot.device.Message;
+import com.microsoft.azure.sdk.iot.device.MessageProperty;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.microsoft.azure.sdk.iot.device.transport.mqtt.Mqtt.*;
+
+/**
+ * Builds the topic that a telemetry message is published to, i.e. the base publish topic followed by the message's
+ * url encoded system and application properties.
+ *
+ * Percent encoding is done with a precomputed table for ASCII characters, and produces the same output as
+ * {@link java.net.URLEncoder} with UTF-8 except that spaces are encoded as "%20" rather than '+', as MQTT requires.
+ * The encoded forms of the properties that rarely change from one message to the next, such as the content type and
+ * content encoding, are cached along with the encoded application property names. Topics are built in a builder that
+ * is kept per thread.
+ *
+ * This class is thread safe.
+ */
+final class MqttPublishTopicBuilder
+{
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    // Encoded form of each ASCII character, or null if the character is not encoded
+    private static final String[] ASCII_ENCODINGS = new String[128];
+
+    static
+    {
+        for (char c = 0; c < ASCII_ENCODINGS.length; c++)
+        {
+            boolean unreserved = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '.' || c == '-' || c == '*' || c == '_';
+
+            if (!unreserved)
+            {
+                StringBuilder encoding = new StringBuilder(3);
+                appendPercentEncoded(encoding, (byte) c);
+                ASCII_ENCODINGS[c] = encoding.toString();
+            }
+        }
+    }
+
+    // Upper bounds on what is kept around between messages
+    private static final int MAXIMUM_CACHED_PROPERTY_NAMES = 128;
+    private static final int MAXIMUM_RETAINED_BUILDER_CAPACITY = 8 * 1024;
+    private static final int INITIAL_BUILDER_CAPACITY = 256;
+
+    private static final ThreadLocal<StringBuilder> TOPIC_BUILDER = new ThreadLocal<StringBuilder>()
+    {
+        @Override
+        protected StringBuilder initialValue()
+        {
+            return new StringBuilder(INITIAL_BUILDER_CAPACITY);
+        }
+    };
+
+    private static final String ENCODED_SECURITY_INTERFACE_ID_VALUE = urlEncode(MessageProperty.IOTHUB_SECURITY_INTERFACE_ID_VALUE);
+
+    private final String baseTopic;
+    private final boolean appendTrailingSlash;
+
+    private final CachedEncoding outputName = new CachedEncoding();
+    private final CachedEncoding connectionDeviceId = new CachedEncoding();
+    private final CachedEncoding connectionModuleId = new CachedEncoding();
+    private final CachedEncoding contentEncoding = new CachedEncoding();
+    private final CachedEncoding contentType = new CachedEncoding();
+    private final ConcurrentMap<String, String> encodedPropertyNames = new ConcurrentHashMap<>();
+
+    /**
+     * @param baseTopic the topic that the properties are appended to, e.g. "devices/myDevice/messages/events/".
+     * @param appendTrailingSlash true if the topic should end with a '/' after the properties, as module topics do.
+     */
+    MqttPublishTopicBuilder(String baseTopic, boolean appendTrailingSlash)
+    {
+        this.baseTopic = baseTopic;
+        this.appendTrailingSlash = appendTrailingSlash;
+    }
+
+    /**
+     * Build the topic to publish the provided message to.
+     * @param message the message to be published.
+     * @return the publish topic for the message.
+     */
+    String build(Message message)
+    {
+        StringBuilder topicBuilder = TOPIC_BUILDER.get();
+        if (topicBuilder.capacity() > MAXIMUM_RETAINED_BUILDER_CAPACITY)
+        {
+            topicBuilder = new StringBuilder(INITIAL_BUILDER_CAPACITY);
+            TOPIC_BUILDER.set(topicBuilder);
+        }
+
+        topicBuilder.setLength(0);
+        topicBuilder.append(this.baseTopic);
+
+        boolean separatorNeeded = false;
+        separatorNeeded = appendProperty(topicBuilder, separatorNeeded, MESSAGE_ID, message.getMessageId());
+        separatorNeeded = appendProperty(topicBuilder, separatorNeeded, CORRELATION_ID, message.getCorrelationId());
+        separatorNeeded = appendProperty(topicBuilder, separatorNeeded, USER_ID, message.getUserId());
+        separatorNeeded = appendProperty(topicBuilder, separatorNeeded, TO, message.getTo());
+        separatorNeeded = appendCachedProperty(topicBuilder, separatorNeeded, OUTPUT_NAME, message.getOutputName(), this.outputName);
+        separatorNeeded = appendCachedProperty(topicBuilder, separatorNeeded, CONNECTION_DEVICE_ID, message.getConnectionDeviceId(), this.connectionDeviceId);
+        separatorNeeded = appendCachedProperty(topicBuilder, separatorNeeded, CONNECTION_MODULE_ID, message.getConnectionModuleId(), this.connectionModuleId);
+        separatorNeeded = appendCachedProperty(topicBuilder, separatorNeeded, CONTENT_ENCODING, message.getContentEncoding(), this.contentEncoding);
+        separatorNeeded = appendCachedProperty(topicBuilder, separatorNeeded, CONTENT_TYPE, message.getContentType(), this.contentType);
+        separatorNeeded = appendProperty(topicBuilder, separatorNeeded, CREATION_TIME_UTC, message.getCreationTimeUTCString());
+        if (message.isSecurityMessage())
+        {
+            separatorNeeded = appendSeparator(topicBuilder, separatorNeeded);
+            topicBuilder.append(MQTT_SECURITY_INTERFACE_ID).append(MESSAGE_PROPERTY_KEY_VALUE_SEPARATOR).append(ENCODED_SECURITY_INTERFACE_ID_VALUE);
+        }
+
+        for (MessageProperty property : message.getProperties())
+        {
+            String value = property.getValue();
+            if (value != null && !value.isEmpty())
+            {
+                separatorNeeded = appendSeparator(topicBuilder, separatorNeeded);
+                topicBuilder.append(this.encodePropertyName(property.getName())).append(MESSAGE_PROPERTY_KEY_VALUE_SEPARATOR);
+                appendUrlEncoded(topicBuilder, value);
+            }
+        }
+
+        if (this.appendTrailingSlash)
+        {
+            topicBuilder.append('/');
+        }
+
+        return topicBuilder.toString();
+    }
+
+    /**
+     * Url encode the provided value the same way that {@link java.net.URLEncoder} does with UTF-8, except that spaces
+     * are encoded as "%20" rather than '+'.
+     * @param value the value to encode.
+     * @return the encoded value.
+     */
+    static String urlEncode(String value)
+    {
+        if (!needsEncoding(value))
+        {
+            return value;
+        }
+
+        StringBuilder encoded = new StringBuilder(value.length() + 16);
+        appendUrlEncoded(encoded, value);
+        return encoded.toString();
+    }
+
+    private static void appendUrlEncoded(StringBuilder builder, String value)
+    {
+        int length = value.length();
+        int i = 0;
+        while (i < length)
+        {
+            char c = value.charAt(i);
+            if (c < ASCII_ENCODINGS.length)
+            {
+                String encoding = ASCII_ENCODINGS[c];
+                if (encoding == null)
+                {
+                    builder.append(c);
+                }
+                else
+                {
+                    builder.append(encoding);
+                }
+                i++;
+            }
+            else
+            {
+                // Encode the whole run of non ASCII characters at once so that surrogate pairs are kept together
+                int runEnd = i + 1;
+                while (runEnd < length && value.charAt(runEnd) >= ASCII_ENCODINGS.length)
+                {
+                    runEnd++;
+                }
+
+                for (byte b : value.substring(i, runEnd).getBytes(StandardCharsets.UTF_8))
+                {
+                    appendPercentEncoded(builder, b);
+                }
+                i = runEnd;
+            }
+        }
+    }
+
+    private static boolean needsEncoding(String value)
+    {
+        for (int i = 0; i < value.length(); i++)
+        {
+            char c = value.charAt(i);
+            if (c >= ASCII_ENCODINGS.length || ASCII_ENCODINGS[c] != null)
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static void appendPercentEncoded(StringBuilder builder, byte b)
+    {
+        builder.append('%').append(HEX_DIGITS[(b >> 4) & 0xF]).append(HEX_DIGITS[b & 0xF]);
+    }
+
+    private static boolean appendSeparator(StringBuilder builder, boolean separatorNeeded)
+    {
+        if (separatorNeeded)
+        {
+            builder.append(MESSAGE_PROPERTY_SEPARATOR);
+        }
+
+        return true;
+    }
+
+    private static boolean appendProperty(StringBuilder builder, boolean separatorNeeded, String propertyKey, String propertyValue)
+    {
+        if (propertyValue == null || propertyValue.isEmpty())
+        {
+            return separatorNeeded;
+        }
+
+        appendSeparator(builder, separatorNeeded);
+        builder.append(propertyKey).append(MESSAGE_PROPERTY_KEY_VALUE_SEPARATOR);
+        appendUrlEncoded(builder, propertyValue);
+        return true;
+    }
+
+    private static boolean appendCachedProperty(StringBuilder builder, boolean separatorNeeded, String propertyKey, String propertyValue, CachedEncoding cache)
+    {
+        if (propertyValue == null || propertyValue.isEmpty())
+        {
+            return separatorNeeded;
+        }
+
+        appendSeparator(builder, separatorNeeded);
+        builder.append(propertyKey).append(MESSAGE_PROPERTY_KEY_VALUE_SEPARATOR).append(cache.encode(propertyValue));
+        return true;
+    }
+
+    private String encodePropertyName(String propertyName)
+    {
+        String encodedName = this.encodedPropertyNames.get(propertyName);
+        if (encodedName == null)
+        {
+            encodedName = urlEncode(propertyName);
+            if (this.encodedPropertyNames.size() < MAXIMUM_CACHED_PROPERTY_NAMES)
+            {
+                this.encodedPropertyNames.put(propertyName, encodedName);
+            }
+        }
+
+        return encodedName;
+    }
+
+    /**
+     * Remembers the encoding of the last value of a property, which is reused for as long as the property keeps that
+     * value.
+     */
+    private static final class CachedEncoding
+    {
+        // Value and encoding are published together so that a reader never sees one without the other
+        private volatile EncodedValue lastEncoding;
+
+        private String encode(String value)
+        {
+            EncodedValue encoding = this.lastEncoding;
+            if (encoding == null || !encoding.value.equals(value))
+            {
+                encoding = new EncodedValue(value, urlEncode(value));
+                this.lastEncoding = encoding;
+            }
+
+            return encoding.encodedValue;
+        }
+    }
+
+    private static final class EncodedValue
+    {
+        private final String value;
+        private final String encodedValue;
+
+        private EncodedValue(String value, String encodedValue)
+        {
+            this.value = value;
+            this.encodedValue = encodedValue;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+
+package com.microsoft.azure.sdk.iot.device.transport.mqtt;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Index based parsing of the topics that IoT Hub publishes to the device, such as
+ * "$iothub/twin/res/{status}/?$rid={request id}&amp;$version={version}",
+ * "$iothub/methods/POST/{method name}/?$rid={request id}" and
+ * "devices/{device id}/messages/devicebound/{properties}".
+ *
+ * Unlike {@link TopicParser}, nothing is split up front. Each lookup scans the topic in place and only allocates the
+ * string that it returns.
+ */
+final class MqttTopicParser
+{
+    private static final char TOKEN_SEPARATOR = '/';
+    private static final char QUERY_START = '?';
+    private static final char QUERY_PARAMETER_SEPARATOR = '&';
+    private static final char KEY_VALUE_SEPARATOR = '=';
+
+    static final String REQUEST_ID_KEY = "$rid";
+    static final String VERSION_KEY = "$version";
+
+    private MqttTopicParser()
+    {
+    }
+
+    /**
+     * Get the token at the provided index of the '/' separated topic, ignoring anything at or after {@code end}.
+     * @param topic the topic to parse.
+     * @param tokenIndex the zero based index of the token.
+     * @param end the index in the topic to stop parsing at.
+     * @return the token, or null if the topic has no such token or the token is empty.
+     */
+    static String getToken(String topic, int tokenIndex, int end)
+    {
+        int tokenStart = 0;
+        for (int i = 0; i < tokenIndex; i++)
+        {
+            int separatorIndex = topic.indexOf(TOKEN_SEPARATOR, tokenStart);
+            if (separatorIndex == -1 || separatorIndex >= end)
+            {
+                return null;
+            }
+
+            tokenStart = separatorIndex + 1;
+        }
+
+        int tokenEnd = topic.indexOf(TOKEN_SEPARATOR, tokenStart);
+        if (tokenEnd == -1 || tokenEnd > end)
+        {
+            tokenEnd = end;
+        }
+
+        if (tokenStart >= tokenEnd)
+        {
+            return null;
+        }
+
+        return topic.substring(tokenStart, tokenEnd);
+    }
+
+    /**
+     * Get the token at the provided index of the '/' separated topic.
+     * @param topic the topic to parse.
+     * @param tokenIndex the zero based index of the token.
+     * @return the token, or null if the topic has no such token or the token is empty.
+     */
+    static String getToken(String topic, int tokenIndex)
+    {
+        return getToken(topic, tokenIndex, topic.length());
+    }
+
+    /**
+     * Get the value of a parameter from the query ("?key=value&amp;key=value") at the end of the topic. The value is
+     * returned as is, without being url decoded.
+     * @param topic the topic to parse.
+     * @param key the parameter key, such as "$rid".
+     * @return the value of the parameter, or null if the topic has no query or the query does not contain the key.
+     */
+    static String getQueryParameter(String topic, String key)
+    {
+        int queryStart = topic.lastIndexOf(QUERY_START);
+        if (queryStart == -1)
+        {
+            return null;
+        }
+
+        int parameterStart = queryStart + 1;
+        int topicLength = topic.length();
+        while (parameterStart < topicLength)
+        {
+            int parameterEnd = topic.indexOf(QUERY_PARAMETER_SEPARATOR, parameterStart);
+            if (parameterEnd == -1)
+            {
+                parameterEnd = topicLength;
+            }
+
+            int valueStart = parameterStart + key.length() + 1;
+            if (valueStart <= parameterEnd
+                && topic.charAt(valueStart - 1) == KEY_VALUE_SEPARATOR
+                && topic.regionMatches(parameterStart, key, 0, key.length()))
+            {
+                return topic.substring(valueStart, parameterEnd);
+            }
+
+            parameterStart = parameterEnd + 1;
+        }
+
+        return null;
+    }
+
+    /**
+     * Url decode a section of the provided string the way {@link URLDecoder} does with UTF-8. Sections that contain
+     * nothing to decode are returned without going through {@link URLDecoder}.
+     * @param value the string containing the section to decode.
+     * @param begin the index of the first character of the section.
+     * @param end the index after the last character of the section.
+     * @return the decoded section.
+     * @throws IllegalArgumentException if the section contains an invalid escape sequence.
+     */
+    static String urlDecode(String value, int begin, int end) throws IllegalArgumentException
+    {
+        for (int i = begin; i < end; i++)
+        {
+            char c = value.charAt(i);
+            if (c == '%' || c == '+')
+            {
+                try
+                {
+                    return URLDecoder.decode(value.substring(begin, end), StandardCharsets.UTF_8.name());
+                }
+                catch (UnsupportedEncodingException e)
+                {
+                    // should never happen, since the encoding is hard-coded.
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+
+        return value.substring(begin, end);
+    }
+}
@@ -842,4 +842,120 @@ public class DeviceIOTest
         // assert
         assertTrue(isOpen);
     }
+
+    // Tests that a client configured with a shared scheduler submits its send and receive work to that scheduler
+    // rather than starting its own task schedulers
+    @Test
+    public void connectedWithSharedSchedulerSubmitsWorkToSharedScheduler() throws IOException
+    {
+        // arrange
+        final DeviceIO deviceIO = newDeviceIO();
+        openDeviceIO(deviceIO, mockedTransport, mockExecutors, mockScheduler);
+        new NonStrictExpectations()
+        {
+            {
+                mockConfig.getSharedScheduler();
+                result = mockScheduler;
+            }
+        };
+
+        // act
+        deviceIO.execute(IotHubConnectionStatus.CONNECTED, IotHubConnectionStatusChangeReason.CONNECTION_OK, null, null);
+
+        // assert
+        assertTrue(deviceIO.isOpen());
+        new Verifications()
+        {
+            {
+                Executors.newScheduledThreadPool(anyInt);
+                times = 0;
+                mockedTransport.setWorkListeners((Runnable) withNotNull(), (Runnable) withNotNull());
+                times = 1;
+                mockScheduler.execute((Runnable) any);
+                times = 2;
+            }
+        };
+    }
+
+    // Tests that the work submitted to the shared scheduler does a single non blocking pass over the transport
+    @Test
+    public void sharedSchedulerWorkRunsTransportWithoutWaiting() throws IOException, DeviceClientException
+    {
+        // arrange
+        final DeviceIO deviceIO = newDeviceIO();
+        openDeviceIO(deviceIO, mockedTransport, mockExecutors, mockScheduler);
+        new NonStrictExpectations()
+        {
+            {
+                mockConfig.getSharedScheduler();
+                result = mockScheduler;
+                mockedTransport.hasMessagesToSend();
+                result = false;
+                mockedTransport.hasCallbacksToExecute();
+                result = false;
+                mockedTransport.hasReceivedMessagesToHandle();
+                result = false;
+            }
+        };
+        deviceIO.execute(IotHubConnectionStatus.CONNECTED, IotHubConnectionStatusChangeReason.CONNECTION_OK, null, null);
+        final List<Runnable> submittedWork = new ArrayList<>();
+        new Verifications()
+        {
+            {
+                mockScheduler.execute(withCapture(submittedWork));
+            }
+        };
+
+        // act
+        for (Runnable work : submittedWork)
+        {
+            work.run();
+        }
+
+        // assert
+        new Verifications()
+        {
+            {
+                mockedTransport.sendMessages();
+                times = 1;
+                mockedTransport.invokeCallbacks();
+                times = 1;
+                mockedTransport.handleMessage();
+                times = 1;
+                mockScheduler.schedule((Runnable) any, anyLong, (TimeUnit) any);
+                times = 0;
+            }
+        };
+    }
+
+    // Tests that closing a client leaves the shared scheduler running for the other clients
+    @Test
+    public void closeWithSharedSchedulerDoesNotShutDownSharedScheduler() throws IOException
+    {
+        // arrange
+        final DeviceIO deviceIO = newDeviceIO();
+        openDeviceIO(deviceIO, mockedTransport, mockExecutors, mockScheduler);
+        new NonStrictExpectations()
+        {
+            {
+                mockConfig.getSharedScheduler();
+                result = mockScheduler;
+            }
+        };
+        deviceIO.execute(IotHubConnectionStatus.CONNECTED, IotHubConnectionStatusChangeReason.CONNECTION_OK, null, null);
+
+        // act
+        deviceIO.close();
+
+        // assert
+        new Verifications()
+        {
+            {
+                mockScheduler.shutdown();
+                times = 0;
+                mockedTransport.setWorkListeners(null, null);
+                minTimes = 1;
+            }
+        };
+    }
 }
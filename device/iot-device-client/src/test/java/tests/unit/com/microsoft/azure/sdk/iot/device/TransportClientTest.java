@@ -13,6 +13,7 @@ import org.junit.Test;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.Assert.*;
 
@@ -422,4 +423,147 @@ public class TransportClientTest
             }
         };
     }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void constructorThrowsNegativeConnectionCount()
+    {
+        // act
+        new TransportClient(IotHubClientProtocol.AMQPS, -1);
+    }
+
+    // Tests that the registered devices are split evenly across the requested number of connections
+    @Test
+    public void openSplitsDevicesAcrossConnections() throws IOException
+    {
+        // arrange
+        final TransportClient transportClient = new TransportClient(IotHubClientProtocol.AMQPS, 2);
+        for (int i = 0; i < 4; i++)
+        {
+            Deencapsulation.invoke(transportClient, "registerDeviceClient", mockDeviceClient);
+        }
+
+        new NonStrictExpectations()
+        {
+            {
+                mockDeviceIO.isOpen();
+                result = false;
+                mockDeviceClient.getConfig();
+                result = mockDeviceClientConfig;
+            }
+        };
+
+        // act
+        transportClient.open();
+
+        // assert
+        assertNotNull(Deencapsulation.getField(transportClient, "deviceIO"));
+        List<DeviceIO> additionalDeviceIOs = Deencapsulation.getField(transportClient, "additionalDeviceIOs");
+        assertEquals(1, additionalDeviceIOs.size());
+        new Verifications()
+        {
+            {
+                Deencapsulation.invoke(mockDeviceIO, "open");
+                times = 2;
+                Deencapsulation.invoke(mockDeviceIO, "addClient", mockDeviceClientConfig);
+                times = 2;
+            }
+        };
+    }
+
+    // Tests that no more connections are opened than there are registered devices
+    @Test
+    public void openOpensAtMostOneConnectionPerDevice() throws IOException
+    {
+        // arrange
+        final TransportClient transportClient = new TransportClient(IotHubClientProtocol.AMQPS, 5);
+        Deencapsulation.invoke(transportClient, "registerDeviceClient", mockDeviceClient);
+        Deencapsulation.invoke(transportClient, "registerDeviceClient", mockDeviceClient);
+
+        new NonStrictExpectations()
+        {
+            {
+                mockDeviceIO.isOpen();
+                result = false;
+                mockDeviceClient.getConfig();
+                result = mockDeviceClientConfig;
+            }
+        };
+
+        // act
+        transportClient.open();
+
+        // assert
+        List<DeviceIO> additionalDeviceIOs = Deencapsulation.getField(transportClient, "additionalDeviceIOs");
+        assertEquals(1, additionalDeviceIOs.size());
+        new Verifications()
+        {
+            {
+                Deencapsulation.invoke(mockDeviceIO, "open");
+                times = 2;
+                Deencapsulation.invoke(mockDeviceIO, "addClient", mockDeviceClientConfig);
+                times = 0;
+            }
+        };
+    }
+
+    // Tests that an automatic connection count keeps a small number of devices on a single connection
+    @Test
+    public void openAutomaticConnectionCountUsesOneConnectionForFewDevices() throws IOException
+    {
+        // arrange
+        final TransportClient transportClient = new TransportClient(IotHubClientProtocol.AMQPS, TransportClient.AUTOMATIC_CONNECTION_COUNT);
+        for (int i = 0; i < 3; i++)
+        {
+            Deencapsulation.invoke(transportClient, "registerDeviceClient", mockDeviceClient);
+        }
+
+        new NonStrictExpectations()
+        {
+            {
+                mockDeviceIO.isOpen();
+                result = false;
+                mockDeviceClient.getConfig();
+                result = mockDeviceClientConfig;
+            }
+        };
+
+        // act
+        transportClient.open();
+
+        // assert
+        List<DeviceIO> additionalDeviceIOs = Deencapsulation.getField(transportClient, "additionalDeviceIOs");
+        assertTrue(additionalDeviceIOs.isEmpty());
+        new Verifications()
+        {
+            {
+                Deencapsulation.invoke(mockDeviceIO, "open");
+                times = 1;
+            }
+        };
+    }
+
+    // Tests that closing the transport client closes the connection of every shard
+    @Test
+    public void closeNowClosesEveryConnection() throws IOException
+    {
+        // arrange
+        final TransportClient transportClient = new TransportClient(IotHubClientProtocol.AMQPS, 2);
+        Deencapsulation.setField(transportClient, "deviceIO", mockDeviceIO);
+        List<DeviceIO> additionalDeviceIOs = Deencapsulation.getField(transportClient, "additionalDeviceIOs");
+        additionalDeviceIOs.add(mockDeviceIO);
+
+        // act
+        transportClient.closeNow();
+
+        // assert
+        assertNull(Deencapsulation.getField(transportClient, "deviceIO"));
+        assertTrue(additionalDeviceIOs.isEmpty());
+        new Verifications()
+        {
+            {
+                mockDeviceIO.multiplexClose();
+                times = 2;
+            }
+        };
+    }
 }
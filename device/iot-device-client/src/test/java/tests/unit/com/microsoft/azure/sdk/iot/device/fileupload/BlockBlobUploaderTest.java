@@ -0,0 +1,287 @@
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+
+package tests.unit.com.microsoft.azure.sdk.iot.device.fileupload;
+
+import com.microsoft.azure.sdk.iot.deps.util.Base64;
+import com.microsoft.azure.storage.AccessCondition;
+import com.microsoft.azure.storage.OperationContext;
+import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.StorageExtendedErrorInformation;
+import com.microsoft.azure.storage.blob.BlobRequestOptions;
+import com.microsoft.azure.storage.blob.BlockEntry;
+import com.microsoft.azure.storage.blob.BlockListingFilter;
+import com.microsoft.azure.storage.blob.CloudBlockBlob;
+import mockit.Deencapsulation;
+import mockit.Mocked;
+import mockit.NonStrictExpectations;
+import mockit.Verifications;
+import mockit.VerificationsInOrder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Unit tests for the chunked upload of a stream to a block blob.
+ */
+public class BlockBlobUploaderTest
+{
+    private static final String UPLOADER_CLASS = "com.microsoft.azure.sdk.iot.device.fileupload.BlockBlobUploader";
+    private static final String CHECKPOINT_CLASS = "com.microsoft.azure.sdk.iot.device.fileupload.FileUploadCheckpoint";
+    private static final String BLOB_URI = "https://storage.blob.core.windows.net/container/test-device1/clip.mp4";
+    private static final int BLOCK_SIZE = 1000;
+    private static final int STREAM_LENGTH = 2500;
+
+    @Rule
+    public TemporaryFolder checkpointDirectory = new TemporaryFolder();
+
+    @Mocked
+    private CloudBlockBlob mockCloudBlockBlob;
+
+    @Mocked
+    private BlockEntry mockBlockEntry;
+
+    private static String getBlockId(int blockIndex) throws ClassNotFoundException
+    {
+        return Deencapsulation.invoke(Class.forName(UPLOADER_CLASS), "getBlockId", blockIndex);
+    }
+
+    private Object createUploader(InputStream stream, long streamLength, Object checkpoint) throws ClassNotFoundException
+    {
+        return Deencapsulation.newInstance(UPLOADER_CLASS,
+                new Class[] {CloudBlockBlob.class, InputStream.class, long.class, int.class, int.class, Class.forName(CHECKPOINT_CLASS)},
+                mockCloudBlockBlob, stream, streamLength, BLOCK_SIZE, 2, checkpoint);
+    }
+
+    // Hash of the content of a block of zeros, as the stream of most tests
+    private static String getBlockHash(int length) throws NoSuchAlgorithmException
+    {
+        return Base64.encodeBase64StringLocal(MessageDigest.getInstance("MD5").digest(new byte[length]));
+    }
+
+    private Object createCheckpoint() throws ClassNotFoundException
+    {
+        return Deencapsulation.newInstance(CHECKPOINT_CLASS,
+                new Class[] {File.class, String.class, long.class, int.class},
+                checkpointDirectory.getRoot(), BLOB_URI, (long) STREAM_LENGTH, BLOCK_SIZE);
+    }
+
+    @Test
+    public void blockIdsHaveTheSameLengthForAllBlocks() throws ClassNotFoundException
+    {
+        // act
+        String firstBlockId = getBlockId(0);
+        String lastBlockId = getBlockId(49999);
+
+        // assert
+        assertEquals(firstBlockId.length(), lastBlockId.length());
+        assertFalse(firstBlockId.equals(lastBlockId));
+    }
+
+    @Test
+    public void uploadSendsEachBlockWithItsLength() throws Exception
+    {
+        // arrange
+        Object uploader = createUploader(new ByteArrayInputStream(new byte[STREAM_LENGTH]), STREAM_LENGTH, null);
+
+        // act
+        Deencapsulation.invoke(uploader, "upload");
+
+        // assert
+        new Verifications()
+        {
+            {
+                mockCloudBlockBlob.uploadBlock(withEqual(getBlockId(0)), (InputStream) any, withEqual((long) BLOCK_SIZE), (AccessCondition) any, (BlobRequestOptions) any, (OperationContext) any);
+                times = 1;
+                mockCloudBlockBlob.uploadBlock(withEqual(getBlockId(1)), (InputStream) any, withEqual((long) BLOCK_SIZE), (AccessCondition) any, (BlobRequestOptions) any, (OperationContext) any);
+                times = 1;
+                mockCloudBlockBlob.uploadBlock(withEqual(getBlockId(2)), (InputStream) any, withEqual((long) (STREAM_LENGTH - 2 * BLOCK_SIZE)), (AccessCondition) any, (BlobRequestOptions) any, (OperationContext) any);
+                times = 1;
+            }
+        };
+    }
+
+    @Test
+    public void uploadCommitsAllBlocksInOrder() throws Exception
+    {
+        // arrange
+        Object uploader = createUploader(new ByteArrayInputStream(new byte[STREAM_LENGTH]), STREAM_LENGTH, null);
+
+        // act
+        Deencapsulation.invoke(uploader, "upload");
+
+        // assert
+        new VerificationsInOrder()
+        {
+            {
+                new BlockEntry(getBlockId(0));
+                new BlockEntry(getBlockId(1));
+                new BlockEntry(getBlockId(2));
+                mockCloudBlockBlob.commitBlockList((Iterable<BlockEntry>) any);
+                times = 1;
+            }
+        };
+    }
+
+    @Test
+    public void uploadRetriesFailedBlock() throws Exception
+    {
+        // arrange
+        new NonStrictExpectations()
+        {
+            {
+                mockCloudBlockBlob.uploadBlock(anyString, (InputStream) any, anyLong, (AccessCondition) any, (BlobRequestOptions) any, (OperationContext) any);
+                result = new IOException("connection reset");
+                result = null;
+            }
+        };
+        Object uploader = createUploader(new ByteArrayInputStream(new byte[BLOCK_SIZE]), BLOCK_SIZE, null);
+
+        // act
+        Deencapsulation.invoke(uploader, "upload");
+
+        // assert
+        new Verifications()
+        {
+            {
+                mockCloudBlockBlob.uploadBlock(withEqual(getBlockId(0)), (InputStream) any, withEqual((long) BLOCK_SIZE), (AccessCondition) any, (BlobRequestOptions) any, (OperationContext) any);
+                times = 2;
+                mockCloudBlockBlob.commitBlockList((Iterable<BlockEntry>) any);
+                times = 1;
+            }
+        };
+    }
+
+    @Test
+    public void uploadDoesNotRetryClientErrors() throws Exception
+    {
+        // arrange
+        new NonStrictExpectations()
+        {
+            {
+                mockCloudBlockBlob.uploadBlock(anyString, (InputStream) any, anyLong, (AccessCondition) any, (BlobRequestOptions) any, (OperationContext) any);
+                result = new StorageException("AuthenticationFailed", "", 403, new StorageExtendedErrorInformation(), new Exception());
+            }
+        };
+        Object uploader = createUploader(new ByteArrayInputStream(new byte[BLOCK_SIZE]), BLOCK_SIZE, null);
+
+        // act
+        try
+        {
+            Deencapsulation.invoke(uploader, "upload");
+        }
+        catch (Exception expected)
+        {
+            // expected
+        }
+
+        // assert
+        new Verifications()
+        {
+            {
+                mockCloudBlockBlob.uploadBlock(anyString, (InputStream) any, anyLong, (AccessCondition) any, (BlobRequestOptions) any, (OperationContext) any);
+                times = 1;
+                mockCloudBlockBlob.commitBlockList((Iterable<BlockEntry>) any);
+                times = 0;
+            }
+        };
+    }
+
+    @Test (expected = EOFException.class)
+    public void uploadThrowsIfStreamIsShorterThanItsLength() throws Exception
+    {
+        // arrange
+        Object uploader = createUploader(new ByteArrayInputStream(new byte[STREAM_LENGTH - 1]), STREAM_LENGTH, null);
+
+        // act
+        Deencapsulation.invoke(uploader, "upload");
+    }
+
+    @Test
+    public void uploadSkipsBlocksRecordedInCheckpointAndHeldByStorage() throws Exception
+    {
+        // arrange
+        Object checkpoint = createCheckpoint();
+        Deencapsulation.invoke(checkpoint, "markUploaded", 0, getBlockHash(BLOCK_SIZE));
+        Deencapsulation.invoke(checkpoint, "markUploaded", 1, getBlockHash(BLOCK_SIZE));
+        final ArrayList<BlockEntry> uncommittedBlocks = new ArrayList<>();
+        uncommittedBlocks.add(mockBlockEntry);
+        new NonStrictExpectations()
+        {
+            {
+                mockCloudBlockBlob.downloadBlockList((BlockListingFilter) any, (AccessCondition) any, (BlobRequestOptions) any, (OperationContext) any);
+                result = uncommittedBlocks;
+                mockBlockEntry.getId();
+                result = getBlockId(0);
+                mockBlockEntry.getSize();
+                result = (long) BLOCK_SIZE;
+            }
+        };
+        Object uploader = createUploader(new ByteArrayInputStream(new byte[STREAM_LENGTH]), STREAM_LENGTH, createCheckpoint());
+
+        // act
+        Deencapsulation.invoke(uploader, "upload");
+
+        // assert
+        new Verifications()
+        {
+            {
+                mockCloudBlockBlob.uploadBlock(withEqual(getBlockId(0)), (InputStream) any, anyLong, (AccessCondition) any, (BlobRequestOptions) any, (OperationContext) any);
+                times = 0;
+                mockCloudBlockBlob.uploadBlock(withEqual(getBlockId(1)), (InputStream) any, anyLong, (AccessCondition) any, (BlobRequestOptions) any, (OperationContext) any);
+                times = 1;
+                mockCloudBlockBlob.uploadBlock(withEqual(getBlockId(2)), (InputStream) any, anyLong, (AccessCondition) any, (BlobRequestOptions) any, (OperationContext) any);
+                times = 1;
+            }
+        };
+        assertEquals(0, checkpointDirectory.getRoot().list().length);
+    }
+
+    @Test
+    public void uploadSendsAgainCheckpointedBlocksWhoseContentChanged() throws Exception
+    {
+        // arrange
+        Object checkpoint = createCheckpoint();
+        Deencapsulation.invoke(checkpoint, "markUploaded", 0, getBlockHash(BLOCK_SIZE));
+        final ArrayList<BlockEntry> uncommittedBlocks = new ArrayList<>();
+        uncommittedBlocks.add(mockBlockEntry);
+        new NonStrictExpectations()
+        {
+            {
+                mockCloudBlockBlob.downloadBlockList((BlockListingFilter) any, (AccessCondition) any, (BlobRequestOptions) any, (OperationContext) any);
+                result = uncommittedBlocks;
+                mockBlockEntry.getId();
+                result = getBlockId(0);
+                mockBlockEntry.getSize();
+                result = (long) BLOCK_SIZE;
+            }
+        };
+        byte[] changedStream = new byte[STREAM_LENGTH];
+        changedStream[0] = 1;
+        Object uploader = createUploader(new ByteArrayInputStream(changedStream), STREAM_LENGTH, createCheckpoint());
+
+        // act
+        Deencapsulation.invoke(uploader, "upload");
+
+        // assert
+        new Verifications()
+        {
+            {
+                mockCloudBlockBlob.uploadBlock(withEqual(getBlockId(0)), (InputStream) any, anyLong, (AccessCondition) any, (BlobRequestOptions) any, (OperationContext) any);
+                times = 1;
+            }
+        };
+    }
+}
@@ -0,0 +1,169 @@
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+
+package tests.unit.com.microsoft.azure.sdk.iot.device.fileupload;
+
+import mockit.Deencapsulation;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the persisted record of the uploaded blocks of a chunked file upload.
+ */
+public class FileUploadCheckpointTest
+{
+    private static final String CHECKPOINT_CLASS = "com.microsoft.azure.sdk.iot.device.fileupload.FileUploadCheckpoint";
+    private static final String BLOB_URI = "https://storage.blob.core.windows.net/container/test-device1/clip.mp4";
+    private static final String OTHER_DEVICE_BLOB_URI = "https://storage.blob.core.windows.net/container/test-device2/clip.mp4";
+    private static final long STREAM_LENGTH = 2500;
+    private static final int BLOCK_SIZE = 1000;
+    private static final String BLOCK_HASH = "1B2M2Y8AsgTpgAmY7PhCfg==";
+    private static final String OTHER_BLOCK_HASH = "ICy5YqxZB1uWSwcVLSNLcA==";
+
+    @Rule
+    public TemporaryFolder checkpointDirectory = new TemporaryFolder();
+
+    private Object createCheckpoint(File directory, String blobUri, long streamLength, int blockSize)
+    {
+        return Deencapsulation.newInstance(CHECKPOINT_CLASS,
+                new Class[] {File.class, String.class, long.class, int.class},
+                directory, blobUri, streamLength, blockSize);
+    }
+
+    @Test
+    public void newCheckpointHasNoUploadedBlocks()
+    {
+        // act
+        Object checkpoint = createCheckpoint(checkpointDirectory.getRoot(), BLOB_URI, STREAM_LENGTH, BLOCK_SIZE);
+
+        // assert
+        assertFalse((boolean) Deencapsulation.invoke(checkpoint, "hasUploadedBlocks"));
+    }
+
+    @Test
+    public void markUploadedIsLoadedByTheNextCheckpointOfTheSameUpload()
+    {
+        // arrange
+        Object checkpoint = createCheckpoint(checkpointDirectory.getRoot(), BLOB_URI, STREAM_LENGTH, BLOCK_SIZE);
+
+        // act
+        Deencapsulation.invoke(checkpoint, "markUploaded", 0, BLOCK_HASH);
+        Deencapsulation.invoke(checkpoint, "markUploaded", 2, OTHER_BLOCK_HASH);
+
+        // assert
+        Object resumedCheckpoint = createCheckpoint(checkpointDirectory.getRoot(), BLOB_URI, STREAM_LENGTH, BLOCK_SIZE);
+        assertTrue((boolean) Deencapsulation.invoke(resumedCheckpoint, "isUploaded", 0));
+        assertFalse((boolean) Deencapsulation.invoke(resumedCheckpoint, "isUploaded", 1));
+        assertTrue((boolean) Deencapsulation.invoke(resumedCheckpoint, "isUploaded", 2));
+        assertEquals(BLOCK_HASH, Deencapsulation.invoke(resumedCheckpoint, "getBlockHash", 0));
+        assertEquals(OTHER_BLOCK_HASH, Deencapsulation.invoke(resumedCheckpoint, "getBlockHash", 2));
+    }
+
+    @Test
+    public void laterRecordOfABlockSupersedesTheEarlierOne()
+    {
+        // arrange
+        Object checkpoint = createCheckpoint(checkpointDirectory.getRoot(), BLOB_URI, STREAM_LENGTH, BLOCK_SIZE);
+        Deencapsulation.invoke(checkpoint, "markUploaded", 0, BLOCK_HASH);
+
+        // act
+        Deencapsulation.invoke(checkpoint, "discard", 0);
+        Deencapsulation.invoke(checkpoint, "markUploaded", 0, OTHER_BLOCK_HASH);
+
+        // assert
+        Object resumedCheckpoint = createCheckpoint(checkpointDirectory.getRoot(), BLOB_URI, STREAM_LENGTH, BLOCK_SIZE);
+        assertEquals(OTHER_BLOCK_HASH, Deencapsulation.invoke(resumedCheckpoint, "getBlockHash", 0));
+    }
+
+    @Test
+    public void partialRecordIsIgnored() throws IOException
+    {
+        // arrange
+        Object checkpoint = createCheckpoint(checkpointDirectory.getRoot(), BLOB_URI, STREAM_LENGTH, BLOCK_SIZE);
+        Deencapsulation.invoke(checkpoint, "markUploaded", 0, BLOCK_HASH);
+        File checkpointFile = checkpointDirectory.getRoot().listFiles()[0];
+
+        // act
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(checkpointFile, true), StandardCharsets.UTF_8))
+        {
+            writer.write("2");
+        }
+
+        // assert
+        Object resumedCheckpoint = createCheckpoint(checkpointDirectory.getRoot(), BLOB_URI, STREAM_LENGTH, BLOCK_SIZE);
+        assertTrue((boolean) Deencapsulation.invoke(resumedCheckpoint, "isUploaded", 0));
+        assertFalse((boolean) Deencapsulation.invoke(resumedCheckpoint, "isUploaded", 2));
+    }
+
+    @Test
+    public void checkpointOfADifferentUploadIsIgnored()
+    {
+        // arrange
+        Object checkpoint = createCheckpoint(checkpointDirectory.getRoot(), BLOB_URI, STREAM_LENGTH, BLOCK_SIZE);
+        Deencapsulation.invoke(checkpoint, "markUploaded", 0, BLOCK_HASH);
+
+        // act
+        Object otherLengthCheckpoint = createCheckpoint(checkpointDirectory.getRoot(), BLOB_URI, STREAM_LENGTH + 1, BLOCK_SIZE);
+        Object otherBlockSizeCheckpoint = createCheckpoint(checkpointDirectory.getRoot(), BLOB_URI, STREAM_LENGTH, BLOCK_SIZE * 2);
+
+        // assert
+        assertFalse((boolean) Deencapsulation.invoke(otherLengthCheckpoint, "hasUploadedBlocks"));
+        assertFalse((boolean) Deencapsulation.invoke(otherBlockSizeCheckpoint, "hasUploadedBlocks"));
+    }
+
+    @Test
+    public void checkpointOfTheSameBlobNameOfAnotherDeviceIsIgnored()
+    {
+        // arrange
+        Object checkpoint = createCheckpoint(checkpointDirectory.getRoot(), BLOB_URI, STREAM_LENGTH, BLOCK_SIZE);
+        Deencapsulation.invoke(checkpoint, "markUploaded", 0, BLOCK_HASH);
+
+        // act
+        Object otherDeviceCheckpoint = createCheckpoint(checkpointDirectory.getRoot(), OTHER_DEVICE_BLOB_URI, STREAM_LENGTH, BLOCK_SIZE);
+
+        // assert
+        assertFalse((boolean) Deencapsulation.invoke(otherDeviceCheckpoint, "hasUploadedBlocks"));
+        assertTrue((boolean) Deencapsulation.invoke(createCheckpoint(checkpointDirectory.getRoot(), BLOB_URI, STREAM_LENGTH, BLOCK_SIZE), "isUploaded", 0));
+    }
+
+    @Test
+    public void deleteRemovesTheCheckpointFile()
+    {
+        // arrange
+        Object checkpoint = createCheckpoint(checkpointDirectory.getRoot(), BLOB_URI, STREAM_LENGTH, BLOCK_SIZE);
+        Deencapsulation.invoke(checkpoint, "markUploaded", 0, BLOCK_HASH);
+
+        // act
+        Deencapsulation.invoke(checkpoint, "delete");
+
+        // assert
+        assertEquals(0, checkpointDirectory.getRoot().list().length);
+        Object resumedCheckpoint = createCheckpoint(checkpointDirectory.getRoot(), BLOB_URI, STREAM_LENGTH, BLOCK_SIZE);
+        assertFalse((boolean) Deencapsulation.invoke(resumedCheckpoint, "hasUploadedBlocks"));
+    }
+
+    @Test
+    public void constructorCreatesMissingDirectory()
+    {
+        // arrange
+        File directory = new File(checkpointDirectory.getRoot(), "uploads");
+
+        // act
+        createCheckpoint(directory, BLOB_URI, STREAM_LENGTH, BLOCK_SIZE);
+
+        // assert
+        assertTrue(directory.isDirectory());
+    }
+}
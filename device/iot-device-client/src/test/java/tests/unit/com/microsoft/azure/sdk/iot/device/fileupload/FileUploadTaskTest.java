@@ -19,6 +19,7 @@ import mockit.NonStrictExpectations;
 import mockit.Verifications;
 import org.junit.Test;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
@@ -226,6 +227,24 @@ public class FileUploadTaskTest
                 blobName, mockInputStream, VALID_STREAM_LENGTH, mockHttpsTransportManager, mockIotHubEventCallback, VALID_CALLBACK_CONTEXT);
     }
 
+    @Test (expected = IllegalArgumentException.class)
+    public void constructorNonPositiveBlockSizeThrows()
+    {
+        // act
+        Deencapsulation.newInstance(FileUploadTask.class,
+                new Class[] {String.class, InputStream.class, long.class, HttpsTransportManager.class, IotHubEventCallback.class, Object.class, int.class, int.class, File.class},
+                VALID_BLOB_NAME, mockInputStream, VALID_STREAM_LENGTH, mockHttpsTransportManager, mockIotHubEventCallback, VALID_CALLBACK_CONTEXT, 0, 4, null);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void constructorNonPositiveParallelBlockCountThrows()
+    {
+        // act
+        Deencapsulation.newInstance(FileUploadTask.class,
+                new Class[] {String.class, InputStream.class, long.class, HttpsTransportManager.class, IotHubEventCallback.class, Object.class, int.class, int.class, File.class},
+                VALID_BLOB_NAME, mockInputStream, VALID_STREAM_LENGTH, mockHttpsTransportManager, mockIotHubEventCallback, VALID_CALLBACK_CONTEXT, 1024, 0, null);
+    }
+
     /* Tests_SRS_FILEUPLOADTASK_21_002: [If the `inputStream` is null, the constructor shall throw IllegalArgumentException.] */
     @Test (expected = IllegalArgumentException.class)
     public void constructorNullInputStreamThrows()
@@ -408,6 +427,28 @@ public class FileUploadTaskTest
         };
     }
 
+    // Tests that uploads in blocks are keyed by the blob URI without its SAS token, so that uploads of different devices
+    // to blobs of the same name do not share a lock or a checkpoint
+    @Test
+    public void blobUriWithoutQueryDropsTheSasToken() throws URISyntaxException
+    {
+        // arrange
+        final URI blobUri = new URI("https://" + VALID_HOST_NAME + "/" + VALID_CONTAINER_NAME + "/" + VALID_BLOB_NAME + "?sig=" + VALID_SAS_TOKEN);
+        new NonStrictExpectations()
+        {
+            {
+                mockCloudBlockBlob.getUri();
+                result = blobUri;
+            }
+        };
+
+        // act
+        String blobUriWithoutQuery = Deencapsulation.invoke(FileUploadTask.class, "getBlobUriWithoutQuery", mockCloudBlockBlob);
+
+        // assert
+        assertEquals("https://" + VALID_HOST_NAME + "/" + VALID_CONTAINER_NAME + "/" + VALID_BLOB_NAME, blobUriWithoutQuery);
+    }
+
     /* Tests_SRS_FILEUPLOADTASK_21_019: [The run shall create a `CloudBlockBlob` using the `blobUri`.] */
     @Test
     public void runCreateCloudBlockBlob() throws IOException, IllegalArgumentException, URISyntaxException, StorageException
@@ -20,6 +20,8 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.Matchers.everyItem;
 import static org.hamcrest.Matchers.isIn;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertThat;
 
 /**
@@ -200,4 +202,43 @@ public class IotHubTransportPacketTest
         //act
         new IotHubTransportPacket(mockMsg, mockCallback, new Object(), IotHubStatusCode.OK_EMPTY, -1);
     }
+
+    @Test
+    public void expireIfWaitingOnlyExpiresWaitingPackets()
+    {
+        //arrange
+        IotHubTransportPacket packet = new IotHubTransportPacket(mockMsg, mockCallback, null, null, 10);
+
+        //act
+        boolean expiredBeforeWaiting = Deencapsulation.invoke(packet, "expireIfWaiting");
+        Deencapsulation.invoke(packet, "markWaiting");
+        boolean expiredWhileWaiting = Deencapsulation.invoke(packet, "expireIfWaiting");
+        boolean expiredAgain = Deencapsulation.invoke(packet, "expireIfWaiting");
+
+        //assert
+        assertFalse(expiredBeforeWaiting);
+        assertTrue(expiredWhileWaiting);
+        assertFalse(expiredAgain);
+    }
+
+    @Test
+    public void removeFromWaitingReportsWhetherPacketExpiredWhileWaiting()
+    {
+        //arrange
+        IotHubTransportPacket expiredPacket = new IotHubTransportPacket(mockMsg, mockCallback, null, null, 10);
+        IotHubTransportPacket livePacket = new IotHubTransportPacket(mockMsg, mockCallback, null, null, 10);
+        Deencapsulation.invoke(expiredPacket, "markWaiting");
+        Deencapsulation.invoke(expiredPacket, "expireIfWaiting");
+        Deencapsulation.invoke(livePacket, "markWaiting");
+
+        //act
+        boolean expiredPacketWasExpired = Deencapsulation.invoke(expiredPacket, "removeFromWaiting");
+        boolean livePacketWasExpired = Deencapsulation.invoke(livePacket, "removeFromWaiting");
+        boolean livePacketExpiredAfterRemoval = Deencapsulation.invoke(livePacket, "expireIfWaiting");
+
+        //assert
+        assertTrue(expiredPacketWasExpired);
+        assertFalse(livePacketWasExpired);
+        assertFalse(livePacketExpiredAfterRemoval);
+    }
 }
@@ -512,6 +512,77 @@ public class IotHubTransportTest
         assertTrue(verifier.toString().equalsIgnoreCase("Success"));
     }
 
+    // Tests that a transport configured with a shared scheduler schedules its retries there and leaves it running on close
+    @Test
+    public void openUsesSharedSchedulerAndCloseDoesNotShutItDown() throws DeviceClientException
+    {
+        //arrange
+        final IotHubTransport transport = new IotHubTransport(mockedConfig, mockedIotHubConnectionStatusChangeCallback);
+        Deencapsulation.setField(transport, "connectionStatus", DISCONNECTED);
+        Collection<DeviceClientConfig> configs = new ArrayList<>();
+        configs.add(mockedConfig);
+
+        new MockUp<IotHubTransport>()
+        {
+            @Mock boolean isSasTokenExpired()
+            {
+                return false;
+            }
+
+            @Mock void openConnection()
+            {
+            }
+        };
+
+        new NonStrictExpectations()
+        {
+            {
+                mockedConfig.getSharedScheduler();
+                result = mockedTaskScheduler;
+            }
+        };
+
+        //act
+        transport.open(configs);
+        transport.close(IotHubConnectionStatusChangeReason.CLIENT_CLOSE, null);
+
+        //assert
+        assertEquals(mockedTaskScheduler, Deencapsulation.getField(transport, "taskScheduler"));
+        new Verifications()
+        {
+            {
+                Executors.newScheduledThreadPool(anyInt);
+                times = 0;
+                mockedTaskScheduler.shutdown();
+                times = 0;
+            }
+        };
+    }
+
+    // Tests that the work listeners are notified along with the send and receive threads
+    @Test
+    public void workListenersAreNotifiedOfQueuedWork(@Mocked final Runnable mockedSendWorkListener, @Mocked final Runnable mockedReceiveWorkListener) throws DeviceClientException
+    {
+        //arrange
+        final IotHubTransport transport = new IotHubTransport(mockedConfig, mockedIotHubConnectionStatusChangeCallback);
+        transport.setWorkListeners(mockedSendWorkListener, mockedReceiveWorkListener);
+
+        //act
+        Deencapsulation.invoke(transport, "addToWaitingQueue", mockedPacket);
+        Deencapsulation.invoke(transport, "addToReceivedMessagesQueue", mockedTransportMessage);
+
+        //assert
+        new Verifications()
+        {
+            {
+                mockedSendWorkListener.run();
+                times = 1;
+                mockedReceiveWorkListener.run();
+                times = 1;
+            }
+        };
+    }
+
     //Tests_SRS_IOTHUBTRANSPORT_34_017: [If the connection status of this object is CONNECTED, this function shall do nothing.]
     @Test
     public void openDoesNothingIfConnectionStatusIsConnected() throws DeviceClientException
@@ -1129,6 +1200,296 @@ public class IotHubTransportTest
         assertEquals(1, waitingPacketsQueue.size());
     }
 
+    private void boundedQueueExpectations(final int maxQueuedMessages, final long maxQueuedBytes, final OutboundQueueFullPolicy policy, final long blockTimeoutMillis)
+    {
+        new NonStrictExpectations()
+        {
+            {
+                new IotHubTransportPacket(mockedMessage, mockedEventCallback, any, null, anyLong);
+                result = mockedPacket;
+                mockedPacket.getMessage();
+                result = mockedMessage;
+                mockedPacket.getCallback();
+                result = mockedEventCallback;
+                mockedConfig.getMaxQueuedMessages();
+                result = maxQueuedMessages;
+                mockedConfig.getMaxQueuedBytes();
+                result = maxQueuedBytes;
+                mockedConfig.getQueueFullPolicy();
+                result = policy;
+                mockedConfig.getQueueFullBlockTimeoutMillis();
+                result = blockTimeoutMillis;
+            }
+        };
+    }
+
+    @Test
+    public void addMessageRejectsNewMessageWhenQueueIsFull()
+    {
+        //arrange
+        IotHubTransport transport = new IotHubTransport(mockedConfig, mockedIotHubConnectionStatusChangeCallback);
+        Deencapsulation.setField(transport, "connectionStatus", DISCONNECTED_RETRYING);
+        Queue<IotHubTransportPacket> waitingPacketsQueue = new ConcurrentLinkedQueue<>();
+        Deencapsulation.setField(transport, "waitingPacketsQueue", waitingPacketsQueue);
+        boundedQueueExpectations(2, 0, OutboundQueueFullPolicy.REJECT_NEW, 0);
+        transport.addMessage(mockedMessage, mockedEventCallback, null);
+        transport.addMessage(mockedMessage, mockedEventCallback, null);
+
+        //act
+        try
+        {
+            transport.addMessage(mockedMessage, mockedEventCallback, null);
+            fail("Expected the message to be rejected");
+        }
+        catch (IllegalStateException expected)
+        {
+            // expected
+        }
+
+        //assert
+        assertEquals(2, waitingPacketsQueue.size());
+    }
+
+    @Test
+    public void addMessageDropsOldestMessageWhenQueueIsFull()
+    {
+        //arrange
+        IotHubTransport transport = new IotHubTransport(mockedConfig, mockedIotHubConnectionStatusChangeCallback);
+        Deencapsulation.setField(transport, "connectionStatus", DISCONNECTED_RETRYING);
+        Queue<IotHubTransportPacket> waitingPacketsQueue = new ConcurrentLinkedQueue<>();
+        Queue<IotHubTransportPacket> callbackPacketsQueue = new ConcurrentLinkedQueue<>();
+        Deencapsulation.setField(transport, "waitingPacketsQueue", waitingPacketsQueue);
+        Deencapsulation.setField(transport, "callbackPacketsQueue", callbackPacketsQueue);
+        boundedQueueExpectations(1, 0, OutboundQueueFullPolicy.DROP_OLDEST, 0);
+        transport.addMessage(mockedMessage, mockedEventCallback, null);
+
+        //act
+        transport.addMessage(mockedMessage, mockedEventCallback, null);
+
+        //assert
+        assertEquals(1, waitingPacketsQueue.size());
+        assertEquals(1, callbackPacketsQueue.size());
+        new Verifications()
+        {
+            {
+                mockedPacket.setStatus(IotHubStatusCode.MESSAGE_DROPPED_QUEUE_FULL);
+                times = 1;
+            }
+        };
+    }
+
+    @Test
+    public void addMessageCountsPayloadBytesTowardsQueueCapacity()
+    {
+        //arrange
+        IotHubTransport transport = new IotHubTransport(mockedConfig, mockedIotHubConnectionStatusChangeCallback);
+        Deencapsulation.setField(transport, "connectionStatus", DISCONNECTED_RETRYING);
+        Queue<IotHubTransportPacket> waitingPacketsQueue = new ConcurrentLinkedQueue<>();
+        Deencapsulation.setField(transport, "waitingPacketsQueue", waitingPacketsQueue);
+        boundedQueueExpectations(0, 250, OutboundQueueFullPolicy.REJECT_NEW, 0);
+        new NonStrictExpectations()
+        {
+            {
+                mockedMessage.getBytes();
+                result = new byte[100];
+            }
+        };
+        transport.addMessage(mockedMessage, mockedEventCallback, null);
+        transport.addMessage(mockedMessage, mockedEventCallback, null);
+
+        //act
+        try
+        {
+            transport.addMessage(mockedMessage, mockedEventCallback, null);
+            fail("Expected the message to be rejected");
+        }
+        catch (IllegalStateException expected)
+        {
+            // expected
+        }
+
+        //assert
+        assertEquals(2, waitingPacketsQueue.size());
+    }
+
+    @Test
+    public void addMessageAcceptsOversizedMessageWhenQueueIsEmpty()
+    {
+        //arrange
+        IotHubTransport transport = new IotHubTransport(mockedConfig, mockedIotHubConnectionStatusChangeCallback);
+        Deencapsulation.setField(transport, "connectionStatus", DISCONNECTED_RETRYING);
+        Queue<IotHubTransportPacket> waitingPacketsQueue = new ConcurrentLinkedQueue<>();
+        Deencapsulation.setField(transport, "waitingPacketsQueue", waitingPacketsQueue);
+        boundedQueueExpectations(0, 10, OutboundQueueFullPolicy.REJECT_NEW, 0);
+        new NonStrictExpectations()
+        {
+            {
+                mockedMessage.getBytes();
+                result = new byte[100];
+            }
+        };
+
+        //act
+        transport.addMessage(mockedMessage, mockedEventCallback, null);
+
+        //assert
+        assertEquals(1, waitingPacketsQueue.size());
+    }
+
+    @Test
+    public void addMessageBlocksUntilTimeoutWhenQueueIsFull()
+    {
+        //arrange
+        IotHubTransport transport = new IotHubTransport(mockedConfig, mockedIotHubConnectionStatusChangeCallback);
+        Deencapsulation.setField(transport, "connectionStatus", DISCONNECTED_RETRYING);
+        Queue<IotHubTransportPacket> waitingPacketsQueue = new ConcurrentLinkedQueue<>();
+        Deencapsulation.setField(transport, "waitingPacketsQueue", waitingPacketsQueue);
+        boundedQueueExpectations(1, 0, OutboundQueueFullPolicy.BLOCK, 100);
+        transport.addMessage(mockedMessage, mockedEventCallback, null);
+        long startTime = System.currentTimeMillis();
+
+        //act
+        try
+        {
+            transport.addMessage(mockedMessage, mockedEventCallback, null);
+            fail("Expected the blocked send to time out");
+        }
+        catch (IllegalStateException expected)
+        {
+            // expected
+        }
+
+        //assert
+        assertTrue(System.currentTimeMillis() - startTime >= 100);
+        assertEquals(1, waitingPacketsQueue.size());
+    }
+
+    @Test
+    public void addMessageBlockedSenderProceedsOnceQueuedMessageIsSent() throws Exception
+    {
+        //arrange
+        final IotHubTransport transport = new IotHubTransport(mockedConfig, mockedIotHubConnectionStatusChangeCallback);
+        Deencapsulation.setField(transport, "connectionStatus", CONNECTED);
+        Deencapsulation.setField(transport, "iotHubTransportConnection", mockedIotHubTransportConnection);
+        Queue<IotHubTransportPacket> waitingPacketsQueue = new ConcurrentLinkedQueue<>();
+        Deencapsulation.setField(transport, "waitingPacketsQueue", waitingPacketsQueue);
+        boundedQueueExpectations(1, 0, OutboundQueueFullPolicy.BLOCK, 30 * 1000);
+        new NonStrictExpectations()
+        {
+            {
+                mockedMessage.getMessageId();
+                result = "someMessageId";
+                mockedIotHubTransportConnection.sendMessage(mockedMessage);
+                result = IotHubStatusCode.OK;
+            }
+        };
+        transport.addMessage(mockedMessage, mockedEventCallback, null);
+
+        final CountDownLatch added = new CountDownLatch(1);
+        Thread sender = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                transport.addMessage(mockedMessage, mockedEventCallback, null);
+                added.countDown();
+            }
+        });
+        sender.start();
+        boolean addedWhileFull = added.await(200, TimeUnit.MILLISECONDS);
+        int waitersWhileFull = Deencapsulation.getField(transport, "waitingQueueCapacityWaiters");
+
+        //act
+        transport.sendMessages();
+
+        //assert
+        assertFalse(addedWhileFull);
+        assertEquals(1, waitersWhileFull);
+        assertTrue(added.await(5, TimeUnit.SECONDS));
+        sender.join();
+        assertEquals(0, (int) Deencapsulation.getField(transport, "waitingQueueCapacityWaiters"));
+    }
+
+    @Test
+    public void addMessageAndSendMessagesSkipQueueCapacityWhenQueueIsUnbounded() throws TransportException
+    {
+        //arrange
+        IotHubTransport transport = new IotHubTransport(mockedConfig, mockedIotHubConnectionStatusChangeCallback);
+        Deencapsulation.setField(transport, "connectionStatus", CONNECTED);
+        Deencapsulation.setField(transport, "iotHubTransportConnection", mockedIotHubTransportConnection);
+        Queue<IotHubTransportPacket> waitingPacketsQueue = new ConcurrentLinkedQueue<>();
+        Deencapsulation.setField(transport, "waitingPacketsQueue", waitingPacketsQueue);
+        boundedQueueExpectations(0, 0, OutboundQueueFullPolicy.BLOCK, 0);
+        new NonStrictExpectations()
+        {
+            {
+                mockedMessage.getMessageId();
+                result = "someMessageId";
+                mockedIotHubTransportConnection.sendMessage(mockedMessage);
+                result = IotHubStatusCode.OK;
+            }
+        };
+        transport.addMessage(mockedMessage, mockedEventCallback, null);
+        transport.addMessage(mockedMessage, mockedEventCallback, null);
+
+        //act
+        transport.sendMessages();
+
+        //assert
+        assertTrue(waitingPacketsQueue.isEmpty());
+        assertEquals(0, (int) Deencapsulation.getField(transport, "waitingPacketsCount"));
+        new Verifications()
+        {
+            {
+                // the payload size is only needed to account for the capacity of a bounded queue
+                mockedMessage.getBytes();
+                times = 0;
+            }
+        };
+    }
+
+    @Test
+    public void closeFailsSendersBlockedOnFullQueue() throws Exception
+    {
+        //arrange
+        final IotHubTransport transport = new IotHubTransport(mockedConfig, mockedIotHubConnectionStatusChangeCallback);
+        Deencapsulation.setField(transport, "connectionStatus", DISCONNECTED_RETRYING);
+        Deencapsulation.setField(transport, "waitingPacketsQueue", new ConcurrentLinkedQueue<IotHubTransportPacket>());
+        boundedQueueExpectations(1, 0, OutboundQueueFullPolicy.BLOCK, 30 * 1000);
+        transport.addMessage(mockedMessage, mockedEventCallback, null);
+
+        final CountDownLatch failed = new CountDownLatch(1);
+        Thread sender = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    transport.addMessage(mockedMessage, mockedEventCallback, null);
+                }
+                catch (IllegalStateException e)
+                {
+                    failed.countDown();
+                }
+            }
+        });
+        sender.start();
+        Thread.sleep(100);
+
+        //act
+        Deencapsulation.setField(transport, "connectionStatus", DISCONNECTED);
+        Object waitingQueueCapacityLock = Deencapsulation.getField(transport, "waitingQueueCapacityLock");
+        synchronized (waitingQueueCapacityLock)
+        {
+            waitingQueueCapacityLock.notifyAll();
+        }
+
+        //assert
+        assertTrue(failed.await(5, TimeUnit.SECONDS));
+        sender.join();
+    }
+
     //Tests_SRS_IOTHUBTRANSPORT_34_043: [If the connection status of this object is not CONNECTED, this function shall do nothing]
     @Test
     public void sendMessagesDoesNothingIfNotConnected()
@@ -1173,10 +1534,74 @@ public class IotHubTransportTest
         Deencapsulation.setField(transport, "waitingPacketsQueue", waitingPacketsQueue);
 
         //act
-        transport.sendMessages();
+        transport.sendMessages();
+
+        //assert
+        assertEquals(1, waitingPacketsQueue.size());
+    }
+
+    // Tests that a send pass on a shared scheduler stops, rather than waits, once the connection has no room left
+    @Test
+    public void sendMessagesOnSharedSchedulerStopsWhenConnectionHasNoSendCapacity()
+    {
+        //arrange
+        new MockUp<IotHubTransport>()
+        {
+            @Mock void sendPacket(IotHubTransportPacket packet)
+            {
+                //do nothing
+            }
+        };
+
+        new NonStrictExpectations()
+        {
+            {
+                mockedConfig.getSharedScheduler();
+                result = mockedTaskScheduler;
+                mockedMqttIotHubConnection.hasSendCapacity();
+                returns(true, false);
+            }
+        };
+
+        final IotHubTransport transport = new IotHubTransport(mockedConfig, mockedIotHubConnectionStatusChangeCallback);
+        Deencapsulation.setField(transport, "connectionStatus", CONNECTED);
+        Deencapsulation.setField(transport, "iotHubTransportConnection", mockedMqttIotHubConnection);
+        Queue<IotHubTransportPacket> waitingPacketsQueue = new ConcurrentLinkedQueue<>();
+        waitingPacketsQueue.add(mockedPacket);
+        waitingPacketsQueue.add(mockedPacket);
+        waitingPacketsQueue.add(mockedPacket);
+        Deencapsulation.setField(transport, "waitingPacketsQueue", waitingPacketsQueue);
+
+        //act
+        transport.sendMessages();
+
+        //assert
+        assertEquals(2, waitingPacketsQueue.size());
+    }
+
+    // Tests that the send task is signalled once the connection may have room again for the messages that wait
+    @Test
+    public void onSendCapacityAvailableNotifiesSendWorkListenerIfMessagesWait(@Injectable final Runnable mockedSendWorkListener, @Injectable final Runnable mockedReceiveWorkListener)
+    {
+        //arrange
+        final IotHubTransport transport = new IotHubTransport(mockedConfig, mockedIotHubConnectionStatusChangeCallback);
+        Queue<IotHubTransportPacket> waitingPacketsQueue = new ConcurrentLinkedQueue<>();
+        Deencapsulation.setField(transport, "waitingPacketsQueue", waitingPacketsQueue);
+        transport.setWorkListeners(mockedSendWorkListener, mockedReceiveWorkListener);
+
+        //act
+        Deencapsulation.invoke(transport, "onSendCapacityAvailable");
+        waitingPacketsQueue.add(mockedPacket);
+        Deencapsulation.invoke(transport, "onSendCapacityAvailable");
 
         //assert
-        assertEquals(1, waitingPacketsQueue.size());
+        new Verifications()
+        {
+            {
+                mockedSendWorkListener.run();
+                times = 1;
+            }
+        };
     }
 
     //Tests_SRS_IOTHUBTRANSPORT_34_045: [This function shall dequeue each packet in the callback queue and execute
@@ -1278,6 +1703,13 @@ public class IotHubTransportTest
         Deencapsulation.setField(transport, "receivedMessagesQueue", receivedMessagesQueue);
 
         Deencapsulation.setField(transport, "iotHubTransportConnection", mockedHttpsIotHubConnection);
+        new NonStrictExpectations()
+        {
+            {
+                mockedConfig.getMessageCallbackExecutor();
+                result = null;
+            }
+        };
 
         //act
         transport.handleMessage();
@@ -1311,6 +1743,13 @@ public class IotHubTransportTest
         receivedMessagesQueue.add(mockedTransportMessage);
         receivedMessagesQueue.add(mockedTransportMessage);
         Deencapsulation.setField(transport, "receivedMessagesQueue", receivedMessagesQueue);
+        new NonStrictExpectations()
+        {
+            {
+                mockedConfig.getMessageCallbackExecutor();
+                result = null;
+            }
+        };
 
         //act
         transport.handleMessage();
@@ -1320,6 +1759,292 @@ public class IotHubTransportTest
         assertEquals("acknowledgeReceivedMessage", methodsCalled.toString());
     }
 
+    // Tests that every queued message is handed off on a single receive pass when a message callback executor is set,
+    // and that the acknowledgements of the callbacks that returned are sent on the same pass
+    @Test
+    public void handleMessageWithCallbackExecutorAcknowledgesEveryQueuedMessage() throws DeviceClientException
+    {
+        //arrange
+        final Executor inlineExecutor = new Executor()
+        {
+            @Override
+            public void execute(Runnable command)
+            {
+                command.run();
+            }
+        };
+        final IotHubTransport transport = new IotHubTransport(mockedConfig, mockedIotHubConnectionStatusChangeCallback);
+        Deencapsulation.setField(transport, "connectionStatus", CONNECTED);
+        Deencapsulation.setField(transport, "iotHubTransportConnection", mockedIotHubTransportConnection);
+        Queue<IotHubTransportMessage> receivedMessagesQueue = new ConcurrentLinkedQueue<>();
+        receivedMessagesQueue.add(mockedTransportMessage);
+        receivedMessagesQueue.add(mockedTransportMessage);
+        receivedMessagesQueue.add(mockedTransportMessage);
+        Deencapsulation.setField(transport, "receivedMessagesQueue", receivedMessagesQueue);
+        new NonStrictExpectations()
+        {
+            {
+                mockedConfig.getMessageCallbackExecutor();
+                result = inlineExecutor;
+                mockedTransportMessage.getMessageCallback();
+                result = mockedMessageCallback;
+                mockedMessageCallback.execute((Message) any, any);
+                result = IotHubMessageResult.COMPLETE;
+            }
+        };
+
+        //act
+        transport.handleMessage();
+
+        //assert
+        assertTrue(receivedMessagesQueue.isEmpty());
+        assertFalse(transport.hasReceivedMessagesToHandle());
+        new Verifications()
+        {
+            {
+                mockedIotHubTransportConnection.sendMessageResult(mockedTransportMessage, IotHubMessageResult.COMPLETE);
+                times = 3;
+            }
+        };
+    }
+
+    // Tests that messages of different input names are dispatched in parallel, while the callbacks of messages of the
+    // same input name run one after the other in the order they were received
+    @Test
+    public void handleMessageWithCallbackExecutorPreservesOrderPerInputName(
+            @Injectable final IotHubTransportMessage firstInput1Message,
+            @Injectable final IotHubTransportMessage secondInput1Message,
+            @Injectable final IotHubTransportMessage input2Message) throws DeviceClientException
+    {
+        //arrange
+        final List<IotHubTransportMessage> handledMessages = new ArrayList<>();
+        new MockUp<IotHubTransport>()
+        {
+            @Mock void executeDispatchedMessageCallback(IotHubTransportMessage receivedMessage)
+            {
+                handledMessages.add(receivedMessage);
+            }
+        };
+        final List<Runnable> submittedTasks = new ArrayList<>();
+        final Executor recordingExecutor = new Executor()
+        {
+            @Override
+            public void execute(Runnable command)
+            {
+                submittedTasks.add(command);
+            }
+        };
+        final IotHubTransport transport = new IotHubTransport(mockedConfig, mockedIotHubConnectionStatusChangeCallback);
+        Deencapsulation.setField(transport, "connectionStatus", CONNECTED);
+        Queue<IotHubTransportMessage> receivedMessagesQueue = new ConcurrentLinkedQueue<>();
+        receivedMessagesQueue.add(firstInput1Message);
+        receivedMessagesQueue.add(input2Message);
+        receivedMessagesQueue.add(secondInput1Message);
+        Deencapsulation.setField(transport, "receivedMessagesQueue", receivedMessagesQueue);
+        new NonStrictExpectations()
+        {
+            {
+                mockedConfig.getMessageCallbackExecutor();
+                result = recordingExecutor;
+                firstInput1Message.getInputName();
+                result = "input1";
+                secondInput1Message.getInputName();
+                result = "input1";
+                input2Message.getInputName();
+                result = "input2";
+            }
+        };
+
+        //act
+        transport.handleMessage();
+
+        //assert
+        assertTrue(receivedMessagesQueue.isEmpty());
+        assertEquals(2, submittedTasks.size());
+        assertTrue(handledMessages.isEmpty());
+
+        // run the input2 lane first to show it doesn't wait on the input1 lane
+        submittedTasks.get(1).run();
+        submittedTasks.get(0).run();
+        assertEquals(3, handledMessages.size());
+        assertSame(input2Message, handledMessages.get(0));
+        assertSame(firstInput1Message, handledMessages.get(1));
+        assertSame(secondInput1Message, handledMessages.get(2));
+    }
+
+    // Tests that the acknowledgements of callbacks that ran on the executor are sent by the receive thread, in the
+    // order the callbacks returned, rather than by the executor threads
+    @Test
+    public void handleMessageWithCallbackExecutorSendsAcknowledgementsOnReceivePass(
+            @Injectable final IotHubTransportMessage firstMessage,
+            @Injectable final IotHubTransportMessage secondMessage,
+            @Injectable final MessageCallback messageCallback) throws DeviceClientException
+    {
+        //arrange
+        final List<Runnable> submittedTasks = new ArrayList<>();
+        final Executor recordingExecutor = new Executor()
+        {
+            @Override
+            public void execute(Runnable command)
+            {
+                submittedTasks.add(command);
+            }
+        };
+        final IotHubTransport transport = new IotHubTransport(mockedConfig, mockedIotHubConnectionStatusChangeCallback);
+        Deencapsulation.setField(transport, "connectionStatus", CONNECTED);
+        Deencapsulation.setField(transport, "iotHubTransportConnection", mockedIotHubTransportConnection);
+        Queue<IotHubTransportMessage> receivedMessagesQueue = new ConcurrentLinkedQueue<>();
+        receivedMessagesQueue.add(firstMessage);
+        receivedMessagesQueue.add(secondMessage);
+        Deencapsulation.setField(transport, "receivedMessagesQueue", receivedMessagesQueue);
+        new NonStrictExpectations()
+        {
+            {
+                mockedConfig.getMessageCallbackExecutor();
+                result = recordingExecutor;
+                firstMessage.getMessageCallback();
+                result = messageCallback;
+                secondMessage.getMessageCallback();
+                result = messageCallback;
+                messageCallback.execute(firstMessage, any);
+                result = IotHubMessageResult.COMPLETE;
+                messageCallback.execute(secondMessage, any);
+                result = IotHubMessageResult.REJECT;
+            }
+        };
+        transport.handleMessage();
+        assertEquals(1, submittedTasks.size());
+
+        //act
+        submittedTasks.get(0).run();
+
+        //assert
+        assertTrue(transport.hasReceivedMessagesToHandle());
+        new Verifications()
+        {
+            {
+                mockedIotHubTransportConnection.sendMessageResult((IotHubTransportMessage) any, (IotHubMessageResult) any);
+                times = 0;
+            }
+        };
+
+        transport.handleMessage();
+        assertFalse(transport.hasReceivedMessagesToHandle());
+        new VerificationsInOrder()
+        {
+            {
+                mockedIotHubTransportConnection.sendMessageResult(firstMessage, IotHubMessageResult.COMPLETE);
+                mockedIotHubTransportConnection.sendMessageResult(secondMessage, IotHubMessageResult.REJECT);
+            }
+        };
+    }
+
+    // Tests that an acknowledgement that could not be sent is sent again on the next receive pass, without running
+    // the message callback again
+    @Test
+    public void handleMessageWithCallbackExecutorRetriesFailedAcknowledgementOnNextPass() throws DeviceClientException
+    {
+        //arrange
+        final Executor inlineExecutor = new Executor()
+        {
+            @Override
+            public void execute(Runnable command)
+            {
+                command.run();
+            }
+        };
+        final IotHubTransport transport = new IotHubTransport(mockedConfig, mockedIotHubConnectionStatusChangeCallback);
+        Deencapsulation.setField(transport, "connectionStatus", CONNECTED);
+        Deencapsulation.setField(transport, "iotHubTransportConnection", mockedIotHubTransportConnection);
+        Queue<IotHubTransportMessage> receivedMessagesQueue = new ConcurrentLinkedQueue<>();
+        receivedMessagesQueue.add(mockedTransportMessage);
+        Deencapsulation.setField(transport, "receivedMessagesQueue", receivedMessagesQueue);
+        final TransportException ackFailure = new TransportException("ack failed");
+        new NonStrictExpectations()
+        {
+            {
+                mockedConfig.getMessageCallbackExecutor();
+                result = inlineExecutor;
+                mockedTransportMessage.getMessageCallback();
+                result = mockedMessageCallback;
+                mockedMessageCallback.execute((Message) any, any);
+                result = IotHubMessageResult.COMPLETE;
+                mockedIotHubTransportConnection.sendMessageResult((IotHubTransportMessage) any, (IotHubMessageResult) any);
+                result = ackFailure;
+                result = true;
+            }
+        };
+        try
+        {
+            transport.handleMessage();
+            fail("Expected the failed acknowledgement to be reported");
+        }
+        catch (TransportException expected)
+        {
+            // expected
+        }
+        assertTrue(transport.hasReceivedMessagesToHandle());
+
+        //act
+        transport.handleMessage();
+
+        //assert
+        assertFalse(transport.hasReceivedMessagesToHandle());
+        new Verifications()
+        {
+            {
+                mockedMessageCallback.execute((Message) any, any);
+                times = 1;
+                mockedIotHubTransportConnection.sendMessageResult(mockedTransportMessage, IotHubMessageResult.COMPLETE);
+                times = 2;
+            }
+        };
+    }
+
+    // Tests that the lane of an input name is dropped once its messages are handled, rather than kept for good
+    @Test
+    public void handleMessageWithCallbackExecutorDropsIdleLanes(@Injectable final IotHubTransportMessage inputMessage) throws DeviceClientException
+    {
+        //arrange
+        new MockUp<IotHubTransport>()
+        {
+            @Mock void executeDispatchedMessageCallback(IotHubTransportMessage receivedMessage)
+            {
+                //do nothing
+            }
+        };
+        final Executor inlineExecutor = new Executor()
+        {
+            @Override
+            public void execute(Runnable command)
+            {
+                command.run();
+            }
+        };
+        final IotHubTransport transport = new IotHubTransport(mockedConfig, mockedIotHubConnectionStatusChangeCallback);
+        Deencapsulation.setField(transport, "connectionStatus", CONNECTED);
+        Queue<IotHubTransportMessage> receivedMessagesQueue = new ConcurrentLinkedQueue<>();
+        receivedMessagesQueue.add(inputMessage);
+        Deencapsulation.setField(transport, "receivedMessagesQueue", receivedMessagesQueue);
+        new NonStrictExpectations()
+        {
+            {
+                mockedConfig.getMessageCallbackExecutor();
+                result = inlineExecutor;
+                inputMessage.getInputName();
+                result = "input1";
+            }
+        };
+
+        //act
+        transport.handleMessage();
+
+        //assert
+        Object receivedMessageDispatcher = Deencapsulation.getField(transport, "receivedMessageDispatcher");
+        Map<String, ?> lanes = Deencapsulation.getField(receivedMessageDispatcher, "lanes");
+        assertTrue(lanes.isEmpty());
+    }
+
     //Tests_SRS_IOTHUBTRANSPORT_34_049: [If the provided callback is null, this function shall throw an IllegalArgumentException.]
     @Test (expected = IllegalArgumentException.class)
     public void registerConnectionStateCallbackThrowsForNullCallback()
@@ -2788,10 +3513,10 @@ public class IotHubTransportTest
     }
 
     @Test
-    public void sendMessagesChecksForExpiredMessagesInWaitingQueue()
+    public void sendMessagesChecksForExpiredMessagesInWaitingQueue() throws TransportException
     {
         //arrange
-        IotHubTransport transport = new IotHubTransport(mockedConfig, mockedIotHubConnectionStatusChangeCallback);
+        final IotHubTransport transport = new IotHubTransport(mockedConfig, mockedIotHubConnectionStatusChangeCallback);
         Map<String, IotHubTransportPacket> inProgressMessages = new HashMap<>();
         Queue<IotHubTransportPacket> callbackPacketsQueue = new ConcurrentLinkedQueue<>();
         Queue<IotHubTransportPacket> waitingPacketsQueue = new ConcurrentLinkedQueue<>();
@@ -2799,18 +3524,26 @@ public class IotHubTransportTest
         Deencapsulation.setField(transport, "inProgressPackets", inProgressMessages);
         Deencapsulation.setField(transport, "waitingPacketsQueue", waitingPacketsQueue);
         Deencapsulation.setField(transport, "connectionStatus", CONNECTED);
+        Deencapsulation.setField(transport, "iotHubTransportConnection", mockedIotHubTransportConnection);
 
-        waitingPacketsQueue.add(mockedPacket);
-
-        new Expectations()
+        new NonStrictExpectations()
         {
             {
                 mockedPacket.getMessage();
                 result = mockedMessage;
+                mockedPacket.getCallback();
+                result = mockedEventCallback;
+                mockedMessage.getExpiryTime();
+                result = 1;
                 mockedMessage.isExpired();
                 result = true;
+                Deencapsulation.invoke(mockedPacket, "expireIfWaiting");
+                result = true;
+                Deencapsulation.invoke(mockedPacket, "removeFromWaiting");
+                result = true;
             }
         };
+        Deencapsulation.invoke(transport, "addToWaitingQueue", mockedPacket);
 
         //act
         transport.sendMessages();
@@ -2823,6 +3556,60 @@ public class IotHubTransportTest
             {
                 mockedPacket.setStatus(IotHubStatusCode.MESSAGE_EXPIRED);
                 times = 1;
+                mockedIotHubTransportConnection.sendMessage((Message) any);
+                times = 0;
+            }
+        };
+    }
+
+    @Test
+    public void sendMessagesExpiresWaitingMessagesWhileDisconnectedWithoutReorderingWaitingQueue(@Mocked final IotHubTransportPacket mockedPacket2, @Injectable final Message liveMessage)
+    {
+        //arrange
+        IotHubTransport transport = new IotHubTransport(mockedConfig, mockedIotHubConnectionStatusChangeCallback);
+        Queue<IotHubTransportPacket> callbackPacketsQueue = new ConcurrentLinkedQueue<>();
+        Queue<IotHubTransportPacket> waitingPacketsQueue = new ConcurrentLinkedQueue<>();
+        Deencapsulation.setField(transport, "callbackPacketsQueue", callbackPacketsQueue);
+        Deencapsulation.setField(transport, "waitingPacketsQueue", waitingPacketsQueue);
+        Deencapsulation.setField(transport, "connectionStatus", DISCONNECTED_RETRYING);
+
+        new NonStrictExpectations()
+        {
+            {
+                mockedPacket.getMessage();
+                result = mockedMessage;
+                mockedPacket.getCallback();
+                result = mockedEventCallback;
+                mockedMessage.getExpiryTime();
+                result = 1;
+                mockedMessage.isExpired();
+                result = true;
+                Deencapsulation.invoke(mockedPacket, "expireIfWaiting");
+                result = true;
+                mockedPacket2.getMessage();
+                result = liveMessage;
+                liveMessage.getExpiryTime();
+                result = Long.MAX_VALUE;
+            }
+        };
+        Deencapsulation.invoke(transport, "addToWaitingQueue", mockedPacket2);
+        Deencapsulation.invoke(transport, "addToWaitingQueue", mockedPacket);
+
+        //act
+        transport.sendMessages();
+
+        //assert
+        assertEquals(1, callbackPacketsQueue.size());
+        assertTrue(callbackPacketsQueue.contains(mockedPacket));
+        assertEquals(2, waitingPacketsQueue.size());
+        assertEquals(mockedPacket2, waitingPacketsQueue.peek());
+        new Verifications()
+        {
+            {
+                mockedPacket.setStatus(IotHubStatusCode.MESSAGE_EXPIRED);
+                times = 1;
+                mockedPacket2.setStatus((IotHubStatusCode) any);
+                times = 0;
             }
         };
     }
@@ -2842,15 +3629,23 @@ public class IotHubTransportTest
 
         inProgressMessages.put("someMessageId", mockedPacket);
 
-        new Expectations()
+        new NonStrictExpectations()
         {
             {
                 mockedPacket.getMessage();
                 result = mockedMessage;
+                mockedPacket.getCallback();
+                result = mockedEventCallback;
+                mockedMessage.getMessageId();
+                result = "someMessageId";
+                mockedMessage.getExpiryTime();
+                result = 1;
                 mockedMessage.isExpired();
                 result = true;
             }
         };
+        Object packetExpiryIndex = Deencapsulation.getField(transport, "packetExpiryIndex");
+        Deencapsulation.invoke(packetExpiryIndex, "add", mockedPacket);
 
         //act
         transport.sendMessages();
@@ -0,0 +1,216 @@
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+
+package tests.unit.com.microsoft.azure.sdk.iot.device.transport;
+
+import com.microsoft.azure.sdk.iot.device.Message;
+import com.microsoft.azure.sdk.iot.device.transport.IotHubTransportPacket;
+import mockit.Deencapsulation;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for PacketExpiryIndex.
+ */
+public class PacketExpiryIndexTest
+{
+    private static final String PACKET_EXPIRY_INDEX_CLASS = "com.microsoft.azure.sdk.iot.device.transport.PacketExpiryIndex";
+
+    private static IotHubTransportPacket createPacket(long absoluteExpiryTime)
+    {
+        Message message = new Message("payload");
+        message.setAbsoluteExpiryTime(absoluteExpiryTime);
+        return new IotHubTransportPacket(message, null, null, null, 10);
+    }
+
+    private static Object createIndex()
+    {
+        return Deencapsulation.newInstance(PACKET_EXPIRY_INDEX_CLASS);
+    }
+
+    @Test
+    public void pollExpiredReturnsOnlyExpiredPacketsInExpiryOrder()
+    {
+        //arrange
+        Object index = createIndex();
+        IotHubTransportPacket expiresLast = createPacket(300);
+        IotHubTransportPacket expiresFirst = createPacket(100);
+        IotHubTransportPacket expiresSecond = createPacket(200);
+        IotHubTransportPacket notYetExpired = createPacket(1000);
+        Deencapsulation.invoke(index, "add", expiresLast);
+        Deencapsulation.invoke(index, "add", expiresFirst);
+        Deencapsulation.invoke(index, "add", notYetExpired);
+        Deencapsulation.invoke(index, "add", expiresSecond);
+
+        //act
+        List<IotHubTransportPacket> expired = Deencapsulation.invoke(index, "pollExpired", 500L);
+
+        //assert
+        assertEquals(3, expired.size());
+        assertEquals(expiresFirst, expired.get(0));
+        assertEquals(expiresSecond, expired.get(1));
+        assertEquals(expiresLast, expired.get(2));
+        assertEquals(1, (int) Deencapsulation.invoke(index, "size"));
+    }
+
+    @Test
+    public void pollExpiredReturnsPacketsExpiringAtSameTimeInInsertionOrder()
+    {
+        //arrange
+        Object index = createIndex();
+        IotHubTransportPacket first = createPacket(100);
+        IotHubTransportPacket second = createPacket(100);
+        Deencapsulation.invoke(index, "add", first);
+        Deencapsulation.invoke(index, "add", second);
+
+        //act
+        List<IotHubTransportPacket> expired = Deencapsulation.invoke(index, "pollExpired", 500L);
+
+        //assert
+        assertEquals(2, expired.size());
+        assertEquals(first, expired.get(0));
+        assertEquals(second, expired.get(1));
+    }
+
+    @Test
+    public void addIgnoresPacketsThatNeverExpire()
+    {
+        //arrange
+        Object index = createIndex();
+        IotHubTransportPacket neverExpires = new IotHubTransportPacket(new Message("payload"), null, null, null, 10);
+
+        //act
+        Deencapsulation.invoke(index, "add", neverExpires);
+
+        //assert
+        assertEquals(0, (int) Deencapsulation.invoke(index, "size"));
+        List<IotHubTransportPacket> expired = Deencapsulation.invoke(index, "pollExpired", Long.MAX_VALUE);
+        assertTrue(expired.isEmpty());
+    }
+
+    @Test
+    public void removedPacketsAreNotReturned()
+    {
+        //arrange
+        Object index = createIndex();
+        IotHubTransportPacket removed = createPacket(100);
+        IotHubTransportPacket kept = createPacket(200);
+        Deencapsulation.invoke(index, "add", removed);
+        Deencapsulation.invoke(index, "add", kept);
+
+        //act
+        Deencapsulation.invoke(index, "remove", removed);
+        List<IotHubTransportPacket> expired = Deencapsulation.invoke(index, "pollExpired", 500L);
+
+        //assert
+        assertEquals(1, expired.size());
+        assertEquals(kept, expired.get(0));
+    }
+
+    @Test
+    public void addingPacketAgainReplacesItsPreviousEntry()
+    {
+        //arrange
+        Object index = createIndex();
+        IotHubTransportPacket packet = createPacket(100);
+        Deencapsulation.invoke(index, "add", packet);
+
+        //act
+        packet.getMessage().setAbsoluteExpiryTime(1000);
+        Deencapsulation.invoke(index, "add", packet);
+        List<IotHubTransportPacket> expiredEarly = Deencapsulation.invoke(index, "pollExpired", 500L);
+        List<IotHubTransportPacket> expiredLate = Deencapsulation.invoke(index, "pollExpired", 1500L);
+
+        //assert
+        assertTrue(expiredEarly.isEmpty());
+        assertEquals(1, expiredLate.size());
+        assertEquals(packet, expiredLate.get(0));
+    }
+
+    @Test
+    public void removedPacketsDoNotAccumulateInTheQueue()
+    {
+        //arrange
+        Object index = createIndex();
+        List<IotHubTransportPacket> packets = new ArrayList<>();
+        for (int i = 0; i < 1000; i++)
+        {
+            IotHubTransportPacket packet = createPacket(Long.MAX_VALUE - i);
+            packets.add(packet);
+            Deencapsulation.invoke(index, "add", packet);
+        }
+
+        //act
+        for (IotHubTransportPacket packet : packets)
+        {
+            Deencapsulation.invoke(index, "remove", packet);
+        }
+
+        //assert
+        Queue<?> entries = Deencapsulation.getField(index, "entries");
+        assertTrue(entries.size() < 100);
+        assertEquals(0, (int) Deencapsulation.invoke(index, "size"));
+    }
+
+    @Test
+    public void compactingKeepsTheTrackedPackets()
+    {
+        //arrange
+        Object index = createIndex();
+        IotHubTransportPacket kept = createPacket(100);
+        Deencapsulation.invoke(index, "add", kept);
+        for (int i = 0; i < 1000; i++)
+        {
+            IotHubTransportPacket removed = createPacket(200);
+            Deencapsulation.invoke(index, "add", removed);
+            Deencapsulation.invoke(index, "remove", removed);
+        }
+
+        //act
+        List<IotHubTransportPacket> expired = Deencapsulation.invoke(index, "pollExpired", 500L);
+
+        //assert
+        assertEquals(1, expired.size());
+        assertEquals(kept, expired.get(0));
+    }
+
+    @Test
+    public void addIfAbsentTracksAgainPacketPolledAsExpired()
+    {
+        //arrange
+        Object index = createIndex();
+        IotHubTransportPacket packet = createPacket(100);
+        Deencapsulation.invoke(index, "add", packet);
+        Deencapsulation.invoke(index, "pollExpired", 500L);
+
+        //act
+        Deencapsulation.invoke(index, "addIfAbsent", packet);
+        List<IotHubTransportPacket> expired = Deencapsulation.invoke(index, "pollExpired", 500L);
+
+        //assert
+        assertEquals(1, expired.size());
+        assertEquals(packet, expired.get(0));
+    }
+
+    @Test
+    public void addIfAbsentKeepsTheEntryOfTrackedPacket()
+    {
+        //arrange
+        Object index = createIndex();
+        IotHubTransportPacket packet = createPacket(100);
+        Deencapsulation.invoke(index, "add", packet);
+
+        //act
+        Deencapsulation.invoke(index, "addIfAbsent", packet);
+
+        //assert
+        Queue<?> entries = Deencapsulation.getField(index, "entries");
+        assertEquals(1, entries.size());
+    }
+}
@@ -9,6 +9,7 @@ import com.microsoft.azure.proton.transport.proxy.impl.ProxyHandlerImpl;
 import com.microsoft.azure.proton.transport.proxy.impl.ProxyImpl;
 import com.microsoft.azure.proton.transport.ws.WebSocketHandler;
 import com.microsoft.azure.proton.transport.ws.impl.WebSocketImpl;
+import com.microsoft.azure.sdk.iot.deps.transport.amqp.ReactorDispatcher;
 import com.microsoft.azure.sdk.iot.device.*;
 import com.microsoft.azure.sdk.iot.device.auth.IotHubSasTokenAuthenticationProvider;
 import com.microsoft.azure.sdk.iot.device.auth.IotHubX509SoftwareAuthenticationProvider;
@@ -1063,6 +1064,97 @@ public class AmqpsIotHubConnectionTest {
         assertEquals(1, messagesToSend.size());
     }
 
+    // Tests that queueing messages wakes the reactor up once to send them, rather than leaving them for the timer task
+    @Test
+    public void sendMessageDispatchesSendToReactor(@Mocked final ReactorDispatcher mockReactorDispatcher) throws TransportException
+    {
+        //arrange
+        baseExpectations();
+        final AmqpsIotHubConnection connection = new AmqpsIotHubConnection(mockConfig);
+        Deencapsulation.setField(connection, "reactorDispatcher", mockReactorDispatcher);
+
+        //act
+        connection.sendMessage(mockIoTMessage);
+        connection.sendMessage(mockIoTMessage);
+
+        //assert
+        new Verifications()
+        {
+            {
+                mockReactorDispatcher.invoke((Runnable) any);
+                times = 1;
+            }
+        };
+    }
+
+    // Tests that messages waiting for link credit are sent as soon as credit is given
+    @Test
+    public void onLinkCreditAvailableSendsQueuedMessages(final @Mocked AmqpsSessionHandler mockAmqpsSessionHandler) throws TransportException
+    {
+        //arrange
+        baseExpectations();
+        final AmqpsIotHubConnection connection = new AmqpsIotHubConnection(mockConfig);
+        List<AmqpsSessionHandler> amqpsSessionHandlerList = new ArrayList<>();
+        amqpsSessionHandlerList.add(mockAmqpsSessionHandler);
+        Deencapsulation.setField(connection, "sessionHandlerList", amqpsSessionHandlerList);
+        Queue<com.microsoft.azure.sdk.iot.device.Message> messagesToSend = new ConcurrentLinkedQueue<>();
+        messagesToSend.add(mockIoTMessage);
+        Deencapsulation.setField(connection, "messagesToSend", messagesToSend);
+
+        new NonStrictExpectations()
+        {
+            {
+                Deencapsulation.invoke(mockAmqpsSessionHandler, "sendMessage", mockIoTMessage);
+                result = true;
+            }
+        };
+
+        //act
+        connection.onLinkCreditAvailable();
+
+        //assert
+        assertTrue(messagesToSend.isEmpty());
+        new Verifications()
+        {
+            {
+                Deencapsulation.invoke(mockAmqpsSessionHandler, "sendMessage", mockIoTMessage);
+                times = 1;
+            }
+        };
+    }
+
+    // Tests that the reactor dispatcher is released when the connection closes so that the reactor can stop
+    @Test
+    public void onConnectionLocalCloseClosesReactorDispatcher(@Mocked final ReactorDispatcher mockReactorDispatcher) throws TransportException
+    {
+        //arrange
+        baseExpectations();
+        final AmqpsIotHubConnection connection = new AmqpsIotHubConnection(mockConfig);
+        Deencapsulation.setField(connection, "reactorDispatcher", mockReactorDispatcher);
+
+        new NonStrictExpectations()
+        {
+            {
+                mockEvent.getReactor();
+                result = mockReactor;
+            }
+        };
+
+        //act
+        connection.onConnectionLocalClose(mockEvent);
+
+        //assert
+        new Verifications()
+        {
+            {
+                mockReactorDispatcher.close();
+                times = 1;
+                mockReactor.stop();
+                times = 1;
+            }
+        };
+    }
+
     // Tests_SRS_AMQPSTRANSPORT_34_094: [This function shall return the saved connection id.]
     @Test
     public void getConnectionIdReturnsSavedConnectionId() throws TransportException
@@ -39,10 +39,9 @@ public class AmqpsSendResultTest
         //arrange
         boolean isDeliverySuccessful = false;
         int expectedDeliveryTag = 56;
-        byte[] deliveryTag = String.valueOf(expectedDeliveryTag).getBytes();
 
         //act
-        AmqpsSendResult amqpsSendResult = Deencapsulation.newInstance(AmqpsSendResult.class, isDeliverySuccessful, deliveryTag);
+        AmqpsSendResult amqpsSendResult = Deencapsulation.newInstance(AmqpsSendResult.class, isDeliverySuccessful, expectedDeliveryTag);
         boolean actualIsDeliverySuccessful = Deencapsulation.getField(amqpsSendResult, "deliverySuccessful");
         int actualDeliveryTag = Deencapsulation.getField(amqpsSendResult, "deliveryTag");
 
@@ -70,9 +69,8 @@ public class AmqpsSendResultTest
     {
         //arrange
         boolean isDeliverySuccessful = true;
-        byte[] deliveryTag = String.valueOf(24).getBytes();
-        int deliveryTagInt = Integer.parseInt(new String(deliveryTag));
-        AmqpsSendResult amqpsSendResult = Deencapsulation.newInstance(AmqpsSendResult.class, isDeliverySuccessful, deliveryTag);
+        int deliveryTagInt = 24;
+        AmqpsSendResult amqpsSendResult = Deencapsulation.newInstance(AmqpsSendResult.class, isDeliverySuccessful, deliveryTagInt);
 
         //act
         int actualDeliveryTag = amqpsSendResult.getDeliveryTag();
@@ -8,6 +8,10 @@ import com.microsoft.azure.sdk.iot.device.MessageProperty;
 import com.microsoft.azure.sdk.iot.device.exceptions.IotHubSizeExceededException;
 import com.microsoft.azure.sdk.iot.device.transport.https.HttpsBatchMessage;
 import com.microsoft.azure.sdk.iot.device.transport.https.HttpsSingleMessage;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import mockit.Mocked;
 import mockit.NonStrictExpectations;
 import org.junit.Test;
@@ -342,4 +346,68 @@ public class HttpsBatchMessageTest
 
         assertThat(httpsBatchMessageSizeLimitVerified, is(true));
     }
+
+    // Tests_SRS_HTTPSBATCHMESSAGE_11_005: [The JSON object shall have the field "properties" set to a JSON object which has a key-value pair for each message property, where the key is the HTTPS property name and the value is the property value.]
+    @Test
+    public void addMessageEscapesPropertyKeysAndValues(
+            @Mocked final HttpsSingleMessage mockMsg,
+            @Mocked final MessageProperty mockProperty) throws IotHubSizeExceededException
+    {
+        final String propertyHttpsName = "name\"with\\quotes";
+        final String propertyValue = "value\nwith\tcontrol\u0001characters\"";
+        final MessageProperty[] properties = { mockProperty };
+
+        new NonStrictExpectations()
+        {
+            {
+                mockMsg.getBody();
+                result = "test-msg-body".getBytes();
+                mockMsg.getProperties();
+                result = properties;
+                mockProperty.getName();
+                result = propertyHttpsName;
+                mockProperty.getValue();
+                result = propertyValue;
+            }
+        };
+
+        HttpsBatchMessage batchMsg = new HttpsBatchMessage();
+        batchMsg.addMessage(mockMsg);
+        String testBatchBody = new String(batchMsg.getBody(), UTF8);
+
+        JsonArray batch = new JsonParser().parse(testBatchBody).getAsJsonArray();
+        JsonObject testProperties = batch.get(0).getAsJsonObject().getAsJsonObject("properties");
+        assertThat(testProperties.get(propertyHttpsName).getAsString(), is(propertyValue));
+    }
+
+    // Tests_SRS_HTTPSBATCHMESSAGE_11_002: [The function shall add the message as a JSON object appended to the current JSON array.]
+    @Test
+    public void addMessageBuildsValidJsonArrayForManyMessages(
+            @Mocked final HttpsSingleMessage mockMsg) throws IotHubSizeExceededException
+    {
+        final int messageCount = 500;
+        final byte[] msgBody = "test-msg-body".getBytes();
+        new NonStrictExpectations()
+        {
+            {
+                mockMsg.getBody();
+                result = msgBody;
+            }
+        };
+
+        HttpsBatchMessage batchMsg = new HttpsBatchMessage();
+        for (int i = 0; i < messageCount; i++)
+        {
+            batchMsg.addMessage(mockMsg);
+        }
+
+        String testBatchBody = new String(batchMsg.getBody(), UTF8);
+        JsonArray batch = new JsonParser().parse(testBatchBody).getAsJsonArray();
+        assertThat(batch.size(), is(messageCount));
+        for (JsonElement message : batch)
+        {
+            assertThat(Base64.decodeBase64Local(message.getAsJsonObject().get("body").getAsString().getBytes()), is(msgBody));
+            assertThat(message.getAsJsonObject().get("base64Encoded").getAsBoolean(), is(true));
+        }
+    }
 }
@@ -15,6 +15,7 @@ import org.junit.Test;
 import javax.net.ssl.HttpsURLConnection;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLSocketFactory;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.*;
@@ -1045,4 +1046,68 @@ public class HttpsConnectionTest
         //assert
         Assert.assertArrayEquals(expectedBody, actual);
     }
+
+    private void readInputExpectations(final HttpsMethod httpsMethod, final byte[] responseBody, final long contentLength) throws IOException
+    {
+        new NonStrictExpectations()
+        {
+            {
+                mockUrl.getProtocol();
+                result = "https";
+                mockUrl.openConnection();
+                result = mockUrlConn;
+                mockUrlConn.getRequestMethod();
+                result = httpsMethod.name();
+                mockUrlConn.getInputStream();
+                result = new ByteArrayInputStream(responseBody);
+                mockUrlConn.getContentLengthLong();
+                result = contentLength;
+            }
+        };
+    }
+
+    private static byte[] createResponseBody(int length)
+    {
+        byte[] responseBody = new byte[length];
+        for (int i = 0; i < length; i++)
+        {
+            responseBody[i] = (byte) i;
+        }
+
+        return responseBody;
+    }
+
+    @Test
+    public void readInputReadsBodyMatchingContentLength() throws IOException, TransportException
+    {
+        // Arrange
+        final HttpsMethod httpsMethod = HttpsMethod.GET;
+        final byte[] expectedResponse = createResponseBody(10000);
+        readInputExpectations(httpsMethod, expectedResponse, expectedResponse.length);
+        HttpsConnection conn = new HttpsConnection(mockUrl, httpsMethod);
+        conn.connect();
+
+        // Act
+        byte[] testResponse = conn.readInput();
+
+        // Assert
+        assertThat(testResponse, is(expectedResponse));
+    }
+
+    @Test
+    public void readInputReadsBodyWithoutContentLength() throws IOException, TransportException
+    {
+        // Arrange
+        final HttpsMethod httpsMethod = HttpsMethod.GET;
+        final byte[] expectedResponse = createResponseBody(10000);
+        readInputExpectations(httpsMethod, expectedResponse, -1);
+        HttpsConnection conn = new HttpsConnection(mockUrl, httpsMethod);
+        conn.connect();
+
+        // Act
+        byte[] testResponse = conn.readInput();
+
+        // Assert
+        assertThat(testResponse, is(expectedResponse));
+    }
 }
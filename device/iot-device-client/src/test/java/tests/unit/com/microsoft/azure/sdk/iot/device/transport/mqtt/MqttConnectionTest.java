@@ -2,6 +2,7 @@ package tests.unit.com.microsoft.azure.sdk.iot.device.transport.mqtt;
 
 import com.microsoft.azure.sdk.iot.device.ProxySettings;
 import com.microsoft.azure.sdk.iot.device.exceptions.ProtocolException;
+import com.microsoft.azure.sdk.iot.device.exceptions.TransportException;
 import com.microsoft.azure.sdk.iot.device.transport.HttpProxySocketFactory;
 import com.microsoft.azure.sdk.iot.device.transport.mqtt.MqttConnection;
 import com.microsoft.azure.sdk.iot.device.transport.mqtt.Socks5SocketFactory;
@@ -16,6 +17,9 @@ import javax.net.ssl.SSLSocketFactory;
 import java.net.Proxy;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.*;
 
@@ -544,4 +548,146 @@ public class MqttConnectionTest
             }
         };
     }
-}
\ No newline at end of file
+
+    @Test
+    public void constructorSetsPahoMaxInflightToInFlightWindow() throws Exception
+    {
+        //arrange
+        baseConstructorExpectations();
+
+        //act
+        Deencapsulation.newInstance(MqttConnection.class, new Class[] {String.class, String.class, String.class, String.class, SSLContext.class, ProxySettings.class, int.class}, SERVER_URI, CLIENT_ID, USER_NAME, PWORD, mockSSLContext, null, 25);
+
+        //assert
+        new Verifications()
+        {
+            {
+                mockMqttConnectionOptions.setMaxInflight(25);
+                times = 1;
+            }
+        };
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void constructorThrowsIfInFlightWindowIsNotPositive() throws Exception
+    {
+        Deencapsulation.newInstance(MqttConnection.class, new Class[] {String.class, String.class, String.class, String.class, SSLContext.class, ProxySettings.class, int.class}, SERVER_URI, CLIENT_ID, USER_NAME, PWORD, mockSSLContext, null, 0);
+    }
+
+    @Test
+    public void acquireInFlightSlotBlocksUntilSlotIsReleased() throws Exception
+    {
+        //arrange
+        new NonStrictExpectations()
+        {
+            {
+                mockMqttAsyncClient.isConnected();
+                result = true;
+            }
+        };
+        final MqttConnection mqttConnection = Deencapsulation.newInstance(MqttConnection.class, new Class[] {String.class, String.class, String.class, String.class, SSLContext.class, ProxySettings.class, int.class}, SERVER_URI, CLIENT_ID, USER_NAME, PWORD, mockSSLContext, null, 2);
+        Deencapsulation.setField(mqttConnection, "mqttAsyncClient", mockMqttAsyncClient);
+        Deencapsulation.invoke(mqttConnection, "acquireInFlightSlot");
+        Deencapsulation.invoke(mqttConnection, "acquireInFlightSlot");
+
+        final CountDownLatch acquired = new CountDownLatch(1);
+        Thread publisher = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                Deencapsulation.invoke(mqttConnection, "acquireInFlightSlot");
+                acquired.countDown();
+            }
+        });
+
+        //act
+        publisher.start();
+        boolean acquiredWhileFull = acquired.await(200, TimeUnit.MILLISECONDS);
+        Deencapsulation.invoke(mqttConnection, "releaseInFlightSlot");
+
+        //assert
+        assertFalse(acquiredWhileFull);
+        assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        publisher.join();
+        assertEquals(2, (int) Deencapsulation.invoke(mqttConnection, "getInFlightCount"));
+    }
+
+    @Test (expected = TransportException.class)
+    public void acquireInFlightSlotThrowsIfDisconnectedWhileWindowIsFull() throws Throwable
+    {
+        //arrange
+        new NonStrictExpectations()
+        {
+            {
+                mockMqttAsyncClient.isConnected();
+                result = false;
+            }
+        };
+        final MqttConnection mqttConnection = Deencapsulation.newInstance(MqttConnection.class, new Class[] {String.class, String.class, String.class, String.class, SSLContext.class, ProxySettings.class, int.class}, SERVER_URI, CLIENT_ID, USER_NAME, PWORD, mockSSLContext, null, 1);
+        Deencapsulation.setField(mqttConnection, "mqttAsyncClient", mockMqttAsyncClient);
+        Deencapsulation.invoke(mqttConnection, "acquireInFlightSlot");
+
+        //act
+        Deencapsulation.invoke(mqttConnection, "acquireInFlightSlot");
+    }
+
+    @Test
+    public void releaseInFlightSlotDoesNotGoBelowZero() throws Exception
+    {
+        //arrange
+        final MqttConnection mqttConnection = Deencapsulation.newInstance(MqttConnection.class, new Class[] {String.class, String.class, String.class, String.class, SSLContext.class, ProxySettings.class}, SERVER_URI, CLIENT_ID, USER_NAME, PWORD, mockSSLContext, null);
+
+        //act
+        Deencapsulation.invoke(mqttConnection, "releaseInFlightSlot");
+
+        //assert
+        assertEquals(0, (int) Deencapsulation.invoke(mqttConnection, "getInFlightCount"));
+    }
+
+    @Test
+    public void hasFreeInFlightSlotIsFalseWhileWindowIsFull() throws Exception
+    {
+        //arrange
+        new NonStrictExpectations()
+        {
+            {
+                mockMqttAsyncClient.isConnected();
+                result = true;
+            }
+        };
+        final MqttConnection mqttConnection = Deencapsulation.newInstance(MqttConnection.class, new Class[] {String.class, String.class, String.class, String.class, SSLContext.class, ProxySettings.class, int.class}, SERVER_URI, CLIENT_ID, USER_NAME, PWORD, mockSSLContext, null, 1);
+        Deencapsulation.setField(mqttConnection, "mqttAsyncClient", mockMqttAsyncClient);
+        assertTrue((boolean) Deencapsulation.invoke(mqttConnection, "hasFreeInFlightSlot"));
+
+        //act
+        Deencapsulation.invoke(mqttConnection, "acquireInFlightSlot");
+
+        //assert
+        assertFalse((boolean) Deencapsulation.invoke(mqttConnection, "hasFreeInFlightSlot"));
+        Deencapsulation.invoke(mqttConnection, "releaseInFlightSlot");
+        assertTrue((boolean) Deencapsulation.invoke(mqttConnection, "hasFreeInFlightSlot"));
+    }
+
+    @Test
+    public void releaseInFlightSlotNotifiesListener() throws Exception
+    {
+        //arrange
+        final MqttConnection mqttConnection = Deencapsulation.newInstance(MqttConnection.class, new Class[] {String.class, String.class, String.class, String.class, SSLContext.class, ProxySettings.class}, SERVER_URI, CLIENT_ID, USER_NAME, PWORD, mockSSLContext, null);
+        final AtomicInteger notifications = new AtomicInteger();
+        Deencapsulation.invoke(mqttConnection, "setInFlightSlotReleasedListener", new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                notifications.incrementAndGet();
+            }
+        });
+
+        //act
+        Deencapsulation.invoke(mqttConnection, "releaseInFlightSlot");
+
+        //assert
+        assertEquals(1, notifications.get());
+    }
+}
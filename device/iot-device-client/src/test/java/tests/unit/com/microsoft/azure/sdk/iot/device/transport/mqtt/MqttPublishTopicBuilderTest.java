@@ -0,0 +1,145 @@
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+
+package tests.unit.com.microsoft.azure.sdk.iot.device.transport.mqtt;
+
+import com.microsoft.azure.sdk.iot.device.Message;
+import com.microsoft.azure.sdk.iot.device.MessageProperty;
+import mockit.Deencapsulation;
+import mockit.Mocked;
+import mockit.NonStrictExpectations;
+import org.junit.Test;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+
+/*
+ * Unit tests for MqttPublishTopicBuilder.java
+ */
+public class MqttPublishTopicBuilderTest
+{
+    private static final String BUILDER_CLASS_NAME = "com.microsoft.azure.sdk.iot.device.transport.mqtt.MqttPublishTopicBuilder";
+    private static final String BASE_TOPIC = "devices/test.iothub/messages/events/";
+
+    @Mocked
+    private Message mockedMessage;
+
+    private static Object createBuilder(boolean appendTrailingSlash) throws Exception
+    {
+        return Deencapsulation.newInstance(Class.forName(BUILDER_CLASS_NAME), BASE_TOPIC, appendTrailingSlash);
+    }
+
+    private static String urlEncode(String value) throws Exception
+    {
+        return Deencapsulation.invoke(Class.forName(BUILDER_CLASS_NAME), "urlEncode", value);
+    }
+
+    private static String expectedUrlEncode(String value) throws Exception
+    {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8.name()).replaceAll("\\+", "%20");
+    }
+
+    @Test
+    public void urlEncodeMatchesUrlEncoderWithSpacesAsPercentTwenty() throws Exception
+    {
+        String[] values =
+            {
+                "",
+                "plain-value_1.0*",
+                "a value with spaces",
+                "application/json; charset=utf-8",
+                "!\"#$%&'()+,/:;<=>?@[\\]^`{|}~",
+                "caf\u00e9 \u00fcber",
+                "\u4e2d\u6587",
+                "emoji \ud83d\ude00 pair",
+                "lone \ud83d surrogate",
+                "\u0000\u001f\u007f"
+            };
+
+        for (String value : values)
+        {
+            assertEquals(value, expectedUrlEncode(value), urlEncode(value));
+        }
+    }
+
+    @Test
+    public void buildAppendsPropertiesInOrder() throws Exception
+    {
+        // arrange
+        final MessageProperty[] messageProperties = new MessageProperty[]
+            {
+                new MessageProperty("key 1", "value 1"),
+                new MessageProperty("key2", "\u00e9")
+            };
+        new NonStrictExpectations()
+        {
+            {
+                mockedMessage.getMessageId();
+                result = "mid";
+                mockedMessage.getContentType();
+                result = "application/json";
+                mockedMessage.getContentEncoding();
+                result = "utf-8";
+                mockedMessage.getProperties();
+                result = messageProperties;
+            }
+        };
+        Object builder = createBuilder(false);
+
+        // act
+        String topic = Deencapsulation.invoke(builder, "build", mockedMessage);
+
+        // assert
+        assertEquals(BASE_TOPIC + "$.mid=mid&$.ce=utf-8&$.ct=application%2Fjson&key%201=value%201&key2=%C3%A9", topic);
+    }
+
+    @Test
+    public void buildReflectsChangedContentType() throws Exception
+    {
+        // arrange
+        new NonStrictExpectations()
+        {
+            {
+                mockedMessage.getContentType();
+                returns("application/json", "application/json", "text/plain");
+                mockedMessage.getProperties();
+                result = new MessageProperty[0];
+            }
+        };
+        Object builder = createBuilder(true);
+
+        // act
+        String firstTopic = Deencapsulation.invoke(builder, "build", mockedMessage);
+        String secondTopic = Deencapsulation.invoke(builder, "build", mockedMessage);
+        String thirdTopic = Deencapsulation.invoke(builder, "build", mockedMessage);
+
+        // assert
+        assertEquals(BASE_TOPIC + "$.ct=application%2Fjson/", firstTopic);
+        assertEquals(firstTopic, secondTopic);
+        assertEquals(BASE_TOPIC + "$.ct=text%2Fplain/", thirdTopic);
+    }
+
+    @Test
+    public void buildAppendsSecurityInterfaceIdForSecurityMessages() throws Exception
+    {
+        // arrange
+        new NonStrictExpectations()
+        {
+            {
+                mockedMessage.isSecurityMessage();
+                result = true;
+                mockedMessage.getProperties();
+                result = new MessageProperty[0];
+            }
+        };
+        Object builder = createBuilder(false);
+
+        // act
+        String topic = Deencapsulation.invoke(builder, "build", mockedMessage);
+
+        // assert
+        assertEquals(BASE_TOPIC + "$.ifid=" + expectedUrlEncode(MessageProperty.IOTHUB_SECURITY_INTERFACE_ID_VALUE), topic);
+    }
+}
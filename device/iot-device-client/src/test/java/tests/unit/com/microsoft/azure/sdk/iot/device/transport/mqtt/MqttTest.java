@@ -557,25 +557,20 @@ public class MqttTest
     **Tests_SRS_Mqtt_25_012: [If the MQTT connection is closed, the function shall throw a TransportException.]
     */
     @Test (expected = TransportException.class)
-    public void publishFailsWhenConnectionBrokenWhilePublishing(final @Mocked Message mockedMessage) throws TransportException
+    public void publishFailsWhenConnectionBrokenWhilePublishing(final @Mocked Message mockedMessage) throws TransportException, InterruptedException
     {
         //arrange
         baseConstructorExpectations();
         final byte[] payload = {0x61, 0x62, 0x63};
-        final IMqttDeliveryToken[] testTokens = {mockMqttDeliveryToken, mockMqttDeliveryToken, mockMqttDeliveryToken,
-                mockMqttDeliveryToken, mockMqttDeliveryToken, mockMqttDeliveryToken,
-                mockMqttDeliveryToken, mockMqttDeliveryToken, mockMqttDeliveryToken,
-                mockMqttDeliveryToken, mockMqttDeliveryToken, mockMqttDeliveryToken
-        };
         new NonStrictExpectations()
         {
             {
                 mockMqttAsyncClient.isConnected();
                 result = true;
-                mockMqttAsyncClient.getPendingDeliveryTokens();
-                result = testTokens;
-                mockMqttAsyncClient.isConnected();
-                result = false;
+                mockedMessage.getBytes();
+                result = payload;
+                Deencapsulation.invoke(mockedMqttConnection, "acquireInFlightSlot");
+                result = new TransportException("Connection was lost while waiting for mqtt deliveries to finish");
             }
         };
         Mqtt mockMqtt = instantiateMqtt(true);
@@ -584,6 +579,76 @@ public class MqttTest
         Deencapsulation.invoke(mockMqtt, "publish", MOCK_PARSE_TOPIC, mockedMessage);
     }
 
+    //Tests_SRS_Mqtt_25_048: [publish shall wait until fewer than the connection's maximum number of in flight messages are awaiting acknowledgement before publishing.]
+    @Test
+    public void publishAcquiresInFlightSlotBeforePublishing(final @Mocked Message mockedMessage) throws TransportException, MqttException, InterruptedException
+    {
+        //arrange
+        baseConstructorExpectations();
+        baseConnectExpectation();
+        basePublishExpectations(mockedMessage);
+        Mqtt mockMqtt = instantiateMqtt(true);
+        Deencapsulation.invoke(mockMqtt, "connect");
+
+        //act
+        Deencapsulation.invoke(mockMqtt, "publish", MOCK_PARSE_TOPIC, mockedMessage);
+
+        //assert
+        new VerificationsInOrder()
+        {
+            {
+                Deencapsulation.invoke(mockedMqttConnection, "acquireInFlightSlot");
+                times = 1;
+                mockMqttAsyncClient.publish(MOCK_PARSE_TOPIC, mockMqttMessage);
+                times = 1;
+            }
+        };
+        new Verifications()
+        {
+            {
+                Deencapsulation.invoke(mockedMqttConnection, "releaseInFlightSlot");
+                times = 0;
+            }
+        };
+    }
+
+    @Test
+    public void publishReleasesInFlightSlotIfPublishFails(final @Mocked Message mockedMessage) throws TransportException, MqttException
+    {
+        //arrange
+        baseConstructorExpectations();
+        baseConnectExpectation();
+        basePublishExpectations(mockedMessage);
+        new NonStrictExpectations()
+        {
+            {
+                mockMqttAsyncClient.publish(MOCK_PARSE_TOPIC, mockMqttMessage);
+                result = mockMqttException;
+            }
+        };
+        Mqtt mockMqtt = instantiateMqtt(true);
+        Deencapsulation.invoke(mockMqtt, "connect");
+
+        //act
+        try
+        {
+            Deencapsulation.invoke(mockMqtt, "publish", MOCK_PARSE_TOPIC, mockedMessage);
+            fail("Expected publish to throw");
+        }
+        catch (Exception expected)
+        {
+            // expected
+        }
+
+        //assert
+        new Verifications()
+        {
+            {
+                Deencapsulation.invoke(mockedMqttConnection, "releaseInFlightSlot");
+                times = 1;
+            }
+        };
+    }
 
     /*
     **Tests_SRS_Mqtt_25_014: [The function shall publish message payload on the publishTopic specified to the IoT Hub given in the configuration.]
@@ -1335,6 +1400,7 @@ public class MqttTest
     }
 
     //Tests_SRS_Mqtt_34_042: [If this object has a saved listener, that listener shall be notified of the successfully delivered message.]
+    //Tests_SRS_Mqtt_25_049: [This method shall free the in flight slot held by the acknowledged message.]
     @Test
     public void deliveryCompleteNotifiesListener() throws TransportException
     {
@@ -1366,6 +1432,8 @@ public class MqttTest
             {
                 mockedIotHubListener.onMessageSent(expectedMessage, null);
                 times = 1;
+                Deencapsulation.invoke(mockedMqttConnection, "releaseInFlightSlot");
+                times = 1;
                 mockedIotHubListener.onMessageSent(otherMessage, null);
                 times = 0;
             }
@@ -0,0 +1,127 @@
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+
+package tests.unit.com.microsoft.azure.sdk.iot.device.transport.mqtt;
+
+import mockit.Deencapsulation;
+import org.junit.Test;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/*
+ * Unit tests for MqttTopicParser.java
+ */
+public class MqttTopicParserTest
+{
+    private static final String PARSER_CLASS_NAME = "com.microsoft.azure.sdk.iot.device.transport.mqtt.MqttTopicParser";
+
+    private static Class<?> parserClass() throws Exception
+    {
+        return Class.forName(PARSER_CLASS_NAME);
+    }
+
+    private static String getToken(String topic, int tokenIndex) throws Exception
+    {
+        return Deencapsulation.invoke(parserClass(), "getToken", topic, tokenIndex);
+    }
+
+    private static String getQueryParameter(String topic, String key) throws Exception
+    {
+        return Deencapsulation.invoke(parserClass(), "getQueryParameter", topic, key);
+    }
+
+    private static String urlDecode(String value) throws Exception
+    {
+        return Deencapsulation.invoke(parserClass(), "urlDecode", value, 0, value.length());
+    }
+
+    @Test
+    public void getTokenReturnsTokensOfTwinResponseTopic() throws Exception
+    {
+        // arrange
+        String topic = "$iothub/twin/res/200/?$rid=5&$version=7";
+
+        // act & assert
+        assertEquals("$iothub", getToken(topic, 0));
+        assertEquals("res", getToken(topic, 2));
+        assertEquals("200", getToken(topic, 3));
+        assertEquals("?$rid=5&$version=7", getToken(topic, 4));
+        assertNull(getToken(topic, 5));
+    }
+
+    @Test
+    public void getTokenReturnsNullForEmptyToken() throws Exception
+    {
+        // arrange
+        String topic = "$iothub/twin/res/200/";
+
+        // act & assert
+        assertNull(getToken(topic, 4));
+    }
+
+    @Test
+    public void getTokenStopsAtEnd() throws Exception
+    {
+        // arrange
+        String topic = "devices/device/modules/module/%24.mid=1";
+        int end = topic.indexOf("%24");
+
+        // act
+        String moduleId = Deencapsulation.invoke(parserClass(), "getToken", topic, 3, end);
+        String propertiesToken = Deencapsulation.invoke(parserClass(), "getToken", topic, 4, end);
+
+        // assert
+        assertEquals("module", moduleId);
+        assertNull(propertiesToken);
+    }
+
+    @Test
+    public void getQueryParameterReturnsRequestIdAndVersionInAnyOrder() throws Exception
+    {
+        // act & assert
+        assertEquals("5", getQueryParameter("$iothub/twin/res/200/?$rid=5&$version=7", "$rid"));
+        assertEquals("7", getQueryParameter("$iothub/twin/res/200/?$rid=5&$version=7", "$version"));
+        assertEquals("5", getQueryParameter("$iothub/twin/res/200/?$version=7&$rid=5", "$rid"));
+        assertEquals("7", getQueryParameter("$iothub/twin/res/200/?$version=7&$rid=5", "$version"));
+        assertEquals("12", getQueryParameter("$iothub/methods/POST/testMethod/?$rid=12", "$rid"));
+    }
+
+    @Test
+    public void getQueryParameterReturnsNullIfAbsent() throws Exception
+    {
+        // act & assert
+        assertNull(getQueryParameter("$iothub/twin/res/204/?$rid=5", "$version"));
+        assertNull(getQueryParameter("$iothub/twin/res/204/", "$rid"));
+        assertNull(getQueryParameter("$iothub/twin/res/204/?$ridx=5", "$rid"));
+        assertNull(getQueryParameter("$iothub/twin/res/204/?$ri", "$rid"));
+    }
+
+    @Test
+    public void urlDecodeMatchesUrlDecoder() throws Exception
+    {
+        String[] values =
+            {
+                "",
+                "plain",
+                "%24.mid",
+                "a+b%20c",
+                "%C3%A9%E4%B8%AD",
+                "%26%25%24"
+            };
+
+        for (String value : values)
+        {
+            assertEquals(value, URLDecoder.decode(value, StandardCharsets.UTF_8.name()), urlDecode(value));
+        }
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void urlDecodeThrowsForInvalidEscape() throws Exception
+    {
+        urlDecode("bad%zz");
+    }
+}
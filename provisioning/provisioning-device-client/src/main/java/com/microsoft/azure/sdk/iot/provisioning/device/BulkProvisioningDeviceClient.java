@@ -0,0 +1,200 @@
+/*
+ *
+ *  Copyright (c) Microsoft. All rights reserved.
+ *  Licensed under the MIT license. See LICENSE file in the project root for full license information.
+ *
+ */
+
+package com.microsoft.azure.sdk.iot.provisioning.device;
+
+import com.microsoft.azure.sdk.iot.provisioning.device.internal.ProvisioningDeviceClientConfig;
+import com.microsoft.azure.sdk.iot.provisioning.device.internal.contract.ProvisioningDeviceClientContract;
+import com.microsoft.azure.sdk.iot.provisioning.device.internal.exceptions.ProvisioningDeviceClientException;
+import com.microsoft.azure.sdk.iot.provisioning.device.internal.task.ProvisioningTask;
+import com.microsoft.azure.sdk.iot.provisioning.security.SecurityProvider;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Registers many devices with the service concurrently, on a bounded number of threads shared by all the registrations.
+ *
+ * <p> A {@link ProvisioningDeviceClient} starts three threads for each registration, which limits how many devices a
+ *     single host can provision at once. This client runs at most {@code maxConcurrentRegistrations} registrations at
+ *     a time, using two threads for each of them whatever the number of devices, and queues the others.
+ *
+ * <p> Each registration still opens its own connection to the service, since the service authenticates the device on
+ *     the connection for all the protocols. The number of concurrent registrations therefore also bounds the number of
+ *     open connections.
+ */
+@Slf4j
+public class BulkProvisioningDeviceClient
+{
+    private final String globalEndpoint;
+    private final String idScope;
+    private final ProvisioningDeviceClientTransportProtocol protocol;
+
+    // Each registration blocks its thread of the first executor while it waits for its register and status tasks
+    // to run on the second one, so they cannot share the same executor without risking a deadlock
+    private final ExecutorService registrationExecutor;
+    private final ExecutorService taskExecutor;
+
+    /**
+     * Creates an instance of BulkProvisioningDeviceClient
+     * @param globalEndpoint global endpoint for the service to connect to. Cannot be {@code null}.
+     * @param idScope IdScope for the instance of the service hosted by you. Cannot be {@code null}.
+     * @param protocol Protocol to communicate with the service onto. Cannot be {@code null}.
+     * @param maxConcurrentRegistrations Maximum number of registrations in progress at the same time. Must be greater than 0.
+     * @return An instance of BulkProvisioningDeviceClient
+     */
+    public static BulkProvisioningDeviceClient create(String globalEndpoint, String idScope, ProvisioningDeviceClientTransportProtocol protocol, int maxConcurrentRegistrations)
+    {
+        return new BulkProvisioningDeviceClient(globalEndpoint, idScope, protocol, maxConcurrentRegistrations);
+    }
+
+    private BulkProvisioningDeviceClient(String globalEndpoint, String idScope, ProvisioningDeviceClientTransportProtocol protocol, int maxConcurrentRegistrations)
+    {
+        if (globalEndpoint == null || globalEndpoint.isEmpty())
+        {
+            throw new IllegalArgumentException("global endpoint cannot be null or empty");
+        }
+
+        if (idScope == null || idScope.isEmpty())
+        {
+            throw new IllegalArgumentException("scope id cannot be null or empty");
+        }
+
+        if (protocol == null)
+        {
+            throw new IllegalArgumentException("protocol cannot be null");
+        }
+
+        if (maxConcurrentRegistrations <= 0)
+        {
+            throw new IllegalArgumentException("maximum number of concurrent registrations must be greater than 0");
+        }
+
+        this.globalEndpoint = globalEndpoint;
+        this.idScope = idScope;
+        this.protocol = protocol;
+        this.registrationExecutor = Executors.newFixedThreadPool(maxConcurrentRegistrations);
+        this.taskExecutor = Executors.newFixedThreadPool(maxConcurrentRegistrations);
+    }
+
+    /**
+     * Register's the devices with the service, and provides you with the iothub uri and the registered device of each
+     * of them, along with the time that each registration took and the throughput of the whole operation.
+     * @param securityProviders Security Providers for X509, TPM or symmetric key flow of the devices to register.
+     *                          Cannot be {@code null} or contain {@code null}.
+     * @return A future that completes with the results of all the registrations once they all completed, whether they
+     *         succeeded or not.
+     */
+    public CompletableFuture<BulkProvisioningResult> registerDevices(Iterable<? extends SecurityProvider> securityProviders)
+    {
+        if (securityProviders == null)
+        {
+            throw new IllegalArgumentException("security providers cannot be null");
+        }
+
+        final long startTime = System.currentTimeMillis();
+        final List<CompletableFuture<BulkProvisioningDeviceResult>> deviceResults = new ArrayList<>();
+        for (SecurityProvider securityProvider : securityProviders)
+        {
+            if (securityProvider == null)
+            {
+                throw new IllegalArgumentException("security providers cannot contain null");
+            }
+
+            deviceResults.add(this.registerDevice(securityProvider));
+        }
+
+        log.debug("Queued {} device registrations", deviceResults.size());
+        return CompletableFuture.allOf(deviceResults.toArray(new CompletableFuture[deviceResults.size()]))
+                .thenApply(v ->
+                {
+                    List<BulkProvisioningDeviceResult> results = new ArrayList<>(deviceResults.size());
+                    for (CompletableFuture<BulkProvisioningDeviceResult> deviceResult : deviceResults)
+                    {
+                        results.add(deviceResult.join());
+                    }
+
+                    return new BulkProvisioningResult(results, System.currentTimeMillis() - startTime);
+                });
+    }
+
+    /**
+     * Closes all the executors opened by the client if they have not already closed. Registrations that are still in
+     * progress are interrupted, and the ones that did not start yet are reported as failed.
+     */
+    public void closeNow()
+    {
+        if (!registrationExecutor.isTerminated())
+        {
+            for (Runnable queuedRegistration : registrationExecutor.shutdownNow())
+            {
+                ((DeviceRegistration) queuedRegistration).complete(null,
+                        new ProvisioningDeviceClientException("Registration cancelled since the client was closed"));
+            }
+        }
+
+        if (!taskExecutor.isTerminated())
+        {
+            taskExecutor.shutdownNow();
+        }
+    }
+
+    private CompletableFuture<BulkProvisioningDeviceResult> registerDevice(SecurityProvider securityProvider)
+    {
+        DeviceRegistration deviceRegistration = new DeviceRegistration(securityProvider);
+        this.registrationExecutor.execute(deviceRegistration);
+        return deviceRegistration.deviceResult;
+    }
+
+    private class DeviceRegistration implements Runnable
+    {
+        private final SecurityProvider securityProvider;
+        private final CompletableFuture<BulkProvisioningDeviceResult> deviceResult = new CompletableFuture<>();
+        private long registrationStartTime;
+
+        private DeviceRegistration(SecurityProvider securityProvider)
+        {
+            this.securityProvider = securityProvider;
+        }
+
+        @Override
+        public void run()
+        {
+            this.registrationStartTime = System.currentTimeMillis();
+            try
+            {
+                ProvisioningDeviceClientConfig config = new ProvisioningDeviceClientConfig();
+                config.setProvisioningServiceGlobalEndpoint(globalEndpoint);
+                config.setIdScope(idScope);
+                config.setProtocol(protocol);
+                config.setSecurityProvider(this.securityProvider);
+                config.setRegistrationCallback((result, e, context) -> this.complete(result, e), null);
+
+                ProvisioningDeviceClientContract contract = ProvisioningDeviceClientContract.createProvisioningContract(config);
+                new ProvisioningTask(config, contract, taskExecutor).call();
+            }
+            catch (Exception e)
+            {
+                // Does nothing if the registration callback already reported the result
+                this.complete(null, e);
+            }
+
+            this.complete(null, new ProvisioningDeviceClientException("Registration completed without a result"));
+        }
+
+        private void complete(ProvisioningDeviceClientRegistrationResult registrationResult, Exception exception)
+        {
+            // Only the first result of the registration is kept
+            long latencyInMS = this.registrationStartTime == 0 ? 0 : System.currentTimeMillis() - this.registrationStartTime;
+            this.deviceResult.complete(new BulkProvisioningDeviceResult(this.securityProvider, registrationResult, exception, latencyInMS));
+        }
+    }
+}
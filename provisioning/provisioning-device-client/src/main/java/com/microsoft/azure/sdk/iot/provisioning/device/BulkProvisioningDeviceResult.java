@@ -0,0 +1,77 @@
+/*
+ *
+ *  Copyright (c) Microsoft. All rights reserved.
+ *  Licensed under the MIT license. See LICENSE file in the project root for full license information.
+ *
+ */
+
+package com.microsoft.azure.sdk.iot.provisioning.device;
+
+import com.microsoft.azure.sdk.iot.provisioning.security.SecurityProvider;
+
+/**
+ * Result of the registration of one of the devices of a {@link BulkProvisioningDeviceClient#registerDevices(Iterable)}.
+ */
+public class BulkProvisioningDeviceResult
+{
+    private final SecurityProvider securityProvider;
+    private final ProvisioningDeviceClientRegistrationResult registrationResult;
+    private final Exception exception;
+    private final long latencyInMS;
+
+    BulkProvisioningDeviceResult(SecurityProvider securityProvider, ProvisioningDeviceClientRegistrationResult registrationResult, Exception exception, long latencyInMS)
+    {
+        this.securityProvider = securityProvider;
+        this.registrationResult = registrationResult;
+        this.exception = exception;
+        this.latencyInMS = latencyInMS;
+    }
+
+    /**
+     * Getter for the Security Provider of the device.
+     * @return Returns the Security Provider that was registered.
+     */
+    public SecurityProvider getSecurityProvider()
+    {
+        return securityProvider;
+    }
+
+    /**
+     * Getter for the registration result, which holds the iothub uri and the registered device.
+     * @return Returns the registration result. Can be {@code null} when the registration did not start or failed
+     *         before reaching the service.
+     */
+    public ProvisioningDeviceClientRegistrationResult getRegistrationResult()
+    {
+        return registrationResult;
+    }
+
+    /**
+     * Getter for the exception that was caused during registration process.
+     * @return Returns the exception. Can be {@code null} when the registration succeeded.
+     */
+    public Exception getException()
+    {
+        return exception;
+    }
+
+    /**
+     * Getter for the time the registration took, from the moment it started until the service assigned the device or
+     * the registration failed. The time the registration was queued waiting for a thread is not included.
+     * @return Returns the registration latency in milliseconds.
+     */
+    public long getLatencyInMS()
+    {
+        return latencyInMS;
+    }
+
+    /**
+     * @return {@code true} if the service assigned the device to an iothub.
+     */
+    public boolean isAssigned()
+    {
+        return exception == null
+                && registrationResult != null
+                && registrationResult.getProvisioningDeviceClientStatus() == ProvisioningDeviceClientStatus.PROVISIONING_DEVICE_STATUS_ASSIGNED;
+    }
+}
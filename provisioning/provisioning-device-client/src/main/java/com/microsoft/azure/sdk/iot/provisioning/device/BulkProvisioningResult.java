@@ -0,0 +1,107 @@
+/*
+ *
+ *  Copyright (c) Microsoft. All rights reserved.
+ *  Licensed under the MIT license. See LICENSE file in the project root for full license information.
+ *
+ */
+
+package com.microsoft.azure.sdk.iot.provisioning.device;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Results of a {@link BulkProvisioningDeviceClient#registerDevices(Iterable)}, with the result of each device in the
+ * order of their Security Providers, and the throughput of the whole operation.
+ */
+public class BulkProvisioningResult
+{
+    private final List<BulkProvisioningDeviceResult> deviceResults;
+    private final long elapsedTimeInMS;
+
+    BulkProvisioningResult(List<BulkProvisioningDeviceResult> deviceResults, long elapsedTimeInMS)
+    {
+        this.deviceResults = Collections.unmodifiableList(deviceResults);
+        this.elapsedTimeInMS = elapsedTimeInMS;
+    }
+
+    /**
+     * Getter for the result of each device.
+     * @return Returns the results, in the order of the Security Providers that were registered.
+     */
+    public List<BulkProvisioningDeviceResult> getDeviceResults()
+    {
+        return deviceResults;
+    }
+
+    /**
+     * Getter for the number of devices that the service assigned to an iothub.
+     * @return Returns the number of successful registrations.
+     */
+    public int getAssignedCount()
+    {
+        int assignedCount = 0;
+        for (BulkProvisioningDeviceResult deviceResult : deviceResults)
+        {
+            if (deviceResult.isAssigned())
+            {
+                assignedCount++;
+            }
+        }
+
+        return assignedCount;
+    }
+
+    /**
+     * Getter for the time all the registrations took, from the moment they were queued until the last one completed.
+     * @return Returns the elapsed time in milliseconds.
+     */
+    public long getElapsedTimeInMS()
+    {
+        return elapsedTimeInMS;
+    }
+
+    /**
+     * Getter for the throughput of the operation.
+     * @return Returns the number of registrations completed per second, whether they succeeded or not.
+     */
+    public double getRegistrationsPerSecond()
+    {
+        return deviceResults.size() * 1000.0 / Math.max(1, elapsedTimeInMS);
+    }
+
+    /**
+     * Getter for the average registration latency.
+     * @return Returns the average of the latency of all the registrations in milliseconds, or 0 if there is none.
+     */
+    public long getAverageLatencyInMS()
+    {
+        if (deviceResults.isEmpty())
+        {
+            return 0;
+        }
+
+        long totalLatencyInMS = 0;
+        for (BulkProvisioningDeviceResult deviceResult : deviceResults)
+        {
+            totalLatencyInMS += deviceResult.getLatencyInMS();
+        }
+
+        return totalLatencyInMS / deviceResults.size();
+    }
+
+    /**
+     * Getter for the maximum registration latency.
+     * @return Returns the latency of the slowest registration in milliseconds, or 0 if there is none.
+     */
+    public long getMaxLatencyInMS()
+    {
+        long maxLatencyInMS = 0;
+        for (BulkProvisioningDeviceResult deviceResult : deviceResults)
+        {
+            maxLatencyInMS = Math.max(maxLatencyInMS, deviceResult.getLatencyInMS());
+        }
+
+        return maxLatencyInMS;
+    }
+}
@@ -15,6 +15,7 @@ import com.microsoft.azure.sdk.iot.provisioning.security.SecurityProvider;
 import com.microsoft.azure.sdk.iot.provisioning.device.AdditionalData;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -132,6 +133,35 @@ public class ProvisioningDeviceClient
         executor.submit(provisioningTask);
     }
 
+    /**
+     * Register's a device with the service, completing the returned future with the iothub uri and the registered device
+     * as soon as the service responds.
+     * @return A future that completes with the registration result, or exceptionally with any exception that was caused
+     *         during registration process.
+     * @throws ProvisioningDeviceClientException if any of the underlying API calls fail to process.
+     */
+    public CompletableFuture<ProvisioningDeviceClientRegistrationResult> registerAsync() throws ProvisioningDeviceClientException
+    {
+        CompletableFuture<ProvisioningDeviceClientRegistrationResult> future = new CompletableFuture<>();
+        this.registerDevice(new RegistrationFutureCallback(), future);
+        return future;
+    }
+
+    /**
+     * Register's a device with the service, completing the returned future with the iothub uri and the registered device
+     * as soon as the service responds.
+     * @param additionalData Additional data for device registration.
+     * @return A future that completes with the registration result, or exceptionally with any exception that was caused
+     *         during registration process.
+     * @throws ProvisioningDeviceClientException if any of the underlying API calls fail to process.
+     */
+    public CompletableFuture<ProvisioningDeviceClientRegistrationResult> registerAsync(AdditionalData additionalData) throws ProvisioningDeviceClientException
+    {
+        CompletableFuture<ProvisioningDeviceClientRegistrationResult> future = new CompletableFuture<>();
+        this.registerDevice(new RegistrationFutureCallback(), future, additionalData);
+        return future;
+    }
+
     /**
      * Closes all the executors opened by the client if they have not already closed.
      */
@@ -143,4 +173,22 @@ public class ProvisioningDeviceClient
             executor.shutdownNow();
         }
     }
+
+    private static class RegistrationFutureCallback implements ProvisioningDeviceClientRegistrationCallback
+    {
+        @Override
+        @SuppressWarnings("unchecked")
+        public void run(ProvisioningDeviceClientRegistrationResult provisioningDeviceClientRegistrationResult, Exception e, Object context)
+        {
+            CompletableFuture<ProvisioningDeviceClientRegistrationResult> future = (CompletableFuture<ProvisioningDeviceClientRegistrationResult>) context;
+            if (e != null)
+            {
+                future.completeExceptionally(e);
+            }
+            else
+            {
+                future.complete(provisioningDeviceClientRegistrationResult);
+            }
+        }
+    }
 }
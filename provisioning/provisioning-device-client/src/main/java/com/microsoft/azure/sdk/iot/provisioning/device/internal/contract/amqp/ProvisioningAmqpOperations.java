@@ -30,15 +30,18 @@ public class ProvisioningAmqpOperations extends AmqpDeviceOperations implements
 
     private static final int MAX_WAIT_TO_SEND_MSG = 1*60*1000; // 1 minute timeout
     private static final long MAX_WAIT_TO_OPEN_AMQP_CONNECTION = 1*60*1000; //1 minute timeout
+    // The connection only signals when it opens, so failures to open are checked for this often
+    private static final long MAX_WAIT_BETWEEN_AMQP_CONNECTION_CHECKS = 1000;
 
     private AmqpsConnection amqpConnection;
     private final Queue<AmqpMessage> receivedMessages = new LinkedBlockingQueue<>();
     private final ObjectLock receiveLock = new ObjectLock();
+    private final ObjectLock openLock = new ObjectLock();
 
     private Map<String, Object> messageAppProperties;
     private String idScope;
     private String hostName;
-    private String messageSendFailedExceptionMessage;
+    private volatile String messageSendFailedExceptionMessage;
 
     /**
      * Constructor for ProvisioningAmqpOperation that handle the AMQP transport for provisioning
@@ -107,6 +110,22 @@ public class ProvisioningAmqpOperations extends AmqpDeviceOperations implements
         }
     }
 
+    private void waitForResponse() throws InterruptedException
+    {
+        // The response may arrive before this thread starts waiting, so wait only while there is none, and return as
+        // soon as it is received rather than after the whole timeout
+        long waitEndTime = System.currentTimeMillis() + MAX_WAIT_TO_SEND_MSG;
+        synchronized (this.receiveLock)
+        {
+            long remainingTime = MAX_WAIT_TO_SEND_MSG;
+            while (this.receivedMessages.size() == 0 && this.messageSendFailedExceptionMessage == null && remainingTime > 0)
+            {
+                this.receiveLock.waitLock(remainingTime);
+                remainingTime = waitEndTime - System.currentTimeMillis();
+            }
+        }
+    }
+
     /**
      * Determines if the AMQP connect is up
      * @return boolean true is connected false otherwise
@@ -223,10 +242,7 @@ public class ProvisioningAmqpOperations extends AmqpDeviceOperations implements
         try
         {
             // SRS_ProvisioningAmqpOperations_07_017: [This method shall wait for the response of this message for MAX_WAIT_TO_SEND_MSG and call the responseCallback with the reply.]
-            synchronized (this.receiveLock)
-            {
-                this.receiveLock.waitLock(MAX_WAIT_TO_SEND_MSG);
-            }
+            this.waitForResponse();
 
             if (this.messageSendFailedExceptionMessage != null)
             {
@@ -257,15 +273,18 @@ public class ProvisioningAmqpOperations extends AmqpDeviceOperations implements
             throw new ProvisioningDeviceClientException("responseCallback cannot be null");
         }
 
-        //wait for AMQP connection to be opened
+        //wait for AMQP connection to be opened, returning as soon as connectionEstablished is called
         long millisecondsElapsed = 0;
         long waitStartTime = System.currentTimeMillis();
         try
         {
-            while (!this.amqpConnection.isConnected() && millisecondsElapsed < MAX_WAIT_TO_OPEN_AMQP_CONNECTION)
+            synchronized (this.openLock)
             {
-                Thread.sleep(1000);
-                millisecondsElapsed = System.currentTimeMillis() - waitStartTime;
+                while (!this.amqpConnection.isConnected() && millisecondsElapsed < MAX_WAIT_TO_OPEN_AMQP_CONNECTION)
+                {
+                    this.openLock.waitLock(Math.min(MAX_WAIT_BETWEEN_AMQP_CONNECTION_CHECKS, MAX_WAIT_TO_OPEN_AMQP_CONNECTION - millisecondsElapsed));
+                    millisecondsElapsed = System.currentTimeMillis() - waitStartTime;
+                }
             }
         }
         catch (Exception e)
@@ -284,10 +303,7 @@ public class ProvisioningAmqpOperations extends AmqpDeviceOperations implements
         try
         {
             // SRS_ProvisioningAmqpOperations_07_011: [This method shall wait for the response of this message for MAX_WAIT_TO_SEND_MSG and call the responseCallback with the reply.]
-            synchronized (this.receiveLock)
-            {
-                this.receiveLock.waitLock(MAX_WAIT_TO_SEND_MSG);
-            }
+            this.waitForResponse();
 
             if (this.messageSendFailedExceptionMessage != null)
             {
@@ -313,10 +329,14 @@ public class ProvisioningAmqpOperations extends AmqpDeviceOperations implements
     }
 
     /**
-     * connectionEstablished Unused
+     * Function that gets called when the amqp connection is opened
      */
     public void connectionEstablished()
     {
+        synchronized (this.openLock)
+        {
+            this.openLock.notifyLock();
+        }
     }
 
     /**
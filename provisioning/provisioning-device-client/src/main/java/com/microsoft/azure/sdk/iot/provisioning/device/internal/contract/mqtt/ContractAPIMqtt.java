@@ -39,7 +39,7 @@ public class ContractAPIMqtt extends ProvisioningDeviceClientContract implements
     private final ObjectLock receiveLock = new ObjectLock();
     private final Queue<MqttMessage> receivedMessages = new LinkedBlockingQueue<>();
 
-    private Throwable lostConnection = null;
+    private volatile Throwable lostConnection = null;
 
     /**
      * This constructor creates an instance of Mqtt class and initializes member variables
@@ -78,9 +78,17 @@ public class ContractAPIMqtt extends ProvisioningDeviceClientContract implements
         try
         {
             // SRS_ProvisioningAmqpOperations_07_011: [This method shall wait for the response of this message for MAX_WAIT_TO_SEND_MSG and call the responseCallback with the reply.]
+            // The response may arrive before this thread starts waiting, so wait only while there is none, and return
+            // as soon as it is received rather than after the whole timeout
+            long waitEndTime = System.currentTimeMillis() + MAX_WAIT_TO_SEND_MSG;
             synchronized (this.receiveLock)
             {
-                this.receiveLock.waitLock(MAX_WAIT_TO_SEND_MSG);
+                long remainingTime = MAX_WAIT_TO_SEND_MSG;
+                while (this.receivedMessages.isEmpty() && this.lostConnection == null && remainingTime > 0)
+                {
+                    this.receiveLock.waitLock(remainingTime);
+                    remainingTime = waitEndTime - System.currentTimeMillis();
+                }
             }
             if (this.receivedMessages.size() > 0)
             {
@@ -365,5 +373,10 @@ public class ContractAPIMqtt extends ProvisioningDeviceClientContract implements
     public void connectionLost(Throwable throwable)
     {
         lostConnection = throwable;
+        synchronized (this.receiveLock)
+        {
+            // No response will come over this connection, so wake up the thread waiting for one
+            this.receiveLock.notifyLock();
+        }
     }
 }
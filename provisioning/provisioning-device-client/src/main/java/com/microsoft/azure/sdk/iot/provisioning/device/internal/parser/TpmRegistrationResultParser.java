@@ -8,9 +8,9 @@
 package com.microsoft.azure.sdk.iot.provisioning.device.internal.parser;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.JsonSyntaxException;
 import com.google.gson.annotations.SerializedName;
+import com.microsoft.azure.sdk.iot.deps.serializer.GsonProvider;
 
 /**
  *  Class for the representation of TpmRegistration
@@ -51,7 +51,7 @@ public class TpmRegistrationResultParser
             throw new IllegalArgumentException("JSON is null or empty");
         }
 
-        Gson gson = new GsonBuilder().disableHtmlEscaping().create();
+        Gson gson = GsonProvider.getGsonWithoutHtmlEscaping();
         TpmRegistrationResultParser tpmRegistrationResultParserParser = null;
 
         try
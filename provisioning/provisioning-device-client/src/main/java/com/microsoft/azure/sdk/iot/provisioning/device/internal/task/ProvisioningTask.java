@@ -48,6 +48,7 @@ public class ProvisioningTask implements Callable
     private ProvisioningDeviceClientStatus dpsStatus = null;
 
     private ExecutorService executor;
+    private final boolean isExecutorShared;
 
     /**
      * Constructor for creating a provisioning task
@@ -57,6 +58,23 @@ public class ProvisioningTask implements Callable
      */
     public ProvisioningTask(ProvisioningDeviceClientConfig provisioningDeviceClientConfig,
                             ProvisioningDeviceClientContract provisioningDeviceClientContract) throws ProvisioningDeviceClientException
+    {
+        this(provisioningDeviceClientConfig, provisioningDeviceClientContract, null);
+    }
+
+    /**
+     * Constructor for creating a provisioning task that runs its register and status tasks on the provided executor
+     * instead of starting its own threads. The executor is not shut down when this task completes.
+     * @param provisioningDeviceClientConfig Config that contains details pertaining to Service
+     * @param provisioningDeviceClientContract Contract with the service over the specified protocol
+     * @param executor Executor shared by many provisioning tasks. It must not be the executor that runs this task, and
+     *                 needs one thread per provisioning task running concurrently. If {@code null}, this task starts its
+     *                 own threads.
+     * @throws ProvisioningDeviceClientException If any of the input parameters are invalid then this exception is thrown
+     */
+    public ProvisioningTask(ProvisioningDeviceClientConfig provisioningDeviceClientConfig,
+                            ProvisioningDeviceClientContract provisioningDeviceClientContract,
+                            ExecutorService executor) throws ProvisioningDeviceClientException
     {
         if (provisioningDeviceClientContract == null)
         {
@@ -89,8 +107,16 @@ public class ProvisioningTask implements Callable
         }
 
         this.authorization = new Authorization();
-        //SRS_ProvisioningTask_25_015: [ Constructor shall start the executor with a fixed thread pool of size 2.]
-        this.executor = Executors.newFixedThreadPool(MAX_THREADS_TO_RUN);
+        this.isExecutorShared = executor != null;
+        if (this.isExecutorShared)
+        {
+            this.executor = executor;
+        }
+        else
+        {
+            //SRS_ProvisioningTask_25_015: [ Constructor shall start the executor with a fixed thread pool of size 2.]
+            this.executor = Executors.newFixedThreadPool(MAX_THREADS_TO_RUN);
+        }
     }
 
     private void invokeRegistrationCallback(RegistrationResult registrationInfo, Exception e) throws ProvisioningDeviceClientException
@@ -317,7 +343,7 @@ public class ProvisioningTask implements Callable
     {
         provisioningDeviceClientContract.close();
         //SRS_ProvisioningTask_25_014: [ This method shall shutdown the executors if they have not already shutdown. ]
-        if (executor != null && !executor.isShutdown())
+        if (executor != null && !isExecutorShared && !executor.isShutdown())
         {
             executor.shutdownNow();
         }
@@ -37,7 +37,6 @@ import static com.microsoft.azure.sdk.iot.provisioning.device.internal.task.Cont
 public class RegisterTask implements Callable
 {
     private static int MAX_WAIT_FOR_REGISTRATION_RESPONSE = 90*1000; // 90 seconds
-    private static final int SLEEP_INTERVAL_WHEN_WAITING_FOR_RESPONSE = 4*1000; //4 seconds
     private static final int DEFAULT_EXPIRY_TIME_IN_SECS = 3600; // 1 Hour
     private static final String SASTOKEN_FORMAT = "SharedAccessSignature sr=%s&sig=%s&se=%s&skn=";
     private static final String THREAD_NAME = "azure-iot-sdk-RegisterTask";
@@ -56,8 +55,9 @@ public class RegisterTask implements Callable
             {
                 ResponseData data = (ResponseData) context;
                 data.setResponseData(responseData.getResponseData());
-                data.setContractState(responseData.getContractState());
                 data.setWaitForStatusInMS(responseData.getWaitForStatusInMS());
+                // Setting the state last wakes up the task waiting for this response
+                data.setContractState(responseData.getContractState());
             }
             else
             {
@@ -115,7 +115,7 @@ public class RegisterTask implements Callable
             ResponseData dpsRegistrationData = new ResponseData();
             this.provisioningDeviceClientContract.authenticateWithProvisioningService(requestData, responseCallback, dpsRegistrationData);
 
-            waitForResponse(dpsRegistrationData);
+            dpsRegistrationData.waitForResponse(MAX_WAIT_FOR_REGISTRATION_RESPONSE);
 
             if (dpsRegistrationData.getResponseData() != null && dpsRegistrationData.getContractState() == DPS_REGISTRATION_RECEIVED)
             {
@@ -199,7 +199,7 @@ public class RegisterTask implements Callable
             //SRS_RegisterTask_25_016: [ If the provided security client is for Key then, this method shall trigger authenticateWithProvisioningService on the contract API using the sasToken generated and wait for response and return it. ]
             ResponseData responseDataForSasTokenAuth = new ResponseData();
             this.provisioningDeviceClientContract.authenticateWithProvisioningService(requestData, responseCallback, responseDataForSasTokenAuth);
-            waitForResponse(responseDataForSasTokenAuth);
+            responseDataForSasTokenAuth.waitForResponse(MAX_WAIT_FOR_REGISTRATION_RESPONSE);
 
             if (responseDataForSasTokenAuth.getResponseData() != null &&
                     responseDataForSasTokenAuth.getContractState() == DPS_REGISTRATION_RECEIVED)
@@ -237,7 +237,7 @@ public class RegisterTask implements Callable
                 log.debug("Requesting service nonce for tpm authentication");
                 this.provisioningDeviceClientContract.requestNonceForTPM(requestData, responseCallback, nonceResponseData);
 
-                waitForResponse(nonceResponseData);
+                nonceResponseData.waitForResponse(MAX_WAIT_FOR_REGISTRATION_RESPONSE);
 
                 if (nonceResponseData.getContractState() == DPS_REGISTRATION_RECEIVED)
                 {
@@ -339,21 +339,4 @@ public class RegisterTask implements Callable
         Thread.currentThread().setName(THREAD_NAME);
         return this.authenticateWithDPS();
     }
-
-    /**
-     * Busy waits for the provided responseData to be populated or for a timeout to occur
-     * @param responseData the responseData object to periodically check for response data
-     * @throws InterruptedException if an interrupted exception is thrown while this thread sleeps
-     */
-    private void waitForResponse(ResponseData responseData) throws InterruptedException
-    {
-        long millisecondsElapsed = 0;
-        long waitTimeStart = System.currentTimeMillis();
-        while (responseData.getContractState() != DPS_REGISTRATION_RECEIVED
-                && millisecondsElapsed < MAX_WAIT_FOR_REGISTRATION_RESPONSE)
-        {
-            Thread.sleep(SLEEP_INTERVAL_WHEN_WAITING_FOR_RESPONSE);
-            millisecondsElapsed = System.currentTimeMillis() - waitTimeStart;
-        }
-    }
 }
@@ -61,7 +61,7 @@ public class ResponseData
      * Getter for the contract state
      * @return Returns the value of contract state
      */
-    ContractState getContractState()
+    synchronized ContractState getContractState()
     {
         //SRS_ResponseData_25_005: [ This method shall return the saved value of contractState. ]
         return contractState;
@@ -71,10 +71,30 @@ public class ResponseData
      * Setter for the contract state
      * @param contractState Sets the value of Contract state
      */
-    public void setContractState(ContractState contractState)
+    public synchronized void setContractState(ContractState contractState)
     {
         //SRS_ResponseData_25_004: [ This method shall save the value of contractState. ]
         this.contractState = contractState;
+
+        // Wake up the task waiting for this response, if any
+        this.notifyAll();
+    }
+
+    /**
+     * Waits until the contract state is set to received, or for a timeout to occur. Returns as soon as the response
+     * is received, so the contract state shall be set after the other values of the response.
+     * @param timeoutInMS Maximum time to wait, in milliseconds.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    synchronized void waitForResponse(long timeoutInMS) throws InterruptedException
+    {
+        long waitTimeEnd = System.currentTimeMillis() + timeoutInMS;
+        long remainingTime = timeoutInMS;
+        while (this.contractState != ContractState.DPS_REGISTRATION_RECEIVED && remainingTime > 0)
+        {
+            this.wait(remainingTime);
+            remainingTime = waitTimeEnd - System.currentTimeMillis();
+        }
     }
 
     /**
@@ -37,8 +37,9 @@ public class StatusTask implements Callable
             {
                 ResponseData data = (ResponseData) context;
                 data.setResponseData(responseData.getResponseData());
-                data.setContractState(responseData.getContractState());
                 data.setWaitForStatusInMS(responseData.getWaitForStatusInMS());
+                // Setting the state last wakes up the task waiting for this response
+                data.setContractState(responseData.getContractState());
             }
             else
             {
@@ -108,10 +109,7 @@ public class StatusTask implements Callable
             //SRS_StatusTask_25_005: [ This method shall trigger getRegistrationState on the contract API and wait for response and return it. ]
             ResponseData responseData = new ResponseData();
             provisioningDeviceClientContract.getRegistrationStatus(requestData, new ResponseCallbackImpl(), responseData);
-            if (responseData.getResponseData() == null || responseData.getContractState() != ContractState.DPS_REGISTRATION_RECEIVED)
-            {
-                Thread.sleep(MAX_WAIT_FOR_STATUS_RESPONSE);
-            }
+            responseData.waitForResponse(MAX_WAIT_FOR_STATUS_RESPONSE);
             if (responseData.getResponseData() != null && responseData.getContractState() == ContractState.DPS_REGISTRATION_RECEIVED)
             {
                 String jsonBody = new String(responseData.getResponseData());
@@ -4,6 +4,7 @@
 package com.microsoft.azure.sdk.iot.provisioning.device.plugandplay;
 
 import com.google.gson.Gson;
+import com.microsoft.azure.sdk.iot.deps.serializer.GsonProvider;
 import lombok.NonNull;
 
 import java.util.Map;
@@ -16,7 +17,7 @@ public class PnpHelper {
 
     private static final String MODEL_ID = "modelId";
 
-    private static final Gson gson = new Gson();
+    private static final Gson gson = GsonProvider.getGson();
 
     /**
      * Create the DPS payload to provision a device as plug and play.
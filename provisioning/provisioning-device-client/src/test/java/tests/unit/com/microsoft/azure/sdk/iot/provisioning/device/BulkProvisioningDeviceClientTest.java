@@ -0,0 +1,199 @@
+/*
+ *
+ *  Copyright (c) Microsoft. All rights reserved.
+ *  Licensed under the MIT license. See LICENSE file in the project root for full license information.
+ *
+ */
+
+package tests.unit.com.microsoft.azure.sdk.iot.provisioning.device;
+
+import com.microsoft.azure.sdk.iot.provisioning.device.BulkProvisioningDeviceClient;
+import com.microsoft.azure.sdk.iot.provisioning.device.BulkProvisioningDeviceResult;
+import com.microsoft.azure.sdk.iot.provisioning.device.BulkProvisioningResult;
+import com.microsoft.azure.sdk.iot.provisioning.device.ProvisioningDeviceClientRegistrationResult;
+import com.microsoft.azure.sdk.iot.provisioning.device.ProvisioningDeviceClientStatus;
+import com.microsoft.azure.sdk.iot.provisioning.device.ProvisioningDeviceClientTransportProtocol;
+import com.microsoft.azure.sdk.iot.provisioning.device.internal.ProvisioningDeviceClientConfig;
+import com.microsoft.azure.sdk.iot.provisioning.device.internal.contract.ProvisioningDeviceClientContract;
+import com.microsoft.azure.sdk.iot.provisioning.device.internal.exceptions.ProvisioningDeviceClientException;
+import com.microsoft.azure.sdk.iot.provisioning.device.internal.task.ProvisioningTask;
+import com.microsoft.azure.sdk.iot.provisioning.security.SecurityProvider;
+import mockit.Mock;
+import mockit.MockUp;
+import mockit.Mocked;
+import mockit.NonStrictExpectations;
+import mockit.integration.junit4.JMockit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/*
+    Unit tests for BulkProvisioningDeviceClient
+ */
+@RunWith(JMockit.class)
+public class BulkProvisioningDeviceClientTest
+{
+    private static final String END_POINT = "testEndPoint";
+    private static final String SCOPE_ID = "testScopeId";
+    private static final ProvisioningDeviceClientTransportProtocol TEST_PROTOCOL = ProvisioningDeviceClientTransportProtocol.HTTPS;
+
+    @Mocked
+    SecurityProvider mockedSecurityProvider;
+
+    @Mocked
+    SecurityProvider mockedOtherSecurityProvider;
+
+    @Mocked
+    ProvisioningDeviceClientContract mockedProvisioningDeviceClientContract;
+
+    @Mocked
+    ProvisioningDeviceClientRegistrationResult mockedRegistrationResult;
+
+    // Completes every registration the way the provisioning task does, through the callback set on its config
+    private void mockProvisioningTask(final ProvisioningDeviceClientRegistrationResult registrationResult, final Exception exception)
+    {
+        new MockUp<ProvisioningTask>()
+        {
+            ProvisioningDeviceClientConfig config;
+
+            @Mock
+            void $init(ProvisioningDeviceClientConfig provisioningDeviceClientConfig, ProvisioningDeviceClientContract provisioningDeviceClientContract, ExecutorService executor)
+            {
+                assertNotNull(executor);
+                this.config = provisioningDeviceClientConfig;
+            }
+
+            @Mock
+            Object call()
+            {
+                this.config.getRegistrationCallback().run(registrationResult, exception, this.config.getRegistrationCallbackContext());
+                return null;
+            }
+        };
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void constructorThrowsOnNullEndPoint()
+    {
+        BulkProvisioningDeviceClient.create(null, SCOPE_ID, TEST_PROTOCOL, 1);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void constructorThrowsOnNullProtocol()
+    {
+        BulkProvisioningDeviceClient.create(END_POINT, SCOPE_ID, null, 1);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void constructorThrowsOnZeroConcurrentRegistrations()
+    {
+        BulkProvisioningDeviceClient.create(END_POINT, SCOPE_ID, TEST_PROTOCOL, 0);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void registerDevicesThrowsOnNullSecurityProviders()
+    {
+        //arrange
+        BulkProvisioningDeviceClient testClient = BulkProvisioningDeviceClient.create(END_POINT, SCOPE_ID, TEST_PROTOCOL, 1);
+
+        try
+        {
+            //act
+            testClient.registerDevices(null);
+        }
+        finally
+        {
+            testClient.closeNow();
+        }
+    }
+
+    @Test
+    public void registerDevicesReportsTheResultOfEachDeviceInOrder() throws Exception
+    {
+        //arrange
+        new NonStrictExpectations()
+        {
+            {
+                mockedRegistrationResult.getProvisioningDeviceClientStatus();
+                result = ProvisioningDeviceClientStatus.PROVISIONING_DEVICE_STATUS_ASSIGNED;
+            }
+        };
+        mockProvisioningTask(mockedRegistrationResult, null);
+        BulkProvisioningDeviceClient testClient = BulkProvisioningDeviceClient.create(END_POINT, SCOPE_ID, TEST_PROTOCOL, 1);
+
+        //act
+        BulkProvisioningResult result = testClient.registerDevices(Arrays.asList(mockedSecurityProvider, mockedOtherSecurityProvider)).get();
+        testClient.closeNow();
+
+        //assert
+        assertEquals(2, result.getDeviceResults().size());
+        assertEquals(2, result.getAssignedCount());
+        assertEquals(mockedSecurityProvider, result.getDeviceResults().get(0).getSecurityProvider());
+        assertEquals(mockedOtherSecurityProvider, result.getDeviceResults().get(1).getSecurityProvider());
+        for (BulkProvisioningDeviceResult deviceResult : result.getDeviceResults())
+        {
+            assertTrue(deviceResult.isAssigned());
+            assertEquals(mockedRegistrationResult, deviceResult.getRegistrationResult());
+            assertNull(deviceResult.getException());
+            assertTrue(deviceResult.getLatencyInMS() <= result.getElapsedTimeInMS());
+        }
+        assertTrue(result.getRegistrationsPerSecond() > 0);
+    }
+
+    @Test
+    public void registerDevicesReportsFailedRegistrations() throws Exception
+    {
+        //arrange
+        ProvisioningDeviceClientException registrationException = new ProvisioningDeviceClientException("registration failed");
+        mockProvisioningTask(mockedRegistrationResult, registrationException);
+        BulkProvisioningDeviceClient testClient = BulkProvisioningDeviceClient.create(END_POINT, SCOPE_ID, TEST_PROTOCOL, 1);
+
+        //act
+        BulkProvisioningResult result = testClient.registerDevices(Collections.singletonList(mockedSecurityProvider)).get();
+        testClient.closeNow();
+
+        //assert
+        assertEquals(0, result.getAssignedCount());
+        assertFalse(result.getDeviceResults().get(0).isAssigned());
+        assertEquals(registrationException, result.getDeviceResults().get(0).getException());
+    }
+
+    @Test
+    public void registerDevicesReportsExceptionsThrownByTheRegistration() throws Exception
+    {
+        //arrange
+        final ProvisioningDeviceClientException registrationException = new ProvisioningDeviceClientException("cannot open");
+        new MockUp<ProvisioningTask>()
+        {
+            @Mock
+            void $init(ProvisioningDeviceClientConfig provisioningDeviceClientConfig, ProvisioningDeviceClientContract provisioningDeviceClientContract, ExecutorService executor)
+            {
+            }
+
+            @Mock
+            Object call() throws Exception
+            {
+                throw registrationException;
+            }
+        };
+        BulkProvisioningDeviceClient testClient = BulkProvisioningDeviceClient.create(END_POINT, SCOPE_ID, TEST_PROTOCOL, 1);
+
+        //act
+        BulkProvisioningResult result = testClient.registerDevices(Collections.singletonList(mockedSecurityProvider)).get();
+        testClient.closeNow();
+
+        //assert
+        assertEquals(0, result.getAssignedCount());
+        assertNull(result.getDeviceResults().get(0).getRegistrationResult());
+        assertEquals(registrationException, result.getDeviceResults().get(0).getException());
+    }
+}
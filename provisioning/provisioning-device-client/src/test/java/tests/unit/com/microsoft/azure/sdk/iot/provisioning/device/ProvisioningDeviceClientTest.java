@@ -9,6 +9,7 @@ package tests.unit.com.microsoft.azure.sdk.iot.provisioning.device;
 
 import com.microsoft.azure.sdk.iot.provisioning.device.ProvisioningDeviceClient;
 import com.microsoft.azure.sdk.iot.provisioning.device.ProvisioningDeviceClientRegistrationCallback;
+import com.microsoft.azure.sdk.iot.provisioning.device.ProvisioningDeviceClientRegistrationResult;
 import com.microsoft.azure.sdk.iot.provisioning.device.ProvisioningDeviceClientTransportProtocol;
 import com.microsoft.azure.sdk.iot.provisioning.device.internal.ProvisioningDeviceClientConfig;
 import com.microsoft.azure.sdk.iot.provisioning.device.internal.contract.ProvisioningDeviceClientContract;
@@ -22,10 +23,14 @@ import mockit.integration.junit4.JMockit;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 /*
     Unit tests for ProvisioningDeviceClient
@@ -169,6 +174,64 @@ public class ProvisioningDeviceClientTest
         testProvisioningDeviceClient.registerDevice(null, null);
     }
 
+    @Test
+    public void registerAsyncCompletesWithRegistrationResult(@Mocked final ProvisioningDeviceClientRegistrationResult mockedRegistrationResult) throws Exception
+    {
+        //arrange
+        ProvisioningDeviceClient testProvisioningDeviceClient = ProvisioningDeviceClient.create(END_POINT, SCOPE_ID, TEST_PROTOCOL, mockedSecurityProvider);
+
+        //act
+        final CompletableFuture<ProvisioningDeviceClientRegistrationResult> future = testProvisioningDeviceClient.registerAsync();
+
+        //assert
+        assertFalse(future.isDone());
+        new Verifications()
+        {
+            {
+                ProvisioningDeviceClientRegistrationCallback callback;
+                mockedProvisioningDeviceClientConfig.setRegistrationCallback(callback = withCapture(), withSameInstance(future));
+                times = 1;
+                mockedExecutorService.submit((ProvisioningTask) any);
+                times = 1;
+
+                callback.run(mockedRegistrationResult, null, future);
+            }
+        };
+        assertEquals(mockedRegistrationResult, future.get());
+    }
+
+    @Test
+    public void registerAsyncCompletesExceptionallyOnRegistrationFailure(@Mocked final ProvisioningDeviceClientRegistrationResult mockedRegistrationResult) throws Exception
+    {
+        //arrange
+        final ProvisioningDeviceClientException registrationException = new ProvisioningDeviceClientException("registration failed");
+        ProvisioningDeviceClient testProvisioningDeviceClient = ProvisioningDeviceClient.create(END_POINT, SCOPE_ID, TEST_PROTOCOL, mockedSecurityProvider);
+
+        //act
+        final CompletableFuture<ProvisioningDeviceClientRegistrationResult> future = testProvisioningDeviceClient.registerAsync();
+
+        //assert
+        new Verifications()
+        {
+            {
+                ProvisioningDeviceClientRegistrationCallback callback;
+                mockedProvisioningDeviceClientConfig.setRegistrationCallback(callback = withCapture(), withSameInstance(future));
+                times = 1;
+
+                callback.run(mockedRegistrationResult, registrationException, future);
+            }
+        };
+        assertTrue(future.isCompletedExceptionally());
+        try
+        {
+            future.get();
+        }
+        catch (ExecutionException e)
+        {
+            assertEquals(registrationException, e.getCause());
+        }
+    }
+
     //SRS_ProvisioningDeviceClient_25_011: [ This method shall check if executor is terminated and if not shall shutdown the executor. ]
     @Test
     public void closeNowSucceeds() throws ProvisioningDeviceClientException
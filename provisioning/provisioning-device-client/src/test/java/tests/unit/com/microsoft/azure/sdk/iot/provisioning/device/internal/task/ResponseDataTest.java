@@ -14,10 +14,12 @@ import mockit.integration.junit4.JMockit;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import static com.microsoft.azure.sdk.iot.provisioning.device.internal.task.ContractState.DPS_REGISTRATION_RECEIVED;
 import static com.microsoft.azure.sdk.iot.provisioning.device.internal.task.ContractState.DPS_REGISTRATION_UNKNOWN;
 import static mockit.Deencapsulation.*;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 /*
     Unit test for Response Data
@@ -66,4 +68,56 @@ public class ResponseDataTest
         //assert
         assertEquals(testData, invoke(testResponseData, "getResponseData"));
     }
+
+    @Test
+    public void waitForResponseReturnsWhenResponseIsReceived() throws Exception
+    {
+        //arrange
+        final ResponseData testResponseData = newInstance(ResponseData.class);
+        Thread responder = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                invoke(testResponseData, "setContractState", DPS_REGISTRATION_RECEIVED);
+            }
+        });
+        long startTime = System.currentTimeMillis();
+
+        //act
+        responder.start();
+        invoke(testResponseData, "waitForResponse", 60 * 1000L);
+
+        //assert
+        assertTrue(System.currentTimeMillis() - startTime < 60 * 1000L);
+        assertEquals(DPS_REGISTRATION_RECEIVED, invoke(testResponseData, "getContractState"));
+    }
+
+    @Test
+    public void waitForResponseReturnsImmediatelyIfResponseWasAlreadyReceived() throws Exception
+    {
+        //arrange
+        ResponseData testResponseData = newInstance(ResponseData.class);
+        invoke(testResponseData, "setContractState", DPS_REGISTRATION_RECEIVED);
+        long startTime = System.currentTimeMillis();
+
+        //act
+        invoke(testResponseData, "waitForResponse", 60 * 1000L);
+
+        //assert
+        assertTrue(System.currentTimeMillis() - startTime < 60 * 1000L);
+    }
+
+    @Test
+    public void waitForResponseTimesOutWithoutResponse() throws Exception
+    {
+        //arrange
+        ResponseData testResponseData = newInstance(ResponseData.class);
+
+        //act
+        invoke(testResponseData, "waitForResponse", 10L);
+
+        //assert
+        assertEquals(DPS_REGISTRATION_UNKNOWN, invoke(testResponseData, "getContractState"));
+    }
 }
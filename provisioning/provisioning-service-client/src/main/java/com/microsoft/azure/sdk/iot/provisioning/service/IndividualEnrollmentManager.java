@@ -9,11 +9,20 @@ import com.microsoft.azure.sdk.iot.provisioning.service.configs.*;
 import com.microsoft.azure.sdk.iot.provisioning.service.contract.ContractApiHttp;
 import com.microsoft.azure.sdk.iot.provisioning.service.exceptions.ProvisioningServiceClientException;
 import com.microsoft.azure.sdk.iot.provisioning.service.exceptions.ProvisioningServiceClientServiceException;
+import com.microsoft.azure.sdk.iot.provisioning.service.exceptions.ProvisioningServiceClientTooManyRequestsException;
 import com.microsoft.azure.sdk.iot.provisioning.service.exceptions.ProvisioningServiceClientTransportException;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * IndividualEnrollment Manager
@@ -32,6 +41,12 @@ public class IndividualEnrollmentManager
     private static final String CONDITION_KEY = "If-Match";
     private static final String ATTESTATION_MECHANISM = "attestationmechanism";
 
+    // The Device Provisioning Service rejects bulk operations over more enrollments than this
+    private static final int MAX_ENROLLMENTS_PER_BULK_OPERATION = 10;
+    private static final int MAX_THROTTLED_BULK_OPERATION_ATTEMPTS = 10;
+    private static final long DEFAULT_THROTTLING_DELAY_IN_MS = 1000;
+    private static final long MAX_THROTTLING_DELAY_IN_MS = 60 * 1000;
+
     /**
      * PRIVATE CONSTRUCTOR
      *
@@ -166,6 +181,145 @@ public class IndividualEnrollmentManager
         return new BulkEnrollmentOperationResult(new String(body));
     }
 
+    /**
+     * Create, update or delete a stream of individualEnrollments, in bulk operations of at most
+     * {@code MAX_ENROLLMENTS_PER_BULK_OPERATION} individualEnrollments, running up to maxParallelBatches of them at the
+     * same time.
+     *
+     * <p> The individualEnrollments are read from the iterator only when a bulk operation is ready to send them, so
+     *     the memory used does not depend on the number of individualEnrollments. A bulk operation throttled by the
+     *     Device Provisioning Service is retried after the delay that the service asked for. If a bulk operation still
+     *     fails, no new one is started, and its exception is thrown once the ones in progress completed. The bulk
+     *     operations that already succeeded are not reverted.
+     *
+     * @see ProvisioningServiceClient#runBulkEnrollmentOperation(BulkOperationMode, Iterator, int)
+     *
+     * @param bulkOperationMode the {@link BulkOperationMode} that defines the single operation to do over the individualEnrollments. It cannot be {@code null}.
+     * @param individualEnrollments the iterator of {@link IndividualEnrollment} that contains the description of each individualEnrollment. It cannot be {@code null} or empty.
+     * @param maxParallelBatches the maximum number of bulk operations running at the same time. It must be greater than 0.
+     * @return An {@link BulkEnrollmentOperationResult} with the errors of all the bulk operations.
+     * @throws IllegalArgumentException if the provided parameters are not correct.
+     * @throws ProvisioningServiceClientTransportException if the SDK failed to send a request to the Device Provisioning Service.
+     * @throws ProvisioningServiceClientException if the Device Provisioning Service was not able to execute one of the bulk operations.
+     */
+    BulkEnrollmentOperationResult bulkOperation(BulkOperationMode bulkOperationMode, Iterator<IndividualEnrollment> individualEnrollments, int maxParallelBatches)
+            throws ProvisioningServiceClientException
+    {
+        if(bulkOperationMode == null)
+        {
+            throw new IllegalArgumentException("bulkOperationMode cannot be null.");
+        }
+        if((individualEnrollments == null) || !individualEnrollments.hasNext())
+        {
+            throw new IllegalArgumentException("individualEnrollments cannot be null or empty.");
+        }
+        if(maxParallelBatches <= 0)
+        {
+            throw new IllegalArgumentException("maxParallelBatches must be greater than 0.");
+        }
+
+        final AtomicBoolean isSuccessful = new AtomicBoolean(true);
+        final List<BulkEnrollmentOperationError> errors = new ArrayList<>();
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        final Semaphore availableBatches = new Semaphore(maxParallelBatches);
+        ExecutorService executor = Executors.newFixedThreadPool(maxParallelBatches);
+        try
+        {
+            while(individualEnrollments.hasNext())
+            {
+                // Waiting for a batch to complete before reading the next one is what keeps the memory flat
+                availableBatches.acquire();
+                if(failure.get() != null)
+                {
+                    availableBatches.release();
+                    break;
+                }
+
+                final List<IndividualEnrollment> batch = new ArrayList<>(MAX_ENROLLMENTS_PER_BULK_OPERATION);
+                while((batch.size() < MAX_ENROLLMENTS_PER_BULK_OPERATION) && individualEnrollments.hasNext())
+                {
+                    batch.add(individualEnrollments.next());
+                }
+
+                executor.execute(() ->
+                {
+                    try
+                    {
+                        BulkEnrollmentOperationResult result = bulkOperationWithThrottlingRetry(bulkOperationMode, batch);
+                        if(!result.getSuccessful())
+                        {
+                            isSuccessful.set(false);
+                            synchronized (errors)
+                            {
+                                errors.addAll(result.getErrors());
+                            }
+                        }
+                    }
+                    catch (ProvisioningServiceClientException | RuntimeException e)
+                    {
+                        failure.compareAndSet(null, e);
+                    }
+                    catch (InterruptedException e)
+                    {
+                        failure.compareAndSet(null, new ProvisioningServiceClientException("Bulk operation interrupted", e));
+                    }
+                    finally
+                    {
+                        availableBatches.release();
+                    }
+                });
+            }
+
+            // Wait for the batches in progress
+            availableBatches.acquire(maxParallelBatches);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new ProvisioningServiceClientException("Bulk operation interrupted", e);
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        Exception exception = failure.get();
+        if(exception instanceof ProvisioningServiceClientException)
+        {
+            throw (ProvisioningServiceClientException)exception;
+        }
+        else if(exception != null)
+        {
+            throw (RuntimeException)exception;
+        }
+
+        return new BulkEnrollmentOperationResult(isSuccessful.get(), errors);
+    }
+
+    private BulkEnrollmentOperationResult bulkOperationWithThrottlingRetry(BulkOperationMode bulkOperationMode, Collection<IndividualEnrollment> individualEnrollments)
+            throws ProvisioningServiceClientException, InterruptedException
+    {
+        long throttlingDelayInMS = DEFAULT_THROTTLING_DELAY_IN_MS;
+        for(int attempt = 1; ; attempt++)
+        {
+            try
+            {
+                return bulkOperation(bulkOperationMode, individualEnrollments);
+            }
+            catch (ProvisioningServiceClientTooManyRequestsException e)
+            {
+                if(attempt >= MAX_THROTTLED_BULK_OPERATION_ATTEMPTS)
+                {
+                    throw e;
+                }
+
+                // Honour the delay the service asked for, backing off exponentially when it did not ask for any
+                Thread.sleep((e.getRetryAfterInMS() > 0) ? e.getRetryAfterInMS() : throttlingDelayInMS);
+                throttlingDelayInMS = Math.min(throttlingDelayInMS * 2, MAX_THROTTLING_DELAY_IN_MS);
+            }
+        }
+    }
+
     /**
      * Get individualEnrollment information.
      *
@@ -13,6 +13,8 @@ import com.microsoft.azure.sdk.iot.provisioning.service.exceptions.ProvisioningS
 import com.microsoft.azure.sdk.iot.provisioning.service.exceptions.ProvisioningServiceClientTransportException;
 
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.stream.Stream;
 
 /**
  * Device Provisioning Service Client.
@@ -309,6 +311,78 @@ public final class ProvisioningServiceClient
         return individualEnrollmentManager.bulkOperation(bulkOperationMode, individualEnrollments);
     }
 
+    /**
+     * Create, update or delete any number of individual Device Enrollments, streaming them to the service.
+     *
+     * <p> This API does the same operation as {@link #runBulkEnrollmentOperation(BulkOperationMode, Collection)},
+     *     without limit on the number of individualEnrollments. It splits them in bulk operations of the size that the
+     *     Device Provisioning Service accepts, and runs up to maxParallelBatches of them at the same time. The
+     *     individualEnrollments are read from the iterator only when a bulk operation is ready to send them, so they can
+     *     be created on the fly, for instance from a file, without holding all of them in memory.
+     *
+     * <p> A bulk operation throttled by the Device Provisioning Service is retried after the delay that the service
+     *     asked for. If a bulk operation still fails, no new one is started, and its exception is thrown once the ones
+     *     in progress completed. The bulk operations that already succeeded are not reverted.
+     *
+     * <p> <b>Sample:</b>
+     * <p> The follow code will create an individualEnrollment for each line of a file of registration ids and TPM
+     *     endorsement keys, running 4 bulk operations at the same time.
+     * <pre>
+     * {@code
+     * try (Stream<String> lines = Files.lines(Paths.get("enrollments.csv")))
+     * {
+     *     Stream<IndividualEnrollment> individualEnrollments = lines.map(line ->
+     *     {
+     *         String[] values = line.split(",");
+     *         return new IndividualEnrollment(values[0], new TpmAttestation(values[1]));
+     *     });
+     *
+     *     BulkEnrollmentOperationResult bulkEnrollmentOperationResult =
+     *         provisioningServiceClient.runBulkEnrollmentOperation(BulkOperationMode.CREATE, individualEnrollments.iterator(), 4);
+     * }
+     * }
+     * </pre>
+     *
+     * @param bulkOperationMode the {@link BulkOperationMode} that defines the single operation to do over the individualEnrollments. It cannot be {@code null}.
+     * @param individualEnrollments the iterator of {@link IndividualEnrollment} that contains the description of each individualEnrollment. It cannot be {@code null} or empty.
+     * @param maxParallelBatches the maximum number of bulk operations running at the same time. It must be greater than 0.
+     * @return A {@link BulkEnrollmentOperationResult} object with the errors of all the bulk operations.
+     * @throws IllegalArgumentException if the provided parameters are not correct.
+     * @throws ProvisioningServiceClientTransportException if the SDK failed to send a request to the Device Provisioning Service.
+     * @throws ProvisioningServiceClientException if the Device Provisioning Service was not able to execute one of the bulk operations.
+     */
+    public BulkEnrollmentOperationResult runBulkEnrollmentOperation(
+            BulkOperationMode bulkOperationMode, Iterator<IndividualEnrollment> individualEnrollments, int maxParallelBatches)
+            throws ProvisioningServiceClientException
+    {
+        return individualEnrollmentManager.bulkOperation(bulkOperationMode, individualEnrollments, maxParallelBatches);
+    }
+
+    /**
+     * Create, update or delete any number of individual Device Enrollments, streaming them to the service.
+     *
+     * @see #runBulkEnrollmentOperation(BulkOperationMode, Iterator, int)
+     *
+     * @param bulkOperationMode the {@link BulkOperationMode} that defines the single operation to do over the individualEnrollments. It cannot be {@code null}.
+     * @param individualEnrollments the stream of {@link IndividualEnrollment} that contains the description of each individualEnrollment. It cannot be {@code null} or empty.
+     * @param maxParallelBatches the maximum number of bulk operations running at the same time. It must be greater than 0.
+     * @return A {@link BulkEnrollmentOperationResult} object with the errors of all the bulk operations.
+     * @throws IllegalArgumentException if the provided parameters are not correct.
+     * @throws ProvisioningServiceClientTransportException if the SDK failed to send a request to the Device Provisioning Service.
+     * @throws ProvisioningServiceClientException if the Device Provisioning Service was not able to execute one of the bulk operations.
+     */
+    public BulkEnrollmentOperationResult runBulkEnrollmentOperation(
+            BulkOperationMode bulkOperationMode, Stream<IndividualEnrollment> individualEnrollments, int maxParallelBatches)
+            throws ProvisioningServiceClientException
+    {
+        if(individualEnrollments == null)
+        {
+            throw new IllegalArgumentException("individualEnrollments cannot be null.");
+        }
+
+        return individualEnrollmentManager.bulkOperation(bulkOperationMode, individualEnrollments.iterator(), maxParallelBatches);
+    }
+
     /**
      * Retrieve the individualEnrollment information.
      *
@@ -4,9 +4,9 @@
 package com.microsoft.azure.sdk.iot.provisioning.service.configs;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.annotations.Expose;
 import com.google.gson.annotations.SerializedName;
+import com.microsoft.azure.sdk.iot.deps.serializer.GsonProvider;
 import com.microsoft.azure.sdk.iot.provisioning.service.Tools;
 import com.microsoft.azure.sdk.iot.provisioning.service.exceptions.ProvisioningServiceClientException;
 
@@ -107,7 +107,7 @@ public final class AttestationMechanism
             throw new IllegalArgumentException("JSON with result is null or empty");
         }
 
-        Gson gson = new GsonBuilder().excludeFieldsWithoutExposeAnnotation().disableHtmlEscaping().create();
+        Gson gson = GsonProvider.getExposedFieldsGson();
         AttestationMechanism result = gson.fromJson(json, AttestationMechanism.class);
 
         this.symmetricKey = result.symmetricKey;
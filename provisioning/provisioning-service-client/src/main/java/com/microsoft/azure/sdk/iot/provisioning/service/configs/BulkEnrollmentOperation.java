@@ -4,9 +4,9 @@
 package com.microsoft.azure.sdk.iot.provisioning.service.configs;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.microsoft.azure.sdk.iot.deps.serializer.GsonProvider;
 import com.microsoft.azure.sdk.iot.provisioning.service.ProvisioningServiceClient;
 
 import java.util.Collection;
@@ -99,7 +99,7 @@ public final class BulkEnrollmentOperation
     {
         /* SRS_BULK_OPERATION_21_003: [The toString shall return a String with the mode and the collection of individualEnrollments using a pretty print JSON format.] */
         /* SRS_BULK_OPERATION_21_004: [The toString shall throw IllegalArgumentException if the provided mode is null or the collection of individualEnrollments is null or empty.] */
-        Gson gson = new GsonBuilder().disableHtmlEscaping().setPrettyPrinting().create();
+        Gson gson = GsonProvider.getPrettyPrintingGson();
         return gson.toJson(BulkEnrollmentOperation.toJsonElement(mode, individualEnrollments));
     }
 
@@ -130,7 +130,7 @@ public final class BulkEnrollmentOperation
         }
 
         /* SRS_BULK_OPERATION_21_006: [The toJsonElement shall return a JsonElement with the mode and the collection of individualEnrollments using a JSON format.] */
-        Gson gson = new GsonBuilder().excludeFieldsWithoutExposeAnnotation().disableHtmlEscaping().create();
+        Gson gson = GsonProvider.getExposedFieldsGson();
         JsonObject twinJson = new JsonObject();
 
         twinJson.add(BULK_OPERATION_MODE_TAG, gson.toJsonTree(mode));
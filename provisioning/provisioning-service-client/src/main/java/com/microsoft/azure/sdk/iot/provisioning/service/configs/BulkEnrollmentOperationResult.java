@@ -4,9 +4,9 @@
 package com.microsoft.azure.sdk.iot.provisioning.service.configs;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.annotations.Expose;
 import com.google.gson.annotations.SerializedName;
+import com.microsoft.azure.sdk.iot.deps.serializer.GsonProvider;
 import com.microsoft.azure.sdk.iot.deps.serializer.ParserUtility;
 import com.microsoft.azure.sdk.iot.provisioning.service.Tools;
 import com.microsoft.azure.sdk.iot.provisioning.service.ProvisioningServiceClient;
@@ -80,7 +80,7 @@ public class BulkEnrollmentOperationResult
 
         /* SRS_BULK_OPERATION_RESULT_21_002: [The constructor shall throw JsonSyntaxException if the JSON is invalid.] */
         /* SRS_BULK_OPERATION_RESULT_21_003: [The constructor shall deserialize the provided JSON for the enrollment class and subclasses.] */
-        Gson gson = new GsonBuilder().excludeFieldsWithoutExposeAnnotation().disableHtmlEscaping().create();
+        Gson gson = GsonProvider.getExposedFieldsGson();
         BulkEnrollmentOperationResult result = gson.fromJson(json, BulkEnrollmentOperationResult.class);
 
         /* SRS_BULK_OPERATION_RESULT_21_004: [The constructor shall throw IllegalArgumentException if the JSON do not contains isSuccessful.] */
@@ -98,6 +98,27 @@ public class BulkEnrollmentOperationResult
         this.errors = result.errors;
     }
 
+    /**
+     * CONSTRUCTOR
+     *
+     * <p> This constructor creates an instance of the result of a bulk operation that was split in many requests,
+     *     from the outcome of all of them.
+     *
+     * @param isSuccessful the {@code boolean} that is {@code true} only if all the requests succeeded.
+     * @param errors the collection of {@link BulkEnrollmentOperationError} returned by all the requests. It cannot be {@code null}.
+     * @throws IllegalArgumentException If the provided errors is {@code null}.
+     */
+    public BulkEnrollmentOperationResult(boolean isSuccessful, Collection<BulkEnrollmentOperationError> errors)
+    {
+        if(errors == null)
+        {
+            throw new IllegalArgumentException("errors cannot be null");
+        }
+
+        this.isSuccessful = isSuccessful;
+        this.errors = errors.toArray(new BulkEnrollmentOperationError[errors.size()]);
+    }
+
     /**
      * Getter for the Bulk Operation successful.
      *
@@ -129,7 +150,7 @@ public class BulkEnrollmentOperationResult
     public String toString()
     {
         /* SRS_BULK_OPERATION_RESULT_21_010: [The toString shall return a String with the information into this class in a pretty print JSON.] */
-        Gson gson = new GsonBuilder().disableHtmlEscaping().setPrettyPrinting().create();
+        Gson gson = GsonProvider.getPrettyPrintingGson();
         return gson.toJson(this);
     }
 
@@ -4,8 +4,8 @@
 package com.microsoft.azure.sdk.iot.provisioning.service.configs;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
+import com.microsoft.azure.sdk.iot.deps.serializer.GsonProvider;
 
 /**
  * Abstract class with the parser for the provisioning configurations.
@@ -39,7 +39,7 @@ public abstract class Serializable implements java.io.Serializable
     public String toString()
     {
         /* SRS_SERIALIZABLE_21_002: [The toString shall return a String with the information in the child class in a pretty print JSON.] */
-        Gson gson = new GsonBuilder().disableHtmlEscaping().setPrettyPrinting().create();
+        Gson gson = GsonProvider.getPrettyPrintingGson();
         return gson.toJson(toJsonElement());
     }
 
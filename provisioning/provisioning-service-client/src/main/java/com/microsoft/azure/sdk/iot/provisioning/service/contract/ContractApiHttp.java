@@ -70,6 +70,7 @@ public class ContractApiHttp
     private static final String HEADER_FIELD_NAME_CONTENT_TYPE = "Content-Type";
     private static final String HEADER_FIELD_NAME_CONTENT_LENGTH = "Content-Length";
     private static final String HEADER_FIELD_NAME_CHARSET = "charset";
+    private static final String HEADER_FIELD_NAME_RETRY_AFTER = "Retry-After";
 
     private static final String HEADER_FIELD_VALUE_REQUEST_ID = "1001";
     private static final String HEADER_FIELD_VALUE_ACCEPT = "application/json";
@@ -129,7 +130,7 @@ public class ContractApiHttp
      * @throws ProvisioningServiceClientException if the Provisioning Service response contains an error message.
      * @throws IllegalArgumentException if the provided parameters are not correct.
      */
-    public synchronized HttpResponse request(
+    public HttpResponse request(
             HttpMethod httpMethod,
             String path,
             Map<String, String> headerParameters,
@@ -159,11 +160,29 @@ public class ContractApiHttp
         }
 
         /* SRS_HTTP_DEVICE_REGISTRATION_CLIENT_21_016: [If the Device Provisioning Service service respond to the HttpRequest with any error code, the request shall throw the appropriated ProvisioningServiceClientException, by calling ProvisioningServiceClientExceptionManager.responseVerification().*/
-        ProvisioningServiceClientExceptionManager.httpResponseVerification(httpResponse.getStatus(), new String(httpResponse.getErrorReason(), StandardCharsets.UTF_8));
+        ProvisioningServiceClientExceptionManager.httpResponseVerification(httpResponse.getStatus(), new String(httpResponse.getErrorReason(), StandardCharsets.UTF_8), getRetryAfterInMS(httpResponse));
 
         return httpResponse;
     }
 
+    private static long getRetryAfterInMS(HttpResponse httpResponse)
+    {
+        if (httpResponse.getStatus() < 400 || !httpResponse.isFieldAvailable(HEADER_FIELD_NAME_RETRY_AFTER))
+        {
+            return 0;
+        }
+
+        // The service sends the delay in seconds, the http date format of the header is not supported
+        try
+        {
+            return Math.max(0, Long.parseLong(httpResponse.getHeaderField(HEADER_FIELD_NAME_RETRY_AFTER).trim()) * 1000);
+        }
+        catch (NumberFormatException e)
+        {
+            return 0;
+        }
+    }
+
     private HttpRequest createRequest(URL url, HttpMethod method, Map<String, String> headerParameters, byte[] payload, String sasToken) throws ProvisioningServiceClientTransportException
     {
         /* SRS_HTTP_DEVICE_REGISTRATION_CLIENT_21_011: [If the request get problem creating the HttpRequest, it shall throw ProvisioningServiceClientTransportException.*/
@@ -47,6 +47,21 @@ public class ProvisioningServiceClientExceptionManager
      */
     public static void httpResponseVerification(int responseStatus, String errorReason)
             throws ProvisioningServiceClientServiceException
+    {
+        httpResponseVerification(responseStatus, errorReason, 0);
+    }
+
+    /**
+     * Verify response status and throw proper exception, keeping the time the service asked to wait before retrying
+     *
+     * @param responseStatus is the response status
+     * @param errorReason is the error description
+     * @param retryAfterInMS is the time, in milliseconds, the response asked to wait before retrying, or 0 if it did not
+     * @throws ProvisioningServiceClientTooManyRequestsException This exception is thrown if the response status equal 429, with the provided retryAfterInMS
+     * @throws ProvisioningServiceClientServiceException This exception is thrown if the response status is an error, see {@link #httpResponseVerification(int, String)}
+     */
+    public static void httpResponseVerification(int responseStatus, String errorReason, long retryAfterInMS)
+            throws ProvisioningServiceClientServiceException
     {
         // Codes_SRS_SERVICE_SDK_JAVA_PROVISIONINGSERVICECLIENTEXCEPTIONMANAGER_21_013: [If the httpresponse contains a reason message, the function must print this reason in the error message]
         String errorMessage = ErrorMessageParser.bestErrorMessage(errorReason);
@@ -54,7 +69,7 @@ public class ProvisioningServiceClientExceptionManager
         if((responseStatus >= 400) && (responseStatus < 500))
         {
             // Codes_SRS_SERVICE_SDK_JAVA_PROVISIONINGSERVICECLIENTEXCEPTIONMANAGER_21_015: [The function shall throw ProvisioningServiceClientBadUsageException or one of its child if the response status is in the interval of 400 and 499]
-            throwProvisioningServiceClientBadUsageException(responseStatus, errorMessage);
+            throwProvisioningServiceClientBadUsageException(responseStatus, errorMessage, retryAfterInMS);
         }
         else if((responseStatus >= 500) && (responseStatus < 600))
         {
@@ -76,7 +91,7 @@ public class ProvisioningServiceClientExceptionManager
         // Codes_SRS_SERVICE_SDK_JAVA_PROVISIONINGSERVICECLIENTEXCEPTIONMANAGER_21_012: [The function shall return without exception if the response status equal or less than 300]
     }
 
-    private static void throwProvisioningServiceClientBadUsageException(int responseStatus, String errorMessage)
+    private static void throwProvisioningServiceClientBadUsageException(int responseStatus, String errorMessage, long retryAfterInMS)
             throws ProvisioningServiceClientBadUsageException
     {
         switch (responseStatus)
@@ -95,7 +110,7 @@ public class ProvisioningServiceClientExceptionManager
                 throw new ProvisioningServiceClientPreconditionFailedException(errorMessage);
             case 429:
                 // Codes_SRS_SERVICE_SDK_JAVA_PROVISIONINGSERVICECLIENTEXCEPTIONMANAGER_21_006: [The function shall throw ProvisioningServiceClientTooManyRequestsException if the response status equal 429]
-                throw new ProvisioningServiceClientTooManyRequestsException(errorMessage);
+                throw new ProvisioningServiceClientTooManyRequestsException(errorMessage, retryAfterInMS);
             default:
                 if(errorMessage.isEmpty())
                 {
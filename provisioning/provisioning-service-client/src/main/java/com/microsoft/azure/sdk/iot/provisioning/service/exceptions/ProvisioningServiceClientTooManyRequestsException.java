@@ -14,13 +14,33 @@ package com.microsoft.azure.sdk.iot.provisioning.service.exceptions;
  */
 public class ProvisioningServiceClientTooManyRequestsException extends ProvisioningServiceClientBadUsageException
 {
+    private final long retryAfterInMS;
+
     public ProvisioningServiceClientTooManyRequestsException()
     {
         super();
+        this.retryAfterInMS = 0;
     }
 
     public ProvisioningServiceClientTooManyRequestsException(String message)
+    {
+        this(message, 0);
+    }
+
+    public ProvisioningServiceClientTooManyRequestsException(String message, long retryAfterInMS)
     {
         super("Too many requests (throttled)!" + (((message == null) || message.isEmpty()) ? "" : " " + message));
+        this.retryAfterInMS = retryAfterInMS;
+    }
+
+    /**
+     * Getter for the time the service asked to wait before sending a new request.
+     *
+     * @return The retry after in milliseconds, from the {@code Retry-After} header of the response, or 0 if the
+     *         response did not contain it.
+     */
+    public long getRetryAfterInMS()
+    {
+        return this.retryAfterInMS;
     }
 }
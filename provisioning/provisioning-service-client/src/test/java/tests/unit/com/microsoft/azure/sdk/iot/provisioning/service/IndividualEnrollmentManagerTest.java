@@ -12,9 +12,13 @@ import com.microsoft.azure.sdk.iot.provisioning.service.exceptions.*;
 import mockit.*;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.Assert.*;
@@ -458,6 +462,188 @@ public class IndividualEnrollmentManagerTest
         // assert
     }
 
+    private static final String BULK_SUCCESS_RESULT = "{\"isSuccessful\":true,\"errors\":[]}";
+    private static final String BULK_ERROR_RESULT =
+            "{\"isSuccessful\":false,\"errors\":[{\"registrationId\":\"validRegistrationId\",\"errorCode\":400,\"errorStatus\":\"Bad request\"}]}";
+
+    private static Iterator<IndividualEnrollment> createEnrollments(IndividualEnrollment individualEnrollment, int count)
+    {
+        return Collections.nCopies(count, individualEnrollment).iterator();
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void streamBulkOperationThrowsOnEmptyEnrollments() throws ProvisioningServiceClientException
+    {
+        // arrange
+        IndividualEnrollmentManager individualEnrollmentManager = createIndividualEnrollmentManager();
+
+        // act
+        Deencapsulation.invoke(individualEnrollmentManager, "bulkOperation",
+                new Class[] {BulkOperationMode.class, Iterator.class, int.class},
+                BulkOperationMode.CREATE, Collections.<IndividualEnrollment>emptyIterator(), 1);
+
+        // assert
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void streamBulkOperationThrowsOnZeroParallelBatches(@Mocked final IndividualEnrollment mockedIndividualEnrollment) throws ProvisioningServiceClientException
+    {
+        // arrange
+        IndividualEnrollmentManager individualEnrollmentManager = createIndividualEnrollmentManager();
+
+        // act
+        Deencapsulation.invoke(individualEnrollmentManager, "bulkOperation",
+                new Class[] {BulkOperationMode.class, Iterator.class, int.class},
+                BulkOperationMode.CREATE, createEnrollments(mockedIndividualEnrollment, 1), 0);
+
+        // assert
+    }
+
+    @Test
+    public void streamBulkOperationSplitsEnrollmentsInBatchesOfTheServiceLimit(
+            @Mocked final IndividualEnrollment mockedIndividualEnrollment,
+            @Mocked final BulkEnrollmentOperation mockedBulkOperation) throws ProvisioningServiceClientException
+    {
+        // arrange
+        IndividualEnrollmentManager individualEnrollmentManager = createIndividualEnrollmentManager();
+        new NonStrictExpectations()
+        {
+            {
+                mockedContractApiHttp.request(withEqual(HttpMethod.POST), anyString, null, anyString);
+                result = mockedHttpResponse;
+                mockedHttpResponse.getBody();
+                result = BULK_SUCCESS_RESULT.getBytes();
+            }
+        };
+
+        // act
+        BulkEnrollmentOperationResult bulkEnrollmentOperationResult = Deencapsulation.invoke(
+                individualEnrollmentManager, "bulkOperation",
+                new Class[] {BulkOperationMode.class, Iterator.class, int.class},
+                BulkOperationMode.CREATE, createEnrollments(mockedIndividualEnrollment, 25), 2);
+
+        // assert
+        assertTrue(bulkEnrollmentOperationResult.getSuccessful());
+        assertEquals(0, bulkEnrollmentOperationResult.getErrors().size());
+        final List<Collection<IndividualEnrollment>> batches = new ArrayList<>();
+        new Verifications()
+        {
+            {
+                BulkEnrollmentOperation.toJson(BulkOperationMode.CREATE, withCapture(batches));
+                times = 3;
+            }
+        };
+        int enrollmentCount = 0;
+        for (Collection<IndividualEnrollment> batch : batches)
+        {
+            assertTrue(batch.size() <= 10);
+            enrollmentCount += batch.size();
+        }
+        assertEquals(25, enrollmentCount);
+    }
+
+    @Test
+    public void streamBulkOperationAggregatesTheErrorsOfAllBatches(
+            @Mocked final IndividualEnrollment mockedIndividualEnrollment,
+            @Mocked final BulkEnrollmentOperation mockedBulkOperation) throws ProvisioningServiceClientException
+    {
+        // arrange
+        IndividualEnrollmentManager individualEnrollmentManager = createIndividualEnrollmentManager();
+        new NonStrictExpectations()
+        {
+            {
+                mockedContractApiHttp.request(withEqual(HttpMethod.POST), anyString, null, anyString);
+                result = mockedHttpResponse;
+                mockedHttpResponse.getBody();
+                result = BULK_ERROR_RESULT.getBytes();
+            }
+        };
+
+        // act
+        BulkEnrollmentOperationResult bulkEnrollmentOperationResult = Deencapsulation.invoke(
+                individualEnrollmentManager, "bulkOperation",
+                new Class[] {BulkOperationMode.class, Iterator.class, int.class},
+                BulkOperationMode.CREATE, createEnrollments(mockedIndividualEnrollment, 15), 2);
+
+        // assert
+        assertFalse(bulkEnrollmentOperationResult.getSuccessful());
+        assertEquals(2, bulkEnrollmentOperationResult.getErrors().size());
+        assertEquals("validRegistrationId", bulkEnrollmentOperationResult.getErrors().get(0).getRegistrationId());
+    }
+
+    @Test
+    public void streamBulkOperationRetriesThrottledBatch(
+            @Mocked final IndividualEnrollment mockedIndividualEnrollment,
+            @Mocked final BulkEnrollmentOperation mockedBulkOperation) throws ProvisioningServiceClientException
+    {
+        // arrange
+        IndividualEnrollmentManager individualEnrollmentManager = createIndividualEnrollmentManager();
+        new NonStrictExpectations()
+        {
+            {
+                mockedContractApiHttp.request(withEqual(HttpMethod.POST), anyString, null, anyString);
+                result = new ProvisioningServiceClientTooManyRequestsException("throttled", 1);
+                result = mockedHttpResponse;
+                mockedHttpResponse.getBody();
+                result = BULK_SUCCESS_RESULT.getBytes();
+            }
+        };
+
+        // act
+        BulkEnrollmentOperationResult bulkEnrollmentOperationResult = Deencapsulation.invoke(
+                individualEnrollmentManager, "bulkOperation",
+                new Class[] {BulkOperationMode.class, Iterator.class, int.class},
+                BulkOperationMode.CREATE, createEnrollments(mockedIndividualEnrollment, 1), 1);
+
+        // assert
+        assertTrue(bulkEnrollmentOperationResult.getSuccessful());
+        new Verifications()
+        {
+            {
+                mockedContractApiHttp.request(withEqual(HttpMethod.POST), anyString, null, anyString);
+                times = 2;
+            }
+        };
+    }
+
+    @Test
+    public void streamBulkOperationStopsAndThrowsOnBatchFailure(
+            @Mocked final IndividualEnrollment mockedIndividualEnrollment,
+            @Mocked final BulkEnrollmentOperation mockedBulkOperation) throws ProvisioningServiceClientException
+    {
+        // arrange
+        IndividualEnrollmentManager individualEnrollmentManager = createIndividualEnrollmentManager();
+        new NonStrictExpectations()
+        {
+            {
+                mockedContractApiHttp.request(withEqual(HttpMethod.POST), anyString, null, anyString);
+                result = new ProvisioningServiceClientTransportException();
+            }
+        };
+
+        // act
+        try
+        {
+            Deencapsulation.invoke(individualEnrollmentManager, "bulkOperation",
+                    new Class[] {BulkOperationMode.class, Iterator.class, int.class},
+                    BulkOperationMode.CREATE, createEnrollments(mockedIndividualEnrollment, 100), 1);
+            fail("Expected ProvisioningServiceClientTransportException");
+        }
+        catch (Exception e)
+        {
+            assertTrue(e instanceof ProvisioningServiceClientTransportException);
+        }
+
+        // assert
+        new Verifications()
+        {
+            {
+                mockedContractApiHttp.request(withEqual(HttpMethod.POST), anyString, null, anyString);
+                times = 1;
+            }
+        };
+    }
+
     /* SRS_INDIVIDUAL_ENROLLMENT_MANAGER_21_020: [The get shall throw IllegalArgumentException if the provided registrationId is null or empty.] */
     @Test (expected = IllegalArgumentException.class)
     public void getThrowsOnNullRegistrationId() throws ProvisioningServiceClientException
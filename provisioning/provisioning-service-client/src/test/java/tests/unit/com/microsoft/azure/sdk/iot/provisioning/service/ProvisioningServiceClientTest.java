@@ -14,8 +14,10 @@ import mockit.Mocked;
 import mockit.NonStrictExpectations;
 import org.junit.Test;
 
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.*;
 
@@ -311,6 +313,47 @@ public class ProvisioningServiceClientTest
         assertNotNull(result);
     }
 
+    @Test
+    public void runStreamingBulkEnrollmentOperationSucceed(
+            @Mocked final IndividualEnrollment mockedIndividualEnrollment,
+            @Mocked final BulkEnrollmentOperationResult mockedBulkEnrollmentOperationResult)
+            throws ProvisioningServiceClientException
+    {
+        // arrange
+        final List<IndividualEnrollment> individualEnrollments = new LinkedList<>();
+        individualEnrollments.add(mockedIndividualEnrollment);
+        final Iterator<IndividualEnrollment> individualEnrollmentsIterator = individualEnrollments.iterator();
+        ProvisioningServiceClient provisioningServiceClient = createClient();
+        new NonStrictExpectations()
+        {
+            {
+                Deencapsulation.invoke(mockedIndividualEnrollmentManager, "bulkOperation",
+                        new Class[] {BulkOperationMode.class, Iterator.class, int.class},
+                        BulkOperationMode.CREATE, individualEnrollmentsIterator, 4);
+                result = mockedBulkEnrollmentOperationResult;
+                times = 1;
+            }
+        };
+
+        // act
+        BulkEnrollmentOperationResult result = provisioningServiceClient.runBulkEnrollmentOperation(BulkOperationMode.CREATE, individualEnrollmentsIterator, 4);
+
+        // assert
+        assertNotNull(result);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void runStreamingBulkEnrollmentOperationThrowsOnNullStream() throws ProvisioningServiceClientException
+    {
+        // arrange
+        ProvisioningServiceClient provisioningServiceClient = createClient();
+
+        // act
+        provisioningServiceClient.runBulkEnrollmentOperation(BulkOperationMode.CREATE, (Stream<IndividualEnrollment>)null, 4);
+
+        // assert
+    }
+
     /* SRS_PROVISIONING_SERVICE_CLIENT_21_010: [The getIndividualEnrollment shall retrieve the individualEnrollment information for the provided registrationId by calling the get in the individualEnrollmentManager.] */
     @Test
     public void getIndividualEnrollmentSucceed(
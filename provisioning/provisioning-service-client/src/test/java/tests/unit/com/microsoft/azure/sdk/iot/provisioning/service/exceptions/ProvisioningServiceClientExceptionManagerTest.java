@@ -11,8 +11,10 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 
 /**
  * Unit test for ProvisioningServiceClient Exception Manager
@@ -84,6 +86,26 @@ public class ProvisioningServiceClientExceptionManagerTest
         ProvisioningServiceClientExceptionManager.httpResponseVerification(status, errorReason);
     }
 
+    @Test
+    public void httpResponseVerification429KeepsRetryAfter() throws ProvisioningServiceClientServiceException
+    {
+        // Arrange
+        final int status = 429;
+        final String errorReason = "{\"ExceptionMessage\":\"This is a valid message\"}";
+
+        // Act
+        try
+        {
+            ProvisioningServiceClientExceptionManager.httpResponseVerification(status, errorReason, 5000);
+            fail("Expected ProvisioningServiceClientTooManyRequestsException");
+        }
+        catch (ProvisioningServiceClientTooManyRequestsException e)
+        {
+            // Assert
+            assertEquals(5000, e.getRetryAfterInMS());
+        }
+    }
+
     // Tests_SRS_SERVICE_SDK_JAVA_PROVISIONINGSERVICECLIENTEXCEPTIONMANAGER_21_007: [The function shall throw ProvisioningServiceClientInternalServerErrorException if the response status equal 500]
     // Assert
     @Test (expected = ProvisioningServiceClientInternalServerErrorException.class)
@@ -116,7 +116,7 @@ public class ServiceClient
         }
 
         // Codes_SRS_SERVICE_SDK_JAVA_SERVICECLIENT_12_007: [The constructor shall create a new instance of AmqpSend object]
-        this.amqpMessageSender = new AmqpSend(hostName, userName, sasToken, this.iotHubServiceClientProtocol, options.getProxyOptions());
+        this.amqpMessageSender = new AmqpSend(hostName, userName, sasToken, this.iotHubServiceClientProtocol, options.getProxyOptions(), options.isUsePersistentAmqpConnection());
     }
 
     /**
@@ -134,7 +134,15 @@ public class ServiceClient
         log.info("Opening service client...");
 
         // Codes_SRS_SERVICE_SDK_JAVA_SERVICECLIENT_12_009: [The function shall call open() on the member AMQP sender object]
-        this.amqpMessageSender.open();
+        if (this.options.isUsePersistentAmqpConnection())
+        {
+            // Reports a failure to open the persistent connection, rather than leaving it to the first send
+            this.amqpMessageSender.connect();
+        }
+        else
+        {
+            this.amqpMessageSender.open();
+        }
         log.info("Service client opened successfully");
     }
 
@@ -158,7 +166,9 @@ public class ServiceClient
 
     /**
      * Send a one-way message to the specified device. This function is synchronized internally so that only one send operation
-     * is allowed at a time. In order to do more send operations at a time, you will need to instantiate another service client instance.
+     * is allowed at a time. In order to do more send operations at a time, you will need to instantiate another service client instance,
+     * or use a persistent connection (see the usePersistentAmqpConnection option of {@link ServiceClientOptions}), which allows
+     * concurrent sends over a single connection.
      *
      * @param deviceId The device identifier for the target device
      * @param message The message for the device
@@ -173,7 +183,9 @@ public class ServiceClient
 
     /**
      * Send a one-way message to the specified module. This function is synchronized internally so that only one send operation
-     * is allowed at a time. In order to do more send operations at a time, you will need to instantiate another service client instance.
+     * is allowed at a time. In order to do more send operations at a time, you will need to instantiate another service client instance,
+     * or use a persistent connection (see the usePersistentAmqpConnection option of {@link ServiceClientOptions}), which allows
+     * concurrent sends over a single connection.
      *
      * @param deviceId The device identifier for the target device
      * @param moduleId The module identifier for the target device
@@ -246,12 +258,31 @@ public class ServiceClient
      */
     public CompletableFuture<Void> sendAsync(String deviceId, Message message)
     {
+        return sendAsync(deviceId, null, message);
+    }
+
+    /**
+     * Provide asynchronous access to send(). If this client uses a persistent connection, the returned future is completed
+     * directly from the message's delivery acknowledgement and many sends may be in flight at once.
+     *
+     * @param deviceId The device identifier for the target device
+     * @param moduleId The module identifier for the target module, or null if the message is for the device
+     * @param message The message for the device
+     * @return The future object for the requested operation
+     */
+    public CompletableFuture<Void> sendAsync(String deviceId, String moduleId, Message message)
+    {
+        if (this.options.isUsePersistentAmqpConnection() && this.amqpMessageSender != null)
+        {
+            return this.amqpMessageSender.sendAsync(deviceId, moduleId, message);
+        }
+
         // Codes_SRS_SERVICE_SDK_JAVA_SERVICECLIENT_12_016: [The function shall create an async wrapper around the send() function call]
         final CompletableFuture<Void> future = new CompletableFuture<>();
         executor.submit(() -> {
         try
         {
-            send(deviceId, message);
+            send(deviceId, moduleId, message);
             future.complete(null);
         } catch (Exception e)
         {
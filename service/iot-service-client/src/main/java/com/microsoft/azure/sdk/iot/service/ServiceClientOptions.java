@@ -14,4 +14,13 @@ public class ServiceClientOptions
      */
     @Getter
     private ProxyOptions proxyOptions;
+
+    /**
+     * If true, the service client opens a single AMQP connection and cloud to device sender link when it is opened, and
+     * sends every message over it until it is closed. Sends are pipelined on the link, so many may be in flight at once.
+     * If false, each send opens and closes its own AMQP connection. Defaults to false.
+     */
+    @Getter
+    @Builder.Default
+    private boolean usePersistentAmqpConnection = false;
 }
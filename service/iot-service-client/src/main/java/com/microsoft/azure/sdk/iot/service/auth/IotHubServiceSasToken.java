@@ -66,6 +66,38 @@ public final class IotHubServiceSasToken
         this.token =  buildToken();
     }
 
+    /**
+     * Constructor. Generates a SAS token that grants access to an IoT Hub for
+     * the provided amount of time.
+     *
+     * @param iotHubConnectionString Connection string object containing the connection parameters
+     * @param tokenLifespanSeconds The number of seconds from now that the token shall be valid for. Must be positive.
+     */
+    public IotHubServiceSasToken(IotHubConnectionString iotHubConnectionString, long tokenLifespanSeconds)
+    {
+        if (iotHubConnectionString == null)
+        {
+            throw new IllegalArgumentException();
+        }
+
+        if (tokenLifespanSeconds <= 0)
+        {
+            throw new IllegalArgumentException("tokenLifespanSeconds must be positive");
+        }
+
+        this.TOKEN_VALID_SECS = tokenLifespanSeconds;
+        // Codes_SRS_SERVICE_SDK_JAVA_IOTHUBSERVICESASTOKEN_12_002: [The constructor shall create a target uri from the url encoded host name)]
+        // Codes_SRS_SERVICE_SDK_JAVA_IOTHUBSERVICESASTOKEN_12_003: [The constructor shall create a string to sign by concatenating the target uri and the expiry time string (one year)]
+        // Codes_SRS_SERVICE_SDK_JAVA_IOTHUBSERVICESASTOKEN_12_004: [The constructor shall create a key from the shared access key signing with HmacSHA256]
+        // Codes_SRS_SERVICE_SDK_JAVA_IOTHUBSERVICESASTOKEN_12_005: [The constructor shall compute the final signature by url encoding the signed key]
+        // Codes_SRS_SERVICE_SDK_JAVA_IOTHUBSERVICESASTOKEN_12_006: [The constructor shall concatenate the target uri, the signature, the expiry time and the key name using the format: "SharedAccessSignature sr=%s&sig=%s&se=%s&skn=%s"]
+        this.resourceUri = iotHubConnectionString.getHostName();
+        this.keyValue = iotHubConnectionString.getSharedAccessKey();
+        this.keyName = iotHubConnectionString.getSharedAccessKeyName();
+        this.expiryTime = buildExpiresOn();
+        this.token =  buildToken();
+    }
+
     /**
      * Helper function to build the token string
      *
@@ -120,6 +152,16 @@ public final class IotHubServiceSasToken
         return expiresOnDate / 1000;
     }
 
+    /**
+     * Returns the time, as a UNIX timestamp in seconds, at which this token expires.
+     *
+     * @return The expiry time of this token.
+     */
+    public long getExpiryTime()
+    {
+        return this.expiryTime;
+    }
+
     /**
      * Returns the string representation of the SAS token.
      *
@@ -0,0 +1,329 @@
+/*
+ * Copyright (c) Microsoft. All rights reserved.
+ * Licensed under the MIT license. See LICENSE file in the project root for full license information.
+ */
+
+package com.microsoft.azure.sdk.iot.service.auth;
+
+import com.microsoft.azure.sdk.iot.service.IotHubConnectionString;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the SAS token for a single {@link IotHubConnectionString} so that it does not have to be signed again for
+ * every service request. The cached token is handed out until a configurable fraction of its lifetime has elapsed.
+ * After that point the cached token is still handed out, but a renewal is started on a background thread so that no
+ * request has to wait for it. A request only signs a token itself when there is no cached token yet or when the cached
+ * token has already expired.
+ */
+@Slf4j
+public final class IotHubServiceSasTokenCache
+{
+    /**
+     * The fraction of a token's lifetime after which it is renewed in the background, if none is provided.
+     */
+    public static final double DEFAULT_RENEWAL_FRACTION = 0.75;
+
+    private static final String CREDENTIALS_HASH_ALGORITHM = "SHA-256";
+    private static final long IDLE_RENEWAL_THREAD_KEEP_ALIVE_SECONDS = 60;
+
+    // Keyed on a hash of the credentials rather than the connection string object, so that every client built for the
+    // same hub and shared access policy shares a single token without the shared access key being kept as a map key
+    private static final Map<String, IotHubServiceSasTokenCache> CACHES = new ConcurrentHashMap<>();
+
+    // The renewal thread times out when idle, so that it does not outlive the clients that use the caches
+    private static final ExecutorService RENEWAL_EXECUTOR = createRenewalExecutor();
+
+    private final IotHubConnectionString iotHubConnectionString;
+    private final long tokenLifespanSeconds;
+    private final double renewalFraction;
+
+    private final Object renewalLock = new Object();
+    private final AtomicBoolean renewalScheduled = new AtomicBoolean(false);
+    private final AtomicLong cacheHitCount = new AtomicLong(0);
+    private final AtomicLong renewalCount = new AtomicLong(0);
+    private volatile CachedToken cachedToken;
+
+    /**
+     * Get the shared token cache for the provided connection string's host name and shared access policy, creating it
+     * if this is the first time it is asked for. The shared cache uses the default token lifespan of
+     * {@link IotHubServiceSasToken} and the {@link #DEFAULT_RENEWAL_FRACTION}.
+     *
+     * @param iotHubConnectionString the connection string to cache tokens for. Cannot be null.
+     * @return the shared token cache for the provided connection string.
+     */
+    public static IotHubServiceSasTokenCache forConnectionString(IotHubConnectionString iotHubConnectionString)
+    {
+        return forConnectionString(iotHubConnectionString, DEFAULT_RENEWAL_FRACTION);
+    }
+
+    /**
+     * Get the shared token cache for the provided connection string's host name and shared access policy and the
+     * provided renewal fraction, creating it if this is the first time it is asked for. The shared cache uses the
+     * default token lifespan of {@link IotHubServiceSasToken}.
+     *
+     * @param iotHubConnectionString the connection string to cache tokens for. Cannot be null.
+     * @param renewalFraction the fraction of a token's lifetime after which it is renewed. Must be greater than 0 and no
+     * greater than 1, or 0 for the {@link #DEFAULT_RENEWAL_FRACTION}.
+     * @return the shared token cache for the provided connection string and renewal fraction.
+     */
+    public static IotHubServiceSasTokenCache forConnectionString(IotHubConnectionString iotHubConnectionString, double renewalFraction)
+    {
+        if (iotHubConnectionString == null)
+        {
+            throw new IllegalArgumentException("iotHubConnectionString cannot be null");
+        }
+
+        final double cacheRenewalFraction = renewalFraction == 0 ? DEFAULT_RENEWAL_FRACTION : renewalFraction;
+        String cacheKey = getCredentialsHash(iotHubConnectionString) + "/" + cacheRenewalFraction;
+
+        return CACHES.computeIfAbsent(cacheKey, key -> new IotHubServiceSasTokenCache(iotHubConnectionString, cacheRenewalFraction));
+    }
+
+    /**
+     * Drop the shared token caches of the provided connection string's host name and shared access policy, for all
+     * renewal fractions. Clients call this when they are closed, so that the caches do not outlive them. Any other
+     * client that still uses the same credentials gets a new cache on its next request, which signs a new token.
+     *
+     * @param iotHubConnectionString the connection string to drop the caches of. Cannot be null.
+     */
+    public static void evict(IotHubConnectionString iotHubConnectionString)
+    {
+        if (iotHubConnectionString == null)
+        {
+            throw new IllegalArgumentException("iotHubConnectionString cannot be null");
+        }
+
+        String cacheKeyPrefix = getCredentialsHash(iotHubConnectionString) + "/";
+        CACHES.keySet().removeIf(cacheKey -> cacheKey.startsWith(cacheKeyPrefix));
+    }
+
+    /**
+     * Drop all the shared token caches, so that tests do not depend on the tokens cached by the tests that ran before.
+     */
+    static void clear()
+    {
+        CACHES.clear();
+    }
+
+    /**
+     * Constructor for a token cache that signs tokens with the default lifespan of {@link IotHubServiceSasToken}.
+     *
+     * @param iotHubConnectionString the connection string to cache tokens for. Cannot be null.
+     * @param renewalFraction the fraction of a token's lifetime after which it is renewed. Must be greater than 0 and no
+     * greater than 1.
+     */
+    IotHubServiceSasTokenCache(IotHubConnectionString iotHubConnectionString, double renewalFraction)
+    {
+        this(iotHubConnectionString, 0, renewalFraction, true);
+    }
+
+    /**
+     * Constructor for a token cache that signs tokens with the provided lifespan.
+     *
+     * @param iotHubConnectionString the connection string to cache tokens for. Cannot be null.
+     * @param tokenLifespanSeconds the number of seconds that each signed token is valid for. Must be positive.
+     * @param renewalFraction the fraction of a token's lifetime after which it is renewed. Must be greater than 0 and no
+     * greater than 1.
+     */
+    IotHubServiceSasTokenCache(IotHubConnectionString iotHubConnectionString, long tokenLifespanSeconds, double renewalFraction)
+    {
+        this(iotHubConnectionString, tokenLifespanSeconds, renewalFraction, false);
+    }
+
+    private IotHubServiceSasTokenCache(IotHubConnectionString iotHubConnectionString, long tokenLifespanSeconds, double renewalFraction, boolean useDefaultLifespan)
+    {
+        if (iotHubConnectionString == null)
+        {
+            throw new IllegalArgumentException("iotHubConnectionString cannot be null");
+        }
+
+        if (!useDefaultLifespan && tokenLifespanSeconds <= 0)
+        {
+            throw new IllegalArgumentException("tokenLifespanSeconds must be positive");
+        }
+
+        if (!(renewalFraction > 0 && renewalFraction <= 1))
+        {
+            throw new IllegalArgumentException("renewalFraction must be greater than 0 and no greater than 1");
+        }
+
+        this.iotHubConnectionString = iotHubConnectionString;
+        this.tokenLifespanSeconds = tokenLifespanSeconds;
+        this.renewalFraction = renewalFraction;
+    }
+
+    /**
+     * Get a SAS token for this cache's connection string. Returns the cached token if it has not expired yet, and starts
+     * a background renewal if the cached token is past its renewal point.
+     *
+     * @return the SAS token string.
+     */
+    public String getToken()
+    {
+        CachedToken current = this.cachedToken;
+        long now = System.currentTimeMillis();
+        if (current != null && now < current.expiresAtMillis)
+        {
+            this.cacheHitCount.incrementAndGet();
+            if (now >= current.renewAtMillis)
+            {
+                scheduleRenewal();
+            }
+
+            return current.token;
+        }
+
+        return renew();
+    }
+
+    /**
+     * @return the number of times {@link #getToken()} was answered from the cache.
+     */
+    public long getCacheHitCount()
+    {
+        return this.cacheHitCount.get();
+    }
+
+    /**
+     * @return the number of tokens this cache has signed, both on the request path and in the background.
+     */
+    public long getRenewalCount()
+    {
+        return this.renewalCount.get();
+    }
+
+    private String renew()
+    {
+        synchronized (this.renewalLock)
+        {
+            // Another thread may have renewed the token while this one was waiting for the lock
+            CachedToken current = this.cachedToken;
+            long issuedAtMillis = System.currentTimeMillis();
+            if (current != null && issuedAtMillis < current.renewAtMillis)
+            {
+                this.cacheHitCount.incrementAndGet();
+                return current.token;
+            }
+
+            IotHubServiceSasToken sasToken = this.tokenLifespanSeconds > 0
+                    ? new IotHubServiceSasToken(this.iotHubConnectionString, this.tokenLifespanSeconds)
+                    : new IotHubServiceSasToken(this.iotHubConnectionString);
+            this.renewalCount.incrementAndGet();
+
+            String token = sasToken.toString();
+            if (token == null || token.isEmpty())
+            {
+                // Nothing worth caching; the caller decides how to report the missing token
+                return token;
+            }
+
+            long expiresAtMillis = sasToken.getExpiryTime() * 1000;
+            long renewAtMillis = issuedAtMillis + (long) ((expiresAtMillis - issuedAtMillis) * this.renewalFraction);
+            this.cachedToken = new CachedToken(token, renewAtMillis, expiresAtMillis);
+            return token;
+        }
+    }
+
+    private void scheduleRenewal()
+    {
+        if (!this.renewalScheduled.compareAndSet(false, true))
+        {
+            return;
+        }
+
+        try
+        {
+            RENEWAL_EXECUTOR.execute(() ->
+            {
+                try
+                {
+                    renew();
+                }
+                catch (RuntimeException e)
+                {
+                    // The cached token is still valid, so the next request past the renewal point will try again
+                    log.warn("Failed to renew the cached service SAS token", e);
+                }
+                finally
+                {
+                    this.renewalScheduled.set(false);
+                }
+            });
+        }
+        catch (RejectedExecutionException e)
+        {
+            this.renewalScheduled.set(false);
+            log.warn("Failed to schedule a renewal of the cached service SAS token", e);
+        }
+    }
+
+    private static String getCredentialsHash(IotHubConnectionString iotHubConnectionString)
+    {
+        String credentials = iotHubConnectionString.getHostName()
+                + "\n" + iotHubConnectionString.getSharedAccessKeyName()
+                + "\n" + iotHubConnectionString.getSharedAccessKey();
+
+        try
+        {
+            byte[] hash = MessageDigest.getInstance(CREDENTIALS_HASH_ALGORITHM).digest(credentials.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hexHash = new StringBuilder(hash.length * 2);
+            for (byte hashByte : hash)
+            {
+                hexHash.append(String.format(Locale.ROOT, "%02x", hashByte));
+            }
+
+            return hexHash.toString();
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ExecutorService createRenewalExecutor()
+    {
+        ThreadPoolExecutor renewalExecutor = new ThreadPoolExecutor(
+                1,
+                1,
+                IDLE_RENEWAL_THREAD_KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable ->
+                {
+                    Thread thread = new Thread(runnable, "azure-iot-sdk-IotHubServiceSasTokenCache");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        renewalExecutor.allowCoreThreadTimeOut(true);
+        return renewalExecutor;
+    }
+
+    private static final class CachedToken
+    {
+        private final String token;
+        private final long renewAtMillis;
+        private final long expiresAtMillis;
+
+        private CachedToken(String token, long renewAtMillis, long expiresAtMillis)
+        {
+            this.token = token;
+            this.renewAtMillis = renewAtMillis;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
@@ -6,6 +6,7 @@ package com.microsoft.azure.sdk.iot.service.devicetwin;
 import com.microsoft.azure.sdk.iot.deps.serializer.MethodParser;
 import com.microsoft.azure.sdk.iot.service.IotHubConnectionString;
 import com.microsoft.azure.sdk.iot.service.IotHubConnectionStringBuilder;
+import com.microsoft.azure.sdk.iot.service.auth.IotHubServiceSasTokenCache;
 import com.microsoft.azure.sdk.iot.service.exceptions.IotHubException;
 import com.microsoft.azure.sdk.iot.service.transport.http.HttpMethod;
 import com.microsoft.azure.sdk.iot.service.transport.http.HttpResponse;
@@ -14,18 +15,40 @@ import java.io.IOException;
 import java.net.Proxy;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * DeviceMethod enables service client to directly invoke methods on various devices from service client.
+ * <p>
+ * All methods of this class are thread safe, and invocations made from different threads run concurrently. Use
+ * {@link #invokeAsync(String, String, Long, Long, Object)} or {@link #invokeBulkAsync(Collection, String, Long, Long, Object, Consumer)}
+ * to fan a method out to many devices without dedicating a thread to each one.
  */
 public class DeviceMethod
 {
+    private static final long IDLE_THREAD_KEEP_ALIVE_SECONDS = 60;
+
     private IotHubConnectionString iotHubConnectionString = null;
-    private Integer requestId = 0;
+    private final AtomicInteger requestId = new AtomicInteger(0);
 
     private DeviceMethodClientOptions options;
 
+    // Created on first use, so that clients that only ever invoke synchronously never start a thread
+    private ExecutorService executor;
+
     /**
      * Create a DeviceMethod instance from the information in the connection string.
      *
@@ -40,6 +63,7 @@ public class DeviceMethod
                 DeviceMethodClientOptions.builder()
                     .httpConnectTimeout(DeviceMethodClientOptions.DEFAULT_HTTP_CONNECT_TIMEOUT_MS)
                     .httpReadTimeout(DeviceMethodClientOptions.DEFAULT_HTTP_READ_TIMEOUT_MS)
+                    .maxConcurrentInvocations(DeviceMethodClientOptions.DEFAULT_MAX_CONCURRENT_INVOCATIONS)
                     .build());
     }
 
@@ -63,6 +87,16 @@ public class DeviceMethod
             throw new IllegalArgumentException("options may not be null");
         }
 
+        if (options.getMaxConcurrentInvocations() < 0)
+        {
+            throw new IllegalArgumentException("maxConcurrentInvocations may not be negative");
+        }
+
+        if (!(options.getSasTokenRenewalFraction() >= 0 && options.getSasTokenRenewalFraction() <= 1))
+        {
+            throw new IllegalArgumentException("sasTokenRenewalFraction must be 0, or greater than 0 and no greater than 1");
+        }
+
         DeviceMethod deviceMethod = new DeviceMethod();
         deviceMethod.options = options;
 
@@ -83,7 +117,7 @@ public class DeviceMethod
      * @throws IotHubException This exception is thrown if the response verification failed.
      * @throws IOException This exception is thrown if the IO operation failed.
      */
-    public synchronized MethodResult invoke(String deviceId, String methodName, Long responseTimeoutInSeconds, Long connectTimeoutInSeconds, Object payload) throws IotHubException, IOException
+    public MethodResult invoke(String deviceId, String methodName, Long responseTimeoutInSeconds, Long connectTimeoutInSeconds, Object payload) throws IotHubException, IOException
     {
         /* Codes_SRS_DEVICEMETHOD_21_004: [The invoke shall throw IllegalArgumentException if the provided deviceId is null or empty.] */
         if((deviceId == null) || deviceId.isEmpty())
@@ -116,7 +150,7 @@ public class DeviceMethod
      * @throws IotHubException This exception is thrown if the response verification failed.
      * @throws IOException This exception is thrown if the IO operation failed.
      */
-    public synchronized MethodResult invoke(String deviceId, String moduleId, String methodName, Long responseTimeoutInSeconds, Long connectTimeoutInSeconds, Object payload) throws IotHubException, IOException
+    public MethodResult invoke(String deviceId, String moduleId, String methodName, Long responseTimeoutInSeconds, Long connectTimeoutInSeconds, Object payload) throws IotHubException, IOException
     {
         /* Codes_SRS_DEVICEMETHOD_28_001: [The invoke shall throw IllegalArgumentException if the provided deviceId is null or empty.] */
         if((deviceId == null) || deviceId.isEmpty())
@@ -154,7 +188,7 @@ public class DeviceMethod
      * @throws IotHubException This exception is thrown if the response verification failed.
      * @throws IOException This exception is thrown if the IO operation failed.
      */
-    private synchronized MethodResult invokeMethod(URL url, String methodName, Long responseTimeoutInSeconds, Long connectTimeoutInSeconds, Object payload) throws IotHubException, IOException
+    private MethodResult invokeMethod(URL url, String methodName, Long responseTimeoutInSeconds, Long connectTimeoutInSeconds, Object payload) throws IotHubException, IOException
     {
         MethodParser methodParser = new MethodParser(methodName, responseTimeoutInSeconds, connectTimeoutInSeconds, payload);
 
@@ -165,7 +199,7 @@ public class DeviceMethod
         }
 
         Proxy proxy = options.getProxyOptions() != null ? options.getProxyOptions().getProxy() : null;
-        HttpResponse response = DeviceOperations.request(this.iotHubConnectionString, url, HttpMethod.POST, json.getBytes(StandardCharsets.UTF_8), String.valueOf(requestId++), options.getHttpConnectTimeout(), options.getHttpReadTimeout(), proxy);
+        HttpResponse response = DeviceOperations.request(this.iotHubConnectionString, url, HttpMethod.POST, json.getBytes(StandardCharsets.UTF_8), String.valueOf(requestId.getAndIncrement()), options.getHttpConnectTimeout(), options.getHttpReadTimeout(), proxy, options.getSasTokenRenewalFraction());
 
         MethodParser methodParserResponse = new MethodParser();
         methodParserResponse.fromJson(new String(response.getBody(), StandardCharsets.UTF_8));
@@ -173,6 +207,225 @@ public class DeviceMethod
         return new MethodResult(methodParserResponse.getStatus(), methodParserResponse.getPayload());
     }
 
+    /**
+     * Directly invokes a method on the device without blocking the calling thread. At most
+     * maxConcurrentInvocations of the {@link DeviceMethodClientOptions} asynchronous invocations run at once, and the
+     * rest wait for one of them to complete.
+     *
+     * @param deviceId is the device where the request is send to.
+     * @param methodName is the name of the method that shall be invoked on the device.
+     * @param responseTimeoutInSeconds is the maximum waiting time for a response from the device in seconds.
+     * @param connectTimeoutInSeconds is the maximum waiting time for a response from the connection in seconds.
+     * @param payload is the the method parameter.
+     * @return a future that completes with the status and payload resulted from the method invoke, or completes
+     * exceptionally with an {@link IotHubException} or {@link IOException} if the invocation failed, or with a
+     * {@link CancellationException} if the client was closed before the invocation started.
+     */
+    public CompletableFuture<MethodResult> invokeAsync(String deviceId, String methodName, Long responseTimeoutInSeconds, Long connectTimeoutInSeconds, Object payload)
+    {
+        if ((deviceId == null) || deviceId.isEmpty())
+        {
+            throw new IllegalArgumentException("deviceId is empty or null.");
+        }
+
+        if ((methodName == null) || methodName.isEmpty())
+        {
+            throw new IllegalArgumentException("methodName is empty or null.");
+        }
+
+        return invokeMethodAsync(DeviceMethodTarget.forDevice(deviceId), methodName, responseTimeoutInSeconds, connectTimeoutInSeconds, payload);
+    }
+
+    /**
+     * Directly invokes a method on the module without blocking the calling thread. At most
+     * maxConcurrentInvocations of the {@link DeviceMethodClientOptions} asynchronous invocations run at once, and the
+     * rest wait for one of them to complete.
+     *
+     * @param deviceId is the device where the module is related to.
+     * @param moduleId is the module where the request is sent to.
+     * @param methodName is the name of the method that shall be invoked on the device.
+     * @param responseTimeoutInSeconds is the maximum waiting time for a response from the device in seconds.
+     * @param connectTimeoutInSeconds is the maximum waiting time for a response from the connection in seconds.
+     * @param payload is the the method parameter.
+     * @return a future that completes with the status and payload resulted from the method invoke, or completes
+     * exceptionally with an {@link IotHubException} or {@link IOException} if the invocation failed, or with a
+     * {@link CancellationException} if the client was closed before the invocation started.
+     */
+    public CompletableFuture<MethodResult> invokeAsync(String deviceId, String moduleId, String methodName, Long responseTimeoutInSeconds, Long connectTimeoutInSeconds, Object payload)
+    {
+        if ((methodName == null) || methodName.isEmpty())
+        {
+            throw new IllegalArgumentException("methodName is empty or null.");
+        }
+
+        return invokeMethodAsync(DeviceMethodTarget.forModule(deviceId, moduleId), methodName, responseTimeoutInSeconds, connectTimeoutInSeconds, payload);
+    }
+
+    /**
+     * Invokes the same method on many devices and modules at once, reporting each result as soon as it is available
+     * rather than after the slowest device has responded. Invocations share the concurrency limit of
+     * {@link #invokeAsync(String, String, Long, Long, Object)}.
+     *
+     * @param targets the devices and modules to invoke the method on. Cannot be null.
+     * @param methodName is the name of the method that shall be invoked on each target.
+     * @param responseTimeoutInSeconds is the maximum waiting time for a response from each device in seconds.
+     * @param connectTimeoutInSeconds is the maximum waiting time for a response from the connection in seconds.
+     * @param payload is the the method parameter.
+     * @param resultCallback called once per target, from a worker thread, as each invocation completes. Calls may be
+     * made concurrently, so the callback must be thread safe. Cannot be null.
+     * @return a future that completes once every invocation has completed and its result has been passed to the
+     * callback. Failures of individual invocations are reported to the callback, not through this future.
+     */
+    public CompletableFuture<Void> invokeBulkAsync(Collection<DeviceMethodTarget> targets, String methodName, Long responseTimeoutInSeconds, Long connectTimeoutInSeconds, Object payload, Consumer<DeviceMethodBulkResult> resultCallback)
+    {
+        if (targets == null)
+        {
+            throw new IllegalArgumentException("targets cannot be null.");
+        }
+
+        if ((methodName == null) || methodName.isEmpty())
+        {
+            throw new IllegalArgumentException("methodName is empty or null.");
+        }
+
+        if (resultCallback == null)
+        {
+            throw new IllegalArgumentException("resultCallback cannot be null.");
+        }
+
+        List<CompletableFuture<Void>> reported = new ArrayList<>(targets.size());
+        for (DeviceMethodTarget target : targets)
+        {
+            if (target == null)
+            {
+                throw new IllegalArgumentException("targets cannot contain null.");
+            }
+
+            reported.add(invokeMethodAsync(target, methodName, responseTimeoutInSeconds, connectTimeoutInSeconds, payload)
+                    .handle((methodResult, throwable) ->
+                    {
+                        Throwable exception = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+                        resultCallback.accept(new DeviceMethodBulkResult(target, methodResult, exception));
+                        return null;
+                    }));
+        }
+
+        return CompletableFuture.allOf(reported.toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * Stop the worker threads used by the asynchronous invoke methods. Invocations that have not started yet are
+     * abandoned, and their futures complete exceptionally with a {@link CancellationException}, so the future of an
+     * {@link #invokeBulkAsync(Collection, String, Long, Long, Object, Consumer)} call still completes, after passing
+     * each abandoned target to its callback. The cached SAS token of the client's credentials is dropped as well.
+     * Worker threads also stop on their own once idle, so calling this is only needed to release them early.
+     * Asynchronous invocations made after this call start a new set of threads.
+     */
+    public synchronized void close()
+    {
+        // The cached token is dropped along with the client, rather than kept for the lifetime of the process
+        if (this.iotHubConnectionString != null)
+        {
+            IotHubServiceSasTokenCache.evict(this.iotHubConnectionString);
+        }
+
+        if (this.executor != null)
+        {
+            for (Runnable abandoned : this.executor.shutdownNow())
+            {
+                ((MethodInvocation) abandoned).cancel();
+            }
+
+            this.executor = null;
+        }
+    }
+
+    private CompletableFuture<MethodResult> invokeMethodAsync(DeviceMethodTarget target, String methodName, Long responseTimeoutInSeconds, Long connectTimeoutInSeconds, Object payload)
+    {
+        MethodInvocation invocation = new MethodInvocation(target, methodName, responseTimeoutInSeconds, connectTimeoutInSeconds, payload);
+        try
+        {
+            getExecutor().execute(invocation);
+        }
+        catch (RejectedExecutionException e)
+        {
+            // The client was closed between getting the executor and queuing the invocation
+            invocation.cancel();
+        }
+
+        return invocation.future;
+    }
+
+    // Queued as is rather than wrapped in a FutureTask, so that close can complete the future of each abandoned one
+    private class MethodInvocation implements Runnable
+    {
+        private final DeviceMethodTarget target;
+        private final String methodName;
+        private final Long responseTimeoutInSeconds;
+        private final Long connectTimeoutInSeconds;
+        private final Object payload;
+        private final CompletableFuture<MethodResult> future = new CompletableFuture<>();
+
+        private MethodInvocation(DeviceMethodTarget target, String methodName, Long responseTimeoutInSeconds, Long connectTimeoutInSeconds, Object payload)
+        {
+            this.target = target;
+            this.methodName = methodName;
+            this.responseTimeoutInSeconds = responseTimeoutInSeconds;
+            this.connectTimeoutInSeconds = connectTimeoutInSeconds;
+            this.payload = payload;
+        }
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                URL url = this.target.getModuleId() == null
+                        ? iotHubConnectionString.getUrlMethod(this.target.getDeviceId())
+                        : iotHubConnectionString.getUrlModuleMethod(this.target.getDeviceId(), this.target.getModuleId());
+                this.future.complete(invokeMethod(url, this.methodName, this.responseTimeoutInSeconds, this.connectTimeoutInSeconds, this.payload));
+            }
+            catch (IOException | IotHubException | RuntimeException e)
+            {
+                this.future.completeExceptionally(e);
+            }
+        }
+
+        private void cancel()
+        {
+            this.future.completeExceptionally(new CancellationException("The invocation was abandoned since the client was closed"));
+        }
+    }
+
+    private synchronized ExecutorService getExecutor()
+    {
+        if (this.executor == null)
+        {
+            int maxConcurrentInvocations = this.options.getMaxConcurrentInvocations() > 0
+                    ? this.options.getMaxConcurrentInvocations()
+                    : DeviceMethodClientOptions.DEFAULT_MAX_CONCURRENT_INVOCATIONS;
+
+            // A fixed size pool bounds the number of invocations in flight, the queue holds the rest. Idle threads time
+            // out and are daemons, so a client that is never closed does not keep the JVM alive.
+            ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(
+                    maxConcurrentInvocations,
+                    maxConcurrentInvocations,
+                    IDLE_THREAD_KEEP_ALIVE_SECONDS,
+                    TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(),
+                    runnable ->
+                    {
+                        Thread thread = new Thread(runnable, "azure-iot-sdk-DeviceMethod");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            threadPoolExecutor.allowCoreThreadTimeOut(true);
+            this.executor = threadPoolExecutor;
+        }
+
+        return this.executor;
+    }
+
     /**
      * Creates a new Job to invoke method on one or multiple devices.
      *
@@ -0,0 +1,56 @@
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+
+package com.microsoft.azure.sdk.iot.service.devicetwin;
+
+/**
+ * The outcome of invoking a direct method on one of the targets of
+ * {@link DeviceMethod#invokeBulkAsync(java.util.Collection, String, Long, Long, Object, java.util.function.Consumer)}.
+ * Exactly one of {@link #getMethodResult()} and {@link #getException()} is non-null.
+ */
+public final class DeviceMethodBulkResult
+{
+    private final DeviceMethodTarget target;
+    private final MethodResult methodResult;
+    private final Throwable exception;
+
+    DeviceMethodBulkResult(DeviceMethodTarget target, MethodResult methodResult, Throwable exception)
+    {
+        this.target = target;
+        this.methodResult = methodResult;
+        this.exception = exception;
+    }
+
+    /**
+     * @return the device or module the method was invoked on.
+     */
+    public DeviceMethodTarget getTarget()
+    {
+        return this.target;
+    }
+
+    /**
+     * @return the status and payload returned by the device, or null if the invocation failed.
+     */
+    public MethodResult getMethodResult()
+    {
+        return this.methodResult;
+    }
+
+    /**
+     * @return the reason the invocation failed, such as an {@link com.microsoft.azure.sdk.iot.service.exceptions.IotHubException}
+     * or an {@link java.io.IOException}, or null if it succeeded.
+     */
+    public Throwable getException()
+    {
+        return this.exception;
+    }
+
+    /**
+     * @return true if the method was invoked and the device responded.
+     */
+    public boolean isSuccess()
+    {
+        return this.exception == null;
+    }
+}
@@ -12,6 +12,7 @@ public class DeviceMethodClientOptions
 {
     protected static final Integer DEFAULT_HTTP_READ_TIMEOUT_MS = 24000; // 24 seconds
     protected static final Integer DEFAULT_HTTP_CONNECT_TIMEOUT_MS = 24000; // 24 seconds
+    protected static final Integer DEFAULT_MAX_CONCURRENT_INVOCATIONS = 10;
 
     /**
      * The options that specify what proxy to tunnel through. If null, no proxy will be used.
@@ -36,4 +37,22 @@ public class DeviceMethodClientOptions
      */
     @Getter
     private int httpConnectTimeout;
+
+    /**
+     * The maximum number of method invocations made through {@link DeviceMethod#invokeAsync(String, String, Long, Long, Object)},
+     * its module overload, or {@link DeviceMethod#invokeBulkAsync(java.util.Collection, String, Long, Long, Object, java.util.function.Consumer)}
+     * that may be in flight at once. Invocations beyond this limit are queued until an earlier one completes. Calls to
+     * the synchronous invoke methods are not counted against this limit. A value of zero means the default,
+     * {@link #DEFAULT_MAX_CONCURRENT_INVOCATIONS}. Must be a non-negative value.
+     */
+    @Getter
+    private int maxConcurrentInvocations;
+
+    /**
+     * The fraction of the lifetime of the cached service SAS token after which it is renewed in the background. A value
+     * of zero means the default, {@link com.microsoft.azure.sdk.iot.service.auth.IotHubServiceSasTokenCache#DEFAULT_RENEWAL_FRACTION}.
+     * Must be zero, or greater than 0 and no greater than 1.
+     */
+    @Getter
+    private double sasTokenRenewalFraction;
 }
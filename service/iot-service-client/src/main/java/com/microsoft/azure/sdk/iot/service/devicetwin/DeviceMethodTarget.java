@@ -0,0 +1,80 @@
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license. See LICENSE file in the project root for full license information.
+
+package com.microsoft.azure.sdk.iot.service.devicetwin;
+
+/**
+ * A device, or a module on a device, that a direct method is invoked on as part of
+ * {@link DeviceMethod#invokeBulkAsync(java.util.Collection, String, Long, Long, Object, java.util.function.Consumer)}.
+ */
+public final class DeviceMethodTarget
+{
+    private final String deviceId;
+    private final String moduleId;
+
+    private DeviceMethodTarget(String deviceId, String moduleId)
+    {
+        this.deviceId = deviceId;
+        this.moduleId = moduleId;
+    }
+
+    /**
+     * Create a target for a method on a device.
+     *
+     * @param deviceId the id of the device. Cannot be null or empty.
+     * @return the target.
+     */
+    public static DeviceMethodTarget forDevice(String deviceId)
+    {
+        if ((deviceId == null) || deviceId.isEmpty())
+        {
+            throw new IllegalArgumentException("deviceId is empty or null.");
+        }
+
+        return new DeviceMethodTarget(deviceId, null);
+    }
+
+    /**
+     * Create a target for a method on a module.
+     *
+     * @param deviceId the id of the device the module belongs to. Cannot be null or empty.
+     * @param moduleId the id of the module. Cannot be null or empty.
+     * @return the target.
+     */
+    public static DeviceMethodTarget forModule(String deviceId, String moduleId)
+    {
+        if ((deviceId == null) || deviceId.isEmpty())
+        {
+            throw new IllegalArgumentException("deviceId is empty or null.");
+        }
+
+        if ((moduleId == null) || moduleId.isEmpty())
+        {
+            throw new IllegalArgumentException("moduleId is empty or null.");
+        }
+
+        return new DeviceMethodTarget(deviceId, moduleId);
+    }
+
+    /**
+     * @return the id of the device.
+     */
+    public String getDeviceId()
+    {
+        return this.deviceId;
+    }
+
+    /**
+     * @return the id of the module, or null if this target is a device.
+     */
+    public String getModuleId()
+    {
+        return this.moduleId;
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.moduleId == null ? this.deviceId : this.deviceId + "/" + this.moduleId;
+    }
+}
@@ -4,7 +4,7 @@
 package com.microsoft.azure.sdk.iot.service.devicetwin;
 
 import com.microsoft.azure.sdk.iot.service.IotHubConnectionString;
-import com.microsoft.azure.sdk.iot.service.auth.IotHubServiceSasToken;
+import com.microsoft.azure.sdk.iot.service.auth.IotHubServiceSasTokenCache;
 import com.microsoft.azure.sdk.iot.service.exceptions.IotHubException;
 import com.microsoft.azure.sdk.iot.service.exceptions.IotHubExceptionManager;
 import com.microsoft.azure.sdk.iot.service.transport.TransportUtils;
@@ -33,7 +33,10 @@ public class DeviceOperations
     private static final String ACCEPT_CHARSET = "charset=utf-8";
     private static final String CONTENT_TYPE = "Content-Type";
     private static final Integer DEFAULT_HTTP_TIMEOUT_MS = 24000;
-    private static Map<String, String> headers = null;
+
+    // Headers set through the deprecated setHeaders call only apply to the next request made on the same thread, so that
+    // concurrent requests from other threads can neither pick them up nor consume them
+    private static final ThreadLocal<Map<String, String>> headers = new ThreadLocal<>();
 
     /**
      * Send a http request to the IoTHub using the Twin/Method standard, and return its response.
@@ -91,7 +94,8 @@ public class DeviceOperations
         }
 
         /* Codes_SRS_DEVICE_OPERATIONS_21_006: [The request shall create a new SASToken with the ServiceConnect rights.] */
-        String sasTokenString = new IotHubServiceSasToken(iotHubConnectionString).toString();
+        // The token is signed once per connection string and reused until the cache renews it
+        String sasTokenString = IotHubServiceSasTokenCache.forConnectionString(iotHubConnectionString).getToken();
         /* Codes_SRS_DEVICE_OPERATIONS_21_007: [If the SASToken is null or empty, the request shall throw IOException.] */
          if((sasTokenString == null) || sasTokenString.isEmpty())
         {
@@ -123,16 +127,8 @@ public class DeviceOperations
         /* Codes_SRS_DEVICE_OPERATIONS_21_014: [The request shall add to the HTTP header a `Content-Type` key with `application/json; charset=utf-8`.] */
         request.setHeaderField(CONTENT_TYPE, ACCEPT_VALUE + "; " + ACCEPT_CHARSET);
 
-        if (headers != null)
-        {
-            //SRS_DEVICE_OPERATIONS_25_019: [The request shall add to the HTTP header all the additional custom headers set for this request.]
-            for(Map.Entry<String, String> header : headers.entrySet())
-            {
-                request.setHeaderField(header.getKey(), header.getValue());
-            }
-
-            headers = null;
-        }
+        //SRS_DEVICE_OPERATIONS_25_019: [The request shall add to the HTTP header all the additional custom headers set for this request.]
+        setCustomHeaders(request, consumeThreadHeaders());
 
         /* Codes_SRS_DEVICE_OPERATIONS_21_015: [The request shall send the created request and get the response.] */
         HttpResponse response = request.send();
@@ -169,6 +165,106 @@ public class DeviceOperations
             int readTimeout,
             Proxy proxy)
             throws IOException, IotHubException, IllegalArgumentException
+    {
+        return request(iotHubConnectionString, url, method, payload, requestId, connectTimeout, readTimeout, proxy, consumeThreadHeaders());
+    }
+
+    /**
+     * Send a http request to the IoTHub using the Twin/Method standard, and return its response, renewing the cached
+     * SAS token at the provided fraction of its lifetime.
+     *
+     * @param iotHubConnectionString is the connection string for the IoTHub.
+     * @param url is the Twin URL for the device ID.
+     * @param method is the HTTP method (GET, POST, DELETE, PATCH, PUT).
+     * @param payload is the array of bytes that contains the payload.
+     * @param requestId is an unique number that identify the request.
+     * @param connectTimeout the http connect timeout to use, in milliseconds.
+     * @param readTimeout the http read timeout to use, in milliseconds.
+     * @param proxy the proxy to use, or null if no proxy will be used.
+     * @param sasTokenRenewalFraction the fraction of the lifetime of the cached SAS token after which it is renewed, or
+     * 0 for the {@link IotHubServiceSasTokenCache#DEFAULT_RENEWAL_FRACTION}.
+     * @return the result of the request.
+     * @throws IotHubException This exception is thrown if the response verification failed.
+     * @throws IOException This exception is thrown if the IO operation failed.
+     */
+    public static HttpResponse request(
+            IotHubConnectionString iotHubConnectionString,
+            URL url,
+            HttpMethod method,
+            byte[] payload,
+            String requestId,
+            int connectTimeout,
+            int readTimeout,
+            Proxy proxy,
+            double sasTokenRenewalFraction)
+            throws IOException, IotHubException, IllegalArgumentException
+    {
+        return request(iotHubConnectionString, url, method, payload, requestId, connectTimeout, readTimeout, proxy, consumeThreadHeaders(), sasTokenRenewalFraction);
+    }
+
+    /**
+     * Send a http request to the IoTHub using the Twin/Method standard, and return its response. The provided headers
+     * only apply to this request, so this overload is safe to call from several threads at once.
+     *
+     * @param iotHubConnectionString is the connection string for the IoTHub.
+     * @param url is the Twin URL for the device ID.
+     * @param method is the HTTP method (GET, POST, DELETE, PATCH, PUT).
+     * @param payload is the array of bytes that contains the payload.
+     * @param requestId is an unique number that identify the request.
+     * @param connectTimeout the http connect timeout to use, in milliseconds.
+     * @param readTimeout the http read timeout to use, in milliseconds.
+     * @param proxy the proxy to use, or null if no proxy will be used.
+     * @param customHeaders additional headers to send with this request, or null if there are none.
+     * @return the result of the request.
+     * @throws IotHubException This exception is thrown if the response verification failed.
+     * @throws IOException This exception is thrown if the IO operation failed.
+     */
+    public static HttpResponse request(
+            IotHubConnectionString iotHubConnectionString,
+            URL url,
+            HttpMethod method,
+            byte[] payload,
+            String requestId,
+            int connectTimeout,
+            int readTimeout,
+            Proxy proxy,
+            Map<String, String> customHeaders)
+            throws IOException, IotHubException, IllegalArgumentException
+    {
+        return request(iotHubConnectionString, url, method, payload, requestId, connectTimeout, readTimeout, proxy, customHeaders, 0);
+    }
+
+    /**
+     * Send a http request to the IoTHub using the Twin/Method standard, and return its response. The provided headers
+     * only apply to this request, so this overload is safe to call from several threads at once.
+     *
+     * @param iotHubConnectionString is the connection string for the IoTHub.
+     * @param url is the Twin URL for the device ID.
+     * @param method is the HTTP method (GET, POST, DELETE, PATCH, PUT).
+     * @param payload is the array of bytes that contains the payload.
+     * @param requestId is an unique number that identify the request.
+     * @param connectTimeout the http connect timeout to use, in milliseconds.
+     * @param readTimeout the http read timeout to use, in milliseconds.
+     * @param proxy the proxy to use, or null if no proxy will be used.
+     * @param customHeaders additional headers to send with this request, or null if there are none.
+     * @param sasTokenRenewalFraction the fraction of the lifetime of the cached SAS token after which it is renewed, or
+     * 0 for the {@link IotHubServiceSasTokenCache#DEFAULT_RENEWAL_FRACTION}.
+     * @return the result of the request.
+     * @throws IotHubException This exception is thrown if the response verification failed.
+     * @throws IOException This exception is thrown if the IO operation failed.
+     */
+    public static HttpResponse request(
+            IotHubConnectionString iotHubConnectionString,
+            URL url,
+            HttpMethod method,
+            byte[] payload,
+            String requestId,
+            int connectTimeout,
+            int readTimeout,
+            Proxy proxy,
+            Map<String, String> customHeaders,
+            double sasTokenRenewalFraction)
+            throws IOException, IotHubException, IllegalArgumentException
     {
         if(iotHubConnectionString == null)
         {
@@ -185,7 +281,7 @@ public class DeviceOperations
             throw new IllegalArgumentException("Http requests must provide a non-null http method");
         }
 
-        String sasTokenString = new IotHubServiceSasToken(iotHubConnectionString).toString();
+        String sasTokenString = IotHubServiceSasTokenCache.forConnectionString(iotHubConnectionString, sasTokenRenewalFraction).getToken();
         if((sasTokenString == null) || sasTokenString.isEmpty())
         {
             throw new IOException("Illegal sasToken null or empty");
@@ -214,15 +310,7 @@ public class DeviceOperations
         request.setHeaderField(ACCEPT, ACCEPT_VALUE);
         request.setHeaderField(CONTENT_TYPE, ACCEPT_VALUE + "; " + ACCEPT_CHARSET);
 
-        if (headers != null)
-        {
-            for(Map.Entry<String, String> header : headers.entrySet())
-            {
-                request.setHeaderField(header.getKey(), header.getValue());
-            }
-
-            headers = null;
-        }
+        setCustomHeaders(request, customHeaders);
 
         HttpResponse response = request.send();
         IotHubExceptionManager.httpResponseVerification(response);
@@ -230,10 +318,12 @@ public class DeviceOperations
     }
 
     /**
-     * Sets headers to be used on next HTTP request.
+     * Sets headers to be used on the next HTTP request made from the calling thread.
      * @param httpHeaders non null and non empty custom headers.
      * @throws IllegalArgumentException This exception is thrown if headers were null or empty.
+     * @deprecated pass the headers to {@link #request(IotHubConnectionString, URL, HttpMethod, byte[], String, int, int, Proxy, Map)} instead.
      */
+    @Deprecated
     public static void setHeaders(Map<String, String> httpHeaders) throws IllegalArgumentException
     {
         if (httpHeaders == null || httpHeaders.size() == 0)
@@ -243,6 +333,24 @@ public class DeviceOperations
         }
 
         //SRS_DEVICE_OPERATIONS_25_020: [This method shall set the headers map to be used for next request only.]
-        headers = httpHeaders;
+        headers.set(httpHeaders);
+    }
+
+    private static Map<String, String> consumeThreadHeaders()
+    {
+        Map<String, String> threadHeaders = headers.get();
+        headers.remove();
+        return threadHeaders;
+    }
+
+    private static void setCustomHeaders(HttpRequest request, Map<String, String> customHeaders)
+    {
+        if (customHeaders != null)
+        {
+            for (Map.Entry<String, String> header : customHeaders.entrySet())
+            {
+                request.setHeaderField(header.getKey(), header.getValue());
+            }
+        }
     }
 }
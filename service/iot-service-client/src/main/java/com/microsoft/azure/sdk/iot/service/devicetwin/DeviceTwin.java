@@ -8,6 +8,7 @@ package com.microsoft.azure.sdk.iot.service.devicetwin;
 import com.microsoft.azure.sdk.iot.deps.twin.*;
 import com.microsoft.azure.sdk.iot.service.IotHubConnectionString;
 import com.microsoft.azure.sdk.iot.service.IotHubConnectionStringBuilder;
+import com.microsoft.azure.sdk.iot.service.auth.IotHubServiceSasTokenCache;
 import com.microsoft.azure.sdk.iot.service.exceptions.IotHubException;
 import com.microsoft.azure.sdk.iot.service.transport.http.HttpMethod;
 import com.microsoft.azure.sdk.iot.service.transport.http.HttpResponse;
@@ -18,11 +19,12 @@ import java.net.Proxy;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class DeviceTwin
 {
     private IotHubConnectionString iotHubConnectionString = null;
-    private Integer requestId = 0;
+    private final AtomicInteger requestId = new AtomicInteger(0);
     private final int DEFAULT_PAGE_SIZE = 100;
     private DeviceTwinClientOptions options;
 
@@ -63,6 +65,11 @@ public class DeviceTwin
             throw new IllegalArgumentException("options cannot be null");
         }
 
+        if (!(options.getSasTokenRenewalFraction() >= 0 && options.getSasTokenRenewalFraction() <= 1))
+        {
+            throw new IllegalArgumentException("sasTokenRenewalFraction must be 0, or greater than 0 and no greater than 1");
+        }
+
         DeviceTwin deviceTwin = new DeviceTwin();
         deviceTwin.iotHubConnectionString = IotHubConnectionStringBuilder.createConnectionString(connectionString);
         deviceTwin.options = options;
@@ -122,7 +129,7 @@ public class DeviceTwin
          **Codes_SRS_DEVICETWIN_25_010: [** The function shall verify the response status and throw proper Exception **]**
          */
         Proxy proxy = options.getProxyOptions() != null ? options.getProxyOptions().getProxy() : null;
-        HttpResponse response = DeviceOperations.request(this.iotHubConnectionString, url, HttpMethod.GET, new byte[0], String.valueOf(requestId++), options.getHttpConnectTimeout(), options.getHttpReadTimeout(), proxy);
+        HttpResponse response = DeviceOperations.request(this.iotHubConnectionString, url, HttpMethod.GET, new byte[0], String.valueOf(this.requestId.getAndIncrement()), options.getHttpConnectTimeout(), options.getHttpReadTimeout(), proxy, options.getSasTokenRenewalFraction());
         String twin = new String(response.getBody(), StandardCharsets.UTF_8);
 
         /*
@@ -195,7 +202,7 @@ public class DeviceTwin
         **Codes_SRS_DEVICETWIN_25_015: [** The function shall serialize the twin map by calling updateTwin Api on the twin object for the device provided by the user**]**
          */
         TwinState twinState = new TwinState(device.getTagsMap(), device.getDesiredMap(), null);
-        String twinJson = twinState.toJsonElement().toString();
+        String twinJson = twinState.toJson();
 
         /*
         **Codes_SRS_DEVICETWIN_25_016: [** The function shall create a new SAS token **]**
@@ -216,7 +223,7 @@ public class DeviceTwin
         **Codes_SRS_DEVICETWIN_25_020: [** The function shall verify the response status and throw proper Exception **]**
          */
         Proxy proxy = options.getProxyOptions() != null ? options.getProxyOptions().getProxy() : null;
-        HttpResponse response = DeviceOperations.request(this.iotHubConnectionString, url, HttpMethod.PATCH, twinJson.getBytes(StandardCharsets.UTF_8), String.valueOf(requestId++),options.getHttpConnectTimeout(), options.getHttpReadTimeout(), proxy);
+        HttpResponse response = DeviceOperations.request(this.iotHubConnectionString, url, HttpMethod.PATCH, twinJson.getBytes(StandardCharsets.UTF_8), String.valueOf(this.requestId.getAndIncrement()),options.getHttpConnectTimeout(), options.getHttpReadTimeout(), proxy, options.getSasTokenRenewalFraction());
     }
 
     /**
@@ -269,6 +276,49 @@ public class DeviceTwin
      * @throws IOException If input parameters are invalid.
      */
     public synchronized Query queryTwin(String sqlQuery, Integer pageSize) throws IotHubException, IOException
+    {
+        return this.createTwinQuery(sqlQuery, pageSize);
+    }
+
+    /**
+     * Sql style query for twin that fetches the following pages of results in the background while the current page
+     * is being consumed. Unlike {@link #hasNextDeviceTwin(Query)} and {@link #getNextDeviceTwin(Query)}, consuming the
+     * returned iterator does not lock this client, so several queries can be consumed in parallel.
+     *
+     * @param sqlQuery Sql query string to query IotHub for Twin.
+     * @param pageSize Size to limit each query response by.
+     * @param readAheadPages The number of pages to fetch ahead of the caller. Must be positive.
+     * @return An iterator over the query results, which can also be consumed as a stream. Should be closed if it is
+     * abandoned before the end of the query.
+     * @throws IotHubException If the first query request was not successful at the IotHub.
+     * @throws IOException If input parameters are invalid.
+     */
+    public PrefetchingQueryIterator<DeviceTwinDevice> queryTwinPrefetching(String sqlQuery, Integer pageSize, int readAheadPages) throws IotHubException, IOException
+    {
+        if (readAheadPages <= 0)
+        {
+            throw new IllegalArgumentException("readAheadPages must be positive");
+        }
+
+        return new PrefetchingQueryIterator<>(this.createTwinQuery(sqlQuery, pageSize), readAheadPages, this::jsonToDeviceTwinDevice);
+    }
+
+    /**
+     * Sql style query for twin that fetches the following pages of results in the background while the current page
+     * is being consumed, using the default page size and {@link PrefetchingQueryIterator#DEFAULT_READ_AHEAD_PAGES}.
+     *
+     * @param sqlQuery Sql query string to query IotHub for Twin.
+     * @return An iterator over the query results, which can also be consumed as a stream. Should be closed if it is
+     * abandoned before the end of the query.
+     * @throws IotHubException If the first query request was not successful at the IotHub.
+     * @throws IOException If input parameters are invalid.
+     */
+    public PrefetchingQueryIterator<DeviceTwinDevice> queryTwinPrefetching(String sqlQuery) throws IotHubException, IOException
+    {
+        return this.queryTwinPrefetching(sqlQuery, DEFAULT_PAGE_SIZE, PrefetchingQueryIterator.DEFAULT_READ_AHEAD_PAGES);
+    }
+
+    private Query createTwinQuery(String sqlQuery, Integer pageSize) throws IotHubException, IOException
     {
         if (sqlQuery == null || sqlQuery.length() == 0)
         {
@@ -516,6 +566,19 @@ public class DeviceTwin
         return job;
     }
 
+    /**
+     * Drop the cached SAS token of the client's credentials, rather than keeping it for the lifetime of the process.
+     * Queries that were created by this client keep working, and sign a new token on their next request. Any other
+     * client that uses the same credentials does the same.
+     */
+    public void close()
+    {
+        if (this.iotHubConnectionString != null)
+        {
+            IotHubServiceSasTokenCache.evict(this.iotHubConnectionString);
+        }
+    }
+
     private DeviceTwinDevice jsonToDeviceTwinDevice(String json) throws IOException
     {
         TwinState twinState = TwinState.createFromTwinJson(json);
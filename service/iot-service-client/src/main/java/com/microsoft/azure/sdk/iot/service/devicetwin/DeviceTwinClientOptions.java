@@ -36,4 +36,12 @@ public class DeviceTwinClientOptions
      */
     @Getter
     private int httpConnectTimeout;
+
+    /**
+     * The fraction of the lifetime of the cached service SAS token after which it is renewed in the background. A value
+     * of zero means the default, {@link com.microsoft.azure.sdk.iot.service.auth.IotHubServiceSasTokenCache#DEFAULT_RENEWAL_FRACTION}.
+     * Must be zero, or greater than 0 and no greater than 1.
+     */
+    @Getter
+    private double sasTokenRenewalFraction;
 }
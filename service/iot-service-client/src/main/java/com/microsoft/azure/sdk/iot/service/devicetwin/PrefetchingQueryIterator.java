@@ -0,0 +1,237 @@
+/*
+ *  Copyright (c) Microsoft. All rights reserved.
+ *  Licensed under the MIT license. See LICENSE file in the project root for full license information.
+ */
+
+package com.microsoft.azure.sdk.iot.service.devicetwin;
+
+import com.microsoft.azure.sdk.iot.service.exceptions.IotHubException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Iterates over the results of a {@link Query} while fetching and parsing the following pages on a background thread.
+ *
+ * <p>With the blocking {@link Query#hasNext()} and {@link Query#next()} calls, the request for the next page is only
+ * sent once the current page has been fully consumed, so a large scan spends most of its time waiting on sequential
+ * round trips. This iterator keeps up to a configurable number of pages of parsed results buffered ahead of the
+ * caller. As soon as there is room in that buffer, the request for the next continuation token is sent, so it runs
+ * while the caller is still working through the previous pages.</p>
+ *
+ * <p>This iterator is meant to be consumed by a single thread. It does not lock the client that created it, so several
+ * iterators can be consumed in parallel. Failures while fetching or parsing a page are thrown from {@link #hasNext()}
+ * and {@link #next()} as a {@link QueryIteratorException} once the results that were fetched before the failure have
+ * been consumed. Call {@link #close()} to stop prefetching if the results are abandoned before the end of the query.</p>
+ *
+ * @param <T> the type of the query results.
+ */
+public class PrefetchingQueryIterator<T> implements Iterator<T>, Closeable
+{
+    /**
+     * The number of pages that are fetched ahead of the caller, if none is provided.
+     */
+    public static final int DEFAULT_READ_AHEAD_PAGES = 2;
+
+    private static final String THREAD_NAME = "azure-iot-sdk-PrefetchingQueryIterator";
+
+    // Marks the end of the query in the buffer
+    private static final Object END_OF_QUERY = new Object();
+
+    private final Query query;
+    private final QueryItemParser<T> parser;
+    private final BlockingQueue<Object> buffer;
+    private final Thread prefetchThread;
+
+    private Object nextItem;
+    private boolean finished;
+    private volatile boolean closed;
+
+    /**
+     * Constructor. Starts prefetching immediately.
+     *
+     * @param query the query to iterate over. Its first request must already have been sent, as the query methods of
+     * {@link DeviceTwin} and {@link com.microsoft.azure.sdk.iot.service.jobs.JobClient} do. Must not be used by anything
+     * else once it has been handed to this iterator.
+     * @param readAheadPages the number of pages of results to buffer ahead of the caller. Must be positive.
+     * @param parser the parser for each json element of the query response.
+     * @throws IllegalArgumentException if the query or parser is null, or if readAheadPages is not positive.
+     */
+    public PrefetchingQueryIterator(Query query, int readAheadPages, QueryItemParser<T> parser) throws IllegalArgumentException
+    {
+        if (query == null)
+        {
+            throw new IllegalArgumentException("query cannot be null");
+        }
+
+        if (parser == null)
+        {
+            throw new IllegalArgumentException("parser cannot be null");
+        }
+
+        if (readAheadPages <= 0)
+        {
+            throw new IllegalArgumentException("readAheadPages must be positive");
+        }
+
+        this.query = query;
+        this.parser = parser;
+
+        long capacity = (long) query.getPageSize() * readAheadPages;
+        this.buffer = new ArrayBlockingQueue<>((int) Math.min(capacity, Integer.MAX_VALUE));
+
+        this.prefetchThread = new Thread(this::prefetch, THREAD_NAME);
+        this.prefetchThread.setDaemon(true);
+        this.prefetchThread.start();
+    }
+
+    /**
+     * Returns if there is another query result, waiting for the next page to arrive if it has not been fetched yet.
+     *
+     * @return true if there is another query result and false otherwise.
+     * @throws QueryIteratorException if fetching or parsing the next page failed, or if the wait was interrupted.
+     */
+    @Override
+    public boolean hasNext() throws QueryIteratorException
+    {
+        if (this.nextItem != null)
+        {
+            return true;
+        }
+
+        if (this.finished)
+        {
+            return false;
+        }
+
+        Object item;
+        try
+        {
+            item = this.buffer.take();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new QueryIteratorException("Interrupted while waiting for the next page of query results", e);
+        }
+
+        if (item == END_OF_QUERY)
+        {
+            this.finished = true;
+            return false;
+        }
+
+        if (item instanceof PrefetchFailure)
+        {
+            this.finished = true;
+            throw new QueryIteratorException("Failed to fetch the next page of query results", ((PrefetchFailure) item).cause);
+        }
+
+        this.nextItem = item;
+        return true;
+    }
+
+    /**
+     * Returns the next query result, waiting for the next page to arrive if it has not been fetched yet.
+     *
+     * @return the next query result.
+     * @throws NoSuchElementException if there are no further query results.
+     * @throws QueryIteratorException if fetching or parsing the next page failed, or if the wait was interrupted.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T next() throws NoSuchElementException, QueryIteratorException
+    {
+        if (!hasNext())
+        {
+            throw new NoSuchElementException();
+        }
+
+        T item = (T) this.nextItem;
+        this.nextItem = null;
+        return item;
+    }
+
+    /**
+     * Returns a sequential stream over the remaining query results. Closing the stream closes this iterator.
+     *
+     * @return a stream over the remaining query results.
+     */
+    public Stream<T> stream()
+    {
+        Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(this::close);
+    }
+
+    /**
+     * Stop prefetching and discard any buffered results. After this, {@link #hasNext()} returns false.
+     */
+    @Override
+    public void close()
+    {
+        this.closed = true;
+        this.finished = true;
+        this.nextItem = null;
+        this.prefetchThread.interrupt();
+        this.buffer.clear();
+    }
+
+    private void prefetch()
+    {
+        Object lastEntry = END_OF_QUERY;
+        try
+        {
+            while (!this.closed && this.query.hasNext())
+            {
+                Object element = this.query.next();
+                if (!(element instanceof String))
+                {
+                    throw new IOException("Received a response that could not be parsed");
+                }
+
+                this.buffer.put(this.parser.parse((String) element));
+            }
+        }
+        catch (InterruptedException e)
+        {
+            // Closed by the caller, so nobody is waiting on the buffer anymore
+            return;
+        }
+        catch (IOException | IotHubException | RuntimeException e)
+        {
+            lastEntry = new PrefetchFailure(e);
+        }
+
+        if (this.closed)
+        {
+            return;
+        }
+
+        try
+        {
+            this.buffer.put(lastEntry);
+        }
+        catch (InterruptedException e)
+        {
+            // Closed by the caller, so nobody is waiting on the buffer anymore
+        }
+    }
+
+    private static final class PrefetchFailure
+    {
+        private final Exception cause;
+
+        private PrefetchFailure(Exception cause)
+        {
+            this.cause = cause;
+        }
+    }
+}
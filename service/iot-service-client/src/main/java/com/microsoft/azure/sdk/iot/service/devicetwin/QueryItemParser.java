@@ -0,0 +1,26 @@
+/*
+ *  Copyright (c) Microsoft. All rights reserved.
+ *  Licensed under the MIT license. See LICENSE file in the project root for full license information.
+ */
+
+package com.microsoft.azure.sdk.iot.service.devicetwin;
+
+import java.io.IOException;
+
+/**
+ * Converts a single json element of a query response into the type that a {@link PrefetchingQueryIterator} returns.
+ *
+ * @param <T> the type of the parsed query element.
+ */
+@FunctionalInterface
+public interface QueryItemParser<T>
+{
+    /**
+     * Parse a single query response element.
+     *
+     * @param json the json of the query response element.
+     * @return the parsed element. Must not be null.
+     * @throws IOException if the element could not be parsed.
+     */
+    T parse(String json) throws IOException;
+}
@@ -0,0 +1,26 @@
+/*
+ *  Copyright (c) Microsoft. All rights reserved.
+ *  Licensed under the MIT license. See LICENSE file in the project root for full license information.
+ */
+
+package com.microsoft.azure.sdk.iot.service.devicetwin;
+
+/**
+ * Thrown by a {@link PrefetchingQueryIterator} when fetching or parsing a page of query results failed. Since the
+ * {@link java.util.Iterator} and {@link java.util.stream.Stream} interfaces cannot throw checked exceptions, the
+ * underlying {@link java.io.IOException} or {@link com.microsoft.azure.sdk.iot.service.exceptions.IotHubException}
+ * is available as the cause.
+ */
+public class QueryIteratorException extends RuntimeException
+{
+    /**
+     * Constructor.
+     *
+     * @param message the description of the failure.
+     * @param cause the exception that caused the query to fail.
+     */
+    public QueryIteratorException(String message, Throwable cause)
+    {
+        super(message, cause);
+    }
+}
@@ -7,6 +7,7 @@ package com.microsoft.azure.sdk.iot.service.devicetwin;
 
 import com.microsoft.azure.sdk.iot.service.IotHubConnectionString;
 import com.microsoft.azure.sdk.iot.service.IotHubConnectionStringBuilder;
+import com.microsoft.azure.sdk.iot.service.auth.IotHubServiceSasTokenCache;
 import com.microsoft.azure.sdk.iot.service.exceptions.IotHubException;
 import com.microsoft.azure.sdk.iot.service.transport.http.HttpMethod;
 
@@ -48,6 +49,19 @@ public class RawTwinQuery
         return rawTwinQuery;
     }
 
+    /**
+     * Drop the cached SAS token of the client's credentials, rather than keeping it for the lifetime of the process.
+     * Queries that were created by this client keep working, and sign a new token on their next request. Any other
+     * client that uses the same credentials does the same.
+     */
+    public void close()
+    {
+        if (this.iotHubConnectionString != null)
+        {
+            IotHubServiceSasTokenCache.evict(this.iotHubConnectionString);
+        }
+    }
+
     /**
      * Creates a query object for this query
      * @param sqlQuery Sql style query for Raw data over twin
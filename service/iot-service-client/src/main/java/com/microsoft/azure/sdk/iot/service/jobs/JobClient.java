@@ -9,6 +9,7 @@ import com.microsoft.azure.sdk.iot.deps.twin.TwinCollection;
 import com.microsoft.azure.sdk.iot.deps.twin.TwinState;
 import com.microsoft.azure.sdk.iot.service.IotHubConnectionString;
 import com.microsoft.azure.sdk.iot.service.IotHubConnectionStringBuilder;
+import com.microsoft.azure.sdk.iot.service.auth.IotHubServiceSasTokenCache;
 import com.microsoft.azure.sdk.iot.service.devicetwin.*;
 import com.microsoft.azure.sdk.iot.service.exceptions.IotHubException;
 import com.microsoft.azure.sdk.iot.service.transport.http.HttpMethod;
@@ -342,6 +343,32 @@ public class JobClient
      * @throws IOException When any of the parameters are incorrect
      */
     public synchronized Query queryDeviceJob(String sqlQuery, Integer pageSize) throws IotHubException, IOException
+    {
+        return this.createDeviceJobQuery(sqlQuery, pageSize);
+    }
+
+    /**
+     * Query for device Job, fetching the following pages of results in the background while the current page is being
+     * consumed. Consuming the returned iterator does not lock this client.
+     * @param sqlQuery sql style query over device.jobs
+     * @param pageSize the value per which to limit the size of each query response by.
+     * @param readAheadPages the number of pages to fetch ahead of the caller. Must be positive.
+     * @return An iterator over the query results, which can also be consumed as a stream. Should be closed if it is
+     * abandoned before the end of the query.
+     * @throws IotHubException When IotHub fails to respond to the first query request
+     * @throws IOException When any of the parameters are incorrect
+     */
+    public PrefetchingQueryIterator<JobResult> queryDeviceJobPrefetching(String sqlQuery, Integer pageSize, int readAheadPages) throws IotHubException, IOException
+    {
+        if (readAheadPages <= 0)
+        {
+            throw new IllegalArgumentException("readAheadPages must be positive");
+        }
+
+        return new PrefetchingQueryIterator<>(this.createDeviceJobQuery(sqlQuery, pageSize), readAheadPages, JobClient::jsonToJobResult);
+    }
+
+    private Query createDeviceJobQuery(String sqlQuery, Integer pageSize) throws IotHubException, IOException
     {
         if (sqlQuery == null || sqlQuery.length() == 0)
         {
@@ -435,6 +462,33 @@ public class JobClient
      * @throws IotHubException If IotHub failed to respond
      */
     public synchronized Query queryJobResponse(JobType jobType, JobStatus jobStatus, Integer pageSize) throws IOException, IotHubException
+    {
+        return this.createJobResponseQuery(jobType, jobStatus, pageSize);
+    }
+
+    /**
+     * Query the iot hub for a jobs response, fetching the following pages of results in the background while the
+     * current page is being consumed. Consuming the returned iterator does not lock this client.
+     * @param jobType The type of job to query for
+     * @param jobStatus The status of the job to query for
+     * @param pageSize The value to which to limit each job response size by
+     * @param readAheadPages The number of pages to fetch ahead of the caller. Must be positive.
+     * @return An iterator over the query results, which can also be consumed as a stream. Should be closed if it is
+     * abandoned before the end of the query.
+     * @throws IOException If any of the input parameters are incorrect
+     * @throws IotHubException If IotHub failed to respond to the first query request
+     */
+    public PrefetchingQueryIterator<JobResult> queryJobResponsePrefetching(JobType jobType, JobStatus jobStatus, Integer pageSize, int readAheadPages) throws IOException, IotHubException
+    {
+        if (readAheadPages <= 0)
+        {
+            throw new IllegalArgumentException("readAheadPages must be positive");
+        }
+
+        return new PrefetchingQueryIterator<>(this.createJobResponseQuery(jobType, jobStatus, pageSize), readAheadPages, JobClient::jsonToJobResult);
+    }
+
+    private Query createJobResponseQuery(JobType jobType, JobStatus jobStatus, Integer pageSize) throws IOException, IotHubException
     {
         if (pageSize <= 0)
         {
@@ -465,6 +519,24 @@ public class JobClient
         return queryJobResponse(jobType, jobStatus, DEFAULT_PAGE_SIZE);
     }
 
+    /**
+     * Drop the cached SAS token of the client's credentials, rather than keeping it for the lifetime of the process.
+     * Queries that were created by this client keep working, and sign a new token on their next request. Any other
+     * client that uses the same credentials does the same.
+     */
+    public void close()
+    {
+        if (this.iotHubConnectionString != null)
+        {
+            IotHubServiceSasTokenCache.evict(this.iotHubConnectionString);
+        }
+    }
+
+    private static JobResult jsonToJobResult(String json)
+    {
+        return new JobResult(json.getBytes());
+    }
+
     @SuppressWarnings("unused")
     protected JobClient()
     {
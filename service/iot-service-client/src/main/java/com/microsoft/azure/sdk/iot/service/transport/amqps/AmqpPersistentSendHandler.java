@@ -0,0 +1,408 @@
+/*
+ * Copyright (c) Microsoft. All rights reserved.
+ * Licensed under the MIT license. See LICENSE file in the project root for full license information.
+ */
+
+package com.microsoft.azure.sdk.iot.service.transport.amqps;
+
+import com.microsoft.azure.sdk.iot.deps.transport.amqp.AmqpDeliveryTags;
+import com.microsoft.azure.sdk.iot.deps.transport.amqp.AmqpMessageEncoder;
+import com.microsoft.azure.sdk.iot.deps.transport.amqp.ReactorDispatcher;
+import com.microsoft.azure.sdk.iot.deps.util.IntObjectHashMap;
+import com.microsoft.azure.sdk.iot.service.IotHubServiceClientProtocol;
+import com.microsoft.azure.sdk.iot.service.ProxyOptions;
+import com.microsoft.azure.sdk.iot.service.exceptions.IotHubException;
+import com.microsoft.azure.sdk.iot.service.transport.TransportUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.qpid.proton.amqp.Symbol;
+import org.apache.qpid.proton.amqp.messaging.Target;
+import org.apache.qpid.proton.engine.*;
+import org.apache.qpid.proton.reactor.Handshaker;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Instance of the QPID-Proton-J BaseHandler class that keeps a single connection, session and cloud to device sender
+ * link open for as long as its reactor runs. Unlike {@link AmqpSendHandler}, which opens a connection for one message
+ * and closes it once that message is acknowledged, this handler sends every queued message as soon as the link has
+ * credit for it, so many sends can be in flight at once. Each send is completed from its own delivery disposition.
+ */
+@Slf4j
+public class AmqpPersistentSendHandler extends AmqpConnectionHandler
+{
+    // Written by any thread, drained by the reactor thread
+    private final Queue<PendingSend> messagesToSend = new ConcurrentLinkedQueue<>();
+
+    // Only touched from the reactor thread
+    private final IntObjectHashMap<PendingSend> inProgressMessages = new IntObjectHashMap<>();
+    private final AmqpMessageEncoder messageEncoder = new AmqpMessageEncoder();
+    private Sender sender;
+    private int nextTag = 0;
+
+    private final CountDownLatch linkOpenedLatch = new CountDownLatch(1);
+    private final CountDownLatch reactorClosedLatch = new CountDownLatch(1);
+    private volatile ReactorDispatcher reactorDispatcher;
+    private volatile boolean closed;
+
+    /**
+     * Constructor to set up connection parameters and initialize handshaker for transport
+     *
+     * @param hostName The address string of the service (example: AAA.BBB.CCC)
+     * @param userName The username string to use SASL authentication (example: user@sas.service)
+     * @param sasToken The SAS token string
+     * @param iotHubServiceClientProtocol protocol to use
+     * @param proxyOptions the proxy options to tunnel through, if a proxy should be used.
+     */
+    public AmqpPersistentSendHandler(String hostName, String userName, String sasToken, IotHubServiceClientProtocol iotHubServiceClientProtocol, ProxyOptions proxyOptions)
+    {
+        super(hostName, userName, sasToken, iotHubServiceClientProtocol, proxyOptions);
+        add(new Handshaker());
+    }
+
+    /**
+     * Queue a message to be sent over the open link. May be called from any thread.
+     * @param protonMessage The message to be sent
+     * @return a future that completes once the service has acknowledged the message, or completes exceptionally if the
+     * service rejected it or the connection closed before it was acknowledged
+     */
+    public CompletableFuture<Void> sendAsync(org.apache.qpid.proton.message.Message protonMessage)
+    {
+        PendingSend pendingSend = new PendingSend(protonMessage);
+        this.messagesToSend.add(pendingSend);
+
+        if (this.closed)
+        {
+            // The reactor may have finished draining the queue before this message was added to it
+            failQueuedMessages();
+            return pendingSend.future;
+        }
+
+        ReactorDispatcher dispatcher = this.reactorDispatcher;
+        if (dispatcher != null)
+        {
+            try
+            {
+                dispatcher.invoke(this::sendQueuedMessages);
+            }
+            catch (RejectedExecutionException e)
+            {
+                // Reactor is shutting down, onReactorFinal will fail this message
+                log.trace("Reactor rejected the send, the cloud to device connection is closing");
+            }
+        }
+
+        return pendingSend.future;
+    }
+
+    /**
+     * Wait for the connection, session and sender link to open
+     * @param timeoutMilliseconds the maximum time to wait
+     * @throws IOException if the link did not open in time, or if the connection failed to open
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void awaitOpen(long timeoutMilliseconds) throws IOException, InterruptedException
+    {
+        this.linkOpenedLatch.await(timeoutMilliseconds, TimeUnit.MILLISECONDS);
+        super.verifyConnectionWasOpened();
+    }
+
+    /**
+     * Close the connection once all in flight messages have been acknowledged. May be called from any thread.
+     */
+    public void close()
+    {
+        ReactorDispatcher dispatcher = this.reactorDispatcher;
+        if (dispatcher != null && !this.closed)
+        {
+            try
+            {
+                dispatcher.invoke(this::closeConnection);
+            }
+            catch (RejectedExecutionException e)
+            {
+                log.trace("Reactor already stopped, no need to close the cloud to device connection");
+            }
+        }
+    }
+
+    /**
+     * Wait for the reactor running this handler to stop
+     * @param timeoutMilliseconds the maximum time to wait
+     * @return true if the reactor stopped within the timeout
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitClose(long timeoutMilliseconds) throws InterruptedException
+    {
+        return this.reactorClosedLatch.await(timeoutMilliseconds, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return true if the connection has closed or failed, and no more messages can be sent through this handler
+     */
+    public boolean isClosed()
+    {
+        return this.closed;
+    }
+
+    @Override
+    public void onReactorInit(Event event)
+    {
+        try
+        {
+            this.reactorDispatcher = new ReactorDispatcher(event.getReactor());
+        }
+        catch (IOException e)
+        {
+            log.error("Failed to create the reactor dispatcher for the cloud to device connection", e);
+            this.savedException = e;
+            this.closed = true;
+            this.linkOpenedLatch.countDown();
+            return;
+        }
+
+        super.onReactorInit(event);
+    }
+
+    @Override
+    public void onReactorFinal(Event event)
+    {
+        super.onReactorFinal(event);
+        onReactorStopped();
+    }
+
+    /**
+     * Fail every message that was not acknowledged and release anyone waiting on this handler. Called once the reactor
+     * has stopped, either from onReactorFinal or by the thread that ran the reactor if the reactor stopped abnormally.
+     */
+    void onReactorStopped()
+    {
+        this.closed = true;
+        this.linkOpenedLatch.countDown();
+
+        if (!this.inProgressMessages.isEmpty())
+        {
+            IOException closedException = new IOException("Amqp connection closed before the cloud to device message was acknowledged");
+            for (PendingSend pendingSend : this.inProgressMessages.values())
+            {
+                pendingSend.future.completeExceptionally(closedException);
+            }
+            this.inProgressMessages.clear();
+        }
+
+        failQueuedMessages();
+        this.reactorClosedLatch.countDown();
+    }
+
+    /**
+     * Event handler for the connection init event
+     * @param event The proton event object
+     */
+    @Override
+    public void onConnectionInit(Event event)
+    {
+        Connection conn = event.getConnection();
+        conn.setHostname(hostName);
+
+        Session ssn = conn.session();
+
+        Map<Symbol, Object> properties = new HashMap<>();
+        properties.put(Symbol.getSymbol(TransportUtils.versionIdentifierKey), TransportUtils.USER_AGENT_STRING);
+        this.sender = ssn.sender(AmqpSendHandler.SEND_TAG);
+        this.sender.setProperties(properties);
+
+        log.debug("Opening connection, session and link for persistent amqp cloud to device message sender");
+        conn.open();
+        ssn.open();
+        this.sender.open();
+    }
+
+    /**
+     * Event handler for the link init event
+     * @param event The proton event object
+     */
+    @Override
+    public void onLinkInit(Event event)
+    {
+        Link link = event.getLink();
+        Target t = new Target();
+        t.setAddress(AmqpSendHandler.ENDPOINT);
+        link.setTarget(t);
+    }
+
+    @Override
+    public void onLinkRemoteOpen(Event event)
+    {
+        super.onLinkRemoteOpen(event);
+        this.linkOpenedLatch.countDown();
+    }
+
+    /**
+     * Event handler for the link flow event. Sends as many queued messages as the link has credit for.
+     * @param event The proton event object
+     */
+    @Override
+    public void onLinkFlow(Event event)
+    {
+        sendQueuedMessages();
+    }
+
+    @Override
+    public void onDelivery(Event event)
+    {
+        Delivery delivery = event.getDelivery();
+        if (delivery == null || (!delivery.remotelySettled() && delivery.getRemoteState() == null))
+        {
+            return;
+        }
+
+        PendingSend pendingSend = this.inProgressMessages.remove(AmqpDeliveryTags.toInt(delivery.getTag()));
+        AmqpResponseVerification amqpResponse = new AmqpResponseVerification(delivery.getRemoteState());
+        delivery.settle();
+
+        if (pendingSend == null)
+        {
+            log.warn("Received acknowledgement for an unknown cloud to device message");
+            return;
+        }
+
+        IotHubException exception = amqpResponse.getException();
+        if (exception == null)
+        {
+            log.trace("Cloud to device message with correlation id {} was acknowledged", pendingSend.protonMessage.getCorrelationId());
+            pendingSend.future.complete(null);
+        }
+        else
+        {
+            log.debug("Cloud to device message with correlation id {} was rejected", pendingSend.protonMessage.getCorrelationId());
+            pendingSend.future.completeExceptionally(exception);
+        }
+
+        if (this.closed && this.inProgressMessages.isEmpty())
+        {
+            closeLink();
+        }
+    }
+
+    @Override
+    public void onConnectionRemoteClose(Event event)
+    {
+        this.closed = true;
+        super.onConnectionRemoteClose(event);
+        event.getTransport().close_tail();
+    }
+
+    @Override
+    public void onConnectionLocalClose(Event event)
+    {
+        this.closed = true;
+        super.onConnectionLocalClose(event);
+    }
+
+    @Override
+    public void onTransportClosed(Event event)
+    {
+        super.onTransportClosed(event);
+
+        // Without a transport there is nothing left for the reactor to do, so release the dispatcher's hold on it
+        this.closed = true;
+        if (this.reactorDispatcher != null)
+        {
+            this.reactorDispatcher.close();
+        }
+    }
+
+    private void sendQueuedMessages()
+    {
+        if (this.sender == null || this.sender.getLocalState() != EndpointState.ACTIVE)
+        {
+            return;
+        }
+
+        while (this.sender.getCredit() > 0)
+        {
+            PendingSend pendingSend = this.messagesToSend.poll();
+            if (pendingSend == null)
+            {
+                break;
+            }
+
+            int length = this.messageEncoder.encode(pendingSend.protonMessage);
+
+            int tag = this.nextTag;
+
+            //want to avoid negative delivery tags since -1 is the designated failure value
+            if (this.nextTag == Integer.MAX_VALUE || this.nextTag < 0)
+            {
+                this.nextTag = 0;
+            }
+            else
+            {
+                this.nextTag++;
+            }
+
+            log.trace("Sending cloud to device message with correlation id {}", pendingSend.protonMessage.getCorrelationId());
+            this.inProgressMessages.put(tag, pendingSend);
+            this.sender.delivery(AmqpDeliveryTags.toBytes(tag));
+            this.sender.send(this.messageEncoder.getBuffer(), 0, length);
+            this.sender.advance();
+        }
+    }
+
+    private void closeConnection()
+    {
+        this.closed = true;
+        failQueuedMessages();
+
+        if (this.inProgressMessages.isEmpty())
+        {
+            closeLink();
+        }
+        else
+        {
+            log.debug("Waiting for {} in flight cloud to device messages to be acknowledged before closing the connection", this.inProgressMessages.size());
+        }
+    }
+
+    private void closeLink()
+    {
+        if (this.sender != null && this.sender.getLocalState() == EndpointState.ACTIVE)
+        {
+            // Closing the link locally closes the session, the connection and eventually the reactor,
+            // see ErrorLoggingBaseHandlerWithCleanup
+            log.debug("Closing persistent amqp cloud to device message sender link");
+            this.sender.close();
+        }
+        else if (this.reactorDispatcher != null)
+        {
+            this.reactorDispatcher.close();
+        }
+    }
+
+    private void failQueuedMessages()
+    {
+        PendingSend pendingSend;
+        while ((pendingSend = this.messagesToSend.poll()) != null)
+        {
+            pendingSend.future.completeExceptionally(new IOException("Amqp connection is closed, the cloud to device message was not sent"));
+        }
+    }
+
+    private static final class PendingSend
+    {
+        private final org.apache.qpid.proton.message.Message protonMessage;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private PendingSend(org.apache.qpid.proton.message.Message protonMessage)
+        {
+            this.protonMessage = protonMessage;
+        }
+    }
+}
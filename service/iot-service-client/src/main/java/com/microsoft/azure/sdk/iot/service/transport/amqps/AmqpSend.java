@@ -13,6 +13,10 @@ import com.microsoft.azure.sdk.iot.service.exceptions.IotHubException;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Instance of the QPID-Proton-J BaseHandler class
@@ -23,12 +27,18 @@ import java.io.IOException;
 @Slf4j
 public class AmqpSend
 {
+    private static final long PERSISTENT_CONNECTION_OPEN_TIMEOUT_MILLISECONDS = 60 * 1000;
+    private static final long PERSISTENT_CONNECTION_CLOSE_TIMEOUT_MILLISECONDS = ReactorRunner.CLOSE_REACTOR_GRACEFULLY_TIMEOUT;
+
     protected final String hostName;
     protected final String userName;
     protected final String sasToken;
     protected AmqpSendHandler amqpSendHandler;
     protected IotHubServiceClientProtocol iotHubServiceClientProtocol;
     private ProxyOptions proxyOptions;
+    private final boolean usePersistentConnection;
+    private AmqpPersistentSendHandler persistentSendHandler;
+    private ExecutorService reactorExecutor;
 
     /**
      * Constructor to set up connection parameters
@@ -51,6 +61,21 @@ public class AmqpSend
      * @param proxyOptions the proxy options to tunnel through, if a proxy should be used.
      */
     public AmqpSend(String hostName, String userName, String sasToken, IotHubServiceClientProtocol iotHubServiceClientProtocol, ProxyOptions proxyOptions)
+    {
+        this(hostName, userName, sasToken, iotHubServiceClientProtocol, proxyOptions, false);
+    }
+
+    /**
+     * Constructor to set up connection parameters
+     * @param hostName The address string of the service (example: AAA.BBB.CCC)
+     * @param userName The username string to use SASL authentication (example: user@sas.service)
+     * @param sasToken The SAS token string
+     * @param iotHubServiceClientProtocol protocol to use
+     * @param proxyOptions the proxy options to tunnel through, if a proxy should be used.
+     * @param usePersistentConnection if true, a single connection and sender link is opened by {@link #open()} and shared by
+     * all sends until {@link #close()} is called. If false, each send opens and closes its own connection.
+     */
+    public AmqpSend(String hostName, String userName, String sasToken, IotHubServiceClientProtocol iotHubServiceClientProtocol, ProxyOptions proxyOptions, boolean usePersistentConnection)
     {
         if (Tools.isNullOrEmpty(hostName))
         {
@@ -75,22 +100,67 @@ public class AmqpSend
         this.sasToken = sasToken;
         this.iotHubServiceClientProtocol = iotHubServiceClientProtocol;
         this.proxyOptions = proxyOptions;
+        this.usePersistentConnection = usePersistentConnection;
     }
 
     /**
-     * Create AmqpsSendHandler and store it in a member variable
+     * Create AmqpsSendHandler and store it in a member variable. If this sender uses a persistent connection, this also
+     * opens that connection and waits for its sender link to open. A failure to open it is logged, and the next send
+     * opens it again. Use {@link #connect()} instead to be told of that failure.
      */
     public void open()
     {
-        // Codes_SRS_SERVICE_SDK_JAVA_AMQPSEND_12_004: [The function shall create an AmqpsSendHandler object to handle reactor events]
-        amqpSendHandler = new AmqpSendHandler(this.hostName, this.userName, this.sasToken, this.iotHubServiceClientProtocol, this.proxyOptions);
+        if (this.usePersistentConnection)
+        {
+            try
+            {
+                connect();
+            }
+            catch (IOException e)
+            {
+                log.warn("Failed to open the persistent amqp cloud to device connection, the next send will open it again", e);
+            }
+        }
+        else
+        {
+            // Codes_SRS_SERVICE_SDK_JAVA_AMQPSEND_12_004: [The function shall create an AmqpsSendHandler object to handle reactor events]
+            amqpSendHandler = new AmqpSendHandler(this.hostName, this.userName, this.sasToken, this.iotHubServiceClientProtocol, this.proxyOptions);
+        }
+    }
+
+    /**
+     * Open this sender as {@link #open()} does. If this sender uses a persistent connection, this waits for that
+     * connection and its sender link to open, and throws if they could not be opened.
+     * @throws IOException if the persistent connection could not be opened
+     */
+    public void connect() throws IOException
+    {
+        if (!this.usePersistentConnection)
+        {
+            open();
+            return;
+        }
+
+        synchronized (this)
+        {
+            openPersistentConnection();
+        }
     }
 
     /**
-     * Invalidate AmqpsSendHandler member variable
+     * Invalidate AmqpsSendHandler member variable. If this sender uses a persistent connection, this also closes that
+     * connection once all in flight messages have been acknowledged.
      */
     public void close()
     {
+        if (this.usePersistentConnection)
+        {
+            synchronized (this)
+            {
+                closePersistentConnection();
+            }
+        }
+
         // Codes_SRS_SERVICE_SDK_JAVA_AMQPSEND_12_005: [The function shall invalidate the member AmqpsSendHandler object]
         amqpSendHandler = null;
     }
@@ -107,6 +177,12 @@ public class AmqpSend
      */
     public void send(String deviceId, String moduleId, Message message) throws IOException, IotHubException
     {
+        if (this.usePersistentConnection)
+        {
+            waitForSend(sendAsync(deviceId, moduleId, message));
+            return;
+        }
+
         synchronized(this)
         {
             if  (amqpSendHandler != null)
@@ -138,4 +214,170 @@ public class AmqpSend
             }
         }
     }
+
+    /**
+     * Send a message without waiting for it to be acknowledged. If this sender uses a persistent connection, the message
+     * is sent over that connection as soon as the sender link has credit for it, and many messages may be in flight at
+     * once. Otherwise, the message is sent over its own connection before this method returns.
+     * @param deviceId The device name string
+     * @param moduleId The module name string, or null if the message is for the device
+     * @param message The message to be sent
+     * @return a future that completes when the service acknowledges the message, or completes exceptionally with an
+     * {@link IotHubException} if the service rejects it, or an {@link IOException} if it could not be sent
+     */
+    public CompletableFuture<Void> sendAsync(String deviceId, String moduleId, Message message)
+    {
+        if (!this.usePersistentConnection)
+        {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            try
+            {
+                send(deviceId, moduleId, message);
+                future.complete(null);
+            }
+            catch (IOException | IotHubException e)
+            {
+                future.completeExceptionally(e);
+            }
+            return future;
+        }
+
+        AmqpPersistentSendHandler handler;
+        synchronized (this)
+        {
+            if (this.persistentSendHandler == null)
+            {
+                CompletableFuture<Void> future = new CompletableFuture<>();
+                future.completeExceptionally(new IOException("send handler is not initialized. call open before send"));
+                return future;
+            }
+
+            if (this.persistentSendHandler.isClosed())
+            {
+                log.debug("Persistent amqp cloud to device connection was lost, reopening it");
+                try
+                {
+                    openPersistentConnection();
+                }
+                catch (IOException e)
+                {
+                    CompletableFuture<Void> future = new CompletableFuture<>();
+                    future.completeExceptionally(e);
+                    return future;
+                }
+            }
+
+            handler = this.persistentSendHandler;
+        }
+
+        String targetPath = moduleId == null
+                ? String.format(AmqpSendHandler.DEVICE_PATH_FORMAT, deviceId)
+                : String.format(AmqpSendHandler.MODULE_PATH_FORMAT, deviceId, moduleId);
+
+        log.trace("Queueing cloud to device message for persistent amqp connection");
+        return handler.sendAsync(AmqpSendHandler.toProtonMessage(targetPath, message));
+    }
+
+    private void openPersistentConnection() throws IOException
+    {
+        if (this.persistentSendHandler != null && !this.persistentSendHandler.isClosed())
+        {
+            log.trace("Persistent amqp cloud to device connection is already open");
+            return;
+        }
+
+        closePersistentConnection();
+
+        if (this.reactorExecutor == null)
+        {
+            this.reactorExecutor = Executors.newSingleThreadExecutor();
+        }
+
+        AmqpPersistentSendHandler handler = new AmqpPersistentSendHandler(this.hostName, this.userName, this.sasToken, this.iotHubServiceClientProtocol, this.proxyOptions);
+        ReactorRunner reactorRunner = new ReactorRunner(handler, "AmqpSend");
+        this.reactorExecutor.submit(() ->
+        {
+            reactorRunner.run();
+
+            // The reactor thread is done, so it is safe to fail anything the reactor did not get to
+            handler.onReactorStopped();
+        });
+        this.persistentSendHandler = handler;
+
+        log.debug("Opening persistent amqp cloud to device connection");
+        try
+        {
+            handler.awaitOpen(PERSISTENT_CONNECTION_OPEN_TIMEOUT_MILLISECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            handler.close();
+            throw new IOException("Interrupted while opening the amqp cloud to device connection", e);
+        }
+        catch (IOException e)
+        {
+            handler.close();
+            throw e;
+        }
+
+        log.debug("Persistent amqp cloud to device connection opened");
+    }
+
+    private void closePersistentConnection()
+    {
+        if (this.persistentSendHandler != null)
+        {
+            log.debug("Closing persistent amqp cloud to device connection");
+            this.persistentSendHandler.close();
+
+            try
+            {
+                if (!this.persistentSendHandler.awaitClose(PERSISTENT_CONNECTION_CLOSE_TIMEOUT_MILLISECONDS))
+                {
+                    log.warn("Persistent amqp cloud to device connection did not close gracefully in time");
+                }
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                log.warn("Interrupted while closing the persistent amqp cloud to device connection");
+            }
+
+            this.persistentSendHandler = null;
+        }
+
+        if (this.reactorExecutor != null)
+        {
+            this.reactorExecutor.shutdownNow();
+            this.reactorExecutor = null;
+        }
+    }
+
+    private static void waitForSend(CompletableFuture<Void> future) throws IOException, IotHubException
+    {
+        try
+        {
+            future.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the cloud to device message to be acknowledged", e);
+        }
+        catch (ExecutionException e)
+        {
+            Throwable cause = e.getCause();
+            if (cause instanceof IotHubException)
+            {
+                throw (IotHubException) cause;
+            }
+            else if (cause instanceof IOException)
+            {
+                throw (IOException) cause;
+            }
+
+            throw new IOException("Failed to send cloud to device message", cause);
+        }
+    }
 }
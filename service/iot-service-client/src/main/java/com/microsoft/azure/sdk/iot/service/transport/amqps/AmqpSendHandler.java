@@ -5,6 +5,8 @@
 
 package com.microsoft.azure.sdk.iot.service.transport.amqps;
 
+import com.microsoft.azure.sdk.iot.deps.transport.amqp.AmqpDeliveryTags;
+import com.microsoft.azure.sdk.iot.deps.transport.amqp.AmqpMessageEncoder;
 import com.microsoft.azure.sdk.iot.service.IotHubServiceClientProtocol;
 import com.microsoft.azure.sdk.iot.service.ProxyOptions;
 import com.microsoft.azure.sdk.iot.service.exceptions.IotHubException;
@@ -19,7 +21,6 @@ import org.apache.qpid.proton.engine.*;
 import org.apache.qpid.proton.reactor.Handshaker;
 
 import java.io.IOException;
-import java.nio.BufferOverflowException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -44,6 +45,7 @@ public class AmqpSendHandler extends AmqpConnectionHandler
     private org.apache.qpid.proton.message.Message messageToBeSent;
 
     private int nextTag = 0;
+    private final AmqpMessageEncoder messageEncoder = new AmqpMessageEncoder();
 
     /**
      * Constructor to set up connection parameters and initialize handshaker for transport
@@ -95,6 +97,17 @@ public class AmqpSendHandler extends AmqpConnectionHandler
     }
 
     private void populateProtonMessage(String targetPath, com.microsoft.azure.sdk.iot.service.Message message)
+    {
+        messageToBeSent = toProtonMessage(targetPath, message);
+    }
+
+    /**
+     * Convert a service client message into the Proton message that is sent to the provided target path
+     * @param targetPath The devicebound path of the device or module that the message is for
+     * @param message The message to be sent
+     * @return The Proton message
+     */
+    static org.apache.qpid.proton.message.Message toProtonMessage(String targetPath, com.microsoft.azure.sdk.iot.service.Message message)
     {
         // Codes_SRS_SERVICE_SDK_JAVA_AMQPSENDHANDLER_12_005: [The function shall create a new Message (Proton) object]
         org.apache.qpid.proton.message.Message protonMessage = Proton.message();
@@ -141,7 +154,7 @@ public class AmqpSendHandler extends AmqpConnectionHandler
         Section section = new Data(binary);
         // Codes_SRS_SERVICE_SDK_JAVA_AMQPSENDHANDLER_12_009: [The function shall set the Message body to the created data section]
         protonMessage.setBody(section);
-        messageToBeSent = protonMessage;
+        return protonMessage;
     }
 
     /**
@@ -212,21 +225,9 @@ public class AmqpSendHandler extends AmqpConnectionHandler
             {
                 this.correlationId = messageToBeSent.getCorrelationId();
                 log.debug("Sending cloud to device message with correlation id {}", this.correlationId);
-                byte[] msgData = new byte[1024];
-                int length;
-                while (true)
-                {
-                    try
-                    {
-                        length = messageToBeSent.encode(msgData, 0, msgData.length);
-                        break;
-                    } catch (BufferOverflowException e)
-                    {
-                        msgData = new byte[msgData.length * 2];
-                    }
-                }
+                int length = this.messageEncoder.encode(messageToBeSent);
                 // Codes_SRS_SERVICE_SDK_JAVA_AMQPSENDHANDLER_12_020: [The event handler shall set the delivery tag on the Sender (Proton) object]
-                byte[] tag = String.valueOf(nextTag).getBytes();
+                byte[] tag = AmqpDeliveryTags.toBytes(nextTag);
 
                 //want to avoid negative delivery tags since -1 is the designated failure value
                 if (this.nextTag == Integer.MAX_VALUE || this.nextTag < 0)
@@ -240,7 +241,7 @@ public class AmqpSendHandler extends AmqpConnectionHandler
 
                 Delivery dlv = snd.delivery(tag);
                 // Codes_SRS_SERVICE_SDK_JAVA_AMQPSENDHANDLER_12_021: [The event handler shall send the encoded bytes]
-                snd.send(msgData, 0, length);
+                snd.send(this.messageEncoder.getBuffer(), 0, length);
 
                 snd.advance();
 
@@ -5,13 +5,14 @@
 
 package com.microsoft.azure.sdk.iot.service.transport.http;
 
+import com.microsoft.azure.sdk.iot.deps.util.Tools;
+
 import javax.net.ssl.HttpsURLConnection;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.ProtocolException;
 import java.net.Proxy;
 import java.net.URL;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -29,6 +30,9 @@ import java.util.Map;
  */
 public class HttpConnection
 {
+    /** Size of the buffer used to discard what a streaming reader left unread in a response. */
+    private static final int DRAIN_BUFFER_SIZE = 4096;
+
     /** The underlying HTTPS connection. */
     protected final HttpsURLConnection connection;
 
@@ -237,7 +241,7 @@ public class HttpConnection
         {
             // Codes_SRS_SERVICE_SDK_JAVA_HTTPCONNECTION_12_014: [The function shall read from the input stream (response stream) and return the response.]
             // Codes_SRS_SERVICE_SDK_JAVA_HTTPCONNECTION_12_015: [The function shall throw an IOException if the input stream could not be accessed.]
-            input = readInputStream(inputStream);
+            input = Tools.readInputStream(inputStream, this.connection.getContentLengthLong());
 
             // Codes_SRS_SERVICE_SDK_JAVA_HTTPCONNECTION_12_016: [The function shall close the input stream after it has been completely read.]
         }
@@ -245,6 +249,21 @@ public class HttpConnection
         return input;
     }
 
+    /**
+     * Opens the input stream (response stream) without reading it. The caller
+     * is responsible for reading the stream to the end and closing it, see
+     * {@link #drainInputStream(InputStream)}.
+     *
+     * @return The response stream.
+     *
+     * @throws IOException This exception thrown if the input stream could not be
+     * accessed, for example if the server could not be reached.
+     */
+    public InputStream getInputStream() throws IOException
+    {
+        return this.connection.getInputStream();
+    }
+
     /**
      * Reads from the error stream and returns the error reason.
      *
@@ -264,7 +283,7 @@ public class HttpConnection
             // if there is no error reason, getErrorStream() returns null.
             if (errorStream != null)
             {
-                error = readInputStream(errorStream);
+                error = Tools.readInputStream(errorStream, this.connection.getContentLengthLong());
             }
 
             // Codes_SRS_SERVICE_SDK_JAVA_HTTPCONNECTION_12_019: [The function shall close the error stream after it has been completely read.]
@@ -315,23 +334,24 @@ public class HttpConnection
     protected static byte[] readInputStream(InputStream stream)
             throws IOException
     {
-        ArrayList<Byte> byteBuffer = new ArrayList<>();
-        int nextByte = -1;
-        // read(byte[]) reads the byte into the buffer and returns the number
-        // of bytes read, or -1 if the end of the stream has been reached.
-        while ((nextByte = stream.read()) > -1)
-        {
-            byteBuffer.add((byte) nextByte);
-        }
+        return Tools.readInputStream(stream, -1);
+    }
 
-        int bufferSize = byteBuffer.size();
-        byte[] byteArray = new byte[bufferSize];
-        for (int i = 0; i < bufferSize; ++i)
+    /**
+     * Reads and discards whatever is left in the input stream, so that the
+     * underlying connection can be reused.
+     *
+     * @param stream The input stream.
+     *
+     * @throws IOException This exception thrown if the input stream could not be read from.
+     */
+    protected static void drainInputStream(InputStream stream) throws IOException
+    {
+        byte[] discard = new byte[DRAIN_BUFFER_SIZE];
+        while (stream.read(discard, 0, discard.length) > 0)
         {
-            byteArray[i] = byteBuffer.get(i);
+            // discard
         }
-
-        return byteArray;
     }
 
     protected HttpConnection()
@@ -8,6 +8,7 @@ package com.microsoft.azure.sdk.iot.service.transport.http;
 import com.microsoft.azure.sdk.iot.service.transport.TransportUtils;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.Proxy;
 import java.net.URL;
 import java.util.List;
@@ -107,6 +108,60 @@ public class HttpRequest
                 errorReason);
     }
 
+    /**
+     * Executes the HTTPS request, handing the body of a successful response to
+     * the provided handler as it is read rather than reading it into memory.
+     * Error responses are read in full and returned as the error reason, as in
+     * {@link #send()}, and the handler is not called for them.
+     *
+     * @param bodyHandler The handler to stream the response body to.
+     *
+     * @return The HTTPS response. Its body is always empty, since it was handed
+     * to the handler instead.
+     *
+     * @throws IOException This exception thrown if the connection could not be
+     * established, the input/output streams could not be accessed, or the handler
+     * failed to read the body.
+     */
+    public HttpResponse send(HttpResponseBodyHandler bodyHandler) throws IOException
+    {
+        if (bodyHandler == null)
+        {
+            throw new IllegalArgumentException("bodyHandler cannot be null");
+        }
+
+        int responseStatus;
+        byte[] errorReason = new byte[0];
+        Map<String, List<String>> headerFields;
+        InputStream responseStream = null;
+        try
+        {
+            this.connection.connect();
+
+            responseStatus = this.connection.getResponseStatus();
+            headerFields = this.connection.getResponseHeaders();
+            responseStream = this.connection.getInputStream();
+        }
+        catch (IOException e)
+        {
+            responseStatus = this.connection.getResponseStatus();
+            headerFields = this.connection.getResponseHeaders();
+            errorReason = this.connection.readError();
+        }
+
+        if (responseStream != null)
+        {
+            // Kept outside of the try block above so that a failure in the handler is not mistaken for an error response
+            try (InputStream body = responseStream)
+            {
+                bodyHandler.handle(body);
+                HttpConnection.drainInputStream(body);
+            }
+        }
+
+        return new HttpResponse(responseStatus, new byte[0], headerFields, errorReason);
+    }
+
     /**
      * Sets the header field to the given value.
      *
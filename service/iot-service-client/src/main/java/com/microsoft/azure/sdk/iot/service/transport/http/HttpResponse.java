@@ -5,6 +5,8 @@
 
 package com.microsoft.azure.sdk.iot.service.transport.http;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -74,6 +76,18 @@ public class HttpResponse
         return Arrays.copyOf(this.body, this.body.length);
     }
 
+    /**
+     * Getter for the response body as a stream. Unlike {@link #getBody()}, this
+     * does not copy the body, so callers that parse the response incrementally
+     * do not pay for a second copy of it.
+     *
+     * @return A stream over the response body.
+     */
+    public InputStream getBodyAsStream()
+    {
+        return new ByteArrayInputStream(this.body);
+    }
+
     /**
      * Getter for a header field.
      *
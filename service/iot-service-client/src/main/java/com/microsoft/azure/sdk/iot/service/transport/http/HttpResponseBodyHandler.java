@@ -0,0 +1,28 @@
+/*
+ * Copyright (c) Microsoft. All rights reserved.
+ * Licensed under the MIT license. See LICENSE file in the project root for full license information.
+ */
+
+package com.microsoft.azure.sdk.iot.service.transport.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Consumes the body of a successful HTTPS response as it is read off the wire, so that large responses such as query
+ * pages can be parsed without first being read into memory in full.
+ *
+ * @see HttpRequest#send(HttpResponseBodyHandler)
+ */
+public interface HttpResponseBodyHandler
+{
+    /**
+     * Called once with the response stream. The stream is closed by the caller once this returns, and anything left
+     * unread is drained so that the underlying connection can be reused.
+     *
+     * @param body The response body stream.
+     *
+     * @throws IOException If the body could not be read or parsed.
+     */
+    void handle(InputStream body) throws IOException;
+}
@@ -2430,7 +2430,7 @@ public class RegistryManagerTest
                 new HttpRequest(mockUrl, HttpMethod.POST, expectedJson.getBytes(), (Proxy) any);
                 times = 1;
 
-                new IotHubServiceSasToken(iotHubConnectionString);
+                new IotHubServiceSasToken((IotHubConnectionString) any);
                 times = 1;
 
                 mockHttpRequest.send();
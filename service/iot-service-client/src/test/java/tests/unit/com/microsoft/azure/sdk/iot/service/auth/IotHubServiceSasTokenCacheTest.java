@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) Microsoft. All rights reserved.
+ * Licensed under the MIT license. See LICENSE file in the project root for full license information.
+ */
+
+package tests.unit.com.microsoft.azure.sdk.iot.service.auth;
+
+import com.microsoft.azure.sdk.iot.service.IotHubConnectionString;
+import com.microsoft.azure.sdk.iot.service.IotHubConnectionStringBuilder;
+import com.microsoft.azure.sdk.iot.service.auth.IotHubServiceSasTokenCache;
+import mockit.Deencapsulation;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/** Unit tests for IotHubServiceSasTokenCache */
+public class IotHubServiceSasTokenCacheTest
+{
+    private static final String CONNECTION_STRING =
+            "HostName=HOSTNAME.b.c.d;SharedAccessKeyName=ACCESSKEYNAME;SharedAccessKey=1234567890abcdefghijklmnopqrstvwxyz=";
+    private static final long RENEWAL_TIMEOUT_MILLISECONDS = 5000;
+
+    private static IotHubConnectionString createConnectionString() throws Exception
+    {
+        return IotHubConnectionStringBuilder.createConnectionString(CONNECTION_STRING);
+    }
+
+    private static IotHubServiceSasTokenCache createCache(IotHubConnectionString iotHubConnectionString, double renewalFraction)
+    {
+        return Deencapsulation.newInstance(IotHubServiceSasTokenCache.class, new Class[] {IotHubConnectionString.class, double.class}, iotHubConnectionString, renewalFraction);
+    }
+
+    private static IotHubServiceSasTokenCache createCache(IotHubConnectionString iotHubConnectionString, long tokenLifespanSeconds, double renewalFraction)
+    {
+        return Deencapsulation.newInstance(IotHubServiceSasTokenCache.class, new Class[] {IotHubConnectionString.class, long.class, double.class}, iotHubConnectionString, tokenLifespanSeconds, renewalFraction);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void constructorThrowsForNullConnectionString()
+    {
+        createCache(null, IotHubServiceSasTokenCache.DEFAULT_RENEWAL_FRACTION);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void constructorThrowsForZeroRenewalFraction() throws Exception
+    {
+        createCache(createConnectionString(), 0);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void constructorThrowsForRenewalFractionAboveOne() throws Exception
+    {
+        createCache(createConnectionString(), 1.5);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void constructorThrowsForNonPositiveLifespan() throws Exception
+    {
+        createCache(createConnectionString(), 0, IotHubServiceSasTokenCache.DEFAULT_RENEWAL_FRACTION);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void forConnectionStringThrowsForNull()
+    {
+        IotHubServiceSasTokenCache.forConnectionString(null);
+    }
+
+    @Test
+    public void forConnectionStringSharesCacheAcrossEqualCredentials() throws Exception
+    {
+        // Act
+        IotHubServiceSasTokenCache first = IotHubServiceSasTokenCache.forConnectionString(createConnectionString());
+        IotHubServiceSasTokenCache second = IotHubServiceSasTokenCache.forConnectionString(createConnectionString());
+
+        // Assert
+        assertSame(first, second);
+    }
+
+    @Test
+    public void forConnectionStringKeepsSeparateCachesPerRenewalFraction() throws Exception
+    {
+        // Act
+        IotHubServiceSasTokenCache defaultCache = IotHubServiceSasTokenCache.forConnectionString(createConnectionString());
+        IotHubServiceSasTokenCache zeroFractionCache = IotHubServiceSasTokenCache.forConnectionString(createConnectionString(), 0);
+        IotHubServiceSasTokenCache otherFractionCache = IotHubServiceSasTokenCache.forConnectionString(createConnectionString(), 0.5);
+
+        // Assert
+        assertSame(defaultCache, zeroFractionCache);
+        assertNotSame(defaultCache, otherFractionCache);
+    }
+
+    @Test
+    public void forConnectionStringDoesNotKeepTheSharedAccessKey() throws Exception
+    {
+        // Act
+        IotHubServiceSasTokenCache.forConnectionString(createConnectionString());
+
+        // Assert
+        Map<String, IotHubServiceSasTokenCache> caches = Deencapsulation.getField(IotHubServiceSasTokenCache.class, "CACHES");
+        for (String cacheKey : caches.keySet())
+        {
+            assertFalse(cacheKey.contains(createConnectionString().getSharedAccessKey()));
+        }
+    }
+
+    @Test
+    public void evictDropsTheCachesOfTheCredentials() throws Exception
+    {
+        // Arrange
+        IotHubServiceSasTokenCache defaultCache = IotHubServiceSasTokenCache.forConnectionString(createConnectionString());
+        IotHubServiceSasTokenCache otherFractionCache = IotHubServiceSasTokenCache.forConnectionString(createConnectionString(), 0.5);
+
+        // Act
+        IotHubServiceSasTokenCache.evict(createConnectionString());
+
+        // Assert
+        assertNotSame(defaultCache, IotHubServiceSasTokenCache.forConnectionString(createConnectionString()));
+        assertNotSame(otherFractionCache, IotHubServiceSasTokenCache.forConnectionString(createConnectionString(), 0.5));
+    }
+
+    @Test
+    public void getTokenReusesCachedTokenBeforeRenewalPoint() throws Exception
+    {
+        // Arrange
+        IotHubServiceSasTokenCache cache = createCache(createConnectionString(), IotHubServiceSasTokenCache.DEFAULT_RENEWAL_FRACTION);
+
+        // Act
+        String firstToken = cache.getToken();
+        String secondToken = cache.getToken();
+        String thirdToken = cache.getToken();
+
+        // Assert
+        assertTrue(firstToken.startsWith("SharedAccessSignature sr=hostname.b.c.d&sig="));
+        assertSame(firstToken, secondToken);
+        assertSame(firstToken, thirdToken);
+        assertEquals(1, cache.getRenewalCount());
+        assertEquals(2, cache.getCacheHitCount());
+    }
+
+    @Test
+    public void getTokenPastRenewalPointReturnsCachedTokenAndRenewsInBackground() throws Exception
+    {
+        // Arrange
+        IotHubServiceSasTokenCache cache = createCache(createConnectionString(), 3600, 0.000001);
+        String firstToken = cache.getToken();
+        Thread.sleep(10);
+
+        // Act
+        String secondToken = cache.getToken();
+
+        // Assert
+        assertSame(firstToken, secondToken);
+        assertEquals(1, cache.getCacheHitCount());
+        long deadline = System.currentTimeMillis() + RENEWAL_TIMEOUT_MILLISECONDS;
+        while (cache.getRenewalCount() < 2 && System.currentTimeMillis() < deadline)
+        {
+            Thread.sleep(10);
+        }
+        assertEquals(2, cache.getRenewalCount());
+    }
+
+    @Test
+    public void getTokenRenewsExpiredTokenOnRequestPath() throws Exception
+    {
+        // Arrange
+        IotHubServiceSasTokenCache cache = createCache(createConnectionString(), 1, 1);
+        cache.getToken();
+
+        // Token expiry has a granularity of one second, so this is guaranteed to be past it
+        Thread.sleep(1100);
+
+        // Act
+        String renewedToken = cache.getToken();
+
+        // Assert
+        assertNotNull(renewedToken);
+        assertEquals(2, cache.getRenewalCount());
+        assertEquals(0, cache.getCacheHitCount());
+    }
+}
@@ -19,6 +19,7 @@ import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  *
@@ -124,4 +125,34 @@ public class IotHubServiceSasTokenTest
         Deencapsulation.setField(iotHubConnectionString, "hostName", null);
         IotHubServiceSasToken iotHubServiceSasToken = new IotHubServiceSasToken(iotHubConnectionString);
     }
+
+    @Test
+    public void constructorWithLifespanSetsExpiryTime() throws Exception
+    {
+        // Arrange
+        String connectionString = "HostName=HOSTNAME.b.c.d;SharedAccessKeyName=ACCESSKEYNAME;SharedAccessKey=1234567890abcdefghijklmnopqrstvwxyz=";
+        IotHubConnectionString iotHubConnectionString = IotHubConnectionStringBuilder.createConnectionString(connectionString);
+        long lifespanSeconds = 60;
+        long before = System.currentTimeMillis() / 1000;
+
+        // Act
+        IotHubServiceSasToken iotHubServiceSasToken = new IotHubServiceSasToken(iotHubConnectionString, lifespanSeconds);
+
+        // Assert
+        long after = System.currentTimeMillis() / 1000;
+        assertTrue(iotHubServiceSasToken.getExpiryTime() >= before + lifespanSeconds);
+        assertTrue(iotHubServiceSasToken.getExpiryTime() <= after + lifespanSeconds);
+        assertTrue(iotHubServiceSasToken.toString().contains("&se=" + iotHubServiceSasToken.getExpiryTime()));
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void constructorWithLifespanThrowsForNonPositiveLifespan() throws Exception
+    {
+        // Arrange
+        String connectionString = "HostName=HOSTNAME.b.c.d;SharedAccessKeyName=ACCESSKEYNAME;SharedAccessKey=1234567890abcdefghijklmnopqrstvwxyz=";
+        IotHubConnectionString iotHubConnectionString = IotHubConnectionStringBuilder.createConnectionString(connectionString);
+
+        // Act
+        new IotHubServiceSasToken(iotHubConnectionString, 0);
+    }
 }
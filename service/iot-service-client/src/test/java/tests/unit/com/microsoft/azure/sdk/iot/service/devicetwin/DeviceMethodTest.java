@@ -8,6 +8,9 @@ import com.microsoft.azure.sdk.iot.service.IotHubConnectionString;
 import com.microsoft.azure.sdk.iot.service.IotHubConnectionStringBuilder;
 import com.microsoft.azure.sdk.iot.service.auth.IotHubServiceSasToken;
 import com.microsoft.azure.sdk.iot.service.devicetwin.DeviceMethod;
+import com.microsoft.azure.sdk.iot.service.devicetwin.DeviceMethodBulkResult;
+import com.microsoft.azure.sdk.iot.service.devicetwin.DeviceMethodClientOptions;
+import com.microsoft.azure.sdk.iot.service.devicetwin.DeviceMethodTarget;
 import com.microsoft.azure.sdk.iot.service.devicetwin.DeviceOperations;
 import com.microsoft.azure.sdk.iot.service.devicetwin.Job;
 import com.microsoft.azure.sdk.iot.service.devicetwin.MethodResult;
@@ -20,15 +23,26 @@ import org.junit.Test;
 import java.io.IOException;
 import java.net.Proxy;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * Unit tests for Device Method
@@ -430,7 +444,8 @@ public class DeviceMethodTest
                     String requestId,
                     int httpConnectTimeout,
                     int httpReadTimeout,
-                    Proxy proxy)
+                    Proxy proxy,
+                    double sasTokenRenewalFraction)
                     throws IOException, IotHubException, IllegalArgumentException
             {
                 throw new IotHubException();
@@ -699,4 +714,320 @@ public class DeviceMethodTest
         testMethod.scheduleDeviceMethod(queryCondition, STANDARD_METHODNAME, STANDARD_TIMEOUT_SECONDS, STANDARD_TIMEOUT_SECONDS, STANDARD_PAYLOAD_MAP, now, maxExecutionTimeInSeconds);
     }
 
+    @Test
+    public void invokeAsyncCompletesWithResult(
+            @Mocked final MethodParser methodParser,
+            @Mocked final DeviceOperations request,
+            @Mocked final IotHubServiceSasToken iotHubServiceSasToken)
+            throws Exception
+    {
+        //arrange
+        DeviceMethod testMethod = DeviceMethod.createFromConnectionString(STANDARD_CONNECTIONSTRING);
+        new NonStrictExpectations()
+        {
+            {
+                mockedIotHubConnectionString.getUrlModuleMethod(STANDARD_DEVICEID, STANDARD_MODULEID);
+                result = STANDARD_URL;
+                methodParser.toJson();
+                result = STANDARD_JSON;
+                methodParser.getPayload();
+                result = STANDARD_PAYLOAD_STR;
+                methodParser.getStatus();
+                result = 123;
+            }
+        };
+
+        //act
+        MethodResult result = testMethod.invokeAsync(STANDARD_DEVICEID, STANDARD_MODULEID, STANDARD_METHODNAME, null, null, STANDARD_PAYLOAD_MAP).get(10, TimeUnit.SECONDS);
+
+        //assert
+        assertThat(result.getStatus(), is(123));
+        assertThat(result.getPayload().toString(), is(STANDARD_PAYLOAD_STR));
+        testMethod.close();
+    }
+
+    @Test
+    public void invokeAsyncCompletesExceptionallyOnHttpRequesterFailed(
+            @Mocked final MethodParser methodParser)
+            throws Exception
+    {
+        //arrange
+        DeviceMethod testMethod = DeviceMethod.createFromConnectionString(STANDARD_CONNECTIONSTRING);
+        new NonStrictExpectations()
+        {
+            {
+                methodParser.toJson();
+                result = STANDARD_JSON;
+                mockedIotHubConnectionString.getUrlMethod(STANDARD_DEVICEID);
+                result = STANDARD_URL;
+            }
+        };
+        new MockUp<DeviceOperations>()
+        {
+            @Mock HttpResponse request(
+                    IotHubConnectionString mockedIotHubConnectionString,
+                    URL url,
+                    HttpMethod method,
+                    byte[] payload,
+                    String requestId,
+                    int httpConnectTimeout,
+                    int httpReadTimeout,
+                    Proxy proxy,
+                    double sasTokenRenewalFraction)
+                    throws IOException, IotHubException, IllegalArgumentException
+            {
+                throw new IotHubException();
+            }
+        };
+
+        //act
+        CompletableFuture<MethodResult> future = testMethod.invokeAsync(STANDARD_DEVICEID, STANDARD_METHODNAME, STANDARD_TIMEOUT_SECONDS, STANDARD_TIMEOUT_SECONDS, STANDARD_PAYLOAD_MAP);
+
+        //assert
+        try
+        {
+            future.get(10, TimeUnit.SECONDS);
+            fail("Expected the invocation to fail");
+        }
+        catch (ExecutionException e)
+        {
+            assertTrue(e.getCause() instanceof IotHubException);
+        }
+        testMethod.close();
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void invokeAsyncThrowsOnEmptyMethodName() throws Exception
+    {
+        //arrange
+        DeviceMethod testMethod = DeviceMethod.createFromConnectionString(STANDARD_CONNECTIONSTRING);
+
+        //act
+        testMethod.invokeAsync(STANDARD_DEVICEID, "", STANDARD_TIMEOUT_SECONDS, STANDARD_TIMEOUT_SECONDS, STANDARD_PAYLOAD_MAP);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void createFromConnectionStringThrowsOnNegativeMaxConcurrentInvocations() throws Exception
+    {
+        //act
+        DeviceMethod.createFromConnectionString(STANDARD_CONNECTIONSTRING, DeviceMethodClientOptions.builder().maxConcurrentInvocations(-1).build());
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void createFromConnectionStringThrowsOnSasTokenRenewalFractionAboveOne() throws Exception
+    {
+        //act
+        DeviceMethod.createFromConnectionString(STANDARD_CONNECTIONSTRING, DeviceMethodClientOptions.builder().sasTokenRenewalFraction(1.5).build());
+    }
+
+    @Test
+    public void invokeAsyncRunsInvocationsConcurrentlyUpToLimit(
+            @Mocked final MethodParser methodParser)
+            throws Exception
+    {
+        //arrange
+        final int maxConcurrentInvocations = 3;
+        final int invocationCount = 12;
+        final AtomicInteger inFlight = new AtomicInteger(0);
+        final AtomicInteger maxInFlight = new AtomicInteger(0);
+        DeviceMethod testMethod = DeviceMethod.createFromConnectionString(
+                STANDARD_CONNECTIONSTRING,
+                DeviceMethodClientOptions.builder().maxConcurrentInvocations(maxConcurrentInvocations).build());
+        new NonStrictExpectations()
+        {
+            {
+                methodParser.toJson();
+                result = STANDARD_JSON;
+            }
+        };
+        new MockUp<DeviceOperations>()
+        {
+            @Mock HttpResponse request(
+                    IotHubConnectionString mockedIotHubConnectionString,
+                    URL url,
+                    HttpMethod method,
+                    byte[] payload,
+                    String requestId,
+                    int httpConnectTimeout,
+                    int httpReadTimeout,
+                    Proxy proxy,
+                    double sasTokenRenewalFraction)
+                    throws InterruptedException
+            {
+                int current = inFlight.incrementAndGet();
+                maxInFlight.accumulateAndGet(current, Math::max);
+                Thread.sleep(100);
+                inFlight.decrementAndGet();
+                return new HttpResponse(200, new byte[0], new HashMap<>(), new byte[0]);
+            }
+        };
+
+        //act
+        List<CompletableFuture<MethodResult>> futures = new ArrayList<>();
+        for (int i = 0; i < invocationCount; i++)
+        {
+            futures.add(testMethod.invokeAsync(STANDARD_DEVICEID + i, STANDARD_METHODNAME, STANDARD_TIMEOUT_SECONDS, STANDARD_TIMEOUT_SECONDS, STANDARD_PAYLOAD_MAP));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+        //assert
+        assertThat(maxInFlight.get(), is(maxConcurrentInvocations));
+        testMethod.close();
+    }
+
+    @Test
+    public void invokeBulkAsyncReportsEveryTarget(
+            @Mocked final MethodParser methodParser)
+            throws Exception
+    {
+        //arrange
+        final String failingDeviceId = "failingDeviceId";
+        DeviceMethod testMethod = DeviceMethod.createFromConnectionString(STANDARD_CONNECTIONSTRING);
+        new NonStrictExpectations()
+        {
+            {
+                mockedIotHubConnectionString.getUrlMethod(STANDARD_DEVICEID);
+                result = new URL(STANDARD_URL);
+                mockedIotHubConnectionString.getUrlModuleMethod(STANDARD_DEVICEID, STANDARD_MODULEID);
+                result = new URL(STANDARD_URL);
+                mockedIotHubConnectionString.getUrlMethod(failingDeviceId);
+                result = new IllegalArgumentException();
+                methodParser.toJson();
+                result = STANDARD_JSON;
+                methodParser.getStatus();
+                result = 200;
+            }
+        };
+        new MockUp<DeviceOperations>()
+        {
+            @Mock HttpResponse request(
+                    IotHubConnectionString mockedIotHubConnectionString,
+                    URL url,
+                    HttpMethod method,
+                    byte[] payload,
+                    String requestId,
+                    int httpConnectTimeout,
+                    int httpReadTimeout,
+                    Proxy proxy,
+                    double sasTokenRenewalFraction)
+            {
+                return new HttpResponse(200, new byte[0], new HashMap<>(), new byte[0]);
+            }
+        };
+        List<DeviceMethodTarget> targets = new ArrayList<>();
+        targets.add(DeviceMethodTarget.forDevice(STANDARD_DEVICEID));
+        targets.add(DeviceMethodTarget.forModule(STANDARD_DEVICEID, STANDARD_MODULEID));
+        targets.add(DeviceMethodTarget.forDevice(failingDeviceId));
+        final Queue<DeviceMethodBulkResult> results = new ConcurrentLinkedQueue<>();
+
+        //act
+        testMethod.invokeBulkAsync(targets, STANDARD_METHODNAME, STANDARD_TIMEOUT_SECONDS, STANDARD_TIMEOUT_SECONDS, STANDARD_PAYLOAD_MAP, results::add)
+                .get(10, TimeUnit.SECONDS);
+
+        //assert
+        assertThat(results.size(), is(targets.size()));
+        for (DeviceMethodBulkResult result : results)
+        {
+            if (result.getTarget().getDeviceId().equals(failingDeviceId))
+            {
+                assertFalse(result.isSuccess());
+                assertTrue(result.getException() instanceof IllegalArgumentException);
+            }
+            else
+            {
+                assertTrue(result.isSuccess());
+                assertThat(result.getMethodResult().getStatus(), is(200));
+            }
+        }
+        testMethod.close();
+    }
+
+    @Test
+    public void closeCancelsInvocationsThatDidNotStart(
+            @Mocked final MethodParser methodParser)
+            throws Exception
+    {
+        //arrange
+        final CountDownLatch firstInvocationStarted = new CountDownLatch(1);
+        DeviceMethod testMethod = DeviceMethod.createFromConnectionString(
+                STANDARD_CONNECTIONSTRING,
+                DeviceMethodClientOptions.builder().maxConcurrentInvocations(1).build());
+        new NonStrictExpectations()
+        {
+            {
+                methodParser.toJson();
+                result = STANDARD_JSON;
+            }
+        };
+        new MockUp<DeviceOperations>()
+        {
+            @Mock HttpResponse request(
+                    IotHubConnectionString mockedIotHubConnectionString,
+                    URL url,
+                    HttpMethod method,
+                    byte[] payload,
+                    String requestId,
+                    int httpConnectTimeout,
+                    int httpReadTimeout,
+                    Proxy proxy,
+                    double sasTokenRenewalFraction)
+                    throws IOException
+            {
+                firstInvocationStarted.countDown();
+                try
+                {
+                    // Blocks until close interrupts the worker thread
+                    new CountDownLatch(1).await();
+                }
+                catch (InterruptedException e)
+                {
+                    throw new IOException("interrupted");
+                }
+
+                return new HttpResponse(200, new byte[0], new HashMap<>(), new byte[0]);
+            }
+        };
+        List<DeviceMethodTarget> targets = new ArrayList<>();
+        for (int i = 0; i < 3; i++)
+        {
+            targets.add(DeviceMethodTarget.forDevice(STANDARD_DEVICEID + i));
+        }
+        final Queue<DeviceMethodBulkResult> results = new ConcurrentLinkedQueue<>();
+        CompletableFuture<Void> bulkFuture = testMethod.invokeBulkAsync(targets, STANDARD_METHODNAME, STANDARD_TIMEOUT_SECONDS, STANDARD_TIMEOUT_SECONDS, STANDARD_PAYLOAD_MAP, results::add);
+        assertTrue(firstInvocationStarted.await(10, TimeUnit.SECONDS));
+
+        //act
+        testMethod.close();
+        bulkFuture.get(10, TimeUnit.SECONDS);
+
+        //assert
+        assertThat(results.size(), is(targets.size()));
+        int cancelledCount = 0;
+        for (DeviceMethodBulkResult result : results)
+        {
+            assertFalse(result.isSuccess());
+            if (result.getException() instanceof CancellationException)
+            {
+                cancelledCount++;
+            }
+        }
+        assertThat(cancelledCount, is(targets.size() - 1));
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void invokeBulkAsyncThrowsOnNullCallback() throws Exception
+    {
+        //arrange
+        DeviceMethod testMethod = DeviceMethod.createFromConnectionString(STANDARD_CONNECTIONSTRING);
+
+        //act
+        testMethod.invokeBulkAsync(new ArrayList<>(), STANDARD_METHODNAME, STANDARD_TIMEOUT_SECONDS, STANDARD_TIMEOUT_SECONDS, STANDARD_PAYLOAD_MAP, null);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void deviceMethodTargetForModuleThrowsOnEmptyModuleId()
+    {
+        //act
+        DeviceMethodTarget.forModule(STANDARD_DEVICEID, "");
+    }
 }
@@ -6,6 +6,7 @@ package tests.unit.com.microsoft.azure.sdk.iot.service.devicetwin;
 import com.microsoft.azure.sdk.iot.service.IotHubConnectionString;
 import com.microsoft.azure.sdk.iot.service.IotHubConnectionStringBuilder;
 import com.microsoft.azure.sdk.iot.service.auth.IotHubServiceSasToken;
+import com.microsoft.azure.sdk.iot.service.auth.IotHubServiceSasTokenCache;
 import com.microsoft.azure.sdk.iot.service.devicetwin.DeviceOperations;
 import com.microsoft.azure.sdk.iot.service.exceptions.IotHubBadFormatException;
 import com.microsoft.azure.sdk.iot.service.exceptions.IotHubExceptionManager;
@@ -61,6 +62,8 @@ public class DeviceOperationsTest
     @Before
     public void setUp() throws Exception
     {
+        // Each test signs its own token instead of getting the one cached by the tests that ran before
+        Deencapsulation.invoke(IotHubServiceSasTokenCache.class, "clear");
         IOT_HUB_CONNECTION_STRING = IotHubConnectionStringBuilder.createConnectionString(STANDARD_CONNECTIONSTRING);
         STANDARD_SASTOKEN_STRING = (new IotHubServiceSasToken(IOT_HUB_CONNECTION_STRING)).toString();
     }
@@ -749,7 +752,7 @@ public class DeviceOperationsTest
                 STANDARD_REQUEST_ID,
                 0);
 
-        assertNull(Deencapsulation.getField(DeviceOperations.class, "headers"));
+        assertNull(((ThreadLocal) Deencapsulation.getField(DeviceOperations.class, "headers")).get());
 
         //assert
         new Verifications()
@@ -796,6 +799,95 @@ public class DeviceOperationsTest
         };
     }
 
+    @Test
+    public void requestWithCustomHeadersSetsThemOnThatRequestOnly(@Mocked IotHubServiceSasToken iotHubServiceSasToken,
+                                                                   @Mocked HttpRequest httpRequest) throws Exception
+    {
+        //Arrange
+        Map<String, String> headers = new HashMap<>();
+        headers.put("TestKey", "TestValue");
+
+        //act
+        DeviceOperations.request(
+                IOT_HUB_CONNECTION_STRING,
+                new URL(STANDARD_URL),
+                HttpMethod.POST,
+                STANDARD_PAYLOAD,
+                STANDARD_REQUEST_ID,
+                0,
+                0,
+                null,
+                headers);
+
+        DeviceOperations.request(
+                IOT_HUB_CONNECTION_STRING,
+                new URL(STANDARD_URL),
+                HttpMethod.POST,
+                STANDARD_PAYLOAD,
+                STANDARD_REQUEST_ID,
+                0,
+                0,
+                null);
+
+        //assert
+        new Verifications()
+        {
+            {
+                httpRequest.setHeaderField("TestKey", "TestValue");
+                times = 1;
+            }
+        };
+    }
+
+    @Test
+    public void setCustomHeadersOnlyAppliesToRequestsFromTheSameThread(@Mocked IotHubServiceSasToken iotHubServiceSasToken,
+                                                                       @Mocked HttpRequest httpRequest) throws Exception
+    {
+        //Arrange
+        Map<String, String> headers = new HashMap<>();
+        headers.put("TestKey", "TestValue");
+        final URL url = new URL(STANDARD_URL);
+        final Exception[] otherThreadException = new Exception[1];
+        DeviceOperations.setHeaders(headers);
+
+        //act
+        Thread otherThread = new Thread(() ->
+        {
+            try
+            {
+                DeviceOperations.request(IOT_HUB_CONNECTION_STRING, url, HttpMethod.POST, STANDARD_PAYLOAD, STANDARD_REQUEST_ID, 0, 0, null);
+            }
+            catch (Exception e)
+            {
+                otherThreadException[0] = e;
+            }
+        });
+        otherThread.start();
+        otherThread.join();
+
+        //assert
+        assertNull(otherThreadException[0]);
+        new Verifications()
+        {
+            {
+                httpRequest.setHeaderField("TestKey", "TestValue");
+                times = 0;
+            }
+        };
+
+        //act
+        DeviceOperations.request(IOT_HUB_CONNECTION_STRING, url, HttpMethod.POST, STANDARD_PAYLOAD, STANDARD_REQUEST_ID, 0, 0, null);
+
+        //assert
+        new Verifications()
+        {
+            {
+                httpRequest.setHeaderField("TestKey", "TestValue");
+                times = 1;
+            }
+        };
+    }
+
     //Tests_SRS_DEVICE_OPERATIONS_25_021: [If the headers map is null or empty then this method shall throw IllegalArgumentException.]
     @Test (expected = IllegalArgumentException.class)
     public void setCustomHeadersThrowsOnNull() throws Exception
@@ -8,6 +8,7 @@ package tests.unit.com.microsoft.azure.sdk.iot.service.devicetwin;
 import com.microsoft.azure.sdk.iot.deps.twin.*;
 import com.microsoft.azure.sdk.iot.service.IotHubConnectionString;
 import com.microsoft.azure.sdk.iot.service.IotHubConnectionStringBuilder;
+import com.microsoft.azure.sdk.iot.service.auth.IotHubServiceSasTokenCache;
 import com.microsoft.azure.sdk.iot.service.auth.IotHubServiceSasToken;
 import com.microsoft.azure.sdk.iot.service.devicetwin.*;
 import com.microsoft.azure.sdk.iot.service.exceptions.IotHubException;
@@ -115,6 +116,25 @@ public class DeviceTwinTest
         assertNotNull(testTwin);
     }
 
+    @Test
+    public void closeEvictsCachedSasToken(@Mocked final IotHubServiceSasTokenCache mockedSasTokenCache) throws Exception
+    {
+        //arrange
+        DeviceTwin testTwin = DeviceTwin.createFromConnectionString("testString");
+
+        //act
+        testTwin.close();
+
+        //assert
+        new Verifications()
+        {
+            {
+                IotHubServiceSasTokenCache.evict((IotHubConnectionString) any);
+                times = 1;
+            }
+        };
+    }
+
     /*
     **Tests_SRS_DEVICETWIN_25_001: [** The constructor shall throw IllegalArgumentException if the input string is null or empty **]**
      */
@@ -540,7 +560,7 @@ public class DeviceTwinTest
                 result = testMap;
                 new TwinState((TwinCollection)any, (TwinCollection)any, null);
                 result = mockedTwinState;
-                mockedTwinState.toJsonElement().toString();
+                mockedTwinState.toJson();
                 result = "SomeJsonString";
             }
         };
@@ -659,7 +679,7 @@ public class DeviceTwinTest
                 result = null;
                 new TwinState(null, (TwinCollection)any, null);
                 result = mockedTwinState;
-                mockedTwinState.toJsonElement().toString();
+                mockedTwinState.toJson();
                 result = "SomeJsonString";
             }
         };
@@ -703,7 +723,7 @@ public class DeviceTwinTest
                 result = testMap;
                 new TwinState((TwinCollection)any, null, null);
                 result = mockedTwinState;
-                mockedTwinState.toJsonElement().toString();
+                mockedTwinState.toJson();
                 result = "SomeJsonString";
             }
         };
@@ -746,7 +766,7 @@ public class DeviceTwinTest
                 result = testMap;
                 new TwinState((TwinCollection)any, (TwinCollection)any, null);
                 result = mockedTwinState;
-                mockedTwinState.toJsonElement().toString();
+                mockedTwinState.toJson();
                 result = "SomeJsonString";
                 IotHubExceptionManager.httpResponseVerification(mockedHttpResponse);
                 result = new IotHubException();
@@ -1383,6 +1403,16 @@ public class DeviceTwinTest
         deviceTwin.queryTwinCollection(expectedQuery);
     }
 
+    @Test (expected = IllegalArgumentException.class)
+    public void queryTwinPrefetchingThrowsOnNonPositiveReadAhead() throws IotHubException, IOException
+    {
+        //arrange
+        DeviceTwin testTwin = DeviceTwin.createFromConnectionString("testString");
+
+        //act
+        testTwin.queryTwinPrefetching(VALID_SQL_QUERY, 100, 0);
+    }
+
     //Tests_SRS_DEVICETWIN_34_070: [This function shall return a new QueryCollection object of type TWIN with the provided sql query and page size.]
     @Test
     public void queryTwinCollectionWithPageSizeSuccess() throws IOException, IotHubException
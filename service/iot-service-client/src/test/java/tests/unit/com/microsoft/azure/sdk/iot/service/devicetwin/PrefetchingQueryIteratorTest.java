@@ -0,0 +1,251 @@
+/*
+ *  Copyright (c) Microsoft. All rights reserved.
+ *  Licensed under the MIT license. See LICENSE file in the project root for full license information.
+ */
+
+package tests.unit.com.microsoft.azure.sdk.iot.service.devicetwin;
+
+import com.microsoft.azure.sdk.iot.service.devicetwin.PrefetchingQueryIterator;
+import com.microsoft.azure.sdk.iot.service.devicetwin.Query;
+import com.microsoft.azure.sdk.iot.service.devicetwin.QueryIteratorException;
+import com.microsoft.azure.sdk.iot.service.devicetwin.QueryType;
+import com.microsoft.azure.sdk.iot.service.exceptions.IotHubException;
+import mockit.Mock;
+import mockit.MockUp;
+import mockit.integration.junit4.JMockit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for PrefetchingQueryIterator. The query is faked with a MockUp so that its elements are served from the
+ * prefetch thread exactly like a real query would serve them.
+ */
+@RunWith(JMockit.class)
+public class PrefetchingQueryIteratorTest
+{
+    private static final String VALID_SQL_QUERY = "select * from devices";
+    private static final long TIMEOUT_MILLISECONDS = 5000;
+
+    private static class FakeQuery extends MockUp<Query>
+    {
+        private final List<Object> elements;
+        private final int failAfter;
+        private final AtomicInteger served = new AtomicInteger(0);
+
+        FakeQuery(List<Object> elements, int failAfter)
+        {
+            this.elements = elements;
+            this.failAfter = failAfter;
+        }
+
+        @Mock
+        public boolean hasNext() throws IotHubException
+        {
+            if (this.served.get() == this.failAfter)
+            {
+                throw new IotHubException("query failed");
+            }
+
+            return this.served.get() < this.elements.size();
+        }
+
+        @Mock
+        public Object next()
+        {
+            return this.elements.get(this.served.getAndIncrement());
+        }
+    }
+
+    private static List<Object> numberedElements(int count)
+    {
+        List<Object> elements = new ArrayList<>();
+        for (int i = 0; i < count; i++)
+        {
+            elements.add(String.valueOf(i));
+        }
+        return elements;
+    }
+
+    private static Query createQuery(int pageSize)
+    {
+        return new Query(VALID_SQL_QUERY, pageSize, QueryType.TWIN);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void constructorThrowsForNullQuery()
+    {
+        new PrefetchingQueryIterator<>(null, 1, Integer::valueOf);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void constructorThrowsForNullParser()
+    {
+        new PrefetchingQueryIterator<Integer>(createQuery(10), 1, null);
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void constructorThrowsForNonPositiveReadAhead()
+    {
+        new PrefetchingQueryIterator<>(createQuery(10), 0, Integer::valueOf);
+    }
+
+    @Test
+    public void iteratesEveryResultInOrderAcrossPages()
+    {
+        // arrange
+        new FakeQuery(numberedElements(25), -1);
+        PrefetchingQueryIterator<Integer> iterator = new PrefetchingQueryIterator<>(createQuery(10), 2, Integer::valueOf);
+
+        // act
+        List<Integer> results = new ArrayList<>();
+        while (iterator.hasNext())
+        {
+            results.add(iterator.next());
+        }
+
+        // assert
+        assertEquals(25, results.size());
+        for (int i = 0; i < results.size(); i++)
+        {
+            assertEquals(Integer.valueOf(i), results.get(i));
+        }
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test (expected = NoSuchElementException.class)
+    public void nextThrowsAtEndOfQuery()
+    {
+        // arrange
+        new FakeQuery(numberedElements(1), -1);
+        PrefetchingQueryIterator<Integer> iterator = new PrefetchingQueryIterator<>(createQuery(10), 1, Integer::valueOf);
+        iterator.next();
+
+        // act
+        iterator.next();
+    }
+
+    @Test
+    public void streamReturnsEveryResult()
+    {
+        // arrange
+        new FakeQuery(numberedElements(100), -1);
+        PrefetchingQueryIterator<Integer> iterator = new PrefetchingQueryIterator<>(createQuery(7), 3, Integer::valueOf);
+
+        // act
+        List<Integer> results = iterator.stream().collect(Collectors.toList());
+
+        // assert
+        assertEquals(100, results.size());
+        assertEquals(Integer.valueOf(99), results.get(99));
+    }
+
+    @Test
+    public void prefetchStopsOnceReadAheadPagesAreBuffered() throws Exception
+    {
+        // arrange
+        FakeQuery fakeQuery = new FakeQuery(numberedElements(100), -1);
+        int pageSize = 5;
+        int readAheadPages = 2;
+
+        // act
+        PrefetchingQueryIterator<Integer> iterator = new PrefetchingQueryIterator<>(createQuery(pageSize), readAheadPages, Integer::valueOf);
+
+        // assert
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLISECONDS;
+        while (fakeQuery.served.get() < pageSize * readAheadPages && System.currentTimeMillis() < deadline)
+        {
+            Thread.sleep(10);
+        }
+        Thread.sleep(100);
+
+        // One more element may have been taken from the query while waiting for room in the buffer
+        assertTrue(fakeQuery.served.get() >= pageSize * readAheadPages);
+        assertTrue(fakeQuery.served.get() <= pageSize * readAheadPages + 1);
+
+        iterator.close();
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void failureIsThrownAfterResultsFetchedBeforeIt()
+    {
+        // arrange
+        new FakeQuery(numberedElements(10), 3);
+        PrefetchingQueryIterator<Integer> iterator = new PrefetchingQueryIterator<>(createQuery(10), 1, Integer::valueOf);
+
+        // act
+        List<Integer> results = new ArrayList<>();
+        QueryIteratorException failure = null;
+        try
+        {
+            while (iterator.hasNext())
+            {
+                results.add(iterator.next());
+            }
+        }
+        catch (QueryIteratorException e)
+        {
+            failure = e;
+        }
+
+        // assert
+        assertEquals(3, results.size());
+        assertNotNull(failure);
+        assertTrue(failure.getCause() instanceof IotHubException);
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void nonStringElementFailsWithIOException()
+    {
+        // arrange
+        List<Object> elements = new ArrayList<>();
+        elements.add(new Object());
+        new FakeQuery(elements, -1);
+        PrefetchingQueryIterator<Integer> iterator = new PrefetchingQueryIterator<>(createQuery(10), 1, Integer::valueOf);
+
+        // act
+        try
+        {
+            iterator.hasNext();
+            fail("Expected the query to fail");
+        }
+        catch (QueryIteratorException e)
+        {
+            // assert
+            assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+
+    @Test
+    public void parserFailureIsThrownAsQueryIteratorException()
+    {
+        // arrange
+        new FakeQuery(numberedElements(5), -1);
+        PrefetchingQueryIterator<Integer> iterator = new PrefetchingQueryIterator<>(createQuery(10), 1, json ->
+        {
+            throw new IOException("unparseable");
+        });
+
+        // act
+        try
+        {
+            iterator.next();
+            fail("Expected the query to fail");
+        }
+        catch (QueryIteratorException e)
+        {
+            // assert
+            assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+}
@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.net.Proxy;
 import java.net.URL;
 import java.util.HashMap;
+import java.util.Map;
 
 import static junit.framework.TestCase.assertEquals;
 import static org.junit.Assert.*;
@@ -319,10 +320,7 @@ public class QueryCollectionTest
         new Verifications()
         {
             {
-                DeviceOperations.setHeaders(expectedValidRequestHeaders);
-                times = 1;
-
-                DeviceOperations.request(mockConnectionString, mockUrl, mockHttpMethod, new byte[0], anyString, anyInt, anyInt, (Proxy) any);
+                DeviceOperations.request(mockConnectionString, mockUrl, mockHttpMethod, new byte[0], anyString, anyInt, anyInt, (Proxy) any, expectedValidRequestHeaders);
                 times = 1;
             }
         };
@@ -370,7 +368,7 @@ public class QueryCollectionTest
         new NonStrictExpectations()
         {
             {
-                DeviceOperations.request(mockConnectionString, mockUrl, mockHttpMethod, (byte[]) any, anyString, anyInt, anyInt, (Proxy) any);
+                DeviceOperations.request(mockConnectionString, mockUrl, mockHttpMethod, (byte[]) any, anyString, anyInt, anyInt, (Proxy) any, (Map<String, String>) any);
                 result = mockHttpResponse;
 
                 mockHttpResponse.getHeaderFields();
@@ -387,10 +385,7 @@ public class QueryCollectionTest
         new Verifications()
         {
             {
-                DeviceOperations.setHeaders(expectedValidRequestHeaders);
-                times = 1;
-
-                DeviceOperations.request(mockConnectionString, mockUrl, mockHttpMethod, new byte[0], anyString, anyInt, anyInt, (Proxy) any);
+                DeviceOperations.request(mockConnectionString, mockUrl, mockHttpMethod, new byte[0], anyString, anyInt, anyInt, (Proxy) any, expectedValidRequestHeaders);
                 times = 1;
             }
         };
@@ -436,7 +431,7 @@ public class QueryCollectionTest
         new Verifications()
         {
             {
-                DeviceOperations.request((IotHubConnectionString) any, (URL) any, (HttpMethod) any, expectedQueryStringBytes, null, anyInt, anyInt, (Proxy) any);
+                DeviceOperations.request((IotHubConnectionString) any, (URL) any, (HttpMethod) any, expectedQueryStringBytes, null, anyInt, anyInt, (Proxy) any, (Map<String, String>) any);
                 times = 1;
             }
         };
@@ -694,10 +689,7 @@ public class QueryCollectionTest
         new Verifications()
         {
             {
-                DeviceOperations.setHeaders(expectedValidRequestHeaders);
-                times = 1;
-
-                DeviceOperations.request(mockConnectionString, (URL) any, mockHttpMethod, (byte[]) any, null, expectedTimeout);
+                DeviceOperations.request(mockConnectionString, (URL) any, mockHttpMethod, (byte[]) any, null, anyInt, anyInt, (Proxy) any, expectedValidRequestHeaders);
                 times = 1;
             }
         };
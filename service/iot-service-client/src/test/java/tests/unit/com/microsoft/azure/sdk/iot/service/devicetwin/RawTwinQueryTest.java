@@ -7,6 +7,7 @@ package tests.unit.com.microsoft.azure.sdk.iot.service.devicetwin;
 
 import com.microsoft.azure.sdk.iot.service.IotHubConnectionString;
 import com.microsoft.azure.sdk.iot.service.IotHubConnectionStringBuilder;
+import com.microsoft.azure.sdk.iot.service.auth.IotHubServiceSasTokenCache;
 import com.microsoft.azure.sdk.iot.service.devicetwin.Query;
 import com.microsoft.azure.sdk.iot.service.devicetwin.QueryType;
 import com.microsoft.azure.sdk.iot.service.devicetwin.RawTwinQuery;
@@ -55,6 +56,25 @@ public class RawTwinQueryTest
         assertNotNull(Deencapsulation.getField(rawTwinQuery, "iotHubConnectionString"));
     }
 
+    @Test
+    public void closeEvictsCachedSasToken(@Mocked final IotHubServiceSasTokenCache mockedSasTokenCache) throws Exception
+    {
+        //arrange
+        RawTwinQuery rawTwinQuery = RawTwinQuery.createFromConnectionString("testString");
+
+        //act
+        rawTwinQuery.close();
+
+        //assert
+        new Verifications()
+        {
+            {
+                IotHubServiceSasTokenCache.evict((IotHubConnectionString) any);
+                times = 1;
+            }
+        };
+    }
+
     //Tests_SRS_RAW_QUERY_25_001: [ The constructor shall throw IllegalArgumentException if the input string is null or empty ]
     @Test (expected = IllegalArgumentException.class)
     public void constructorThrowsOnNullConnectionString() throws IOException
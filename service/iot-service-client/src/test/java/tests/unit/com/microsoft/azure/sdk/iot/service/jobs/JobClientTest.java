@@ -11,6 +11,7 @@ import com.microsoft.azure.sdk.iot.deps.twin.TwinCollection;
 import com.microsoft.azure.sdk.iot.deps.twin.TwinState;
 import com.microsoft.azure.sdk.iot.service.IotHubConnectionString;
 import com.microsoft.azure.sdk.iot.service.IotHubConnectionStringBuilder;
+import com.microsoft.azure.sdk.iot.service.auth.IotHubServiceSasTokenCache;
 import com.microsoft.azure.sdk.iot.service.devicetwin.*;
 import com.microsoft.azure.sdk.iot.service.exceptions.IotHubException;
 import com.microsoft.azure.sdk.iot.service.jobs.JobClient;
@@ -97,6 +98,25 @@ public class JobClientTest
         assertNotNull(testJobClient);
     }
 
+    @Test
+    public void closeEvictsCachedSasToken(@Mocked final IotHubServiceSasTokenCache mockedSasTokenCache) throws Exception
+    {
+        //arrange
+        JobClient testJobClient = JobClient.createFromConnectionString("testString");
+
+        //act
+        testJobClient.close();
+
+        //assert
+        new Verifications()
+        {
+            {
+                IotHubServiceSasTokenCache.evict((IotHubConnectionString) any);
+                times = 1;
+            }
+        };
+    }
+
     /* Tests_SRS_JOBCLIENT_21_001: [The constructor shall throw IllegalArgumentException if the input string is null or empty.] */
     @Test (expected = IllegalArgumentException.class)
     public void constructorThrowsOnNullCS() throws IOException
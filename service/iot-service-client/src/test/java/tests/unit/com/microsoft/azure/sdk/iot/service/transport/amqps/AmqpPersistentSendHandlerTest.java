@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) Microsoft. All rights reserved.
+ * Licensed under the MIT license. See LICENSE file in the project root for full license information.
+ */
+
+package tests.unit.com.microsoft.azure.sdk.iot.service.transport.amqps;
+
+import com.microsoft.azure.sdk.iot.deps.transport.amqp.AmqpDeliveryTags;
+import com.microsoft.azure.sdk.iot.service.IotHubServiceClientProtocol;
+import com.microsoft.azure.sdk.iot.service.exceptions.IotHubNotFoundException;
+import com.microsoft.azure.sdk.iot.service.transport.amqps.AmqpPersistentSendHandler;
+import mockit.Deencapsulation;
+import mockit.Expectations;
+import mockit.Mocked;
+import mockit.Verifications;
+import mockit.integration.junit4.JMockit;
+import org.apache.qpid.proton.Proton;
+import org.apache.qpid.proton.amqp.Symbol;
+import org.apache.qpid.proton.amqp.messaging.Accepted;
+import org.apache.qpid.proton.amqp.messaging.Rejected;
+import org.apache.qpid.proton.amqp.transport.ErrorCondition;
+import org.apache.qpid.proton.engine.Delivery;
+import org.apache.qpid.proton.engine.EndpointState;
+import org.apache.qpid.proton.engine.Event;
+import org.apache.qpid.proton.engine.Sender;
+import org.apache.qpid.proton.message.Message;
+import org.apache.qpid.proton.reactor.Handshaker;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.*;
+
+/** Unit tests for AmqpPersistentSendHandler */
+@RunWith(JMockit.class)
+public class AmqpPersistentSendHandlerTest
+{
+    @Mocked Handshaker handshaker;
+    @Mocked Sender mockedSender;
+    @Mocked Event mockedEvent;
+    @Mocked Delivery mockedDelivery;
+
+    private static AmqpPersistentSendHandler createHandler()
+    {
+        return new AmqpPersistentSendHandler("aaa", "bbb", "ccc", IotHubServiceClientProtocol.AMQPS, null);
+    }
+
+    private static Message createProtonMessage()
+    {
+        Message message = Proton.message();
+        message.setCorrelationId("correlationId");
+        return message;
+    }
+
+    @Test
+    public void sendAsyncQueuesMessageUntilLinkHasCredit()
+    {
+        // Arrange
+        AmqpPersistentSendHandler handler = createHandler();
+
+        // Act
+        CompletableFuture<Void> future = handler.sendAsync(createProtonMessage());
+
+        // Assert
+        assertFalse(future.isDone());
+        assertFalse(handler.isClosed());
+    }
+
+    @Test
+    public void onLinkFlowSendsQueuedMessagesWhileCreditIsAvailable()
+    {
+        // Arrange
+        AmqpPersistentSendHandler handler = createHandler();
+        Deencapsulation.setField(handler, "sender", mockedSender);
+        handler.sendAsync(createProtonMessage());
+        handler.sendAsync(createProtonMessage());
+        handler.sendAsync(createProtonMessage());
+        new Expectations()
+        {
+            {
+                mockedSender.getLocalState();
+                result = EndpointState.ACTIVE;
+                mockedSender.getCredit();
+                returns(2, 1, 0);
+            }
+        };
+
+        // Act
+        handler.onLinkFlow(mockedEvent);
+
+        // Assert
+        new Verifications()
+        {
+            {
+                mockedSender.delivery(AmqpDeliveryTags.toBytes(0));
+                times = 1;
+                mockedSender.delivery(AmqpDeliveryTags.toBytes(1));
+                times = 1;
+                mockedSender.send((byte[]) any, 0, anyInt);
+                times = 2;
+                mockedSender.advance();
+                times = 2;
+            }
+        };
+    }
+
+    @Test
+    public void onDeliveryAcceptedCompletesFuture() throws Exception
+    {
+        // Arrange
+        AmqpPersistentSendHandler handler = createHandler();
+        Deencapsulation.setField(handler, "sender", mockedSender);
+        CompletableFuture<Void> future = handler.sendAsync(createProtonMessage());
+        new Expectations()
+        {
+            {
+                mockedSender.getLocalState();
+                result = EndpointState.ACTIVE;
+                mockedSender.getCredit();
+                returns(1, 0);
+                mockedEvent.getDelivery();
+                result = mockedDelivery;
+                mockedDelivery.remotelySettled();
+                result = true;
+                mockedDelivery.getTag();
+                result = AmqpDeliveryTags.toBytes(0);
+                mockedDelivery.getRemoteState();
+                result = Accepted.getInstance();
+            }
+        };
+        handler.onLinkFlow(mockedEvent);
+
+        // Act
+        handler.onDelivery(mockedEvent);
+
+        // Assert
+        assertTrue(future.isDone());
+        assertNull(future.get());
+        new Verifications()
+        {
+            {
+                mockedDelivery.settle();
+                times = 1;
+            }
+        };
+    }
+
+    @Test
+    public void onDeliveryRejectedCompletesFutureExceptionally() throws Exception
+    {
+        // Arrange
+        AmqpPersistentSendHandler handler = createHandler();
+        Deencapsulation.setField(handler, "sender", mockedSender);
+        CompletableFuture<Void> future = handler.sendAsync(createProtonMessage());
+        final Rejected rejected = new Rejected();
+        rejected.setError(new ErrorCondition(Symbol.getSymbol("amqp:not-found"), "device not found"));
+        new Expectations()
+        {
+            {
+                mockedSender.getLocalState();
+                result = EndpointState.ACTIVE;
+                mockedSender.getCredit();
+                returns(1, 0);
+                mockedEvent.getDelivery();
+                result = mockedDelivery;
+                mockedDelivery.remotelySettled();
+                result = true;
+                mockedDelivery.getTag();
+                result = AmqpDeliveryTags.toBytes(0);
+                mockedDelivery.getRemoteState();
+                result = rejected;
+            }
+        };
+        handler.onLinkFlow(mockedEvent);
+
+        // Act
+        handler.onDelivery(mockedEvent);
+
+        // Assert
+        assertTrue(future.isCompletedExceptionally());
+        try
+        {
+            future.get();
+            fail("Expected the send to fail");
+        }
+        catch (ExecutionException e)
+        {
+            assertTrue(e.getCause() instanceof IotHubNotFoundException);
+        }
+    }
+
+    @Test
+    public void onReactorFinalFailsInFlightAndQueuedMessages() throws Exception
+    {
+        // Arrange
+        AmqpPersistentSendHandler handler = createHandler();
+        Deencapsulation.setField(handler, "sender", mockedSender);
+        CompletableFuture<Void> inFlight = handler.sendAsync(createProtonMessage());
+        CompletableFuture<Void> queued = handler.sendAsync(createProtonMessage());
+        new Expectations()
+        {
+            {
+                mockedSender.getLocalState();
+                result = EndpointState.ACTIVE;
+                mockedSender.getCredit();
+                returns(1, 0);
+            }
+        };
+        handler.onLinkFlow(mockedEvent);
+
+        // Act
+        handler.onReactorFinal(mockedEvent);
+
+        // Assert
+        assertTrue(handler.isClosed());
+        assertTrue(handler.awaitClose(0));
+        assertTrue(inFlight.isCompletedExceptionally());
+        assertTrue(queued.isCompletedExceptionally());
+    }
+
+    @Test
+    public void sendAsyncAfterCloseFailsImmediately()
+    {
+        // Arrange
+        AmqpPersistentSendHandler handler = createHandler();
+        handler.onReactorFinal(mockedEvent);
+
+        // Act
+        CompletableFuture<Void> future = handler.sendAsync(createProtonMessage());
+
+        // Assert
+        assertTrue(future.isCompletedExceptionally());
+    }
+
+    @Test (expected = IOException.class)
+    public void awaitOpenThrowsIfConnectionNeverOpened() throws Exception
+    {
+        // Arrange
+        AmqpPersistentSendHandler handler = createHandler();
+        handler.onReactorFinal(mockedEvent);
+
+        // Act
+        handler.awaitOpen(0);
+    }
+}
@@ -7,11 +7,14 @@ package tests.unit.com.microsoft.azure.sdk.iot.service.transport.amqps;
 
 import com.microsoft.azure.sdk.iot.service.IotHubServiceClientProtocol;
 import com.microsoft.azure.sdk.iot.service.Message;
+import com.microsoft.azure.sdk.iot.service.transport.amqps.AmqpPersistentSendHandler;
 import com.microsoft.azure.sdk.iot.service.transport.amqps.AmqpSend;
 import com.microsoft.azure.sdk.iot.service.transport.amqps.AmqpSendHandler;
+import com.microsoft.azure.sdk.iot.service.transport.amqps.ReactorRunner;
 import mockit.Deencapsulation;
 import mockit.Expectations;
 import mockit.Mocked;
+import mockit.Verifications;
 import mockit.integration.junit4.JMockit;
 import org.apache.qpid.proton.Proton;
 import org.apache.qpid.proton.engine.Connection;
@@ -254,4 +257,88 @@ public class AmqpSendTest
         // Act
         amqpSend.send(deviceId, moduleId, message);
     }
+
+    @Test (expected = IOException.class)
+    public void persistentSend_throwsIOException_when_open_has_not_been_called() throws Exception
+    {
+        // Arrange
+        String hostName = "aaa";
+        String userName = "bbb";
+        String sasToken = "ccc";
+        String deviceId = "deviceId";
+        Message message = new Message("abcdefghijklmnopqrst");
+        AmqpSend amqpSend = new AmqpSend(hostName, userName, sasToken, IotHubServiceClientProtocol.AMQPS, null, true);
+        // Act
+        amqpSend.send(deviceId, null, message);
+    }
+
+    @Test
+    public void persistentSendAsync_queues_message_on_persistent_handler(@Mocked AmqpPersistentSendHandler mockPersistentSendHandler) throws Exception
+    {
+        // Arrange
+        String hostName = "aaa";
+        String userName = "bbb";
+        String sasToken = "ccc";
+        String deviceId = "deviceId";
+        Message message = new Message("abcdefghijklmnopqrst");
+        AmqpSend amqpSend = new AmqpSend(hostName, userName, sasToken, IotHubServiceClientProtocol.AMQPS, null, true);
+        Deencapsulation.setField(amqpSend, "persistentSendHandler", mockPersistentSendHandler);
+        new Expectations()
+        {
+            {
+                mockPersistentSendHandler.isClosed();
+                result = false;
+            }
+        };
+        // Act
+        amqpSend.sendAsync(deviceId, null, message);
+        // Assert
+        new Verifications()
+        {
+            {
+                mockPersistentSendHandler.sendAsync((org.apache.qpid.proton.message.Message) any);
+                times = 1;
+            }
+        };
+    }
+
+    @Test
+    public void persistentOpen_does_not_throw_when_connection_fails_to_open(@Mocked AmqpPersistentSendHandler mockPersistentSendHandler, @Mocked ReactorRunner mockReactorRunner) throws Exception
+    {
+        // Arrange
+        AmqpSend amqpSend = new AmqpSend("aaa", "bbb", "ccc", IotHubServiceClientProtocol.AMQPS, null, true);
+        new Expectations()
+        {
+            {
+                mockPersistentSendHandler.awaitOpen(anyLong);
+                result = new IOException("failed to open");
+            }
+        };
+        // Act
+        amqpSend.open();
+        // Assert
+        new Verifications()
+        {
+            {
+                mockPersistentSendHandler.close();
+                times = 1;
+            }
+        };
+    }
+
+    @Test (expected = IOException.class)
+    public void persistentConnect_throwsIOException_when_connection_fails_to_open(@Mocked AmqpPersistentSendHandler mockPersistentSendHandler, @Mocked ReactorRunner mockReactorRunner) throws Exception
+    {
+        // Arrange
+        AmqpSend amqpSend = new AmqpSend("aaa", "bbb", "ccc", IotHubServiceClientProtocol.AMQPS, null, true);
+        new Expectations()
+        {
+            {
+                mockPersistentSendHandler.awaitOpen(anyLong);
+                result = new IOException("failed to open");
+            }
+        };
+        // Act
+        amqpSend.connect();
+    }
 }
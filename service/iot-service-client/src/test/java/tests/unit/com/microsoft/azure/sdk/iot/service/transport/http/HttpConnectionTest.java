@@ -17,6 +17,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import javax.net.ssl.HttpsURLConnection;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.Proxy;
@@ -868,4 +869,101 @@ public class HttpConnectionTest
         // Act
         conn.getResponseHeaders();
     }
+
+    private void readInputExpectations(final HttpMethod httpsMethod, final byte[] responseBody, final long contentLength) throws IOException
+    {
+        new NonStrictExpectations()
+        {
+            {
+                mockUrl.getProtocol();
+                result = "https";
+                mockUrl.openConnection();
+                result = mockUrlConn;
+                mockUrlConn.getRequestMethod();
+                result = httpsMethod.name();
+                mockUrlConn.getInputStream();
+                result = new ByteArrayInputStream(responseBody);
+                mockUrlConn.getContentLengthLong();
+                result = contentLength;
+            }
+        };
+    }
+
+    private static byte[] createResponseBody(int length)
+    {
+        byte[] responseBody = new byte[length];
+        for (int i = 0; i < length; i++)
+        {
+            responseBody[i] = (byte) i;
+        }
+
+        return responseBody;
+    }
+
+    @Test
+    public void readInputReadsBodyMatchingContentLength() throws IOException
+    {
+        // Arrange
+        final HttpMethod httpsMethod = HttpMethod.GET;
+        final byte[] expectedResponse = createResponseBody(10000);
+        readInputExpectations(httpsMethod, expectedResponse, expectedResponse.length);
+        HttpConnection conn = new HttpConnection(mockUrl, httpsMethod);
+        conn.connect();
+
+        // Act
+        byte[] testResponse = conn.readInput();
+
+        // Assert
+        assertThat(testResponse, is(expectedResponse));
+    }
+
+    @Test
+    public void readInputReadsBodyWithoutContentLength() throws IOException
+    {
+        // Arrange
+        final HttpMethod httpsMethod = HttpMethod.GET;
+        final byte[] expectedResponse = createResponseBody(10000);
+        readInputExpectations(httpsMethod, expectedResponse, -1);
+        HttpConnection conn = new HttpConnection(mockUrl, httpsMethod);
+        conn.connect();
+
+        // Act
+        byte[] testResponse = conn.readInput();
+
+        // Assert
+        assertThat(testResponse, is(expectedResponse));
+    }
+
+    @Test
+    public void readInputReadsWholeBodyIfContentLengthIsTooSmall() throws IOException
+    {
+        // Arrange
+        final HttpMethod httpsMethod = HttpMethod.GET;
+        final byte[] expectedResponse = createResponseBody(10000);
+        readInputExpectations(httpsMethod, expectedResponse, 10);
+        HttpConnection conn = new HttpConnection(mockUrl, httpsMethod);
+        conn.connect();
+
+        // Act
+        byte[] testResponse = conn.readInput();
+
+        // Assert
+        assertThat(testResponse, is(expectedResponse));
+    }
+
+    @Test
+    public void readInputReadsEmptyBody() throws IOException
+    {
+        // Arrange
+        final HttpMethod httpsMethod = HttpMethod.GET;
+        readInputExpectations(httpsMethod, new byte[0], 0);
+        HttpConnection conn = new HttpConnection(mockUrl, httpsMethod);
+        conn.connect();
+
+        // Act
+        byte[] testResponse = conn.readInput();
+
+        // Assert
+        assertThat(testResponse.length, is(0));
+    }
 }
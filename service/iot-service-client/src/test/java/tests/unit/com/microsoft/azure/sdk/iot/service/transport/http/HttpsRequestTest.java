@@ -10,12 +10,16 @@ import com.microsoft.azure.sdk.iot.service.transport.http.HttpConnection;
 import com.microsoft.azure.sdk.iot.service.transport.http.HttpMethod;
 import com.microsoft.azure.sdk.iot.service.transport.http.HttpRequest;
 import com.microsoft.azure.sdk.iot.service.transport.http.HttpResponse;
+import com.microsoft.azure.sdk.iot.service.transport.http.HttpResponseBodyHandler;
 import mockit.*;
 import mockit.integration.junit4.JMockit;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.Proxy;
 import java.net.URL;
 import java.util.HashMap;
@@ -642,4 +646,224 @@ public class HttpsRequestTest
             }
         };
     }
+
+    @Test
+    public void sendWithBodyHandlerStreamsBodyToHandler(@Mocked final HttpConnection mockConn, final @Mocked URL mockUrl) throws IOException
+    {
+        // Arrange
+        final HttpMethod httpsMethod = HttpMethod.GET;
+        final byte[] requestBody = new byte[0];
+        final byte[] responseBody = { 1, 2, 3, 0, 4 };
+        final ByteArrayOutputStream handledBody = new ByteArrayOutputStream();
+        new NonStrictExpectations()
+        {
+            {
+                mockUrl.getProtocol();
+                result = "http";
+                mockConn.getResponseStatus();
+                result = 200;
+                mockConn.getInputStream();
+                result = new ByteArrayInputStream(responseBody);
+            }
+        };
+        HttpRequest request = new HttpRequest(mockUrl, httpsMethod, requestBody);
+
+        // Act
+        HttpResponse response = request.send(new HttpResponseBodyHandler()
+        {
+            @Override
+            public void handle(InputStream body) throws IOException
+            {
+                int nextByte;
+                while ((nextByte = body.read()) != -1)
+                {
+                    handledBody.write(nextByte);
+                }
+            }
+        });
+
+        // Assert
+        assertThat(handledBody.toByteArray(), is(responseBody));
+        assertThat(response.getStatus(), is(200));
+        assertThat(response.getBody().length, is(0));
+        new Verifications()
+        {
+            {
+                mockConn.readInput();
+                times = 0;
+                mockConn.readError();
+                times = 0;
+            }
+        };
+    }
+
+    @Test
+    public void sendWithBodyHandlerStreamsBodyLargerThanReadBuffer(@Mocked final HttpConnection mockConn, final @Mocked URL mockUrl) throws IOException
+    {
+        // Arrange
+        final HttpMethod httpsMethod = HttpMethod.GET;
+        final byte[] requestBody = new byte[0];
+        final byte[] responseBody = new byte[3 * 4096 + 17];
+        for (int i = 0; i < responseBody.length; i++)
+        {
+            responseBody[i] = (byte) (i % 251);
+        }
+        final ByteArrayOutputStream handledBody = new ByteArrayOutputStream();
+        new NonStrictExpectations()
+        {
+            {
+                mockUrl.getProtocol();
+                result = "http";
+                mockConn.getResponseStatus();
+                result = 200;
+                mockConn.getInputStream();
+                result = new ByteArrayInputStream(responseBody);
+            }
+        };
+        HttpRequest request = new HttpRequest(mockUrl, httpsMethod, requestBody);
+
+        // Act
+        request.send(new HttpResponseBodyHandler()
+        {
+            @Override
+            public void handle(InputStream body) throws IOException
+            {
+                byte[] buffer = new byte[1000];
+                int bytesRead;
+                while ((bytesRead = body.read(buffer)) != -1)
+                {
+                    handledBody.write(buffer, 0, bytesRead);
+                }
+            }
+        });
+
+        // Assert
+        assertThat(handledBody.toByteArray(), is(responseBody));
+    }
+
+    @Test
+    public void sendWithBodyHandlerDrainsWhatTheHandlerLeftUnread(@Mocked final HttpConnection mockConn, final @Mocked URL mockUrl) throws IOException
+    {
+        // Arrange
+        final HttpMethod httpsMethod = HttpMethod.GET;
+        final byte[] requestBody = new byte[0];
+        final InputStream responseStream = new ByteArrayInputStream(new byte[2 * 4096]);
+        new NonStrictExpectations()
+        {
+            {
+                mockUrl.getProtocol();
+                result = "http";
+                mockConn.getResponseStatus();
+                result = 200;
+                mockConn.getInputStream();
+                result = responseStream;
+            }
+        };
+        HttpRequest request = new HttpRequest(mockUrl, httpsMethod, requestBody);
+
+        // Act
+        request.send(new HttpResponseBodyHandler()
+        {
+            @Override
+            public void handle(InputStream body) throws IOException
+            {
+                body.read();
+            }
+        });
+
+        // Assert
+        new Verifications()
+        {
+            {
+                Deencapsulation.invoke(HttpConnection.class, "drainInputStream", responseStream);
+                times = 1;
+            }
+        };
+    }
+
+    @Test
+    public void sendWithBodyHandlerReturnsErrorWithoutCallingHandler(@Mocked final HttpConnection mockConn, final @Mocked URL mockUrl) throws IOException
+    {
+        // Arrange
+        final HttpMethod httpsMethod = HttpMethod.GET;
+        final byte[] requestBody = new byte[0];
+        final byte[] errorReason = { 1, 2, 3 };
+        final boolean[] handlerCalled = { false };
+        new NonStrictExpectations()
+        {
+            {
+                mockUrl.getProtocol();
+                result = "http";
+                mockConn.getResponseStatus();
+                result = 404;
+                mockConn.getInputStream();
+                result = new IOException();
+                mockConn.readError();
+                result = errorReason;
+            }
+        };
+        HttpRequest request = new HttpRequest(mockUrl, httpsMethod, requestBody);
+
+        // Act
+        HttpResponse response = request.send(new HttpResponseBodyHandler()
+        {
+            @Override
+            public void handle(InputStream body)
+            {
+                handlerCalled[0] = true;
+            }
+        });
+
+        // Assert
+        assertThat(handlerCalled[0], is(false));
+        assertThat(response.getStatus(), is(404));
+        assertThat(response.getErrorReason(), is(errorReason));
+    }
+
+    @Test (expected = IOException.class)
+    public void sendWithBodyHandlerPropagatesHandlerFailure(@Mocked final HttpConnection mockConn, final @Mocked URL mockUrl) throws IOException
+    {
+        // Arrange
+        final HttpMethod httpsMethod = HttpMethod.GET;
+        final byte[] requestBody = new byte[0];
+        new NonStrictExpectations()
+        {
+            {
+                mockUrl.getProtocol();
+                result = "http";
+                mockConn.getResponseStatus();
+                result = 200;
+                mockConn.getInputStream();
+                result = new ByteArrayInputStream(new byte[] { 1 });
+            }
+        };
+        HttpRequest request = new HttpRequest(mockUrl, httpsMethod, requestBody);
+
+        // Act
+        request.send(new HttpResponseBodyHandler()
+        {
+            @Override
+            public void handle(InputStream body) throws IOException
+            {
+                throw new IOException("malformed body");
+            }
+        });
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void sendWithBodyHandlerThrowsForNullHandler(@Mocked final HttpConnection mockConn, final @Mocked URL mockUrl) throws IOException
+    {
+        // Arrange
+        new NonStrictExpectations()
+        {
+            {
+                mockUrl.getProtocol();
+                result = "http";
+            }
+        };
+        HttpRequest request = new HttpRequest(mockUrl, HttpMethod.GET, new byte[0]);
+
+        // Act
+        request.send(null);
+    }
 }
@@ -10,6 +10,8 @@ import mockit.integration.junit4.JMockit;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -144,4 +146,24 @@ public class HttpsResponseTest
         // Assert
         assertThat(testErrorReason, is(expectedErrorReason));
     }
+
+    @Test
+    public void getBodyAsStreamReturnsBody() throws IOException
+    {
+        // Arrange
+        final int status = 200;
+        final byte[] body = { 1, 2, 3, 4 };
+        final Map<String, List<String>> headerFields = new HashMap<>();
+        byte[] errorReason = {};
+        HttpResponse response = new HttpResponse(status, body, headerFields, errorReason);
+
+        // Act
+        InputStream bodyStream = response.getBodyAsStream();
+
+        // Assert
+        byte[] testBody = new byte[body.length];
+        assertThat(bodyStream.read(testBody), is(body.length));
+        assertThat(testBody, is(body));
+        assertThat(bodyStream.read(), is(-1));
+    }
 }